@@ -37,6 +37,9 @@ public class SecurityConfig {
     @Value("${cors.allowed-headers}")
     private String allowedHeaders;
 
+    @Value("${cors.exposed-headers:}")
+    private String exposedHeaders;
+
     @Value("${cors.allow-credentials}")
     private boolean allowCredentials;
 
@@ -79,6 +82,9 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList(allowedMethods.split(",")));
         configuration.setAllowedHeaders(Arrays.asList(allowedHeaders.split(",")));
+        if (exposedHeaders != null && !exposedHeaders.isBlank()) {
+            configuration.setExposedHeaders(Arrays.asList(exposedHeaders.split(",")));
+        }
         configuration.setAllowCredentials(allowCredentials);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
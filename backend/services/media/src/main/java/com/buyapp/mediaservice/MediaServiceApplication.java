@@ -4,10 +4,12 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @ComponentScan(basePackages = { "com.buyapp.mediaservice", "com.buyapp.common" })
 @EnableMongoRepositories(basePackages = { "com.buyapp.mediaservice.repository", "com.buyapp.common.repository" })
+@EnableScheduling
 public class MediaServiceApplication {
 
     public static void main(String[] args) {
@@ -3,11 +3,16 @@ package com.buyapp.mediaservice.config;
 import com.buyapp.common.dto.ProductDto;
 import com.buyapp.mediaservice.model.Media;
 import com.buyapp.mediaservice.repository.MediaRepository;
+import com.buyapp.mediaservice.service.ContentStore;
+import com.buyapp.mediaservice.service.StoredContent;
+import com.buyapp.mediaservice.service.UploadLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
@@ -17,6 +22,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Configuration
 public class DataInitializer {
@@ -25,14 +31,20 @@ public class DataInitializer {
     
     private final MediaRepository mediaRepository;
     private final WebClient.Builder webClientBuilder;
+    private final ContentStore contentStore;
+    // Seed images are picked up here, and stored sharded under UploadLayout.IMAGES
     private static final String UPLOAD_DIR = "uploads/images/";
     private static final int MAX_RETRIES = 10;
     private static final long RETRY_DELAY_MS = 2000;
     private static final String DEFAULT_CONTENT_TYPE = "image/jpeg";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int PRODUCT_PAGE_SIZE = 100;
 
-    public DataInitializer(MediaRepository mediaRepository, WebClient.Builder webClientBuilder) {
+    public DataInitializer(MediaRepository mediaRepository, WebClient.Builder webClientBuilder,
+            ContentStore contentStore) {
         this.mediaRepository = mediaRepository;
         this.webClientBuilder = webClientBuilder;
+        this.contentStore = contentStore;
     }
 
     @Bean
@@ -118,26 +130,27 @@ public class DataInitializer {
     }
 
     private Media buildMediaEntity(ProductDto product, String imageFileName, Path imagePath) {
+        // Products sharing a seed image share one stored copy, removed with the last of them
+        StoredContent content;
+        try {
+            content = contentStore.store(UploadLayout.IMAGES, new FileSystemResource(imagePath));
+        } catch (IOException e) {
+            logger.warn("Error storing seed image {}: {}", imageFileName, e.getMessage(), e);
+            return null;
+        }
+
         Media media = new Media();
-        media.setImagePath(UPLOAD_DIR + imageFileName);
+        media.setImagePath(content.path());
+        media.setContentHash(content.hash());
         media.setProductId(product.getId());
         media.setFileName(imageFileName);
         media.setContentType(detectContentType(imageFileName));
-        media.setFileSize(getFileSize(imagePath, imageFileName));
+        media.setFileSize(content.size());
         
         logger.debug("Matched image '{}' to product '{}'", imageFileName, product.getName());
         return media;
     }
 
-    private Long getFileSize(Path imagePath, String imageFileName) {
-        try {
-            return Files.size(imagePath);
-        } catch (IOException e) {
-            logger.warn("Error reading file size for {}: {}", imageFileName, e.getMessage(), e);
-            return 0L;
-        }
-    }
-
     private void saveMediaRecords(List<Media> mediaList) {
         if (mediaList.isEmpty()) {
             logger.warn("No media was created. Check if seed images exist in {}", UPLOAD_DIR);
@@ -171,14 +184,31 @@ public class DataInitializer {
         }
     }
 
+    /**
+     * GET /products is paged, so follow the next-page cursor until the
+     * catalog is exhausted.
+     */
     private List<ProductDto> fetchProductsFromService() {
-        return webClientBuilder.build()
-                .get()
-                .uri("http://product-service/products")
-                .retrieve()
-                .bodyToFlux(ProductDto.class)
-                .collectList()
-                .block();
+        WebClient webClient = webClientBuilder.build();
+        List<ProductDto> products = new ArrayList<>();
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            ResponseEntity<List<ProductDto>> page = webClient.get()
+                    .uri("http://product-service/products",
+                            uri -> uri.queryParam("size", PRODUCT_PAGE_SIZE)
+                                    .queryParamIfPresent("cursor", Optional.ofNullable(pageCursor))
+                                    .build())
+                    .retrieve()
+                    .toEntityList(ProductDto.class)
+                    .block();
+            if (page == null || page.getBody() == null) {
+                break;
+            }
+            products.addAll(page.getBody());
+            cursor = page.getHeaders().getFirst(NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+        return products;
     }
 
     private void waitBeforeRetry(int retries) {
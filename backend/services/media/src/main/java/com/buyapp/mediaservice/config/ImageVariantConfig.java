@@ -0,0 +1,30 @@
+package com.buyapp.mediaservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ImageVariantConfig {
+
+    /**
+     * Workers for image variant generation. Bounded in threads and in queued
+     * images, so a burst of uploads cannot exhaust CPU or memory; images that do
+     * not fit are served as originals only.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageVariantExecutor(
+            @Value("${media.variants.workers:2}") int workers,
+            @Value("${media.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-variants-");
+        // Let images being processed finish on shutdown rather than leave their Media without variants
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -2,11 +2,13 @@ package com.buyapp.mediaservice.config;
 
 import com.buyapp.common.event.MediaEvent;
 import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.kafka.ProducerTuning;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
@@ -31,6 +33,12 @@ public class KafkaConfig {
     private String groupId;
 
     // Producer Configuration for MediaEvent
+    @Bean
+    @ConfigurationProperties(prefix = "kafka.producer")
+    public ProducerTuning producerTuning() {
+        return new ProducerTuning();
+    }
+
     @Bean
     @NonNull
     public ProducerFactory<String, MediaEvent> mediaEventProducerFactory() {
@@ -39,6 +47,7 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.putAll(producerTuning().toProducerConfig());
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -0,0 +1,88 @@
+package com.buyapp.mediaservice.config;
+
+import com.buyapp.mediaservice.storage.LocalMediaStorage;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import com.buyapp.mediaservice.storage.S3MediaStorage;
+import com.buyapp.mediaservice.storage.S3StorageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Selects the media storage backend with media.storage.type: local disk
+ * (the default) or an S3-compatible store shared by all replicas.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "media.storage.type", havingValue = "local", matchIfMissing = true)
+    public MediaStorage localMediaStorage(@Value("${media.storage.local.root:.}") String root) {
+        return new LocalMediaStorage(Paths.get(root));
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "media.storage.type", havingValue = "s3")
+    static class S3StorageConfig {
+
+        @Bean
+        @ConfigurationProperties(prefix = "media.storage.s3")
+        public S3StorageProperties s3StorageProperties() {
+            return new S3StorageProperties();
+        }
+
+        @Bean(destroyMethod = "close")
+        public S3Client mediaS3Client(S3StorageProperties properties) {
+            // Pooled keep-alive connections: a file request costs no TCP/TLS handshake
+            ApacheHttpClient.Builder httpClient = ApacheHttpClient.builder()
+                    .maxConnections(properties.getMaxConnections())
+                    .connectionTimeout(Duration.ofMillis(properties.getConnectionTimeoutMs()))
+                    .connectionAcquisitionTimeout(Duration.ofMillis(properties.getConnectionAcquisitionTimeoutMs()))
+                    .socketTimeout(Duration.ofMillis(properties.getSocketTimeoutMs()));
+            S3ClientBuilder builder = S3Client.builder()
+                    .httpClientBuilder(httpClient)
+                    .region(Region.of(properties.getRegion()))
+                    .forcePathStyle(properties.isPathStyleAccess())
+                    .credentialsProvider(credentials(properties));
+            if (StringUtils.hasText(properties.getEndpoint())) {
+                builder.endpointOverride(URI.create(properties.getEndpoint()));
+            }
+            return builder.build();
+        }
+
+        @Bean
+        public MediaStorage s3MediaStorage(S3Client mediaS3Client, S3StorageProperties properties)
+                throws IOException {
+            S3MediaStorage storage = new S3MediaStorage(mediaS3Client, properties.getBucket(),
+                    properties.getPartSize());
+            if (properties.isCreateBucket()) {
+                storage.createBucketIfMissing();
+            }
+            return storage;
+        }
+
+        private static AwsCredentialsProvider credentials(S3StorageProperties properties) {
+            if (StringUtils.hasText(properties.getAccessKey())) {
+                return StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(properties.getAccessKey(), properties.getSecretKey()));
+            }
+            return DefaultCredentialsProvider.builder().build();
+        }
+    }
+}
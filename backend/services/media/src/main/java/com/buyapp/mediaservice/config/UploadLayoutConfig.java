@@ -0,0 +1,45 @@
+package com.buyapp.mediaservice.config;
+
+import com.buyapp.mediaservice.service.UploadLayoutMigration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class UploadLayoutConfig {
+
+    /**
+     * Move files stored in flat upload directories into the sharded layout.
+     * Runs in the background: the service keeps serving, from the old paths
+     * until each document is rewritten. Instances started with the migration
+     * enabled take turns through a lock, so only one of them migrates.
+     */
+    @Bean
+    CommandLineRunner migrateUploadLayout(UploadLayoutMigration migration,
+            @Qualifier("uploadLayoutMigrationExecutor") TaskExecutor executor,
+            @Value("${media.storage.migrate-layout:false}") boolean enabled) {
+        return args -> {
+            if (enabled) {
+                executor.execute(migration::migrate);
+            }
+        };
+    }
+
+    /**
+     * Runs the migration. On shutdown the run is interrupted and stops after
+     * the current batch; the next run picks up where it left off.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadLayoutMigrationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("upload-layout-migration-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+}
@@ -1,12 +1,10 @@
 package com.buyapp.mediaservice.controller;
 
-import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.mediaservice.model.Avatar;
 import com.buyapp.mediaservice.service.AvatarService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -14,12 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 
 @RestController
@@ -27,9 +20,11 @@ import java.util.Optional;
 public class AvatarController {
 
     private final AvatarService avatarService;
+    private final MediaStorage storage;
 
-    public AvatarController(AvatarService avatarService) {
+    public AvatarController(AvatarService avatarService, MediaStorage storage) {
         this.avatarService = avatarService;
+        this.storage = storage;
     }
 
     /**
@@ -56,33 +51,15 @@ public class AvatarController {
     }
 
     /**
-     * Get avatar image file by avatar ID (public endpoint)
+     * Get avatar image file by avatar ID (public endpoint).
+     * A new avatar gets a new ID, so the file behind an ID never changes.
      */
     @GetMapping("/file/{id}")
-    public ResponseEntity<Resource> getAvatarFile(@PathVariable String id) {
-        try {
-            Avatar avatar = avatarService.getAvatarById(id);
-            Path filePath = Paths.get(avatar.getImagePath());
-            URI uri = Objects.requireNonNull(filePath.toUri(), 
-                    "Invalid file path: " + avatar.getImagePath());
-            Resource resource = new UrlResource(uri);
-
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + avatar.getFileName() + "\"")
-                        .body(resource);
-            } else {
-                throw new ResourceNotFoundException("File not found: " + avatar.getFileName());
-            }
-        } catch (IOException e) {
-            throw new ResourceNotFoundException("File not found: " + e.getMessage());
-        }
+    public void getAvatarFile(@PathVariable String id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Avatar avatar = avatarService.getAvatarById(id);
+        StoredFileResponder.respond(request, response, avatar.getId(), storage, avatar.getImagePath(),
+                avatar.getContentType(), avatar.getFileName());
     }
 
     /**
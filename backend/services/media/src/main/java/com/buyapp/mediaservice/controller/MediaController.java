@@ -1,12 +1,13 @@
 package com.buyapp.mediaservice.controller;
 
-import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.model.MediaVariant;
 import com.buyapp.mediaservice.service.MediaService;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -14,24 +15,25 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 @RestController
 @RequestMapping("/media")
 public class MediaController {
 
     private static final String MESSAGE_KEY = "message";
+    private static final CacheControl VARIANT_PENDING = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+    // Not immutable: the original stands in for a width that a variant may serve later
+    private static final CacheControl VARIANT_MISSING = CacheControl.maxAge(Duration.ofDays(1)).cachePublic();
 
     private final MediaService mediaService;
+    private final MediaStorage storage;
 
-    public MediaController(MediaService mediaService) {
+    public MediaController(MediaService mediaService, MediaStorage storage) {
         this.mediaService = mediaService;
+        this.storage = storage;
     }
 
     @PostMapping("/upload/{productId}")
@@ -51,30 +53,32 @@ public class MediaController {
         return ResponseEntity.ok(mediaList);
     }
 
+    /**
+     * Serve an image, with caching, conditional and range request support
+     * (see StoredFileResponder).
+     * With w, the narrowest variant at least w pixels wide is served instead.
+     * The original stands in until variants exist, cached only briefly since
+     * the same URL will then serve the variant, and where there is no variant
+     * that wide, cached for a day but not as immutable.
+     */
     @GetMapping("/file/{id}")
-    public ResponseEntity<Resource> getMediaFile(@PathVariable String id) {
-        try {
-            Media media = mediaService.getMediaById(id);
-            Path filePath = Paths.get(media.getImagePath());
-            URI uri = Objects.requireNonNull(filePath.toUri(), 
-                    "Invalid file path: " + media.getImagePath());
-            Resource resource = new UrlResource(uri);
-
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + media.getFileName() + "\"")
-                        .body(resource);
-            } else {
-                throw new ResourceNotFoundException("File not found: " + media.getFileName());
-            }
-        } catch (IOException e) {
-            throw new ResourceNotFoundException("File not found: " + e.getMessage());
+    public void getMediaFile(@PathVariable String id, @RequestParam(required = false) Integer w,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (w != null && w < 1) {
+            throw new BadRequestException("Width must be positive");
+        }
+        Media media = mediaService.getMediaById(id);
+        MediaVariant variant = w != null ? media.variantFor(w) : null;
+        if (variant != null) {
+            StoredFileResponder.respond(request, response, media.getId() + "-w" + variant.getWidth(),
+                    storage, variant.getImagePath(), variant.getContentType(), media.getFileName());
+        } else if (w != null) {
+            StoredFileResponder.respond(request, response, media.getId(), storage, media.getImagePath(),
+                    media.getContentType(), media.getFileName(),
+                    media.getVariants() == null ? VARIANT_PENDING : VARIANT_MISSING);
+        } else {
+            StoredFileResponder.respond(request, response, media.getId(), storage, media.getImagePath(),
+                    media.getContentType(), media.getFileName());
         }
     }
 
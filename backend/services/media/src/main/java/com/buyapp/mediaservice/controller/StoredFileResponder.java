@@ -0,0 +1,166 @@
+package com.buyapp.mediaservice.controller;
+
+import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import com.buyapp.mediaservice.storage.StoredObject;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Writes stored image files to the response.
+ *
+ * Files are never rewritten in place: an upload always gets a new id and so a
+ * new URL. Responses may therefore be cached for a year as immutable, and the
+ * strong ETag and Last-Modified only matter to clients revalidating anyway.
+ * A single byte range is honoured (206/416); several ranges get the whole file.
+ *
+ * A file on local disk goes out through Tomcat's sendfile when the connector
+ * supports it, so the bytes move from the page cache to the socket without
+ * passing through the JVM; otherwise through FileChannel.transferTo. Other
+ * storage is streamed, reading only the range asked for.
+ */
+final class StoredFileResponder {
+
+    static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
+    // Tomcat request attributes for sendfile (org.apache.coyote.Constants)
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private StoredFileResponder() {
+    }
+
+    /**
+     * @param id          id of the stored file, part of its ETag
+     * @param key         the file's key in storage, i.e. its recorded imagePath
+     * @param contentType as recorded at upload, so nothing is probed per
+     *                    request; when missing it is derived from the file name
+     */
+    static void respond(HttpServletRequest request, HttpServletResponse response, String id,
+            MediaStorage storage, String key, String contentType, String fileName) throws IOException {
+        respond(request, response, id, storage, key, contentType, fileName, IMMUTABLE);
+    }
+
+    /**
+     * As above, for a URL whose content may still change, e.g. an original
+     * standing in for a variant not generated yet.
+     */
+    static void respond(HttpServletRequest request, HttpServletResponse response, String id,
+            MediaStorage storage, String key, String contentType, String fileName, CacheControl cacheControl)
+            throws IOException {
+        StoredObject stored;
+        try {
+            stored = storage.stat(key);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundException("File not found: " + fileName);
+        }
+        long length = stored.size();
+        long lastModified = stored.lastModified();
+        String etag = "\"" + id + "-" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // Sets ETag and Last-Modified, and the 304 (or 412) status when the client's copy is current
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setContentType(StringUtils.hasText(contentType) ? contentType
+                : MediaTypeFactory.getMediaType(fileName).orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        long start = 0;
+        long end = length; // exclusive
+        HttpRange range = requestedRange(request, etag, lastModified);
+        if (range != null) {
+            if (length == 0 || range.getRangeStart(length) >= length) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setContentLength(0);
+                return;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+        response.setContentLengthLong(end - start);
+
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+        Path file = storage.localFile(key);
+        if (file == null) {
+            try (InputStream content = storage.read(key, start, end - start)) {
+                content.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // The single range asked for, or null for the whole file
+    private static HttpRange requestedRange(HttpServletRequest request, String etag, long lastModified) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null || !ifRangeMatches(request.getHeader(HttpHeaders.IF_RANGE), etag, lastModified)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null; // Malformed: serve the whole file, as RFC 9110 allows
+        }
+    }
+
+    // If-Range holds either a strong ETag or an HTTP date
+    private static boolean ifRangeMatches(String ifRange, String etag, long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.IF_RANGE, ifRange);
+            return headers.getFirstDate(HttpHeaders.IF_RANGE) == lastModified / 1000 * 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
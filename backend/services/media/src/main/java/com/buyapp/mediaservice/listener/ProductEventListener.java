@@ -42,6 +42,10 @@ public class ProductEventListener {
                     // Future: Update metadata or thumbnails if needed
                     break;
 
+                case PRODUCT_STOCK_CHANGED:
+                    // Stock does not concern media
+                    break;
+
                 default:
                     log.warn("Unknown product event type: {}", event.getEventType());
             }
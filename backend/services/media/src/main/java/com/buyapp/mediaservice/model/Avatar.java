@@ -27,4 +27,7 @@ public class Avatar {
     private String fileName;
     private String contentType;
     private Long fileSize;
+
+    // SHA-256 of the file in the ContentStore; null for files stored before content addressing
+    private String contentHash;
 }
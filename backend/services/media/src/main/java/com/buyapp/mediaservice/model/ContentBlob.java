@@ -0,0 +1,32 @@
+package com.buyapp.mediaservice.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A stored file, keyed by the SHA-256 of its content, and the number of
+ * media, avatars and variants referencing it. The file is removed when the
+ * last reference goes. A blob is only handed out once its file is stored.
+ */
+@Document(collection = "content_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContentBlob {
+    // Hex SHA-256 of the content
+    @Id
+    private String id;
+
+    private String path;
+    private long size;
+    private int refCount;
+    private LocalDateTime createdAt;
+    // False until the file has been written; blobs from before this flag have it null and their file
+    private Boolean stored;
+}
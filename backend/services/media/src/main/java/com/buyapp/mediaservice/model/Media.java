@@ -1,6 +1,11 @@
 package com.buyapp.mediaservice.model;
 
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -23,9 +28,35 @@ public class Media {
 
     @NotNull(message = "Product ID can't be null")
     @Field("productId")
+    @Indexed
     private String productId;
 
     private String fileName;
     private String contentType;
     private Long fileSize;
+
+    // SHA-256 of the file in the ContentStore; null for files stored before content addressing
+    @Indexed
+    private String contentHash;
+
+    // Downscaled copies, narrowest first; null until generation has finished
+    private List<MediaVariant> variants;
+
+    // When the variant backfill last queued this image
+    private Instant variantsClaimedAt;
+
+    /**
+     * The narrowest variant at least width pixels wide, or null when the
+     * original should be served: variants not generated (yet), or none wide
+     * enough.
+     */
+    public MediaVariant variantFor(int width) {
+        if (variants == null) {
+            return null;
+        }
+        return variants.stream()
+                .filter(variant -> variant.getWidth() >= width)
+                .min(Comparator.comparingInt(MediaVariant::getWidth))
+                .orElse(null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.buyapp.mediaservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A downscaled copy of a product image, generated after upload.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaVariant {
+    private int width;
+    private int height;
+    private String imagePath;
+    private String contentType;
+    private long fileSize;
+    private String contentHash;
+}
@@ -6,6 +6,7 @@ import com.buyapp.common.exception.ForbiddenException;
 import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.mediaservice.model.Avatar;
 import com.buyapp.mediaservice.repository.AvatarRepository;
+import com.buyapp.mediaservice.storage.MediaStorage;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,39 +14,28 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 public class AvatarService {
 
     private final AvatarRepository avatarRepository;
     private final WebClient.Builder webClientBuilder;
+    private final ContentStore contentStore;
+    private final MediaStorage storage;
 
-    private static final String AVATAR_UPLOAD_DIR = "uploads/avatars/";
     private static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
     private static final String[] ALLOWED_CONTENT_TYPES = {
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     };
 
-    public AvatarService(AvatarRepository avatarRepository, WebClient.Builder webClientBuilder) {
+    public AvatarService(AvatarRepository avatarRepository, WebClient.Builder webClientBuilder,
+            ContentStore contentStore, MediaStorage storage) {
         this.avatarRepository = avatarRepository;
         this.webClientBuilder = webClientBuilder;
-        
-        // Create upload directory if it doesn't exist
-        try {
-            Path uploadPath = Paths.get(AVATAR_UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            throw new BadRequestException("Could not create avatar upload directory: " + e.getMessage());
-        }
+        this.contentStore = contentStore;
+        this.storage = storage;
     }
 
     @Transactional
@@ -69,39 +59,45 @@ public class AvatarService {
         if (existingAvatarOptional.isPresent()) {
             Avatar existingAvatar = Objects.requireNonNull(existingAvatarOptional.get(), 
                     "Avatar should not be null after isPresent check");
-            deleteAvatarFile(existingAvatar.getImagePath());
+            deleteAvatarFile(existingAvatar);
             avatarRepository.delete(existingAvatar);
         }
 
+        // Generate unique filename
+        // Note: validateFile() already ensures filename is not null, but we add explicit check for compiler
+        String originalFilename = Objects.requireNonNull(file.getOriginalFilename(), 
+                "Filename cannot be null after validation");
+
+        StoredContent content;
         try {
-            // Generate unique filename
-            // Note: validateFile() already ensures filename is not null, but we add explicit check for compiler
-            String originalFilename = Objects.requireNonNull(file.getOriginalFilename(), 
-                    "Filename cannot be null after validation");
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            // Save file to disk
-            Path targetLocation = Paths.get(AVATAR_UPLOAD_DIR + uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            // Create avatar entity
-            Avatar avatar = new Avatar();
-            avatar.setImagePath(AVATAR_UPLOAD_DIR + uniqueFilename);
-            avatar.setUserId(currentUser.getId());
-            avatar.setFileName(originalFilename);
-            avatar.setContentType(file.getContentType());
-            avatar.setFileSize(file.getSize());
-
-            Avatar saved = avatarRepository.save(avatar);
-
-            // Update user's avatar field in User Service
-            updateUserAvatar(currentUser.getId(), saved.getId());
-
-            return saved;
+            // Save file to disk, unless the same image is stored already
+            content = contentStore.store(UploadLayout.AVATARS, file);
         } catch (IOException e) {
             throw new BadRequestException("Could not store avatar file: " + e.getMessage());
         }
+
+        // Create avatar entity
+        Avatar avatar = new Avatar();
+        avatar.setImagePath(content.path());
+        avatar.setContentHash(content.hash());
+        avatar.setUserId(currentUser.getId());
+        avatar.setFileName(originalFilename);
+        avatar.setContentType(file.getContentType());
+        avatar.setFileSize(file.getSize());
+
+        Avatar saved;
+        try {
+            saved = avatarRepository.save(avatar);
+        } catch (RuntimeException e) {
+            // Nothing references the content: drop it rather than keep it forever
+            contentStore.release(content.hash());
+            throw e;
+        }
+
+        // Update user's avatar field in User Service
+        updateUserAvatar(currentUser.getId(), saved.getId());
+
+        return saved;
     }
 
     public Avatar getAvatarByUserId(String userId) {
@@ -136,7 +132,7 @@ public class AvatarService {
                 "Avatar should not be null after isEmpty check");
 
         // Delete file from disk
-        deleteAvatarFile(avatar.getImagePath());
+        deleteAvatarFile(avatar);
 
         // Delete from database
         avatarRepository.delete(avatar);
@@ -145,10 +141,14 @@ public class AvatarService {
         updateUserAvatar(currentUser.getId(), null);
     }
 
-    private void deleteAvatarFile(String imagePath) {
+    private void deleteAvatarFile(Avatar avatar) {
+        if (avatar.getContentHash() != null) {
+            contentStore.release(avatar.getContentHash());
+            return;
+        }
+        String imagePath = avatar.getImagePath();
         try {
-            Path filePath = Paths.get(imagePath);
-            Files.deleteIfExists(filePath);
+            storage.delete(imagePath);
         } catch (IOException e) {
             System.err.println("Could not delete avatar file: " + imagePath + " - " + e.getMessage());
         }
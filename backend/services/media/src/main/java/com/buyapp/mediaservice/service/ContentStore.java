@@ -0,0 +1,214 @@
+package com.buyapp.mediaservice.service;
+
+import com.buyapp.mediaservice.model.ContentBlob;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Content-addressed file storage: each distinct content is stored once,
+ * named by its SHA-256 in the {@link UploadLayout}, and reference counted in
+ * {@link ContentBlob}. The bytes are kept in the {@link MediaStorage}.
+ *
+ * Storing content that is already there costs a hash and a counter update,
+ * no disk write. A blob counts as there once its file is stored: until then,
+ * a second uploader of the same content writes the file too rather than
+ * referencing one that may never arrive. Releasing the last reference removes the file. A file being
+ * removed while the same content is stored again is moved aside first and
+ * put back if the blob turned out to be referenced again, so no reference is
+ * ever left without its file.
+ */
+@Service
+public class ContentStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentStore.class);
+
+    private static final FindAndModifyOptions UPSERT = FindAndModifyOptions.options().upsert(true);
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final MediaStorage storage;
+
+    public ContentStore(MongoTemplate mongoTemplate, MediaStorage storage) {
+        this.mongoTemplate = mongoTemplate;
+        this.storage = storage;
+    }
+
+    /**
+     * Add a reference to the content, writing it into directory if it is not
+     * stored yet. The source is read twice when it is written.
+     */
+    public StoredContent store(Path directory, InputStreamSource source) throws IOException {
+        return store(directory, source, target -> {
+            try (InputStream content = source.getInputStream()) {
+                storage.write(target, content);
+            }
+        });
+    }
+
+    /**
+     * As {@link #store}, for a local file of the caller's that is moved into
+     * storage rather than copied. The file is gone afterwards either way.
+     */
+    public StoredContent storeFile(Path directory, Path file) throws IOException {
+        try {
+            return store(directory, new FileSystemResource(file), target -> storage.moveIn(target, file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Add a reference to content that is already stored.
+     * @return false, with nothing changed, if its last reference has gone or
+     *         its file is not stored yet
+     */
+    public boolean retain(String hash) {
+        Query query = Query.query(Criteria.where("_id").is(hash).and("refCount").gt(0).and("stored").ne(false));
+        return mongoTemplate.updateFirst(query, new Update().inc("refCount", 1), ContentBlob.class)
+                .getMatchedCount() > 0;
+    }
+
+    /**
+     * Drop a reference, removing the file with the last one.
+     */
+    public void release(String hash) {
+        ContentBlob blob = mongoTemplate.findAndModify(byId(hash), new Update().inc("refCount", -1), RETURN_NEW,
+                ContentBlob.class);
+        if (blob == null) {
+            logger.warn("Released unknown content {}", hash);
+        } else if (blob.getRefCount() <= 0) {
+            collect(blob);
+        }
+    }
+
+    /**
+     * Give content stored before the {@link UploadLayout} existed its sharded
+     * location. The file is copied there (hard linked on local disk); the old
+     * name stays valid for readers that still have it, and is up to the
+     * caller to delete.
+     * @return the file's path from now on; null if the content is gone
+     */
+    public String relocate(String hash) throws IOException {
+        ContentBlob blob = mongoTemplate.findById(hash, ContentBlob.class);
+        if (blob == null || UploadLayout.isSharded(Paths.get(blob.getPath()))) {
+            return blob != null ? blob.getPath() : null;
+        }
+        String target = UploadLayout.locate(Paths.get(blob.getPath()).getParent(), hash).toString();
+        storage.copy(blob.getPath(), target);
+
+        Query unchanged = Query.query(Criteria.where("_id").is(hash).and("path").is(blob.getPath()));
+        if (mongoTemplate.updateFirst(unchanged, Update.update("path", target), ContentBlob.class)
+                .getMatchedCount() > 0) {
+            return target;
+        }
+        // Released meanwhile, or relocated by someone else
+        ContentBlob now = mongoTemplate.findById(hash, ContentBlob.class);
+        if (now == null) {
+            storage.delete(target);
+            return null;
+        }
+        return now.getPath();
+    }
+
+    private StoredContent store(Path directory, InputStreamSource source, Placement placement) throws IOException {
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (InputStream input = source.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            for (int read; (read = input.read(buffer)) != -1; size += read) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        Update update = new Update()
+                .inc("refCount", 1)
+                .setOnInsert("path", UploadLayout.locate(directory, hash).toString())
+                .setOnInsert("size", size)
+                .setOnInsert("createdAt", LocalDateTime.now())
+                .setOnInsert("stored", false);
+        ContentBlob previous = mongoTemplate.findAndModify(byId(hash), update, UPSERT, ContentBlob.class);
+        if (previous != null && previous.getRefCount() > 0 && !Boolean.FALSE.equals(previous.getStored())) {
+            return new StoredContent(hash, previous.getPath(), size, false);
+        }
+
+        // New, its file may be on the way out, or another uploader has not finished writing it (and may
+        // never): (re)write it. The same bytes under the same name, and writes replace the file atomically
+        String target = previous != null ? previous.getPath() : UploadLayout.locate(directory, hash).toString();
+        try {
+            placement.place(target);
+        } catch (IOException | RuntimeException e) {
+            release(hash);
+            throw e;
+        }
+        mongoTemplate.updateFirst(byId(hash), Update.update("stored", true), ContentBlob.class);
+        return new StoredContent(hash, target, size, true);
+    }
+
+    private void collect(ContentBlob blob) {
+        String path = blob.getPath();
+        String aside = path + "." + UUID.randomUUID() + ".deleted";
+        try {
+            storage.move(path, aside);
+        } catch (NoSuchFileException e) {
+            aside = null;
+        } catch (IOException e) {
+            logger.error("Could not remove content file: {} - {}", path, e.getMessage());
+            return;
+        }
+
+        Query unreferenced = Query.query(Criteria.where("_id").is(blob.getId()).and("refCount").lte(0));
+        boolean removed = mongoTemplate.remove(unreferenced, ContentBlob.class).getDeletedCount() > 0;
+        if (aside == null) {
+            return;
+        }
+        try {
+            if (removed) {
+                storage.delete(aside);
+            } else {
+                // Stored again meanwhile; the same bytes, so replacing a rewritten file is harmless
+                storage.move(aside, path);
+            }
+        } catch (IOException e) {
+            logger.error("Could not remove content file: {} - {}", aside, e.getMessage());
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Query byId(String hash) {
+        return Query.query(Criteria.where("_id").is(hash));
+    }
+
+    @FunctionalInterface
+    private interface Placement {
+        void place(String key) throws IOException;
+    }
+}
@@ -0,0 +1,314 @@
+package com.buyapp.mediaservice.service;
+
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.model.MediaVariant;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.bson.types.ObjectId;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Generates downscaled variants of product images after upload, so listings
+ * and cards need not download 2MB originals.
+ *
+ * Variants are JPEG, or PNG when the image has transparency, kept in the
+ * ContentStore next to the original. They are recorded on the Media document
+ * in one update once all are written; until then the original is served for
+ * every width. An image uploaded again reuses the variants already made.
+ *
+ * An image that cannot be decoded is recorded with no variants, for good.
+ * Images left without variants, because the queue was full, the service
+ * stopped before their turn or generating them failed otherwise, are picked
+ * up again by a periodic backfill.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentStore contentStore;
+    private final MediaStorage storage;
+    private final TaskExecutor executor;
+
+    @Value("${media.variants.widths:128,256,512,1024}")
+    private int[] widths = {128, 256, 512, 1024};
+
+    @Value("${media.variants.jpeg-quality:0.82}")
+    private float jpegQuality = 0.82f;
+
+    // Refuse to decode larger images: a small, highly compressed file can expand to gigabytes
+    @Value("${media.variants.max-pixels:40000000}")
+    private long maxPixels = 40_000_000L;
+
+    // Images uploaded more recently are presumably still queued from the upload
+    @Value("${media.variants.backfill-grace:10m}")
+    private Duration backfillGrace = Duration.ofMinutes(10);
+
+    @Value("${media.variants.backfill-batch:20}")
+    private int backfillBatch = 20;
+
+    public ImageVariantService(MongoTemplate mongoTemplate, ContentStore contentStore, MediaStorage storage,
+            @Qualifier("imageVariantExecutor") TaskExecutor executor) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentStore = contentStore;
+        this.storage = storage;
+        this.executor = executor;
+    }
+
+    /**
+     * Queue variant generation for a newly uploaded image.
+     */
+    public void generateVariantsAsync(Media media) {
+        try {
+            executor.execute(() -> generateVariants(media));
+        } catch (TaskRejectedException e) {
+            logger.warn("Image variant queue full, media {} is left to the backfill", media.getId());
+        }
+    }
+
+    /**
+     * Queue variant generation for images that still have none, oldest first.
+     * Each image is claimed with a timestamp so that replicas running the
+     * sweep at once do not queue it twice; a claim older than the grace
+     * period is taken to be lost and the image claimed again.
+     */
+    @Scheduled(fixedDelayString = "${media.variants.backfill-interval:5m}")
+    public void backfillVariants() {
+        Instant now = Instant.now();
+        Instant claimExpired = now.minus(backfillGrace);
+        Query pending = Query.query(Criteria.where("variants").is(null)
+                .and("_id").lt(new ObjectId(Date.from(claimExpired)))
+                .orOperator(Criteria.where("variantsClaimedAt").exists(false),
+                        Criteria.where("variantsClaimedAt").lt(claimExpired)))
+                .with(Sort.by(Sort.Direction.ASC, "_id"));
+        int queued = 0;
+        while (queued < backfillBatch) {
+            Media media = mongoTemplate.findAndModify(pending, Update.update("variantsClaimedAt", now), Media.class);
+            if (media == null) {
+                break;
+            }
+            try {
+                executor.execute(() -> generateVariants(media));
+            } catch (TaskRejectedException e) {
+                // Uploads have the queue; the claim lapses and the next sweep tries again
+                break;
+            }
+            queued++;
+        }
+        if (queued > 0) {
+            logger.info("Queued variant generation for {} images left without variants", queued);
+        }
+    }
+
+    void generateVariants(Media media) {
+        List<MediaVariant> variants = reuseVariants(media);
+        if (variants == null) {
+            try {
+                variants = writeVariants(media.getImagePath());
+            } catch (IOException | RuntimeException e) {
+                // Not the image's fault: left without variants, the backfill tries again once its grace is over
+                logger.warn("Could not generate variants for media {}, will retry: {}", media.getId(),
+                        e.getMessage());
+                return;
+            }
+        }
+        recordVariants(media.getId(), variants);
+    }
+
+    // Same content uploaded before: take references to its variants instead of resizing again
+    private List<MediaVariant> reuseVariants(Media media) {
+        if (media.getContentHash() == null) {
+            return null;
+        }
+        Query query = Query.query(Criteria.where("contentHash").is(media.getContentHash())
+                .and("_id").ne(media.getId())
+                .and("variants.0").exists(true));
+        query.fields().include("variants");
+        Media existing = mongoTemplate.findOne(query, Media.class);
+        if (existing == null) {
+            return null;
+        }
+        List<MediaVariant> retained = new ArrayList<>();
+        for (MediaVariant variant : existing.getVariants()) {
+            if (variant.getContentHash() == null || !contentStore.retain(variant.getContentHash())) {
+                deleteFiles(retained);
+                return null;
+            }
+            retained.add(variant);
+        }
+        return retained;
+    }
+
+    private void recordVariants(String mediaId, List<MediaVariant> variants) {
+        Query query = Query.query(Criteria.where("_id").is(mediaId).and("variants").is(null));
+        if (mongoTemplate.updateFirst(query, Update.update("variants", variants), Media.class).getMatchedCount() == 0) {
+            // Deleted while processing, or generated twice: nothing will ever reference these variants
+            deleteFiles(variants);
+        }
+    }
+
+    /**
+     * Write a variant for every configured width below the image's own.
+     * @return the variants written, narrowest first; empty if the image cannot be decoded
+     * @throws IOException if the original could not be read or a variant stored
+     */
+    List<MediaVariant> writeVariants(String original) throws IOException {
+        BufferedImage image = read(original);
+        if (image == null) {
+            return List.of();
+        }
+        boolean alpha = image.getColorModel().hasAlpha();
+        String extension = alpha ? "png" : "jpg";
+        Path root = UploadLayout.rootOf(Paths.get(original));
+
+        List<MediaVariant> variants = new ArrayList<>();
+        int[] sortedWidths = Arrays.stream(widths).sorted().distinct().toArray();
+        try {
+            for (int width : sortedWidths) {
+                if (width >= image.getWidth()) {
+                    break;
+                }
+                int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+                BufferedImage scaled = scale(image, width, height, alpha);
+                Path temp = Files.createTempFile("variant-", "." + extension);
+                if (alpha) {
+                    ImageIO.write(scaled, "png", temp.toFile());
+                } else {
+                    writeJpeg(scaled, temp);
+                }
+                StoredContent content = contentStore.storeFile(root, temp);
+                variants.add(new MediaVariant(width, height, content.path(),
+                        alpha ? "image/png" : "image/jpeg", content.size(), content.hash()));
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteFiles(variants);
+            throw e;
+        }
+        return variants;
+    }
+
+    /**
+     * Drop the references to the variants' content; files stored before
+     * content addressing are deleted directly.
+     */
+    public void deleteFiles(List<MediaVariant> variants) {
+        if (variants == null) {
+            return;
+        }
+        for (MediaVariant variant : variants) {
+            if (variant.getContentHash() != null) {
+                contentStore.release(variant.getContentHash());
+                continue;
+            }
+            try {
+                storage.delete(variant.getImagePath());
+            } catch (IOException e) {
+                logger.error("Could not delete variant file: {} - {}", variant.getImagePath(), e.getMessage());
+            }
+        }
+    }
+
+    // Null if the image cannot be decoded. Only reading the original throws: that may work another time
+    private BufferedImage read(String original) throws IOException {
+        byte[] bytes;
+        try (InputStream content = storage.read(original)) {
+            bytes = content.readAllBytes(); // Uploads are at most 2MB
+        }
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null; // e.g. WebP: no decoder in the JDK
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    logger.warn("Image too large to process: {} is {}x{}", original, reader.getWidth(0),
+                            reader.getHeight(0));
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // Nothing but the bytes in memory is read here: the image itself is broken
+            logger.warn("Could not decode image {}: {}", original, e.getMessage());
+            return null;
+        }
+    }
+
+    // Halve while more than twice too large, then one bilinear step: close to area averaging, far cheaper
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width) {
+            current = draw(current, current.getWidth() / 2, Math.max(height, current.getHeight() / 2), alpha);
+        }
+        return draw(current, width, height, alpha);
+    }
+
+    private static BufferedImage draw(BufferedImage source, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        Files.deleteIfExists(target); // The stream overwrites in place without truncating
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -27,8 +27,6 @@ public class MediaEventProducer {
     }
 
     public void sendMediaEvent(MediaEvent event) {
-        logger.info("Sending media event: {}", event);
-
         String mediaId = Objects.requireNonNull(event.getMediaId(), "Media ID cannot be null");
         String topic = mediaEventsTopic != null ? mediaEventsTopic : "media-events";
         CompletableFuture<SendResult<String, MediaEvent>> future = kafkaTemplate.send(topic,
@@ -36,7 +34,7 @@ public class MediaEventProducer {
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
-                logger.info("Successfully sent media event [{}] with offset=[{}]",
+                logger.debug("Sent media event [{}] with offset=[{}]",
                         event.getEventType(), result.getRecordMetadata().offset());
             } else {
                 logger.error("Failed to send media event [{}]: {}",
@@ -8,9 +8,13 @@ import com.buyapp.common.exception.ForbiddenException;
 import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.mediaservice.model.Media;
 import com.buyapp.mediaservice.repository.MediaRepository;
+import com.buyapp.mediaservice.storage.MediaStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,12 +22,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 public class MediaService {
@@ -39,7 +38,18 @@ public class MediaService {
     @Autowired
     private MediaEventProducer mediaEventProducer;
 
-    private static final String UPLOAD_DIR = "uploads/images/";
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ImageVariantService imageVariantService;
+
+    @Autowired
+    private ContentStore contentStore;
+
+    @Autowired
+    private MediaStorage storage;
+
     private static final long MAX_FILE_SIZE = 2 * 1024 * 1024; // 2MB
     private static final int MAX_IMAGES_PER_PRODUCT = 5;
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
@@ -49,18 +59,6 @@ public class MediaService {
             "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
     };
 
-    public MediaService() {
-        // Create upload directory if it doesn't exist
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Could not create upload directory", e);
-        }
-    }
-
     public Media uploadMedia(MultipartFile file, String productId, Authentication authentication) {
         validateFile(file);
 
@@ -91,25 +89,28 @@ public class MediaService {
             throw new BadRequestException("Maximum of " + MAX_IMAGES_PER_PRODUCT + " images per product allowed");
         }
 
+        String originalFilename = file.getOriginalFilename();
+        StoredContent content;
         try {
-            // Generate unique filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-            // Save file to disk
-            Path targetLocation = Paths.get(UPLOAD_DIR + uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+            // Save file to disk, unless the same image is stored already
+            content = contentStore.store(UploadLayout.IMAGES, file);
+        } catch (IOException e) {
+            throw new BadRequestException("Could not store file: " + e.getMessage());
+        }
 
+        Media saved = null;
+        try {
             // Create media entity
             Media media = new Media();
-            media.setImagePath(UPLOAD_DIR + uniqueFilename);
+            media.setImagePath(content.path());
+            media.setContentHash(content.hash());
             media.setProductId(productId);
             media.setFileName(originalFilename);
             media.setContentType(file.getContentType());
             media.setFileSize(file.getSize());
 
-            Media saved = mediaRepository.save(media);
+            saved = mediaRepository.save(media);
+            imageVariantService.generateVariantsAsync(saved);
 
             // Publish IMAGE_UPLOADED event
             MediaEvent event = new MediaEvent(
@@ -123,9 +124,24 @@ public class MediaService {
             mediaEventProducer.sendMediaEvent(event);
 
             return saved;
-        } catch (IOException e) {
-            throw new BadRequestException("Could not store file: " + e.getMessage());
+        } catch (RuntimeException e) {
+            discardUpload(saved, content);
+            throw e;
+        }
+    }
+
+    // Undo a failed upload, so that its content is not referenced forever
+    private void discardUpload(Media saved, StoredContent content) {
+        if (saved != null) {
+            try {
+                mediaRepository.deleteById(saved.getId());
+            } catch (RuntimeException e) {
+                // The document may still point at the content: keep it
+                logger.error("Could not remove media {} of a failed upload: {}", saved.getId(), e.getMessage());
+                return;
+            }
         }
+        contentStore.release(content.hash());
     }
 
     public List<Media> getMediaByProductId(String productId) {
@@ -155,17 +171,12 @@ public class MediaService {
             throw new ForbiddenException("You can only delete media for your own products");
         }
 
-        // Delete file from disk
-        try {
-            Path filePath = Paths.get(media.getImagePath());
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            // Log error but don't fail the transaction
-            logger.error(LOG_FORMAT_ERROR, DELETE_FILE_ERROR, media.getImagePath(), e.getMessage());
+        // Delete from database, then the files of the document as removed: variants recorded
+        // meanwhile are included, and any recorded later find no document and clean up themselves
+        Media removed = mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(id)), Media.class);
+        if (removed != null) {
+            deleteFiles(removed);
         }
-
-        // Delete from database
-        mediaRepository.deleteById(id);
     }
 
     @Transactional
@@ -184,39 +195,33 @@ public class MediaService {
             throw new ForbiddenException("You can only delete media for your own products");
         }
 
-        List<Media> mediaList = getMediaByProductId(productId);
-
-        // Delete files from disk
-        for (Media media : mediaList) {
-            try {
-                Path filePath = Paths.get(media.getImagePath());
-                Files.deleteIfExists(filePath);
-            } catch (IOException e) {
-                logger.error(LOG_FORMAT_ERROR, DELETE_FILE_ERROR, media.getImagePath(), e.getMessage());
-            }
-        }
-
-        // Delete from database
-        mediaRepository.deleteByProductId(productId);
+        deleteAllMediaOfProduct(productId);
     }
 
     // Internal method for service-to-service calls (no authentication required)
     @Transactional
     public void deleteMediaByProductIdInternal(String productId) {
-        List<Media> mediaList = getMediaByProductId(productId);
+        deleteAllMediaOfProduct(productId);
+    }
 
-        // Delete files from disk
-        for (Media media : mediaList) {
+    private void deleteAllMediaOfProduct(String productId) {
+        List<Media> removed = mongoTemplate.findAllAndRemove(
+                Query.query(Criteria.where("productId").is(productId)), Media.class);
+        removed.forEach(this::deleteFiles);
+    }
+
+    private void deleteFiles(Media media) {
+        if (media.getContentHash() != null) {
+            contentStore.release(media.getContentHash());
+        } else {
             try {
-                Path filePath = Paths.get(media.getImagePath());
-                Files.deleteIfExists(filePath);
+                storage.delete(media.getImagePath());
             } catch (IOException e) {
+                // Log error but don't fail the transaction
                 logger.error(LOG_FORMAT_ERROR, DELETE_FILE_ERROR, media.getImagePath(), e.getMessage());
             }
         }
-
-        // Delete from database
-        mediaRepository.deleteByProductId(productId);
+        imageVariantService.deleteFiles(media.getVariants());
     }
 
     private ProductDto getProductFromService(String productId) {
@@ -0,0 +1,9 @@
+package com.buyapp.mediaservice.service;
+
+/**
+ * A reference to content in the {@link ContentStore}.
+ *
+ * @param created whether the bytes were written, rather than found already stored
+ */
+public record StoredContent(String hash, String path, long size, boolean created) {
+}
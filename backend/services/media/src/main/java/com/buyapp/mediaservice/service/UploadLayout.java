@@ -0,0 +1,44 @@
+package com.buyapp.mediaservice.service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Where stored files go: two levels of directories named after the first
+ * hex digits of the file name, e.g. uploads/images/3a/e1/3ae1d1..., so no
+ * directory grows beyond a few thousand entries even with millions of files.
+ */
+public final class UploadLayout {
+
+    public static final Path IMAGES = Paths.get("uploads/images");
+    public static final Path AVATARS = Paths.get("uploads/avatars");
+
+    private UploadLayout() {
+    }
+
+    /**
+     * @param name a file name starting with at least four hex digits, e.g. a content hash
+     */
+    public static Path locate(Path root, String name) {
+        return root.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+    }
+
+    /**
+     * Whether the file sits in the directories {@link #locate} puts it in.
+     */
+    public static boolean isSharded(Path file) {
+        String name = file.getFileName().toString();
+        Path parent = file.getParent();
+        Path grandparent = parent != null ? parent.getParent() : null;
+        return grandparent != null && grandparent.getFileName() != null && name.length() >= 4
+                && parent.getFileName().toString().equals(name.substring(2, 4))
+                && grandparent.getFileName().toString().equals(name.substring(0, 2));
+    }
+
+    /**
+     * The directory a file was stored under, sharded or not.
+     */
+    public static Path rootOf(Path file) {
+        return isSharded(file) ? file.getParent().getParent().getParent() : file.getParent();
+    }
+}
@@ -0,0 +1,305 @@
+package com.buyapp.mediaservice.service;
+
+import com.buyapp.mediaservice.model.Avatar;
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.model.MediaVariant;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Moves files stored before the {@link UploadLayout} into it, rewriting
+ * imagePath on media and avatars, while the service keeps running.
+ *
+ * Documents are read in batches by ID, with a pause in between. A file is
+ * only taken away from its old path once no document points there any more:
+ * files of the old per-upload naming are stored in the ContentStore (and so
+ * deduplicated) and deleted after their document is rewritten; content
+ * already in the ContentStore is linked into place, and the old names are
+ * deleted at the end of a complete run, except those a document still points
+ * at, e.g. one sharing the content that changed meanwhile or could not be
+ * migrated. A run cut short keeps them all. Seed images are left where they
+ * are. A document changed while it is migrated is skipped and picked up by
+ * the next run; running again is always safe.
+ *
+ * Only one instance migrates at a time: a run holds a lease in the
+ * migration_locks collection, renewed after every batch, and a run started
+ * elsewhere meanwhile does nothing.
+ */
+@Service
+public class UploadLayoutMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadLayoutMigration.class);
+
+    private static final String LOCK_COLLECTION = "migration_locks";
+    private static final String LOCK_ID = "upload-layout";
+
+    // "<uuid>.<ext>" for uploads and "<uuid>-w<width>.<ext>" for their variants: one document each
+    private static final Pattern PER_UPLOAD_NAME = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}(-w\\d+)?\\.\\w+");
+
+    private final MongoTemplate mongoTemplate;
+    private final ContentStore contentStore;
+    private final MediaStorage storage;
+
+    @Value("${media.storage.migration.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${media.storage.migration.pause-ms:100}")
+    private long pauseMillis = 100;
+
+    // Taken over by another instance if not renewed within this time, e.g. after a crash
+    @Value("${media.storage.migration.lock-lease:10m}")
+    private Duration lockLease = Duration.ofMinutes(10);
+
+    public UploadLayoutMigration(MongoTemplate mongoTemplate, ContentStore contentStore, MediaStorage storage) {
+        this.mongoTemplate = mongoTemplate;
+        this.contentStore = contentStore;
+        this.storage = storage;
+    }
+
+    /**
+     * @return number of media and avatars rewritten
+     */
+    public long migrate() {
+        String owner = UUID.randomUUID().toString();
+        if (!acquireLock(owner)) {
+            logger.info("Upload layout migration is running on another instance, not starting it here");
+            return 0;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            List<String> oldNames = new ArrayList<>();
+            long migrated = migrateAll(Media.class, Media::getId, media -> migrate(media, oldNames), owner);
+            boolean complete = !Thread.currentThread().isInterrupted() && renewLock(owner);
+            if (complete) {
+                migrated += migrateAll(Avatar.class, Avatar::getId, avatar -> migrate(avatar, oldNames), owner);
+                complete = !Thread.currentThread().isInterrupted() && renewLock(owner);
+            }
+            if (complete) {
+                deleteUnreferenced(oldNames);
+            } else if (!oldNames.isEmpty()) {
+                logger.warn("Upload layout migration stopped early, keeping {} old file names", oldNames.size());
+            }
+            logger.info("Moved files of {} media and avatars into the sharded layout in {} ms",
+                    migrated, System.currentTimeMillis() - start);
+            return migrated;
+        } finally {
+            mongoTemplate.remove(lockQuery(owner), LOCK_COLLECTION);
+        }
+    }
+
+    // Insert the lock, or take it over once expired; a live lock makes the upsert a duplicate key
+    private boolean acquireLock(String owner) {
+        Query expired = Query.query(Criteria.where("_id").is(LOCK_ID).and("lockedUntil").lt(new Date()));
+        try {
+            mongoTemplate.upsert(expired, lockUpdate(owner), LOCK_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Lost only if the run stalled past the lease and another instance took over: stop, as the other carries on
+    private boolean renewLock(String owner) {
+        if (mongoTemplate.updateFirst(lockQuery(owner), lockUpdate(owner), LOCK_COLLECTION).getMatchedCount() > 0) {
+            return true;
+        }
+        logger.warn("Upload layout migration lock was taken over, stopping");
+        return false;
+    }
+
+    private Update lockUpdate(String owner) {
+        return Update.update("owner", owner).set("lockedUntil", Date.from(Instant.now().plus(lockLease)));
+    }
+
+    private static Query lockQuery(String owner) {
+        return Query.query(Criteria.where("_id").is(LOCK_ID).and("owner").is(owner));
+    }
+
+    private <T> long migrateAll(Class<T> type, Function<T, String> idOf, Migration<T> migration, String owner) {
+        long migrated = 0;
+        String lastId = null;
+        List<T> batch;
+        do {
+            Query query = new Query().with(Sort.by("_id")).limit(batchSize);
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            batch = mongoTemplate.find(query, type);
+            for (T document : batch) {
+                try {
+                    if (migration.migrate(document)) {
+                        migrated++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Could not move files of {}: {}", document, e.getMessage());
+                }
+            }
+            if (!batch.isEmpty()) {
+                lastId = idOf.apply(batch.get(batch.size() - 1));
+                pause();
+            }
+        } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted() && renewLock(owner));
+        return migrated;
+    }
+
+    boolean migrate(Media media, List<String> oldNames) throws IOException {
+        List<Moved> moves = new ArrayList<>();
+        Moved original = move(media.getImagePath(), media.getContentHash(), moves);
+        List<MediaVariant> variants = media.getVariants();
+        if (variants != null) {
+            variants = new ArrayList<>();
+            for (MediaVariant variant : media.getVariants()) {
+                Moved moved = move(variant.getImagePath(), variant.getContentHash(), moves);
+                variants.add(moved == null ? variant : new MediaVariant(variant.getWidth(), variant.getHeight(),
+                        moved.path(), variant.getContentType(), variant.getFileSize(), moved.hash()));
+            }
+        }
+        if (moves.isEmpty()) {
+            return false;
+        }
+
+        // Variants only ever change from none to some, so their number tells whether they did
+        Criteria unchangedVariants = media.getVariants() == null
+                ? Criteria.where("variants").is(null)
+                : Criteria.where("variants").size(media.getVariants().size());
+        Query unchanged = Query.query(Criteria.where("_id").is(media.getId())
+                .and("imagePath").is(media.getImagePath())
+                .andOperator(unchangedVariants));
+        Update update = new Update();
+        if (original != null) {
+            update.set("imagePath", original.path()).set("contentHash", original.hash());
+        }
+        if (variants != null) {
+            update.set("variants", variants);
+        }
+        return finish(mongoTemplate.updateFirst(unchanged, update, Media.class).getMatchedCount() > 0,
+                moves, oldNames);
+    }
+
+    boolean migrate(Avatar avatar, List<String> oldNames) throws IOException {
+        List<Moved> moves = new ArrayList<>();
+        Moved moved = move(avatar.getImagePath(), avatar.getContentHash(), moves);
+        if (moved == null) {
+            return false;
+        }
+        Query unchanged = Query.query(Criteria.where("_id").is(avatar.getId())
+                .and("imagePath").is(avatar.getImagePath()));
+        Update update = Update.update("imagePath", moved.path()).set("contentHash", moved.hash());
+        return finish(mongoTemplate.updateFirst(unchanged, update, Avatar.class).getMatchedCount() > 0,
+                moves, oldNames);
+    }
+
+    // The file's place in the layout, or null if it is there already (or gone)
+    private Moved move(String imagePath, String contentHash, List<Moved> moves) throws IOException {
+        if (imagePath == null || UploadLayout.isSharded(Paths.get(imagePath))) {
+            return null;
+        }
+        Moved moved;
+        if (contentHash != null) {
+            String path = contentStore.relocate(contentHash);
+            if (path == null) {
+                return null;
+            }
+            moved = new Moved(imagePath, path, contentHash, false);
+        } else {
+            if (!storage.exists(imagePath)) {
+                return null;
+            }
+            StoredContent content = contentStore.store(UploadLayout.rootOf(Paths.get(imagePath)),
+                    () -> storage.read(imagePath));
+            moved = new Moved(imagePath, content.path(), content.hash(), true);
+        }
+        moves.add(moved);
+        return moved;
+    }
+
+    private boolean finish(boolean rewritten, List<Moved> moves, List<String> oldNames) {
+        for (Moved moved : moves) {
+            if (!rewritten) {
+                // Changed meanwhile: the next run sees the new state
+                if (moved.referenced()) {
+                    contentStore.release(moved.hash());
+                }
+            } else if (!moved.referenced()) {
+                oldNames.add(moved.oldPath());
+            } else if (PER_UPLOAD_NAME.matcher(Paths.get(moved.oldPath()).getFileName().toString()).matches()) {
+                deleteQuietly(moved.oldPath());
+            }
+        }
+        return rewritten;
+    }
+
+    // Documents sharing content that were not rewritten still point at its old name
+    private void deleteUnreferenced(List<String> oldNames) {
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(oldNames));
+        for (int from = 0; from < names.size(); from += batchSize) {
+            Set<String> unreferenced = new HashSet<>(names.subList(from, Math.min(from + batchSize, names.size())));
+            Query media = Query.query(new Criteria().orOperator(Criteria.where("imagePath").in(unreferenced),
+                    Criteria.where("variants.imagePath").in(unreferenced)));
+            media.fields().include("imagePath").include("variants.imagePath");
+            for (Media referencing : mongoTemplate.find(media, Media.class)) {
+                unreferenced.remove(referencing.getImagePath());
+                if (referencing.getVariants() != null) {
+                    referencing.getVariants().forEach(variant -> unreferenced.remove(variant.getImagePath()));
+                }
+            }
+            Query avatars = Query.query(Criteria.where("imagePath").in(unreferenced));
+            avatars.fields().include("imagePath");
+            for (Avatar referencing : mongoTemplate.find(avatars, Avatar.class)) {
+                unreferenced.remove(referencing.getImagePath());
+            }
+            unreferenced.forEach(this::deleteQuietly);
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deleteQuietly(String file) {
+        try {
+            storage.delete(file);
+        } catch (IOException e) {
+            logger.warn("Could not delete old file: {} - {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * @param referenced whether a ContentStore reference was taken for the
+     *                   document, to give back if it cannot be rewritten
+     */
+    private record Moved(String oldPath, String path, String hash, boolean referenced) {
+    }
+
+    @FunctionalInterface
+    private interface Migration<T> {
+        boolean migrate(T document) throws IOException;
+    }
+}
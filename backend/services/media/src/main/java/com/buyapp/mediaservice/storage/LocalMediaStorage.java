@@ -0,0 +1,138 @@
+package com.buyapp.mediaservice.storage;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Media files on the local file system, keys resolved against a root
+ * directory. Writes go to a temporary file next to the target and are
+ * renamed into place; copies are hard links where the file system allows.
+ */
+public class LocalMediaStorage implements MediaStorage {
+
+    private final Path root;
+
+    public LocalMediaStorage(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public void write(String key, InputStream content) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temp)) {
+                content.transferTo(output);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void moveIn(String key, Path file) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // On another file system
+            MediaStorage.super.moveIn(key, file);
+        }
+    }
+
+    @Override
+    public StoredObject stat(String key) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(resolve(key), BasicFileAttributes.class);
+        return new StoredObject(attributes.size(), attributes.lastModifiedTime().toMillis());
+    }
+
+    @Override
+    public InputStream read(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream read(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ).position(offset);
+        return new FilterInputStream(Channels.newInputStream(channel)) {
+            private long remaining = length;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = super.read();
+                if (read >= 0) {
+                    remaining--;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = super.read(buffer, off, (int) Math.min(len, remaining));
+                if (read > 0) {
+                    remaining -= read;
+                }
+                return read;
+            }
+        };
+    }
+
+    @Override
+    public void copy(String from, String to) throws IOException {
+        Path source = resolve(from);
+        Path target = resolve(to);
+        Files.createDirectories(target.getParent());
+        // Linked or copied aside and renamed, so an existing target is replaced atomically
+        Path temp = target.resolveSibling(target.getFileName() + "." + System.nanoTime() + ".tmp");
+        try {
+            try {
+                Files.createLink(temp, source);
+            } catch (UnsupportedOperationException e) {
+                Files.copy(source, temp);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void move(String from, String to) throws IOException {
+        Path target = resolve(to);
+        Files.createDirectories(target.getParent());
+        Files.move(resolve(from), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Path localFile(String key) {
+        return resolve(key);
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key);
+    }
+}
@@ -0,0 +1,75 @@
+package com.buyapp.mediaservice.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+/**
+ * Where media files live. Keys are the paths recorded on media and avatars,
+ * e.g. uploads/images/3a/e1/3ae1d1...
+ *
+ * Stored content is immutable: whatever is written again under a key is the
+ * same bytes (see ContentStore), so implementations need not guard against
+ * readers seeing a mix of old and new content, only a partial write.
+ * Operations on a missing key throw {@link NoSuchFileException}.
+ */
+public interface MediaStorage {
+
+    /**
+     * Store the content under key, replacing anything there. Readers see the
+     * content only once it is complete.
+     */
+    void write(String key, InputStream content) throws IOException;
+
+    /**
+     * As {@link #write}, for a local file of the caller's, which is gone
+     * afterwards.
+     */
+    default void moveIn(String key, Path file) throws IOException {
+        try (InputStream content = Files.newInputStream(file)) {
+            write(key, content);
+        }
+        Files.delete(file);
+    }
+
+    StoredObject stat(String key) throws IOException;
+
+    InputStream read(String key) throws IOException;
+
+    /**
+     * @return length bytes from offset, fewer if the content ends before
+     */
+    InputStream read(String key, long offset, long length) throws IOException;
+
+    void copy(String from, String to) throws IOException;
+
+    /**
+     * Copy, then delete from. Not atomic on every backend: the content may
+     * briefly be under both keys, or, if the copy fails, under from only.
+     */
+    void move(String from, String to) throws IOException;
+
+    /**
+     * Delete the content under key, if any.
+     */
+    void delete(String key) throws IOException;
+
+    default boolean exists(String key) throws IOException {
+        try {
+            stat(key);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The file behind key when it is on local disk, so it can be served
+     * without passing through the JVM; null otherwise.
+     */
+    default Path localFile(String key) {
+        return null;
+    }
+}
@@ -0,0 +1,161 @@
+package com.buyapp.mediaservice.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchBucketException;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Media files in an S3-compatible object store (AWS S3, MinIO, ...), so
+ * that any number of media-service replicas share them.
+ *
+ * Content is uploaded as it is read: in one request when it fits in a part,
+ * else as a multipart upload holding one part in memory at a time. Reads
+ * stream the object, or the byte range asked for. The HTTP connection pool
+ * is the S3Client's (see StorageConfig).
+ */
+public class S3MediaStorage implements MediaStorage {
+
+    // The smallest part size S3 accepts, but for the last part
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private static final Logger logger = LoggerFactory.getLogger(S3MediaStorage.class);
+
+    private final S3Client s3;
+    private final String bucket;
+    private final int partSize;
+
+    public S3MediaStorage(S3Client s3, String bucket, int partSize) {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.partSize = partSize;
+    }
+
+    /**
+     * Create the bucket unless it exists, e.g. on a fresh local MinIO.
+     */
+    public void createBucketIfMissing() throws IOException {
+        try {
+            s3.headBucket(request -> request.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            call(() -> s3.createBucket(request -> request.bucket(bucket)));
+            logger.info("Created media bucket {}", bucket);
+        } catch (SdkException e) {
+            throw new IOException("Could not access bucket " + bucket + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void write(String key, InputStream content) throws IOException {
+        byte[] part = content.readNBytes(partSize);
+        if (part.length < partSize) {
+            call(() -> s3.putObject(request -> request.bucket(bucket).key(key), RequestBody.fromBytes(part)));
+            return;
+        }
+
+        String uploadId = call(() -> s3.createMultipartUpload(request -> request.bucket(bucket).key(key)))
+                .uploadId();
+        try {
+            List<CompletedPart> parts = new ArrayList<>();
+            for (byte[] next = part; next.length > 0; next = content.readNBytes(partSize)) {
+                int partNumber = parts.size() + 1;
+                byte[] body = next;
+                String etag = call(() -> s3.uploadPart(request -> request.bucket(bucket).key(key)
+                        .uploadId(uploadId).partNumber(partNumber), RequestBody.fromBytes(body))).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(etag).build());
+            }
+            call(() -> s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())));
+        } catch (IOException | RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abortFailure) {
+                e.addSuppressed(abortFailure);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public StoredObject stat(String key) throws IOException {
+        HeadObjectResponse head = call(key, () -> s3.headObject(request -> request.bucket(bucket).key(key)));
+        return new StoredObject(head.contentLength(), head.lastModified().toEpochMilli());
+    }
+
+    @Override
+    public InputStream read(String key) throws IOException {
+        return call(key, () -> s3.getObject(request -> request.bucket(bucket).key(key)));
+    }
+
+    @Override
+    public InputStream read(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        String range = "bytes=" + offset + "-" + (offset + length - 1);
+        return call(key, () -> s3.getObject(request -> request.bucket(bucket).key(key).range(range)));
+    }
+
+    @Override
+    public void copy(String from, String to) throws IOException {
+        call(from, () -> s3.copyObject(request -> request
+                .sourceBucket(bucket).sourceKey(from)
+                .destinationBucket(bucket).destinationKey(to)));
+    }
+
+    @Override
+    public void move(String from, String to) throws IOException {
+        copy(from, to);
+        delete(from);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        call(() -> s3.deleteObject(request -> request.bucket(bucket).key(key)));
+    }
+
+    // S3 answers HEAD on a missing key with a bare 404, GET with NoSuchKey
+    private static <T> T call(String key, S3Call<T> call) throws IOException {
+        try {
+            return call.execute();
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(key);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException(e.getMessage(), e);
+        } catch (SdkException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static <T> T call(S3Call<T> call) throws IOException {
+        try {
+            return call.execute();
+        } catch (SdkException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface S3Call<T> {
+        T execute();
+    }
+}
@@ -0,0 +1,25 @@
+package com.buyapp.mediaservice.storage;
+
+import lombok.Data;
+
+/**
+ * Settings of the S3-compatible store, bound from media.storage.s3.
+ */
+@Data
+public class S3StorageProperties {
+    private String bucket = "media";
+    private String region = "us-east-1";
+    // For MinIO and other S3-compatible stores; empty for AWS
+    private String endpoint;
+    // Empty to use the default AWS credential chain
+    private String accessKey;
+    private String secretKey;
+    // Bucket in the path instead of the host name, as MinIO expects
+    private boolean pathStyleAccess = true;
+    private boolean createBucket;
+    private int maxConnections = 50;
+    private long connectionTimeoutMs = 2_000;
+    private long connectionAcquisitionTimeoutMs = 5_000;
+    private long socketTimeoutMs = 30_000;
+    private int partSize = 8 * 1024 * 1024;
+}
@@ -0,0 +1,7 @@
+package com.buyapp.mediaservice.storage;
+
+/**
+ * Size and modification time (epoch millis) of stored content.
+ */
+public record StoredObject(long size, long lastModified) {
+}
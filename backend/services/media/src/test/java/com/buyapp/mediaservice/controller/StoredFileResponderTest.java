@@ -0,0 +1,187 @@
+package com.buyapp.mediaservice.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.mediaservice.storage.LocalMediaStorage;
+import com.buyapp.mediaservice.storage.MediaStorage;
+
+class StoredFileResponderTest {
+
+    @TempDir
+    Path dir;
+
+    private static final String KEY = "image.png";
+
+    private MediaStorage storage;
+    private Path file;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        storage = new LocalMediaStorage(dir);
+        file = Files.writeString(dir.resolve(KEY), "0123456789", StandardCharsets.US_ASCII);
+        request = new MockHttpServletRequest("GET", "/media/file/m1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void respond_ShouldServeStoredContentTypeWithValidatorsAndImmutableCaching() throws Exception {
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals("0123456789", response.getContentAsString());
+        assertEquals(10, response.getContentLengthLong());
+        assertTrue(response.getHeader(HttpHeaders.ETAG).startsWith("\"m1-a-"));
+        assertEquals(Files.getLastModifiedTime(file).toMillis() / 1000 * 1000,
+                response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("max-age=31536000, public, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void respond_WhenContentTypeNotStored_ShouldDeriveItFromFileName() throws Exception {
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, null, "photo.jpg");
+
+        // Assert
+        assertEquals("image/jpeg", response.getContentType());
+    }
+
+    @Test
+    void respond_WhenETagMatches_ShouldReturnNotModifiedWithoutBody() throws Exception {
+        // Arrange
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/media/file/m1");
+        conditional.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+
+        // Act
+        StoredFileResponder.respond(conditional, notModified, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(304, notModified.getStatus());
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(etag, notModified.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void respond_WhenSingleRangeRequested_ShouldReturnPartialContent() throws Exception {
+        // Arrange
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+        assertEquals(4, response.getContentLengthLong());
+    }
+
+    @Test
+    void respond_WhenIfRangeIsStale_ShouldReturnWholeFile() throws Exception {
+        // Arrange
+        request.addHeader(HttpHeaders.RANGE, "bytes=-3");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"m1-old\"");
+
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("0123456789", response.getContentAsString());
+    }
+
+    @Test
+    void respond_WhenRangeBeyondEnd_ShouldReturnRangeNotSatisfiable() throws Exception {
+        // Arrange
+        request.addHeader(HttpHeaders.RANGE, "bytes=20-");
+
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("no-store", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void respond_WhenSendfileSupported_ShouldHandBodyToConnector() throws Exception {
+        // Arrange
+        request.setAttribute(StoredFileResponder.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=4-");
+
+        // Act
+        StoredFileResponder.respond(request, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(file.toAbsolutePath().toString(), request.getAttribute(StoredFileResponder.SENDFILE_FILENAME));
+        assertEquals(4L, request.getAttribute(StoredFileResponder.SENDFILE_START));
+        assertEquals(10L, request.getAttribute(StoredFileResponder.SENDFILE_END));
+        assertEquals(6, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void respond_WhenHead_ShouldSendHeadersOnly() throws Exception {
+        // Arrange
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/media/file/m1");
+
+        // Act
+        StoredFileResponder.respond(head, response, "m1", storage, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertNull(head.getAttribute(StoredFileResponder.SENDFILE_FILENAME));
+    }
+
+    @Test
+    void respond_WhenFileMissing_ShouldThrowNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> StoredFileResponder.respond(
+                request, response, "m1", storage, "gone.png", "image/png", "gone.png"));
+    }
+
+    @Test
+    void respond_WhenStorageIsRemote_ShouldStreamOnlyTheRange() throws Exception {
+        // Arrange
+        MediaStorage remote = new LocalMediaStorage(dir) {
+            @Override
+            public Path localFile(String key) {
+                return null;
+            }
+        };
+        request.setAttribute(StoredFileResponder.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=3-6");
+
+        // Act
+        StoredFileResponder.respond(request, response, "m1", remote, KEY, "image/png", "photo.png");
+
+        // Assert
+        assertEquals(206, response.getStatus());
+        assertEquals("3456", response.getContentAsString());
+        assertNull(request.getAttribute(StoredFileResponder.SENDFILE_FILENAME));
+    }
+}
@@ -0,0 +1,80 @@
+package com.buyapp.mediaservice.repository;
+
+import static com.buyapp.common.testing.QueryPlans.assertIndexed;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.common.testing.QueryPlans;
+import com.buyapp.mediaservice.model.Avatar;
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.service.ContentStore;
+import com.buyapp.mediaservice.service.ImageVariantService;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Runs every repository query and the MongoTemplate queries of the services,
+ * and fails if MongoDB plans any of them as a full collection scan. Skipped
+ * when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static MediaRepository mediaRepository;
+    private static AvatarRepository avatarRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = QueryPlans.mongoTemplate(client, "media_plans", Media.class, Avatar.class);
+        mediaRepository = QueryPlans.repository(mongoTemplate, MediaRepository.class);
+        avatarRepository = QueryPlans.repository(mongoTemplate, AvatarRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void mediaRepository_Queries_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate, () -> mediaRepository.findByProductId("product1"));
+        assertIndexed(mongoTemplate, () -> mediaRepository.countByProductId("product1"));
+        assertIndexed(mongoTemplate, () -> mediaRepository.deleteByProductId("product1"));
+    }
+
+    @Test
+    void imageVariantService_Queries_ShouldUseIndexes() {
+        ImageVariantService imageVariantService = new ImageVariantService(mongoTemplate,
+                mock(ContentStore.class), mock(MediaStorage.class), new SyncTaskExecutor());
+        Media media = new Media();
+        media.setId("65f000000000000000000001");
+        media.setImagePath("uploads/images/missing.jpg");
+        media.setContentHash("abc");
+
+        // Reuse lookup by content hash, then recording the (empty) variants
+        assertIndexed(mongoTemplate, () -> imageVariantService.generateVariantsAsync(media));
+        assertIndexed(mongoTemplate, imageVariantService::backfillVariants);
+    }
+
+    @Test
+    void avatarRepository_Queries_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate, () -> avatarRepository.findByUserId("user1"));
+        assertIndexed(mongoTemplate, () -> avatarRepository.existsByUserId("user1"));
+        assertIndexed(mongoTemplate, () -> avatarRepository.deleteByUserId("user1"));
+    }
+}
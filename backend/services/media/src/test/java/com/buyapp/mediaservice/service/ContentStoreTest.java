@@ -0,0 +1,271 @@
+package com.buyapp.mediaservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.mediaservice.model.ContentBlob;
+import com.buyapp.mediaservice.storage.LocalMediaStorage;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class ContentStoreTest {
+
+    private static final byte[] CONTENT = "image bytes".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @TempDir
+    Path dir;
+
+    private ContentStore contentStore;
+    private String hash;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        contentStore = new ContentStore(mongoTemplate, new LocalMediaStorage(Path.of("")));
+        hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+    }
+
+    @Test
+    void store_WhenContentIsNew_ShouldWriteFileNamedByHash() throws Exception {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(null);
+
+        // Act
+        StoredContent content = contentStore.store(dir, new ByteArrayResource(CONTENT));
+
+        // Assert
+        assertEquals(hash, content.hash());
+        assertEquals(UploadLayout.locate(dir, hash).toString(), content.path());
+        assertEquals(CONTENT.length, content.size());
+        assertTrue(content.created());
+        assertArrayEquals(CONTENT, Files.readAllBytes(UploadLayout.locate(dir, hash)));
+        try (var files = Files.list(UploadLayout.locate(dir, hash).getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void store_WhenContentAlreadyStored_ShouldOnlyCountTheReference() throws Exception {
+        // Arrange
+        Path existing = dir.resolve("elsewhere");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(existing, 1));
+
+        // Act
+        StoredContent content = contentStore.store(dir, new ByteArrayResource(CONTENT));
+
+        // Assert
+        assertEquals(existing.toString(), content.path());
+        assertFalse(content.created());
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void store_WhenContentIsNew_ShouldMarkBlobStoredOnlyAfterWritingFile() throws Exception {
+        // Arrange
+        ArgumentCaptor<Update> upsert = ArgumentCaptor.forClass(Update.class);
+        when(mongoTemplate.findAndModify(any(Query.class), upsert.capture(), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class)))
+                .thenAnswer(invocation -> {
+                    assertTrue(Files.exists(UploadLayout.locate(dir, hash)));
+                    return UpdateResult.acknowledged(1, 1L, null);
+                });
+
+        // Act
+        contentStore.store(dir, new ByteArrayResource(CONTENT));
+
+        // Assert
+        assertEquals(false, upsert.getValue().getUpdateObject().get("$setOnInsert", Document.class).get("stored"));
+        ArgumentCaptor<Update> marked = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), marked.capture(), eq(ContentBlob.class));
+        assertEquals(true, marked.getValue().getUpdateObject().get("$set", Document.class).get("stored"));
+    }
+
+    @Test
+    void store_WhenOtherUploaderHasNotStoredFileYet_ShouldWriteItToo() throws Exception {
+        // Arrange
+        Path pending = UploadLayout.locate(dir, hash);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(pending, 1, false));
+
+        // Act
+        StoredContent content = contentStore.store(dir, new ByteArrayResource(CONTENT));
+
+        // Assert
+        assertEquals(pending.toString(), content.path());
+        assertArrayEquals(CONTENT, Files.readAllBytes(pending));
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class));
+    }
+
+    @Test
+    void store_WhenBlobPredatesStoredFlag_ShouldOnlyCountTheReference() throws Exception {
+        // Arrange
+        Path existing = dir.resolve("elsewhere");
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(existing, 1, null));
+
+        // Act
+        StoredContent content = contentStore.store(dir, new ByteArrayResource(CONTENT));
+
+        // Assert
+        assertEquals(existing.toString(), content.path());
+        assertFalse(content.created());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class));
+    }
+
+    @Test
+    void store_WhenWritingFails_ShouldDropTheReferenceAndNotMarkStored() throws Exception {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(dir.resolve(hash), 1, false),
+                        blob(dir.resolve(hash), 1, false));
+        InputStreamSource unreadable = new InputStreamSource() {
+            private int reads;
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                if (reads++ > 0) {
+                    throw new IOException("Disk gone");
+                }
+                return new ByteArrayInputStream(CONTENT);
+            }
+        };
+
+        // Act
+        assertThrows(IOException.class, () -> contentStore.store(dir, unreadable));
+
+        // Assert
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(ContentBlob.class));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class));
+    }
+
+    @Test
+    void retain_ShouldRequireStoredFile() {
+        // Arrange
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.updateFirst(query.capture(), any(Update.class), eq(ContentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        boolean retained = contentStore.retain(hash);
+
+        // Assert
+        assertFalse(retained);
+        assertEquals(new Document("$ne", false), query.getValue().getQueryObject().get("stored"));
+    }
+
+    @Test
+    void storeFile_WhenContentAlreadyStored_ShouldDeleteTheGivenFile() throws Exception {
+        // Arrange
+        Path file = Files.write(dir.resolve("variant.tmp"), CONTENT);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(dir.resolve(hash), 3));
+
+        // Act
+        StoredContent content = contentStore.storeFile(dir, file);
+
+        // Assert
+        assertFalse(content.created());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void release_WhenLastReference_ShouldRemoveBlobAndFile() throws Exception {
+        // Arrange
+        Path file = Files.write(dir.resolve(hash), CONTENT);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(file, 0));
+        when(mongoTemplate.remove(any(Query.class), eq(ContentBlob.class))).thenReturn(DeleteResult.acknowledged(1));
+
+        // Act
+        contentStore.release(hash);
+
+        // Assert
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void release_WhenStoredAgainMeanwhile_ShouldKeepFile() throws Exception {
+        // Arrange
+        Path file = Files.write(dir.resolve(hash), CONTENT);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(file, 0));
+        when(mongoTemplate.remove(any(Query.class), eq(ContentBlob.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        // Act
+        contentStore.release(hash);
+
+        // Assert
+        assertArrayEquals(CONTENT, Files.readAllBytes(file));
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void release_WhenOtherReferencesRemain_ShouldKeepFile() throws Exception {
+        // Arrange
+        Path file = Files.write(dir.resolve(hash), CONTENT);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(ContentBlob.class))).thenReturn(blob(file, 2));
+
+        // Act
+        contentStore.release(hash);
+
+        // Assert
+        assertTrue(Files.exists(file));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(ContentBlob.class));
+    }
+
+    private ContentBlob blob(Path path, int refCount) {
+        return blob(path, refCount, true);
+    }
+
+    private ContentBlob blob(Path path, int refCount, Boolean stored) {
+        return new ContentBlob(hash, path.toString(), CONTENT.length, refCount, LocalDateTime.now(), stored);
+    }
+}
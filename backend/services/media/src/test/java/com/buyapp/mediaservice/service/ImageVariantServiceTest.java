@@ -0,0 +1,300 @@
+package com.buyapp.mediaservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.mediaservice.model.ContentBlob;
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.model.MediaVariant;
+import com.buyapp.mediaservice.storage.LocalMediaStorage;
+import com.buyapp.mediaservice.storage.MediaStorage;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private TaskExecutor executor;
+
+    @TempDir
+    Path dir;
+
+    private ContentStore contentStore;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        MediaStorage storage = new LocalMediaStorage(Path.of(""));
+        contentStore = spy(new ContentStore(mongoTemplate, storage));
+        imageVariantService = new ImageVariantService(mongoTemplate, contentStore, storage, executor);
+    }
+
+    @Test
+    void writeVariants_ShouldWriteJpegForEachWidthBelowTheOriginal() throws Exception {
+        // Arrange
+        Path original = writeImage("photo.png", 600, 300, BufferedImage.TYPE_INT_RGB);
+
+        // Act
+        List<MediaVariant> variants = imageVariantService.writeVariants(original.toString());
+
+        // Assert
+        assertEquals(List.of(128, 256, 512), variants.stream().map(MediaVariant::getWidth).toList());
+        MediaVariant variant = variants.get(1);
+        assertEquals(128, variant.getHeight());
+        assertEquals("image/jpeg", variant.getContentType());
+        assertEquals(UploadLayout.locate(dir, variant.getContentHash()).toString(), variant.getImagePath());
+        assertEquals(Files.size(Path.of(variant.getImagePath())), variant.getFileSize());
+        BufferedImage written = ImageIO.read(new File(variant.getImagePath()));
+        assertEquals(256, written.getWidth());
+        assertEquals(128, written.getHeight());
+    }
+
+    @Test
+    void writeVariants_WhenImageHasAlpha_ShouldKeepPng() throws Exception {
+        // Arrange
+        Path original = writeImage("logo.png", 300, 300, BufferedImage.TYPE_INT_ARGB);
+
+        // Act
+        List<MediaVariant> variants = imageVariantService.writeVariants(original.toString());
+
+        // Assert
+        assertEquals(2, variants.size());
+        assertTrue(variants.stream().allMatch(variant -> variant.getContentType().equals("image/png")));
+        assertTrue(ImageIO.read(new File(variants.get(0).getImagePath())).getColorModel().hasAlpha());
+    }
+
+    @Test
+    void writeVariants_WhenFormatCannotBeDecoded_ShouldReturnEmpty() throws Exception {
+        // Arrange
+        Path original = Files.write(dir.resolve("photo.webp"), new byte[] {'R', 'I', 'F', 'F', 0, 0, 0, 0});
+
+        // Act & Assert
+        assertTrue(imageVariantService.writeVariants(original.toString()).isEmpty());
+    }
+
+    @Test
+    void writeVariants_WhenImageIsCorrupt_ShouldReturnEmpty() throws Exception {
+        // Arrange
+        Path original = writeImage("photo.png", 300, 200, BufferedImage.TYPE_INT_RGB);
+        byte[] bytes = Files.readAllBytes(original);
+        Files.write(original, Arrays.copyOf(bytes, 40));
+
+        // Act & Assert
+        assertTrue(imageVariantService.writeVariants(original.toString()).isEmpty());
+    }
+
+    @Test
+    void generateVariants_WhenImageCannotBeDecoded_ShouldRecordNoVariants() throws Exception {
+        // Arrange
+        Path original = Files.write(dir.resolve("photo.webp"), new byte[] {'R', 'I', 'F', 'F', 0, 0, 0, 0});
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        imageVariantService.generateVariants(media(original, null));
+
+        // Assert
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(Update.update("variants", List.of())),
+                eq(Media.class));
+    }
+
+    @Test
+    void generateVariants_WhenOriginalCannotBeRead_ShouldLeaveVariantsToTheBackfill() {
+        // Arrange
+        Media media = media(dir.resolve("missing.png"), null);
+
+        // Act
+        imageVariantService.generateVariants(media);
+
+        // Assert
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Media.class));
+    }
+
+    @Test
+    void generateVariants_WhenMediaDeletedMeanwhile_ShouldReleaseWrittenVariants() throws Exception {
+        // Arrange
+        Path original = writeImage("photo.png", 300, 200, BufferedImage.TYPE_INT_RGB);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        imageVariantService.generateVariants(media(original, null));
+
+        // Assert
+        verify(contentStore, times(2)).release(anyString());
+        assertTrue(Files.exists(original));
+    }
+
+    @Test
+    void generateVariants_WhenSameContentHasVariants_ShouldReuseThem() {
+        // Arrange
+        Media existing = media(dir.resolve("abc"), "abc");
+        existing.setVariants(List.of(variant(128), variant(256)));
+        when(mongoTemplate.findOne(any(Query.class), eq(Media.class))).thenReturn(existing);
+        doReturn(true).when(contentStore).retain(anyString());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        imageVariantService.generateVariants(media(dir.resolve("abc"), "abc"));
+
+        // Assert
+        verify(contentStore).retain("v-128");
+        verify(contentStore).retain("v-256");
+        verify(mongoTemplate).updateFirst(any(Query.class), eq(Update.update("variants", existing.getVariants())),
+                eq(Media.class));
+    }
+
+    @Test
+    void generateVariants_WhenReusedVariantWasReleased_ShouldGenerateAfresh() throws Exception {
+        // Arrange
+        Path original = writeImage("photo.png", 300, 200, BufferedImage.TYPE_INT_RGB);
+        Media existing = media(original, "abc");
+        existing.setVariants(List.of(variant(128), variant(256)));
+        when(mongoTemplate.findOne(any(Query.class), eq(Media.class))).thenReturn(existing);
+        doReturn(true).when(contentStore).retain("v-128");
+        doReturn(false).when(contentStore).retain("v-256");
+        doNothing().when(contentStore).release("v-128");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        imageVariantService.generateVariants(media(original, "abc"));
+
+        // Assert
+        verify(contentStore).release("v-128");
+        verify(contentStore, times(2)).storeFile(eq(dir), any(Path.class));
+    }
+
+    @Test
+    void generateVariantsAsync_WhenQueueFull_ShouldLeaveVariantsToTheBackfill() {
+        // Arrange
+        Media media = media(dir.resolve("photo.png"), null);
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+
+        // Act
+        imageVariantService.generateVariantsAsync(media);
+
+        // Assert
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Media.class));
+    }
+
+    @Test
+    void backfillVariants_ShouldQueueClaimedImagesUntilNoneIsLeft() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(media(dir.resolve("a.png"), "a"), media(dir.resolve("b.png"), "b"), null);
+
+        // Act
+        imageVariantService.backfillVariants();
+
+        // Assert
+        verify(executor, times(2)).execute(any(Runnable.class));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).findAndModify(query.capture(), any(Update.class), eq(Media.class));
+        assertTrue(query.getValue().getQueryObject().containsKey("variants"));
+    }
+
+    @Test
+    void backfillVariants_WhenQueueFull_ShouldStopClaiming() {
+        // Arrange
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(media(dir.resolve("a.png"), "a"));
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+
+        // Act
+        imageVariantService.backfillVariants();
+
+        // Assert
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), eq(Media.class));
+    }
+
+    @Test
+    void generateVariants_WhenVariantsRecordedMeanwhile_ShouldOnlyRecordIfStillMissing() throws Exception {
+        // Arrange
+        Path original = writeImage("photo.png", 300, 200, BufferedImage.TYPE_INT_RGB);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContentBlob.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.updateFirst(query.capture(), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        imageVariantService.generateVariants(media(original, null));
+
+        // Assert
+        assertTrue(query.getValue().getQueryObject().containsKey("variants"));
+        verify(contentStore, times(2)).release(anyString());
+    }
+
+    @Test
+    void variantFor_ShouldPickNarrowestVariantAtLeastAsWide() {
+        // Arrange
+        Media media = new Media();
+        media.setVariants(List.of(variant(128), variant(256), variant(512)));
+
+        // Act & Assert
+        assertEquals(256, media.variantFor(200).getWidth());
+        assertEquals(256, media.variantFor(256).getWidth());
+        assertNull(media.variantFor(600));
+    }
+
+    private Path writeImage(String name, int width, int height, int type) throws Exception {
+        Path path = dir.resolve(name);
+        ImageIO.write(new BufferedImage(width, height, type), "png", path.toFile());
+        return path;
+    }
+
+    private static Media media(Path original, String contentHash) {
+        Media media = new Media();
+        media.setId(contentHash != null ? "m-" + contentHash : "m1");
+        media.setImagePath(original.toString());
+        media.setContentHash(contentHash);
+        return media;
+    }
+
+    private static MediaVariant variant(int width) {
+        return new MediaVariant(width, width / 2, "/tmp/v-" + width, "image/jpeg", 1000L, "v-" + width);
+    }
+}
@@ -0,0 +1,128 @@
+package com.buyapp.mediaservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.UserDto;
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.repository.MediaRepository;
+
+@ExtendWith(MockitoExtension.class)
+class MediaServiceTest {
+
+    @Mock
+    private MediaRepository mediaRepository;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private WebClient.Builder webClientBuilder;
+
+    @Mock
+    private MediaEventProducer mediaEventProducer;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    @Mock
+    private ContentStore contentStore;
+
+    @InjectMocks
+    private MediaService mediaService;
+
+    private final MockMultipartFile file =
+            new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[] { 1, 2, 3 });
+    private final Authentication seller = new UsernamePasswordAuthenticationToken(
+            "seller@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_SELLER")));
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ProductDto product = new ProductDto();
+        product.setId("p1");
+        product.setUser("seller@example.com");
+        UserDto user = new UserDto();
+        user.setEmail("seller@example.com");
+        WebClient.ResponseSpec response = webClientBuilder.build().get()
+                .uri(anyString(), any(Object[].class)).retrieve();
+        when(response.bodyToMono(ProductDto.class).block()).thenReturn(product);
+        when(response.bodyToMono(UserDto.class).block()).thenReturn(user);
+        when(contentStore.store(eq(UploadLayout.IMAGES), any()))
+                .thenReturn(new StoredContent("abcd", "uploads/images/ab/cd/abcd", 3L, true));
+    }
+
+    @Test
+    void uploadMedia_WhenSaveFails_ShouldReleaseStoredContent() {
+        // Arrange
+        when(mediaRepository.save(any(Media.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> mediaService.uploadMedia(file, "p1", seller));
+        verify(contentStore).release("abcd");
+        verify(mediaRepository, never()).deleteById(anyString());
+    }
+
+    @Test
+    void uploadMedia_WhenFailingAfterSave_ShouldRemoveMediaAndReleaseContent() {
+        // Arrange
+        Media saved = new Media();
+        saved.setId("m1");
+        when(mediaRepository.save(any(Media.class))).thenReturn(saved);
+        doThrow(new KafkaException("no broker")).when(mediaEventProducer).sendMediaEvent(any());
+
+        // Act & Assert
+        assertThrows(KafkaException.class, () -> mediaService.uploadMedia(file, "p1", seller));
+        verify(mediaRepository).deleteById("m1");
+        verify(contentStore).release("abcd");
+    }
+
+    @Test
+    void uploadMedia_WhenMediaCannotBeRemoved_ShouldKeepContent() {
+        // Arrange
+        Media saved = new Media();
+        saved.setId("m1");
+        when(mediaRepository.save(any(Media.class))).thenReturn(saved);
+        doThrow(new KafkaException("no broker")).when(mediaEventProducer).sendMediaEvent(any());
+        doThrow(new DataAccessResourceFailureException("down")).when(mediaRepository).deleteById("m1");
+
+        // Act & Assert
+        assertThrows(KafkaException.class, () -> mediaService.uploadMedia(file, "p1", seller));
+        verify(contentStore, never()).release(anyString());
+    }
+
+    @Test
+    void uploadMedia_WhenSucceeding_ShouldKeepContent() {
+        // Arrange
+        Media saved = new Media();
+        saved.setId("m1");
+        when(mediaRepository.save(any(Media.class))).thenReturn(saved);
+
+        // Act
+        mediaService.uploadMedia(file, "p1", seller);
+
+        // Assert
+        verify(imageVariantService).generateVariantsAsync(saved);
+        verify(contentStore, never()).release(anyString());
+    }
+}
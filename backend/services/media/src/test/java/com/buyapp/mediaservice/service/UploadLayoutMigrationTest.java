@@ -0,0 +1,259 @@
+package com.buyapp.mediaservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.mediaservice.model.Avatar;
+import com.buyapp.mediaservice.model.Media;
+import com.buyapp.mediaservice.storage.LocalMediaStorage;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class UploadLayoutMigrationTest {
+
+    private static final String HASH = "3ae1d1ed1d6bd6ab6eeacd8e45e74e8ce7f1e4d80c4ef7d8fa73afc93fcdd6d5";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ContentStore contentStore;
+
+    @TempDir
+    Path dir;
+
+    private UploadLayoutMigration migration;
+    private List<String> oldNames;
+
+    @BeforeEach
+    void setUp() {
+        migration = new UploadLayoutMigration(mongoTemplate, contentStore, new LocalMediaStorage(Path.of("")));
+        oldNames = new ArrayList<>();
+    }
+
+    @Test
+    void migrate_WhenAnotherInstanceHoldsTheLock_ShouldDoNothing() {
+        // Arrange
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenThrow(new DuplicateKeyException("held"));
+
+        // Act
+        long migrated = migration.migrate();
+
+        // Assert
+        assertEquals(0, migrated);
+        verify(mongoTemplate, never()).find(any(Query.class), any());
+        verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+    }
+
+    @Test
+    void migrate_WhenLockAcquired_ShouldReleaseItAfterTheRun() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        long migrated = migration.migrate();
+
+        // Assert
+        assertEquals(0, migrated);
+        verify(mongoTemplate).find(any(Query.class), eq(Media.class));
+        verify(mongoTemplate).find(any(Query.class), eq(Avatar.class));
+        verify(mongoTemplate).remove(any(Query.class), eq("migration_locks"));
+    }
+
+    @Test
+    void migrate_WhenLockTakenOver_ShouldStopMigrating() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        migration.migrate();
+
+        // Assert
+        verify(mongoTemplate).find(any(Query.class), eq(Media.class));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Avatar.class));
+    }
+
+    @Test
+    void migrate_WhenMediaHasPerUploadFile_ShouldStoreItAndDeleteOldFile() throws Exception {
+        // Arrange
+        Path old = Files.writeString(dir.resolve("8f3c2a1e-1b2c-4d5e-8f90-123456789abc.jpg"), "image");
+        String sharded = UploadLayout.locate(dir, HASH).toString();
+        when(contentStore.store(eq(dir), any(InputStreamSource.class)))
+                .thenReturn(new StoredContent(HASH, sharded, 5, true));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        boolean migrated = migration.migrate(media(old.toString(), null), oldNames);
+
+        // Assert
+        assertTrue(migrated);
+        assertFalse(Files.exists(old));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Media.class));
+        assertEquals(Update.update("imagePath", sharded).set("contentHash", HASH), update.getValue());
+    }
+
+    @Test
+    void migrate_WhenMediaUsesSeedImage_ShouldKeepSeedFile() throws Exception {
+        // Arrange
+        Path seed = Files.writeString(dir.resolve("product-blush.jpg"), "image");
+        when(contentStore.store(eq(dir), any(InputStreamSource.class)))
+                .thenReturn(new StoredContent(HASH, UploadLayout.locate(dir, HASH).toString(), 5, true));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        migration.migrate(media(seed.toString(), null), oldNames);
+
+        // Assert
+        assertTrue(Files.exists(seed));
+    }
+
+    @Test
+    void migrate_WhenMediaChangedMeanwhile_ShouldReleaseReferenceAndKeepFile() throws Exception {
+        // Arrange
+        Path old = Files.writeString(dir.resolve("8f3c2a1e-1b2c-4d5e-8f90-123456789abc.jpg"), "image");
+        when(contentStore.store(eq(dir), any(InputStreamSource.class)))
+                .thenReturn(new StoredContent(HASH, UploadLayout.locate(dir, HASH).toString(), 5, false));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        boolean migrated = migration.migrate(media(old.toString(), null), oldNames);
+
+        // Assert
+        assertFalse(migrated);
+        verify(contentStore).release(HASH);
+        assertTrue(Files.exists(old));
+    }
+
+    @Test
+    void migrate_WhenAlreadySharded_ShouldDoNothing() throws Exception {
+        // Act
+        boolean migrated = migration.migrate(media(UploadLayout.locate(dir, HASH).toString(), HASH), oldNames);
+
+        // Assert
+        assertFalse(migrated);
+        verifyNoInteractions(contentStore, mongoTemplate);
+    }
+
+    @Test
+    void migrate_WhenAvatarContentIsStoredFlat_ShouldRelocateAndKeepOldNameForLater() throws Exception {
+        // Arrange
+        String flat = dir.resolve(HASH).toString();
+        String sharded = UploadLayout.locate(dir, HASH).toString();
+        Avatar avatar = new Avatar("a1", flat, "user1", "me.png", "image/png", 5L, HASH);
+        when(contentStore.relocate(HASH)).thenReturn(sharded);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Avatar.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        boolean migrated = migration.migrate(avatar, oldNames);
+
+        // Assert
+        assertTrue(migrated);
+        assertEquals(List.of(flat), oldNames);
+    }
+
+    @Test
+    void migrate_WhenRunCompletes_ShouldDeleteOldNamesNoDocumentPointsAt() throws Exception {
+        // Arrange
+        Path flat = Files.write(dir.resolve(HASH), new byte[] {1});
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Media.class)))
+                .thenReturn(List.of(media(flat.toString(), HASH)), List.of());
+        when(contentStore.relocate(HASH)).thenReturn(UploadLayout.locate(dir, HASH).toString());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        migration.migrate();
+
+        // Assert
+        assertFalse(Files.exists(flat));
+    }
+
+    @Test
+    void migrate_WhenDocumentSharingContentStillPointsAtOldName_ShouldKeepIt() throws Exception {
+        // Arrange
+        Path flat = Files.write(dir.resolve(HASH), new byte[] {1});
+        Media rewritten = media(flat.toString(), HASH);
+        Media changedMeanwhile = media(flat.toString(), HASH);
+        changedMeanwhile.setId("m2");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Media.class)))
+                .thenReturn(List.of(rewritten, changedMeanwhile), List.of(changedMeanwhile));
+        when(contentStore.relocate(HASH)).thenReturn(UploadLayout.locate(dir, HASH).toString());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        migration.migrate();
+
+        // Assert
+        assertTrue(Files.exists(flat));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(Media.class));
+        assertTrue(query.getValue().getQueryObject().toJson().contains("variants.imagePath"));
+    }
+
+    @Test
+    void migrate_WhenLockLostBeforeTheEnd_ShouldKeepOldNames() throws Exception {
+        // Arrange
+        Path flat = Files.write(dir.resolve(HASH), new byte[] {1});
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Media.class))).thenReturn(List.of(media(flat.toString(), HASH)));
+        when(contentStore.relocate(HASH)).thenReturn(UploadLayout.locate(dir, HASH).toString());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Media.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        migration.migrate();
+
+        // Assert
+        assertTrue(Files.exists(flat));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Avatar.class));
+    }
+
+    private static Media media(String imagePath, String contentHash) {
+        Media media = new Media();
+        media.setId("m1");
+        media.setImagePath(imagePath);
+        media.setContentHash(contentHash);
+        return media;
+    }
+}
@@ -0,0 +1,36 @@
+package com.buyapp.mediaservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+class UploadLayoutTest {
+
+    private static final String HASH = "3ae1d1ed1d6bd6ab6eeacd8e45e74e8ce7f1e4d80c4ef7d8fa73afc93fcdd6d5";
+
+    @Test
+    void locate_ShouldNestUnderTwoPrefixDirectories() {
+        assertEquals(Paths.get("uploads/images/3a/e1/" + HASH), UploadLayout.locate(UploadLayout.IMAGES, HASH));
+    }
+
+    @Test
+    void isSharded_ShouldRecognizeOnlyLocatedFiles() {
+        assertTrue(UploadLayout.isSharded(UploadLayout.locate(UploadLayout.IMAGES, HASH)));
+        assertFalse(UploadLayout.isSharded(UploadLayout.IMAGES.resolve(HASH)));
+        assertFalse(UploadLayout.isSharded(Paths.get("uploads/images/8f3c2a1e-1b2c-4d5e-8f90-123456789abc.jpg")));
+        assertFalse(UploadLayout.isSharded(Paths.get("ab")));
+    }
+
+    @Test
+    void rootOf_ShouldStripShardDirectories() {
+        Path flat = UploadLayout.AVATARS.resolve("product-blush.jpg");
+
+        assertEquals(UploadLayout.AVATARS, UploadLayout.rootOf(UploadLayout.locate(UploadLayout.AVATARS, HASH)));
+        assertEquals(UploadLayout.AVATARS, UploadLayout.rootOf(flat));
+    }
+}
@@ -0,0 +1,95 @@
+package com.buyapp.mediaservice.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LocalMediaStorageTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path dir;
+
+    private LocalMediaStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalMediaStorage(dir);
+    }
+
+    @Test
+    void write_ShouldCreateDirectoriesAndLeaveNoTemporaryFile() throws Exception {
+        // Act
+        storage.write("uploads/images/3a/e1/3ae1", new ByteArrayInputStream(CONTENT));
+
+        // Assert
+        assertArrayEquals(CONTENT, Files.readAllBytes(dir.resolve("uploads/images/3a/e1/3ae1")));
+        try (var files = Files.list(dir.resolve("uploads/images/3a/e1"))) {
+            assertEquals(1, files.count());
+        }
+        assertEquals(CONTENT.length, storage.stat("uploads/images/3a/e1/3ae1").size());
+    }
+
+    @Test
+    void read_WithRange_ShouldReturnOnlyThoseBytes() throws Exception {
+        // Arrange
+        Files.write(dir.resolve("file"), CONTENT);
+
+        // Act
+        byte[] read;
+        try (InputStream content = storage.read("file", 3, 4)) {
+            read = content.readAllBytes();
+        }
+
+        // Assert
+        assertEquals("3456", new String(read, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void copyAndMove_ShouldLeaveContentUnderTheNewKeys() throws Exception {
+        // Arrange
+        Files.write(dir.resolve("flat"), CONTENT);
+
+        // Act
+        storage.copy("flat", "3a/e1/copy");
+        storage.move("flat", "3a/e1/moved");
+
+        // Assert
+        assertFalse(storage.exists("flat"));
+        assertArrayEquals(CONTENT, Files.readAllBytes(dir.resolve("3a/e1/copy")));
+        assertArrayEquals(CONTENT, Files.readAllBytes(dir.resolve("3a/e1/moved")));
+    }
+
+    @Test
+    void moveIn_ShouldTakeTheFile() throws Exception {
+        // Arrange
+        Path file = Files.write(Files.createTempFile("variant-", ".jpg"), CONTENT);
+
+        // Act
+        storage.moveIn("variant", file);
+
+        // Assert
+        assertFalse(Files.exists(file));
+        assertTrue(storage.exists("variant"));
+    }
+
+    @Test
+    void stat_WhenKeyMissing_ShouldThrowNoSuchFile() {
+        assertThrows(NoSuchFileException.class, () -> storage.stat("gone"));
+        assertThrows(NoSuchFileException.class, () -> storage.read("gone"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.buyapp.mediaservice.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.MinIOContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Runs S3MediaStorage against MinIO. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class S3MediaStorageTest {
+
+    @Container
+    static MinIOContainer minio = new MinIOContainer("minio/minio:RELEASE.2023-09-04T19-57-37Z");
+
+    private static S3Client s3;
+    private static S3MediaStorage storage;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        s3 = S3Client.builder()
+                .httpClientBuilder(ApacheHttpClient.builder())
+                .endpointOverride(URI.create(minio.getS3URL()))
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(minio.getUserName(), minio.getPassword())))
+                .build();
+        storage = new S3MediaStorage(s3, "media", S3MediaStorage.MIN_PART_SIZE);
+        storage.createBucketIfMissing();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        s3.close();
+    }
+
+    @Test
+    void write_WhenLargerThanAPart_ShouldUploadInPartsAndReadBack() throws Exception {
+        // Arrange
+        byte[] content = new byte[S3MediaStorage.MIN_PART_SIZE * 2 + 1234];
+        new Random(42).nextBytes(content);
+
+        // Act
+        storage.write("uploads/images/ab/cd/large", new ByteArrayInputStream(content));
+
+        // Assert
+        assertEquals(content.length, storage.stat("uploads/images/ab/cd/large").size());
+        try (InputStream read = storage.read("uploads/images/ab/cd/large")) {
+            assertArrayEquals(content, read.readAllBytes());
+        }
+        try (InputStream range = storage.read("uploads/images/ab/cd/large", S3MediaStorage.MIN_PART_SIZE - 2, 4)) {
+            assertArrayEquals(Arrays.copyOfRange(content, S3MediaStorage.MIN_PART_SIZE - 2,
+                    S3MediaStorage.MIN_PART_SIZE + 2), range.readAllBytes());
+        }
+    }
+
+    @Test
+    void moveAndDelete_ShouldLeaveNothingUnderTheOldKeys() throws Exception {
+        // Arrange
+        byte[] content = "image".getBytes();
+        storage.write("flat", new ByteArrayInputStream(content));
+
+        // Act
+        storage.move("flat", "ab/cd/moved");
+
+        // Assert
+        assertFalse(storage.exists("flat"));
+        try (InputStream read = storage.read("ab/cd/moved")) {
+            assertArrayEquals(content, read.readAllBytes());
+        }
+        storage.delete("ab/cd/moved");
+        assertThrows(NoSuchFileException.class, () -> storage.stat("ab/cd/moved"));
+        assertThrows(NoSuchFileException.class, () -> storage.read("ab/cd/moved"));
+    }
+}
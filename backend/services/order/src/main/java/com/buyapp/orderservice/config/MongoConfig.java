@@ -1,10 +1,88 @@
 package com.buyapp.orderservice.config;
 
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.service.OrderSearchTermsBackfill;
+import com.buyapp.orderservice.service.SellerStatsService;
 
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
     // MongoDB auditing enabled for @CreatedDate and @LastModifiedDate
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    /**
+     * Keep Order.searchTerms in sync on every save. New orders get their ID
+     * up front so that it is searchable from the first write.
+     */
+    @Bean
+    BeforeConvertCallback<Order> orderSearchTermsCallback() {
+        return (order, collection) -> {
+            if (order.getId() == null) {
+                order.setId(new ObjectId().toHexString());
+            }
+            order.refreshSearchTerms();
+            return order;
+        };
+    }
+
+    /**
+     * Rewrite the search terms of orders stored before the current format, in
+     * the background so that startup is not held up. Enable on one instance
+     * only; the work is idempotent, so a second run merely re-reads the
+     * orders. A run in progress is interrupted on shutdown and can simply be
+     * started again.
+     */
+    @Bean
+    CommandLineRunner backfillOrderSearchTerms(OrderSearchTermsBackfill backfill,
+            @Qualifier("searchTermsBackfillExecutor") TaskExecutor executor,
+            @Value("${order.search-terms.backfill:false}") boolean enabled) {
+        return args -> {
+            if (enabled) {
+                executor.execute(backfill::backfill);
+            }
+        };
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor searchTermsBackfillExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("search-terms-backfill-");
+        // Interrupt the run on shutdown; it stops after the current batch
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        return executor;
+    }
+
+    /**
+     * Build the per-seller stats from existing orders on first startup. Only
+     * one instance builds them; it is safe while orders keep coming in.
+     */
+    @Bean
+    CommandLineRunner initSellerStats(MongoTemplate mongoTemplate, SellerStatsService sellerStatsService) {
+        return args -> {
+            if (mongoTemplate.estimatedCount(Order.class) == 0) {
+                return;
+            }
+            int sellers = sellerStatsService.buildOnce();
+            if (sellers >= 0) {
+                logger.info("Built order stats for {} sellers", sellers);
+            }
+        };
+    }
 }
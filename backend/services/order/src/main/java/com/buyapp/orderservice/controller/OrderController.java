@@ -19,8 +19,11 @@ import org.springframework.web.bind.annotation.RestController;
 import com.buyapp.common.dto.CartDto;
 import com.buyapp.common.dto.CartDto.CartItemDto;
 import com.buyapp.common.dto.OrderDto;
+import com.buyapp.common.dto.SellerStatsDto;
 import com.buyapp.common.dto.ShippingAddressDto;
+import com.buyapp.common.dto.StockHoldDto;
 import com.buyapp.orderservice.model.OrderStatus;
+import com.buyapp.orderservice.service.OrderPage;
 import com.buyapp.orderservice.service.OrderService;
 
 import jakarta.validation.Valid;
@@ -28,6 +31,13 @@ import jakarta.validation.Valid;
 @RestController
 public class OrderController {
 
+    /**
+     * Response header carrying the opaque cursor for the next page.
+     * Listings are always paginated: without limit a page holds
+     * OrderService's default page size, without cursor it is the first.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final OrderService orderService;
 
     public OrderController(OrderService orderService) {
@@ -93,6 +103,16 @@ public class OrderController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Start checkout, holding stock for the cart until the hold expires
+     * POST /cart/checkout
+     */
+    @PostMapping("/cart/checkout")
+    public ResponseEntity<StockHoldDto> startCheckout(@RequestHeader("X-User-Email") String userId) {
+        StockHoldDto hold = orderService.startCheckout(userId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
     // ========== Order Endpoints ==========
 
     /**
@@ -109,13 +129,14 @@ public class OrderController {
 
     /**
      * Get all orders for buyer
-     * GET /orders
+     * GET /orders?cursor=&limit=
      */
     @GetMapping("/orders")
     public ResponseEntity<List<OrderDto>> getOrders(
-            @RequestHeader("X-User-Email") String userId) {
-        List<OrderDto> orders = orderService.getOrders(userId);
-        return ResponseEntity.ok(orders);
+            @RequestHeader("X-User-Email") String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(orderService.getOrdersPage(userId, cursor, limit));
     }
 
     /**
@@ -168,7 +189,7 @@ public class OrderController {
 
     /**
      * Search orders (buyer)
-     * GET /orders/search
+     * GET /orders/search?q=&status=&dateFrom=&dateTo=&cursor=&limit=
      */
     @GetMapping("/orders/search")
     public ResponseEntity<List<OrderDto>> searchOrders(
@@ -176,22 +197,35 @@ public class OrderController {
             @RequestParam(required = false) String q,
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo) {
-        List<OrderDto> orders = orderService.searchOrders(userId, q, status, dateFrom, dateTo);
-        return ResponseEntity.ok(orders);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(orderService.searchOrdersPage(userId, q, status, dateFrom, dateTo, cursor, limit));
     }
 
     // ========== Seller Endpoints ==========
 
     /**
      * Get all orders for seller (orders containing seller's products)
-     * GET /orders/seller
+     * GET /orders/seller?cursor=&limit=
      */
     @GetMapping("/orders/seller")
     public ResponseEntity<List<OrderDto>> getSellerOrders(
+            @RequestHeader("X-User-Email") String sellerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(orderService.getSellerOrdersPage(sellerId, cursor, limit));
+    }
+
+    /**
+     * Get dashboard totals for seller
+     * GET /orders/seller/stats
+     */
+    @GetMapping("/orders/seller/stats")
+    public ResponseEntity<SellerStatsDto> getSellerStats(
             @RequestHeader("X-User-Email") String sellerId) {
-        List<OrderDto> orders = orderService.getSellerOrders(sellerId);
-        return ResponseEntity.ok(orders);
+        SellerStatsDto stats = orderService.getSellerStats(sellerId);
+        return ResponseEntity.ok(stats);
     }
 
     /**
@@ -221,7 +255,7 @@ public class OrderController {
 
     /**
      * Search orders (seller)
-     * GET /orders/seller/search
+     * GET /orders/seller/search?q=&status=&dateFrom=&dateTo=&cursor=&limit=
      */
     @GetMapping("/orders/seller/search")
     public ResponseEntity<List<OrderDto>> searchSellerOrders(
@@ -229,8 +263,18 @@ public class OrderController {
             @RequestParam(required = false) String q,
             @RequestParam(required = false) OrderStatus status,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFrom,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo) {
-        List<OrderDto> orders = orderService.searchSellerOrders(sellerId, q, status, dateFrom, dateTo);
-        return ResponseEntity.ok(orders);
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return toPageResponse(
+                orderService.searchSellerOrdersPage(sellerId, q, status, dateFrom, dateTo, cursor, limit));
+    }
+
+    private ResponseEntity<List<OrderDto>> toPageResponse(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -3,6 +3,7 @@ package com.buyapp.orderservice.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -27,11 +28,15 @@ public class Cart {
 
     @NotBlank(message = "User ID cannot be empty")
     @Field("userId")
+    @Indexed(unique = true)
     private String userId;
 
     @Valid
     private List<CartItem> items;
 
+    // Set from checkout start until the order is placed or the cart is cleared
+    private CartStockHold stockHold;
+
     @CreatedDate
     @Field("createdAt")
     private LocalDateTime createdAt;
@@ -99,6 +104,7 @@ public class Cart {
         } else {
             items = new ArrayList<>();
         }
+        stockHold = null;
         updatedAt = LocalDateTime.now();
     }
 
@@ -0,0 +1,49 @@
+package com.buyapp.orderservice.model;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.buyapp.common.dto.StockItemDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The product-service stock hold taken when checkout started, kept on the cart
+ * until the order is placed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartStockHold {
+
+    private String id;
+
+    private List<StockItemDto> items;
+
+    private LocalDateTime expiresAt;
+
+    /**
+     * Whether the hold is for exactly these quantities; the cart may have
+     * changed since checkout started.
+     */
+    public boolean covers(List<CartItem> cartItems) {
+        return quantities(items, StockItemDto::getProductId, StockItemDto::getQuantity)
+                .equals(quantities(cartItems, CartItem::getProductId, CartItem::getQuantity));
+    }
+
+    private static <T> Map<String, Integer> quantities(List<T> lines,
+            Function<T, String> productId, Function<T, Integer> quantity) {
+        Map<String, Integer> quantities = new HashMap<>();
+        if (lines != null) {
+            lines.forEach(line -> quantities.merge(productId.apply(line), quantity.apply(line), Integer::sum));
+        }
+        return quantities;
+    }
+}
@@ -3,6 +3,10 @@ package com.buyapp.orderservice.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,6 +23,17 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Document(collection = "orders")
+@CompoundIndexes({
+        // Buyer listings: filter by user, newest first, id as keyset tie-breaker
+        @CompoundIndex(name = "user_created", def = "{'userId': 1, 'createdAt': -1, '_id': -1}"),
+        // Seller listings and search: multikey on the line items' seller
+        @CompoundIndex(name = "seller_created", def = "{'items.sellerId': 1, 'createdAt': -1, '_id': -1}"),
+        // Buyer search: the user's orders by ID or order number, and by product words
+        @CompoundIndex(name = "user_search", def = "{'userId': 1, 'searchTerms': 1}"),
+        @CompoundIndex(name = "user_item_search", def = "{'userId': 1, 'items.searchTerms': 1}"),
+        // Seller search: product words of the seller's own line items
+        @CompoundIndex(name = "seller_item_search", def = "{'items.sellerId': 1, 'items.searchTerms': 1}")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -46,12 +61,21 @@ public class Order {
 
     @CreatedDate
     @Field("createdAt")
+    @Indexed(direction = IndexDirection.DESCENDING)
     private LocalDateTime createdAt;
 
     @LastModifiedDate
     @Field("updatedAt")
     private LocalDateTime updatedAt;
 
+    /**
+     * ID and order number, maintained on save; see {@link OrderSearchTerms}.
+     * Selective enough to be looked up on their own.
+     */
+    @Indexed
+    @Field("searchTerms")
+    private List<String> searchTerms;
+
     public Order(String userId, List<OrderItem> items, ShippingAddressDto shippingAddress) {
         this.userId = userId;
         this.items = items != null ? items : new ArrayList<>();
@@ -128,48 +152,13 @@ public class Order {
     }
 
     /**
-     * Check if order matches search query (by ID or product name)
+     * Recompute the normalized search terms of the order and its items from
+     * the current ID and product names. Called before every save.
      */
-    public boolean matchesQuery(String lowerQuery) {
-        // Match by order ID
-        if (matchesId(lowerQuery)) {
-            return true;
-        }
-
-        // Match by product name (with null safety)
+    public void refreshSearchTerms() {
+        this.searchTerms = OrderSearchTerms.forOrder(this);
         if (items != null) {
-            return items.stream()
-                    .anyMatch(item -> item.getProductName() != null
-                            && item.getProductName().toLowerCase().contains(lowerQuery));
+            items.forEach(item -> item.setSearchTerms(OrderSearchTerms.forItem(item)));
         }
-
-        return false;
-    }
-
-    /**
-     * Check if order matches search query for seller (by ID or seller's product names)
-     */
-    public boolean matchesSellerQuery(String sellerId, String lowerQuery) {
-        // Match by order ID
-        if (matchesId(lowerQuery)) {
-            return true;
-        }
-
-        // Match by seller's product names (with null safety)
-        if (items != null) {
-            return items.stream()
-                    .filter(item -> item.getSellerId() != null && item.getSellerId().equals(sellerId))
-                    .anyMatch(item -> item.getProductName() != null
-                            && item.getProductName().toLowerCase().contains(lowerQuery));
-        }
-
-        return false;
-    }
-
-    /**
-     * Check if order ID matches the query
-     */
-    private boolean matchesId(String lowerQuery) {
-        return id != null && id.toLowerCase().contains(lowerQuery);
     }
 }
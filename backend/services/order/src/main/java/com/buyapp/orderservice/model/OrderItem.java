@@ -4,13 +4,13 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class OrderItem {
     @NotBlank(message = "Product ID cannot be empty")
     private String productId;
@@ -29,6 +29,17 @@ public class OrderItem {
     @Positive(message = "Price must be positive")
     private Double price;
 
+    // Prefixes of the product-name words, maintained on save; see OrderSearchTerms
+    private List<String> searchTerms;
+
+    public OrderItem(String productId, String productName, String sellerId, Integer quantity, Double price) {
+        this.productId = productId;
+        this.productName = productName;
+        this.sellerId = sellerId;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
     // Helper method to calculate item total
     public Double getTotal() {
         return price * quantity;
@@ -0,0 +1,90 @@
+package com.buyapp.orderservice.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the normalized, indexed search terms stored on {@link Order} and
+ * its {@link OrderItem}s.
+ *
+ * The order's own terms are its ID and its order number (the last eight
+ * characters of the ID, as shown to customers), matched exactly. Each line
+ * item holds every lowercase prefix of its product-name words, so a seller
+ * search only matches that seller's products through the compound index on
+ * (items.sellerId, items.searchTerms). A query matches when every query word
+ * is one of the order's terms, or every one is a term of its items.
+ */
+public final class OrderSearchTerms {
+
+    static final int MAX_TERM_LENGTH = 24;
+
+    static final int ORDER_NUMBER_LENGTH = 8;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private OrderSearchTerms() {
+    }
+
+    /**
+     * @return the exact terms of the order: its ID and order number
+     */
+    public static List<String> forOrder(Order order) {
+        if (order.getId() == null || order.getId().isEmpty()) {
+            return List.of();
+        }
+        String id = order.getId().toLowerCase(Locale.ROOT);
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add(id);
+        if (id.length() > ORDER_NUMBER_LENGTH) {
+            terms.add(id.substring(id.length() - ORDER_NUMBER_LENGTH));
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * @return the prefixes of the item's product-name words
+     */
+    public static List<String> forItem(OrderItem item) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String word : words(item.getProductName())) {
+            terms.addAll(prefixes(word));
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * @return the normalized words of a query; empty if it has none
+     */
+    public static List<String> forQuery(String query) {
+        return words(query).stream()
+                .map(word -> word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word)
+                .distinct()
+                .toList();
+    }
+
+    private static List<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static List<String> prefixes(String word) {
+        int maxLength = Math.min(word.length(), MAX_TERM_LENGTH);
+        List<String> prefixes = new ArrayList<>(maxLength);
+        for (int length = 1; length <= maxLength; length++) {
+            prefixes.add(word.substring(0, length));
+        }
+        return prefixes;
+    }
+}
@@ -0,0 +1,52 @@
+package com.buyapp.orderservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running per-seller order totals, one document per seller, kept current
+ * with atomic $inc updates as orders are created and change status.
+ * Orders a buyer deletes from their history still count as sales.
+ */
+@Document(collection = "seller_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+public class SellerStats {
+
+    @Id
+    private String sellerId;
+
+    @Field("revenue")
+    private Double revenue = 0.0;
+
+    @Field("itemsSold")
+    private Long itemsSold = 0L;
+
+    @Field("totalOrders")
+    private Long totalOrders = 0L;
+
+    /** Order count keyed by OrderStatus name. */
+    @Field("ordersByStatus")
+    private Map<String, Long> ordersByStatus = new HashMap<>();
+
+    @Field("updatedAt")
+    private LocalDateTime updatedAt;
+
+    /** Moved by every live update; a recompute only writes if it has not moved meanwhile. */
+    @Field("generation")
+    private Long generation;
+
+    public SellerStats(String sellerId) {
+        this.sellerId = sellerId;
+    }
+}
@@ -0,0 +1,65 @@
+package com.buyapp.orderservice.repository;
+
+import com.buyapp.orderservice.model.Cart;
+import com.buyapp.orderservice.model.CartItem;
+import com.buyapp.orderservice.model.CartStockHold;
+
+import java.util.List;
+
+/**
+ * Single-line cart mutations. Each one is a findAndModify that changes only
+ * the affected line and returns the cart as it is after the update, so
+ * concurrent clicks never overwrite each other.
+ */
+public interface CartRepositoryCustom {
+
+    /**
+     * Append a line for a product that is not in the cart yet.
+     * @return the updated cart, or null if the cart does not exist or already has the product
+     */
+    Cart pushItem(String userId, CartItem item);
+
+    /**
+     * Add to the quantity of an existing line and refresh its name and price,
+     * as long as the new quantity does not exceed maxQuantity.
+     * @return the updated cart, or null if there is no such line or it would exceed maxQuantity
+     */
+    Cart incrementItem(String userId, CartItem item, int maxQuantity);
+
+    /**
+     * Create the cart holding just this line, unless a cart already exists.
+     * @return the new cart, or the existing cart unchanged
+     */
+    Cart createWithItem(String userId, CartItem item);
+
+    /**
+     * Set the quantity and price of an existing line.
+     * @return the updated cart, or null if the cart or the line does not exist
+     */
+    Cart setItemQuantity(String userId, String productId, int quantity, Double price);
+
+    /**
+     * Remove the line for a product, if present.
+     * @return the updated cart, or null if the cart does not exist
+     */
+    Cart pullItem(String userId, String productId);
+
+    /**
+     * Remove the given lines, each only while its quantity is still the
+     * given one: lines added or changed meanwhile stay in the cart.
+     * @return the updated cart, or null if the cart does not exist
+     */
+    Cart pullItems(String userId, List<CartItem> items);
+
+    /**
+     * Remove the cart's stock hold if it is still the given one.
+     * @return the updated cart, or null if the cart does not exist or holds other stock
+     */
+    Cart removeStockHold(String userId, String holdId);
+
+    /**
+     * Record the stock hold taken for the cart, or remove it when hold is null.
+     * @return the previous cart, or null if the cart does not exist
+     */
+    Cart setStockHold(String userId, CartStockHold hold);
+}
@@ -0,0 +1,104 @@
+package com.buyapp.orderservice.repository;
+
+import com.buyapp.orderservice.model.Cart;
+import com.buyapp.orderservice.model.CartItem;
+import com.buyapp.orderservice.model.CartStockHold;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    public CartRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Cart pushItem(String userId, CartItem item) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("items.productId").ne(item.getProductId()));
+        Update update = new Update()
+                .push("items", item)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart incrementItem(String userId, CartItem item, int maxQuantity) {
+        Query query = Query.query(Criteria.where("userId").is(userId)
+                .and("items").elemMatch(Criteria.where("productId").is(item.getProductId())
+                        .and("quantity").lte(maxQuantity - item.getQuantity())));
+        Update update = new Update()
+                .inc("items.$.quantity", item.getQuantity())
+                .set("items.$.productName", item.getProductName())
+                .set("items.$.price", item.getPrice())
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart createWithItem(String userId, CartItem item) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert("items", List.of(item))
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now);
+        return mongoTemplate.findAndModify(byUserId(userId), update,
+                FindAndModifyOptions.options().returnNew(true).upsert(true), Cart.class);
+    }
+
+    @Override
+    public Cart setItemQuantity(String userId, String productId, int quantity, Double price) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("items.productId").is(productId));
+        Update update = new Update()
+                .set("items.$.quantity", quantity)
+                .set("items.$.price", price)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart pullItem(String userId, String productId) {
+        Update update = new Update()
+                .pull("items", new Document("productId", productId))
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(byUserId(userId), update, RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart pullItems(String userId, List<CartItem> items) {
+        List<Document> lines = items.stream()
+                .map(item -> new Document("productId", item.getProductId()).append("quantity", item.getQuantity()))
+                .toList();
+        Update update = new Update()
+                .pull("items", new Document("$or", lines))
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.findAndModify(byUserId(userId), update, RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart removeStockHold(String userId, String holdId) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and("stockHold.id").is(holdId));
+        return mongoTemplate.findAndModify(query, new Update().unset("stockHold"), RETURN_NEW, Cart.class);
+    }
+
+    @Override
+    public Cart setStockHold(String userId, CartStockHold hold) {
+        Update update = hold != null ? Update.update("stockHold", hold) : new Update().unset("stockHold");
+        return mongoTemplate.findAndModify(byUserId(userId), update, Cart.class);
+    }
+
+    private static Query byUserId(String userId) {
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+}
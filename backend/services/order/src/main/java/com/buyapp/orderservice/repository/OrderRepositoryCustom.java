@@ -0,0 +1,69 @@
+package com.buyapp.orderservice.repository;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order queries that need MongoTemplate rather than derived query methods.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Largest page a paged query returns. Callers may ask for one extra row
+     * beyond this to find out whether a next page exists.
+     */
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * Search orders containing a seller's products, filtered entirely in MongoDB.
+     * Each returned order only carries the seller's own line items.
+     * @param sellerId the seller ID
+     * @param query optional words, each matching a prefix of the order ID or of a word in
+     *        one of the seller's product names (case-insensitive)
+     * @param status optional order status
+     * @param dateFrom optional lower bound for createdAt (inclusive)
+     * @param dateTo optional upper bound for createdAt (inclusive)
+     * @return List of matching orders, newest first
+     */
+    List<Order> searchSellerOrders(String sellerId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo);
+
+    /**
+     * One page of {@link #searchSellerOrders}, ordered by (createdAt desc, id desc).
+     * @param after keyset position to continue from, or null for the first page
+     * @param limit maximum number of orders, capped at MAX_PAGE_SIZE + 1
+     * @return List of matching orders after the cursor
+     */
+    List<Order> searchSellerOrdersPage(String sellerId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after, int limit);
+
+    /**
+     * Search a buyer's orders, filtered entirely in MongoDB.
+     * @param userId the user ID
+     * @param query optional words, each matching a prefix of the order ID or of a word in
+     *        a product name (case-insensitive)
+     * @param status optional order status
+     * @param dateFrom optional lower bound for createdAt (inclusive)
+     * @param dateTo optional upper bound for createdAt (inclusive)
+     * @return List of matching orders, newest first
+     */
+    List<Order> searchUserOrders(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo);
+
+    /**
+     * One page of {@link #searchUserOrders}, ordered by (createdAt desc, id desc).
+     * @param userId the user ID
+     * @param query optional search words, as for searchUserOrders
+     * @param status optional order status
+     * @param dateFrom optional lower bound for createdAt (inclusive)
+     * @param dateTo optional upper bound for createdAt (inclusive)
+     * @param after keyset position to continue from, or null for the first page
+     * @param limit maximum number of orders, capped at MAX_PAGE_SIZE + 1
+     * @return List of matching orders after the cursor
+     */
+    List<Order> findUserOrdersPage(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after, int limit);
+}
@@ -0,0 +1,160 @@
+package com.buyapp.orderservice.repository;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.limit;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderSearchTerms;
+import com.buyapp.orderservice.model.OrderStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrderRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Order> searchSellerOrders(String sellerId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return aggregateSellerOrders(sellerId, query, status, dateFrom, dateTo, null, null);
+    }
+
+    @Override
+    public List<Order> searchSellerOrdersPage(String sellerId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after, int limit) {
+        return aggregateSellerOrders(sellerId, query, status, dateFrom, dateTo, after, capLimit(limit));
+    }
+
+    @Override
+    public List<Order> searchUserOrders(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return mongoTemplate.find(userOrdersQuery(userId, query, status, dateFrom, dateTo, null), Order.class);
+    }
+
+    @Override
+    public List<Order> findUserOrdersPage(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after, int limit) {
+        Query mongoQuery = userOrdersQuery(userId, query, status, dateFrom, dateTo, after)
+                .limit(capLimit(limit));
+        return mongoTemplate.find(mongoQuery, Order.class);
+    }
+
+    private Query userOrdersQuery(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(filterCriteria(Criteria.where("userId").is(userId), status, dateFrom, dateTo));
+        List<String> terms = OrderSearchTerms.forQuery(query);
+        if (!terms.isEmpty()) {
+            filters.add(searchTermsCriteria(terms));
+        }
+        if (after != null) {
+            filters.add(afterCursorCriteria(after));
+        }
+        return new Query(and(filters)).with(NEWEST_FIRST);
+    }
+
+    private List<Order> aggregateSellerOrders(String sellerId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, OrderCursor after, Integer pageLimit) {
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(match(sellerOrdersCriteria(sellerId, status, dateFrom, dateTo)));
+
+        List<String> terms = OrderSearchTerms.forQuery(query);
+        if (!terms.isEmpty()) {
+            stages.add(match(sellerSearchTermsCriteria(sellerId, terms)));
+        }
+        if (after != null) {
+            stages.add(match(afterCursorCriteria(after)));
+        }
+
+        stages.add(sort(NEWEST_FIRST));
+        if (pageLimit != null) {
+            stages.add(limit(pageLimit));
+        }
+
+        // Strip other sellers' line items on the server
+        stages.add(Aggregation.addFields()
+                .addFieldWithValue("items", ArrayOperators.Filter.filter("items")
+                        .as("item")
+                        .by(ComparisonOperators.Eq.valueOf("item.sellerId").equalToValue(sellerId)))
+                .build());
+
+        TypedAggregation<Order> aggregation = newAggregation(Order.class, stages);
+        return mongoTemplate.aggregate(aggregation, Order.class).getMappedResults();
+    }
+
+    static Criteria sellerOrdersCriteria(String sellerId, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return filterCriteria(Criteria.where("items.sellerId").is(sellerId), status, dateFrom, dateTo);
+    }
+
+    /**
+     * Orders with every term in their ID terms, or in the terms of their items.
+     */
+    static Criteria searchTermsCriteria(List<String> terms) {
+        return new Criteria().orOperator(
+                Criteria.where("searchTerms").all(terms),
+                Criteria.where("items.searchTerms").all(terms));
+    }
+
+    /**
+     * Orders with every term in their ID terms, or in the terms of one of the
+     * seller's own items: other sellers' products in the same order do not match.
+     */
+    static Criteria sellerSearchTermsCriteria(String sellerId, List<String> terms) {
+        return new Criteria().orOperator(
+                Criteria.where("searchTerms").all(terms),
+                Criteria.where("items").elemMatch(
+                        Criteria.where("sellerId").is(sellerId).and("searchTerms").all(terms)));
+    }
+
+    private static Criteria filterCriteria(Criteria criteria, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo) {
+        if (status != null) {
+            criteria = criteria.and("status").is(status);
+        }
+        if (dateFrom != null && dateTo != null) {
+            criteria = criteria.and("createdAt").gte(dateFrom).lte(dateTo);
+        } else if (dateFrom != null) {
+            criteria = criteria.and("createdAt").gte(dateFrom);
+        } else if (dateTo != null) {
+            criteria = criteria.and("createdAt").lte(dateTo);
+        }
+        return criteria;
+    }
+
+    /**
+     * Orders strictly after the cursor in (createdAt desc, id desc) order.
+     */
+    static Criteria afterCursorCriteria(OrderCursor after) {
+        return new Criteria().orOperator(
+                Criteria.where("createdAt").lt(after.createdAt()),
+                Criteria.where("createdAt").is(after.createdAt()).and("id").lt(after.id()));
+    }
+
+    private static Criteria and(List<Criteria> criteria) {
+        return criteria.size() == 1 ? criteria.get(0) : new Criteria().andOperator(criteria);
+    }
+
+    private static int capLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,19 @@
+package com.buyapp.orderservice.service;
+
+import java.util.List;
+
+import com.buyapp.common.dto.OrderDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of an order listing.
+ * nextCursor is null when there are no further pages.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderPage {
+    private final List<OrderDto> items;
+    private final String nextCursor;
+}
@@ -0,0 +1,104 @@
+package com.buyapp.orderservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderItem;
+import com.buyapp.orderservice.model.OrderSearchTerms;
+
+/**
+ * Rewrites the search terms of orders stored before the current
+ * {@link OrderSearchTerms}, while the service keeps running.
+ *
+ * Orders are read in batches by ID, with a pause in between, and only those
+ * whose terms differ are written, so running again is always safe and cheap.
+ * An order whose items changed in the meantime is skipped; it got fresh terms
+ * when it was saved.
+ */
+@Service
+public class OrderSearchTermsBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderSearchTermsBackfill.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${order.search-terms.backfill-batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${order.search-terms.backfill-pause-ms:100}")
+    private long pauseMillis = 100;
+
+    public OrderSearchTermsBackfill(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @return number of orders rewritten
+     */
+    public long backfill() {
+        long updated = 0;
+        String lastId = null;
+        List<Order> batch;
+        do {
+            Query query = new Query().with(Sort.by("_id")).limit(batchSize);
+            if (lastId != null) {
+                query.addCriteria(Criteria.where("_id").gt(lastId));
+            }
+            query.fields().include("searchTerms", "items.productName", "items.searchTerms");
+            batch = mongoTemplate.find(query, Order.class);
+            for (Order order : batch) {
+                if (refresh(order)) {
+                    updated++;
+                }
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+                pause();
+            }
+        } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+        logger.info("Backfilled search terms for {} orders", updated);
+        return updated;
+    }
+
+    boolean refresh(Order order) {
+        List<OrderItem> items = order.getItems() != null ? order.getItems() : List.of();
+        List<String> storedTerms = order.getSearchTerms();
+        List<List<String>> storedItemTerms = new ArrayList<>();
+        items.forEach(item -> storedItemTerms.add(item.getSearchTerms()));
+
+        order.refreshSearchTerms();
+        boolean changed = !Objects.equals(storedTerms, order.getSearchTerms());
+        // Targeted $set so auditing does not touch updatedAt
+        Update update = Update.update("searchTerms", order.getSearchTerms());
+        for (int i = 0; i < items.size(); i++) {
+            List<String> terms = items.get(i).getSearchTerms();
+            changed |= !Objects.equals(storedItemTerms.get(i), terms);
+            update.set("items." + i + ".searchTerms", terms);
+        }
+        if (!changed) {
+            return false;
+        }
+        Query unchanged = Query.query(Criteria.where("_id").is(order.getId()).and("items").size(items.size()));
+        return mongoTemplate.updateFirst(unchanged, update, Order.class).getModifiedCount() > 0;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,35 +1,56 @@
 package com.buyapp.orderservice.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.buyapp.common.dto.CartDto;
 import com.buyapp.common.dto.CartDto.CartItemDto;
 import com.buyapp.common.dto.OrderDto;
 import com.buyapp.common.dto.OrderDto.OrderItemDto;
 import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.buyapp.common.dto.SellerStatsDto;
 import com.buyapp.common.dto.ShippingAddressDto;
+import com.buyapp.common.dto.StockHoldDto;
+import com.buyapp.common.dto.StockItemDto;
 import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.orderservice.model.Cart;
 import com.buyapp.orderservice.model.CartItem;
+import com.buyapp.orderservice.model.CartStockHold;
 import com.buyapp.orderservice.model.Order;
 import com.buyapp.orderservice.model.OrderItem;
 import com.buyapp.orderservice.model.OrderStatus;
 import com.buyapp.orderservice.repository.CartRepository;
+import com.buyapp.orderservice.repository.OrderCursor;
 import com.buyapp.orderservice.repository.OrderRepository;
 
+import reactor.core.publisher.Flux;
+
 @Service
 public class OrderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
     private final WebClient.Builder webClientBuilder;
+    private final ProductSnapshotCache productSnapshotCache;
+    private final SellerStatsService sellerStatsService;
 
     /**
      * Service URLs for Eureka service discovery.
@@ -42,12 +63,31 @@ public class OrderService {
     private static final String USER_SERVICE_URL = "http://user-service";
     private static final String ORDER_NOT_FOUND_MESSAGE = "Order not found with id: ";
     private static final String CART_NOT_FOUND_MESSAGE = "Cart not found for user: ";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int CART_UPDATE_ATTEMPTS = 3;
+
+    /**
+     * Limits for calls to other services. Product lookups are split into chunks
+     * that are fetched concurrently, so latency tracks the slowest chunk rather
+     * than the sum of all of them.
+     */
+    @Value("${order.downstream.timeout:3s}")
+    private Duration downstreamTimeout = Duration.ofSeconds(3);
+
+    @Value("${order.downstream.product-batch-size:50}")
+    private int productBatchSize = 50;
+
+    @Value("${order.downstream.max-concurrency:4}")
+    private int maxConcurrency = 4;
 
     public OrderService(OrderRepository orderRepository, CartRepository cartRepository,
-            WebClient.Builder webClientBuilder) {
+            WebClient.Builder webClientBuilder, ProductSnapshotCache productSnapshotCache,
+            SellerStatsService sellerStatsService) {
         this.orderRepository = orderRepository;
         this.cartRepository = cartRepository;
         this.webClientBuilder = webClientBuilder;
+        this.productSnapshotCache = productSnapshotCache;
+        this.sellerStatsService = sellerStatsService;
     }
 
     // Cart
@@ -58,37 +98,47 @@ public class OrderService {
         return toCartDto(cart, true); // Validate availability when fetching cart
     }
 
-    // Add item to cart or update quantity if item already exists
-
+    // Add item to cart or update quantity if item already exists.
+    // Cart lines are changed with single-line atomic updates, so concurrent adds
+    // never overwrite each other; the common cases take one or two round trips.
     public CartDto addItem(String userId, CartItemDto itemDto) {
         // Validate product exists and stock availability
         ProductDto product = getProductByIdOrThrow(itemDto.getProductId());
+        validateStockAvailability(product, itemDto.getQuantity());
 
-        // Get or create cart
-        Cart cart = getOrCreateCart(userId);
-
-        // Check if item already exists to validate total quantity
-        CartItem existingItem = cart.findItemByProductId(itemDto.getProductId());
-        if (existingItem != null) {
-            // Validate total quantity doesn't exceed stock
-            int newQuantity = existingItem.getQuantity() + itemDto.getQuantity();
-            validateStockAvailability(product, newQuantity);
-        } else {
-            // Validate initial quantity
-            validateStockAvailability(product, itemDto.getQuantity());
-        }
-
-        // Use Cart's method to add or update item
         CartItem newItem = new CartItem(
                 itemDto.getProductId(),
                 product.getName(),
                 itemDto.getQuantity(),
                 product.getPrice());
-        cart.addOrUpdateItem(newItem); // Handles both add and update, updates updatedAt
 
-        Cart savedCart = cartRepository.save(cart);
+        for (int attempt = 0; attempt < CART_UPDATE_ATTEMPTS; attempt++) {
+            // New line for this product, or more of an existing line within stock
+            Cart cart = cartRepository.pushItem(userId, newItem);
+            if (cart == null) {
+                cart = cartRepository.incrementItem(userId, newItem, product.getStock());
+            }
+            if (cart != null) {
+                return toCartDto(cart, false); // No need to validate again, we just validated
+            }
 
-        return toCartDto(savedCart, false); // No need to validate again, we just validated
+            // Neither applied: there is no cart yet, or the line would exceed stock
+            Optional<Cart> current = cartRepository.findByUserId(userId);
+            if (current.isEmpty()) {
+                cart = cartRepository.createWithItem(userId, newItem);
+                if (cart.findItemByProductId(newItem.getProductId()) != null) {
+                    return toCartDto(cart, false);
+                }
+            } else {
+                CartItem existingItem = current.get().findItemByProductId(newItem.getProductId());
+                if (existingItem != null) {
+                    // Validate total quantity doesn't exceed stock
+                    validateStockAvailability(product, existingItem.getQuantity() + newItem.getQuantity());
+                }
+            }
+            // The cart changed between the calls above; try again
+        }
+        throw new IllegalStateException("Cart is being modified concurrently, please try again");
     }
 
     // Update item quantity in cart
@@ -97,37 +147,66 @@ public class OrderService {
             throw new IllegalArgumentException("Quantity must be at least 1");
         }
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId));
-
-        CartItem item = cart.findItemByProductId(productId);
-        if (item == null) {
-            throw new ResourceNotFoundException("Item not found in cart: " + productId);
-        }
-
         ProductDto product = getProductByIdOrThrow(productId);
         validateStockAvailability(product, quantity);
 
-        cart.updateItem(productId, quantity, product.getPrice());
-        Cart savedCart = cartRepository.save(cart);
-        return toCartDto(savedCart, false);
+        Cart cart = cartRepository.setItemQuantity(userId, productId, quantity, product.getPrice());
+        if (cart == null) {
+            // Tell a missing cart apart from a missing line
+            cartRepository.findByUserId(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId));
+            throw new ResourceNotFoundException("Item not found in cart: " + productId);
+        }
+        return toCartDto(cart, false);
     }
 
     public CartDto removeItem(String userId, String productId) {
+        Cart cart = cartRepository.pullItem(userId, productId);
+        if (cart == null) {
+            throw new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId);
+        }
+        return toCartDto(cart, false);
+    }
+
+    public void clearCart(String userId) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId));
 
-        cart.removeItem(productId); // removeItem already updates updatedAt
-        Cart savedCart = cartRepository.save(cart);
-        return toCartDto(savedCart, false);
+        // Nothing will be bought, so stock held for checkout goes back now rather than on expiry
+        if (cart.getStockHold() != null) {
+            releaseStockHoldQuietly(cart.getStockHold().getId());
+        }
+        emptyCart(cart);
     }
 
-    public void clearCart(String userId) {
+    /**
+     * Start checkout: hold stock for everything in the cart until the hold
+     * expires or the order is placed. Starting again replaces the previous hold.
+     */
+    public StockHoldDto startCheckout(String userId) {
         Cart cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId));
 
-        cart.clear(); // Uses Cart's clear() method which updates updatedAt
-        cartRepository.save(cart);
+        if (cart.isEmpty()) {
+            throw new IllegalArgumentException("Cannot start checkout with an empty cart");
+        }
+
+        List<StockItemDto> lines = cart.getItems().stream()
+                .map(item -> new StockItemDto(item.getProductId(), item.getQuantity()))
+                .toList();
+        StockHoldDto hold = createStockHold(lines);
+
+        Cart previous = cartRepository.setStockHold(userId,
+                new CartStockHold(hold.getId(), hold.getItems(), hold.getExpiresAt()));
+        if (previous == null) {
+            // Cart deleted meanwhile: nobody can place the order
+            releaseStockHoldQuietly(hold.getId());
+            throw new ResourceNotFoundException(CART_NOT_FOUND_MESSAGE + userId);
+        }
+        if (previous.getStockHold() != null) {
+            releaseStockHoldQuietly(previous.getStockHold().getId());
+        }
+        return hold;
     }
 
     // Order
@@ -142,36 +221,51 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot create order from empty cart");
         }
 
-        // Cache seller IDs to avoid redundant calls
-        Map<String, String> sellerIdCache = new HashMap<>();
+        // Fetch every product in the cart with a single batch call
+        Map<String, ProductSummaryDto> products = getProductsByIds(
+                cart.getItems().stream().map(CartItem::getProductId).toList());
+
+        // A hold only stands in for the reservation if the cart has not changed since checkout started
+        CartStockHold hold = cart.getStockHold();
+        boolean holdCoversCart = hold != null && hold.covers(cart.getItems());
 
         // Validate all items are available and cache seller IDs
+        Map<String, String> sellerIdCache = new HashMap<>();
         for (CartItem item : cart.getItems()) {
-            ProductDto product = getProductByIdOrThrow(item.getProductId());
-            validateStockAvailability(product, item.getQuantity());
+            ProductSummaryDto product = getProductFromBatchOrThrow(products, item.getProductId());
+            if (!holdCoversCart) {
+                validateStockAvailability(product.getName(), product.getStock(), item.getQuantity());
+            }
 
-            // Cache seller ID
-            String sellerId = getProductSellerId(item.getProductId());
-            if (sellerId == null) {
+            if (product.getSellerId() == null) {
                 throw new ResourceNotFoundException("Seller not found for product: " + product.getName());
             }
-            sellerIdCache.put(item.getProductId(), sellerId);
+            sellerIdCache.put(item.getProductId(), product.getSellerId());
         }
 
         // Convert cart items to order items (using cached seller IDs)
         List<OrderItem> orderItems = cart.toOrderItems(sellerIdCache);
 
-        // Create and save order
-        Order order = new Order(userId, orderItems, shippingAddressDto);
-        Order savedOrder = orderRepository.save(order);
-
-        // Reduce stock for all products (after order is saved)
-        // If this fails, order exists but stock wasn't reduced - consider transaction
-        // management
-        reduceStockForItems(orderItems);
+        // Turn the checkout hold into the sale, or reserve stock for all products in one
+        // atomic call, before the order exists so it never lacks stock behind it
+        if (!holdCoversCart || !commitStockHold(hold.getId(), orderItems)) {
+            if (hold != null) {
+                releaseStockHoldQuietly(hold.getId());
+            }
+            reduceStockForItems(orderItems);
+        }
 
-        // Clear cart after successful order creation and stock reduction
-        clearCart(userId);
+        // Create and save order, releasing the reservation if the save fails
+        Order order = new Order(userId, orderItems, shippingAddressDto);
+        Order savedOrder = saveOrderOrReleaseStock(order);
+        sellerStatsService.recordOrderCreated(savedOrder);
+
+        // Clear the ordered lines after successful order creation and stock reduction, leaving lines
+        // added or changed since the cart was read; the hold is spent
+        cartRepository.pullItems(userId, cart.getItems());
+        if (hold != null) {
+            cartRepository.removeStockHold(userId, hold.getId());
+        }
 
         return toDto(savedOrder);
     }
@@ -183,6 +277,21 @@ public class OrderService {
                 .toList();
     }
 
+    public OrderPage getOrdersPage(String userId, String cursor, Integer limit) {
+        return searchOrdersPage(userId, null, null, null, null, cursor, limit);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #searchOrders}; all filters run in MongoDB.
+     */
+    public OrderPage searchOrdersPage(String userId, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        List<Order> orders = orderRepository.findUserOrdersPage(
+                userId, query, status, dateFrom, dateTo, OrderCursor.decode(cursor), pageSize + 1);
+        return toPage(orders, pageSize, this::toDto);
+    }
+
     public OrderDto getOrderById(String orderId, String userId) {
         Order order = findOrderById(orderId);
         if (!order.belongsToUser(userId)) {
@@ -201,8 +310,10 @@ public class OrderService {
         restoreStockForItems(order.getItems());
 
         // Use Order's cancel() method which handles status and timestamp
+        OrderStatus previousStatus = order.getStatus();
         order.cancel();
         Order savedOrder = orderRepository.save(order);
+        sellerStatsService.recordStatusChange(savedOrder, previousStatus);
 
         return toDto(savedOrder);
     }
@@ -234,55 +345,27 @@ public class OrderService {
                 originalOrder.getItems(),
                 originalOrder.getShippingAddress());
 
-        // Validate stock availability
+        // Validate stock availability (single batch call for all items)
+        Map<String, ProductSummaryDto> products = getProductsByIds(
+                newOrder.getItems().stream().map(OrderItem::getProductId).toList());
         for (OrderItem item : newOrder.getItems()) {
-            ProductDto product = getProductByIdOrThrow(item.getProductId());
-            validateStockAvailability(product, item.getQuantity());
+            ProductSummaryDto product = getProductFromBatchOrThrow(products, item.getProductId());
+            validateStockAvailability(product.getName(), product.getStock(), item.getQuantity());
         }
 
-        Order savedOrder = orderRepository.save(newOrder);
-
-        // Reduce stock for all products
-        reduceStockForItems(savedOrder.getItems());
+        // Reserve stock for all products, then persist the new order
+        reduceStockForItems(newOrder.getItems());
+        Order savedOrder = saveOrderOrReleaseStock(newOrder);
+        sellerStatsService.recordOrderCreated(savedOrder);
 
         return toDto(savedOrder);
     }
 
     public List<OrderDto> searchOrders(String userId, String query, OrderStatus status,
             LocalDateTime dateFrom, LocalDateTime dateTo) {
-        List<Order> orders;
-
-        // Optimize database query: use status filter if no date range and status is
-        // provided
-        if (dateFrom != null && dateTo != null) {
-            orders = orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(
-                    userId, dateFrom, dateTo);
-        } else if (status != null) {
-            // Use repository method to filter by status at database level
-            orders = orderRepository.findByUserIdAndStatusOrderByCreatedAtDesc(userId, status);
-        } else {
-            orders = orderRepository.findByUserIdOrderByCreatedAtDesc(userId);
-        }
-
-        // Filter by status if not already filtered at DB level (when date range was
-        // used)
-        if (status != null && dateFrom != null && dateTo != null) {
-            orders = orders.stream()
-                    .filter(order -> order.getStatus() == status)
-                    .toList();
-        }
-
-        // Early return if no query filter
-        if (query == null || query.trim().isEmpty()) {
-            return orders.stream()
-                    .map(this::toDto)
-                    .toList();
-        }
-
-        // Filter by query (order ID or product name)
-        String lowerQuery = query.toLowerCase();
+        // Status, date range and query filters all run in MongoDB against indexed search terms
+        List<Order> orders = orderRepository.searchUserOrders(userId, query, status, dateFrom, dateTo);
         return orders.stream()
-                .filter(order -> order.matchesQuery(lowerQuery))
                 .map(this::toDto)
                 .toList();
     }
@@ -295,6 +378,30 @@ public class OrderService {
                 .toList();
     }
 
+    public OrderPage getSellerOrdersPage(String sellerEmail, String cursor, Integer limit) {
+        return searchSellerOrdersPage(sellerEmail, null, null, null, null, cursor, limit);
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #searchSellerOrders}.
+     */
+    public OrderPage searchSellerOrdersPage(String sellerEmail, String query, OrderStatus status,
+            LocalDateTime dateFrom, LocalDateTime dateTo, String cursor, Integer limit) {
+        String sellerId = getSellerIdByEmail(sellerEmail);
+        int pageSize = pageSize(limit);
+        List<Order> orders = orderRepository.searchSellerOrdersPage(
+                sellerId, query, status, dateFrom, dateTo, OrderCursor.decode(cursor), pageSize + 1);
+        return toPage(orders, pageSize, order -> toSellerOrderDto(order, sellerId));
+    }
+
+    /**
+     * Dashboard totals for the seller, read from the incrementally maintained
+     * per-seller stats document rather than by scanning orders.
+     */
+    public SellerStatsDto getSellerStats(String sellerEmail) {
+        return sellerStatsService.getStats(getSellerIdByEmail(sellerEmail));
+    }
+
     public OrderDto getSellerOrderById(String orderId, String sellerEmail) {
         String sellerId = getSellerIdByEmail(sellerEmail);
         Order order = findOrderById(orderId);
@@ -318,8 +425,10 @@ public class OrderService {
 
         // Use Order's updateStatus() method which validates transition and updates
         // timestamp
+        OrderStatus previousStatus = order.getStatus();
         order.updateStatus(newStatus);
         Order savedOrder = orderRepository.save(order);
+        sellerStatsService.recordStatusChange(savedOrder, previousStatus);
 
         return toSellerOrderDto(savedOrder, sellerId);
     }
@@ -327,41 +436,33 @@ public class OrderService {
     public List<OrderDto> searchSellerOrders(String sellerEmail, String query, OrderStatus status,
             LocalDateTime dateFrom, LocalDateTime dateTo) {
         String sellerId = getSellerIdByEmail(sellerEmail);
-        List<Order> orders;
 
-        if (dateFrom != null && dateTo != null) {
-            // Note: MongoDB doesn't support filtering by date range AND sellerId directly
-            // We'll filter in memory
-            orders = orderRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(dateFrom, dateTo);
-        } else {
-            orders = orderRepository.findByItemsSellerIdOrderByCreatedAtDesc(sellerId);
-        }
-
-        // Filter by seller's items first
-        orders = orders.stream()
-                .filter(order -> order.containsSellerItems(sellerId))
+        // Seller, status, date range and query filters all run in MongoDB; only the
+        // seller's own line items come back
+        List<Order> orders = orderRepository.searchSellerOrders(sellerId, query, status, dateFrom, dateTo);
+        return orders.stream()
+                .map(order -> toSellerOrderDto(order, sellerId))
                 .toList();
+    }
 
-        // Filter by status if provided
-        if (status != null) {
-            orders = orders.stream()
-                    .filter(order -> order.getStatus() == status)
-                    .toList();
-        }
+    // Helper methods for pagination
 
-        // Early return if no query filter
-        if (query == null || query.trim().isEmpty()) {
-            return orders.stream()
-                    .map(order -> toSellerOrderDto(order, sellerId))
-                    .toList();
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
         }
+        return Math.max(1, Math.min(limit, OrderRepository.MAX_PAGE_SIZE));
+    }
 
-        // Filter by query (order ID or seller's product names)
-        String lowerQuery = query.toLowerCase();
-        return orders.stream()
-                .filter(order -> order.matchesSellerQuery(sellerId, lowerQuery))
-                .map(order -> toSellerOrderDto(order, sellerId))
-                .toList();
+    /**
+     * Build a page from a query that fetched one row more than the page size;
+     * the extra row only signals that a next page exists.
+     */
+    private OrderPage toPage(List<Order> orders, int pageSize, Function<Order, OrderDto> mapper) {
+        boolean hasMore = orders.size() > pageSize;
+        List<Order> pageOrders = hasMore ? orders.subList(0, pageSize) : orders;
+        String nextCursor = hasMore ? OrderCursor.of(pageOrders.get(pageSize - 1)).encode() : null;
+        return new OrderPage(pageOrders.stream().map(mapper).toList(), nextCursor);
     }
 
     // Helper methods for inter-service communication
@@ -373,6 +474,7 @@ public class OrderService {
                     .uri(PRODUCT_SERVICE_URL + "/products/{id}", productId)
                     .retrieve()
                     .bodyToMono(ProductDto.class)
+                    .timeout(downstreamTimeout)
                     .block();
         } catch (Exception e) {
             return null;
@@ -387,11 +489,72 @@ public class OrderService {
         return product;
     }
 
+    /**
+     * Fetch fresh product data for checkout-time validation, bypassing the snapshot
+     * cache, and refresh the cache with what was fetched.
+     */
+    private Map<String, ProductSummaryDto> getProductsByIds(Collection<String> productIds) {
+        Map<String, ProductSummaryDto> products = fetchProductsByIds(productIds);
+        productSnapshotCache.putAll(products);
+        return products;
+    }
+
+    /**
+     * Fetch several products in one round trip.
+     * Products unknown to product-service are simply absent from the returned map.
+     */
+    private Map<String, ProductSummaryDto> fetchProductsByIds(Collection<String> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        List<String> distinctIds = productIds.stream().distinct().toList();
+        try {
+            Map<String, ProductSummaryDto> products = Flux.fromIterable(partition(distinctIds, productBatchSize))
+                    .flatMap(this::fetchProductBatch, maxConcurrency)
+                    .collectMap(ProductSummaryDto::getId, Function.identity())
+                    .block();
+            return products != null ? products : Map.of();
+        } catch (Exception e) {
+            throw new BadRequestException("Failed to fetch products: " + e.getMessage());
+        }
+    }
+
+    private Flux<ProductSummaryDto> fetchProductBatch(List<String> productIds) {
+        return webClientBuilder.build()
+                .post()
+                .uri(PRODUCT_SERVICE_URL + "/products/batch")
+                .bodyValue(productIds)
+                .retrieve()
+                .bodyToFlux(ProductSummaryDto.class)
+                .timeout(downstreamTimeout);
+    }
+
+    private static <T> List<List<T>> partition(List<T> values, int size) {
+        int chunkSize = Math.max(1, size);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < values.size(); i += chunkSize) {
+            chunks.add(values.subList(i, Math.min(i + chunkSize, values.size())));
+        }
+        return chunks;
+    }
+
+    private ProductSummaryDto getProductFromBatchOrThrow(Map<String, ProductSummaryDto> products, String productId) {
+        ProductSummaryDto product = products.get(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product not found with id: " + productId);
+        }
+        return product;
+    }
+
     private void validateStockAvailability(ProductDto product, Integer requestedQuantity) {
-        if (product.getStock() == null || product.getStock() < requestedQuantity) {
+        validateStockAvailability(product.getName(), product.getStock(), requestedQuantity);
+    }
+
+    private void validateStockAvailability(String productName, Integer stock, Integer requestedQuantity) {
+        if (stock == null || stock < requestedQuantity) {
             throw new IllegalArgumentException(
-                    "Insufficient stock for product: " + product.getName() +
-                            ". Available: " + (product.getStock() != null ? product.getStock() : 0) +
+                    "Insufficient stock for product: " + productName +
+                            ". Available: " + (stock != null ? stock : 0) +
                             ", Requested: " + requestedQuantity);
         }
     }
@@ -401,47 +564,106 @@ public class OrderService {
                 .orElseGet(() -> cartRepository.save(new Cart(userId)));
     }
 
-    private void reduceStock(String productId, Integer quantity) {
-        callStockEndpoint(productId, quantity, "reduce-stock", "reduce");
+    private void emptyCart(Cart cart) {
+        cart.clear(); // Uses Cart's clear() method which updates updatedAt and drops the hold
+        cartRepository.save(cart);
+    }
+
+    private StockHoldDto createStockHold(List<StockItemDto> lines) {
+        // Cached stock for these products is stale whatever the outcome
+        productSnapshotCache.invalidateAll(lines.stream().map(StockItemDto::getProductId).toList());
+        try {
+            return webClientBuilder.build()
+                    .post()
+                    .uri(PRODUCT_SERVICE_URL + "/products/stock/holds")
+                    .bodyValue(lines)
+                    .retrieve()
+                    .bodyToMono(StockHoldDto.class)
+                    .timeout(downstreamTimeout)
+                    .block();
+        } catch (Exception e) {
+            throw new BadRequestException("Failed to hold stock for cart items: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return false if the hold is gone (released on expiry); the caller reserves afresh
+     * @throws BadRequestException if the outcome is unknown, e.g. product service could
+     *         not be reached. The hold is kept: it may have been committed, and reserving
+     *         again would take the stock twice. Left alone it is released on expiry.
+     */
+    private boolean commitStockHold(String holdId, List<OrderItem> items) {
+        productSnapshotCache.invalidateAll(items.stream().map(OrderItem::getProductId).toList());
+        try {
+            webClientBuilder.build()
+                    .post()
+                    .uri(PRODUCT_SERVICE_URL + "/products/stock/holds/{holdId}/commit", holdId)
+                    .retrieve()
+                    .bodyToMono(Void.class)
+                    .timeout(downstreamTimeout)
+                    .block();
+            return true;
+        } catch (WebClientResponseException.NotFound e) {
+            logger.warn("Stock hold {} is gone, reserving stock instead", holdId);
+            return false;
+        } catch (Exception e) {
+            throw new BadRequestException("Failed to commit stock hold for cart items: " + e.getMessage());
+        }
     }
 
-    private void restoreStock(String productId, Integer quantity) {
-        callStockEndpoint(productId, quantity, "restore-stock", "restore");
+    // Best effort: a hold that cannot be released now is released on expiry
+    private void releaseStockHoldQuietly(String holdId) {
+        try {
+            webClientBuilder.build()
+                    .delete()
+                    .uri(PRODUCT_SERVICE_URL + "/products/stock/holds/{holdId}", holdId)
+                    .retrieve()
+                    .bodyToMono(Void.class)
+                    .timeout(downstreamTimeout)
+                    .block();
+        } catch (Exception e) {
+            logger.warn("Failed to release stock hold {}: {}", holdId, e.getMessage());
+        }
     }
 
     private void reduceStockForItems(List<OrderItem> items) {
-        items.forEach(item -> reduceStock(item.getProductId(), item.getQuantity()));
+        callStockEndpoint(items, "reserve");
     }
 
     private void restoreStockForItems(List<OrderItem> items) {
-        items.forEach(item -> restoreStock(item.getProductId(), item.getQuantity()));
+        callStockEndpoint(items, "release");
     }
 
-    private void callStockEndpoint(String productId, Integer quantity, String endpoint, String action) {
+    /**
+     * Reserve or release stock for all order lines in a single round trip.
+     * Product service applies the lines atomically and rolls back on partial failure.
+     */
+    private void callStockEndpoint(List<OrderItem> items, String action) {
+        List<StockItemDto> lines = items.stream()
+                .map(item -> new StockItemDto(item.getProductId(), item.getQuantity()))
+                .toList();
+        // Cached stock for these products is stale whatever the outcome
+        productSnapshotCache.invalidateAll(lines.stream().map(StockItemDto::getProductId).toList());
         try {
             webClientBuilder.build()
                     .post()
-                    .uri(PRODUCT_SERVICE_URL + "/products/{id}/" + endpoint + "?quantity={quantity}",
-                            productId, quantity)
+                    .uri(PRODUCT_SERVICE_URL + "/products/stock/" + action)
+                    .bodyValue(lines)
                     .retrieve()
                     .bodyToMono(Void.class)
+                    .timeout(downstreamTimeout)
                     .block();
         } catch (Exception e) {
-            throw new BadRequestException(
-                    "Failed to " + action + " stock for product: " + productId + ": " + e.getMessage());
+            throw new BadRequestException("Failed to " + action + " stock for order items: " + e.getMessage());
         }
     }
 
-    private String getProductSellerId(String productId) {
+    private Order saveOrderOrReleaseStock(Order order) {
         try {
-            return webClientBuilder.build()
-                    .get()
-                    .uri(PRODUCT_SERVICE_URL + "/products/{id}/seller-id", productId)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (Exception e) {
-            return null;
+            return orderRepository.save(order);
+        } catch (RuntimeException e) {
+            restoreStockForItems(order.getItems());
+            throw e;
         }
     }
 
@@ -459,6 +681,7 @@ public class OrderService {
                     .uri(USER_SERVICE_URL + "/users/email/{email}", email)
                     .retrieve()
                     .bodyToMono(com.buyapp.common.dto.UserDto.class)
+                    .timeout(downstreamTimeout)
                     .block();
             if (user == null) {
                 throw new ResourceNotFoundException("Seller not found with email: " + email);
@@ -479,12 +702,16 @@ public class OrderService {
         dto.setCreatedAt(cart.getCreatedAt());
         dto.setUpdatedAt(cart.getUpdatedAt());
 
+        // Validate availability if requested, fetching all cart products in one call
+        Map<String, ProductSummaryDto> products = validateAvailability
+                ? getProductsForAvailability(cart)
+                : Map.of();
+
         List<CartItemDto> itemDtos = cart.getItems().stream()
                 .map(item -> {
                     Boolean available = null;
-                    // Validate availability if requested
                     if (validateAvailability) {
-                        ProductDto product = getProductById(item.getProductId());
+                        ProductSummaryDto product = products.get(item.getProductId());
                         available = product != null && product.getStock() != null
                                 && product.getStock() >= item.getQuantity();
                     }
@@ -502,6 +729,21 @@ public class OrderService {
         return dto;
     }
 
+    private Map<String, ProductSummaryDto> getProductsForAvailability(Cart cart) {
+        if (cart.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            // Cart views tolerate slightly stale stock, so serve them from the snapshot cache
+            return productSnapshotCache.getAll(
+                    cart.getItems().stream().map(CartItem::getProductId).toList(),
+                    this::fetchProductsByIds);
+        } catch (BadRequestException e) {
+            // Product service unavailable: every item is reported as unavailable
+            return Map.of();
+        }
+    }
+
     private OrderDto toDto(Order order) {
         OrderDto dto = new OrderDto();
         dto.setId(order.getId());
@@ -0,0 +1,69 @@
+package com.buyapp.orderservice.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, time-limited cache of product snapshots fetched from product-service.
+ *
+ * Used for read paths such as cart views, where slightly stale stock is acceptable.
+ * Checkout validation bypasses it and refreshes it with the fresh values instead.
+ * Hit/miss counts are published as {@code cache.gets{cache=productSnapshots}}.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    static final String CACHE_NAME = "productSnapshots";
+
+    private final Cache<String, ProductSummaryDto> cache;
+
+    public ProductSnapshotCache(
+            @Value("${order.product-cache.ttl:30s}") Duration ttl,
+            @Value("${order.product-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Return snapshots for the given products, loading only the missing ones.
+     * Products the loader does not return are left out of the result and not cached.
+     */
+    public Map<String, ProductSummaryDto> getAll(Collection<String> productIds,
+            Function<Collection<String>, Map<String, ProductSummaryDto>> loader) {
+        return cache.getAll(productIds, missingIds -> loader.apply(List.copyOf(missingIds)));
+    }
+
+    public void putAll(Map<String, ProductSummaryDto> products) {
+        cache.putAll(products);
+    }
+
+    public void invalidateAll(Collection<String> productIds) {
+        cache.invalidateAll(productIds);
+    }
+
+    long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    long missCount() {
+        return cache.stats().missCount();
+    }
+}
@@ -0,0 +1,354 @@
+package com.buyapp.orderservice.service;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.buyapp.common.dto.SellerStatsDto;
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderItem;
+import com.buyapp.orderservice.model.OrderStatus;
+import com.buyapp.orderservice.model.SellerStats;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the per-seller {@link SellerStats} documents. Each change is a
+ * single upsert with $inc on the seller's document, so concurrent orders never
+ * lose updates and reading the dashboard is a lookup by ID.
+ *
+ * A seller whose update failed is marked stale and recomputed from the
+ * orders collection by {@link #repairStaleSellers()}. A recompute never
+ * overwrites a live update: every $inc moves the seller's generation, and the
+ * recomputed totals are only written if it has not moved since they were
+ * read. Sellers with an order changed within the settle time are left for a
+ * later run, as that order's own $inc may still be on its way.
+ */
+@Service
+public class SellerStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SellerStatsService.class);
+
+    private static final String REPAIR_COLLECTION = "seller_stats_repairs";
+    private static final String LOCK_COLLECTION = "migration_locks";
+    private static final String LOCK_ID = "seller-stats-build";
+
+    private final MongoTemplate mongoTemplate;
+
+    // Sellers whose totals missed an update and whose mark could not be stored either
+    private final Set<String> staleSellers = ConcurrentHashMap.newKeySet();
+
+    // Longer than an order save and its stats update take together, clock skew included
+    @Value("${order.seller-stats.settle:1m}")
+    private Duration settle = Duration.ofMinutes(1);
+
+    // Taken over by another instance if not renewed within this time, e.g. after a crash
+    @Value("${order.seller-stats.build-lease:10m}")
+    private Duration buildLease = Duration.ofMinutes(10);
+
+    public SellerStatsService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public SellerStatsDto getStats(String sellerId) {
+        SellerStats stats = mongoTemplate.findById(sellerId, SellerStats.class);
+        return toDto(stats != null ? stats : new SellerStats(sellerId));
+    }
+
+    /**
+     * Count a newly saved order for every seller with items in it.
+     */
+    public void recordOrderCreated(Order order) {
+        LocalDateTime now = LocalDateTime.now();
+        sharesBySeller(order).forEach((sellerId, share) -> {
+            Update update = new Update()
+                    .inc("totalOrders", 1)
+                    .inc(statusField(order.getStatus()), 1)
+                    .set("updatedAt", now);
+            if (order.getStatus() != OrderStatus.CANCELLED) {
+                update.inc("revenue", share.revenue()).inc("itemsSold", share.units());
+            }
+            apply(sellerId, update);
+        });
+    }
+
+    /**
+     * Move a saved order from its previous status to its current one. Revenue
+     * and units are taken back out when the order becomes cancelled.
+     */
+    public void recordStatusChange(Order order, OrderStatus previousStatus) {
+        OrderStatus newStatus = order.getStatus();
+        if (previousStatus == newStatus) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        sharesBySeller(order).forEach((sellerId, share) -> {
+            Update update = new Update()
+                    .inc(statusField(previousStatus), -1)
+                    .inc(statusField(newStatus), 1)
+                    .set("updatedAt", now);
+            if (newStatus == OrderStatus.CANCELLED) {
+                update.inc("revenue", -share.revenue()).inc("itemsSold", -share.units());
+            }
+            apply(sellerId, update);
+        });
+    }
+
+    /**
+     * Build every seller's totals from the orders collection, e.g. for orders
+     * written before the stats existed, unless that was done before. One
+     * instance builds, under a lease in migration_locks; the others skip it.
+     * @return number of sellers written, or -1 if the build was skipped
+     */
+    public int buildOnce() {
+        String owner = UUID.randomUUID().toString();
+        if (!acquireBuildLock(owner)) {
+            return -1;
+        }
+        boolean completed = false;
+        try {
+            int written = rebuild(() -> renewBuildLock(owner));
+            completed = renewBuildLock(owner);
+            if (completed) {
+                mongoTemplate.updateFirst(buildLockQuery(owner), Update.update("completedAt", new Date()),
+                        LOCK_COLLECTION);
+            }
+            return written;
+        } finally {
+            if (!completed) {
+                mongoTemplate.remove(buildLockQuery(owner), LOCK_COLLECTION);
+            }
+        }
+    }
+
+    /**
+     * Recompute every seller's totals in place. Sellers that cannot be
+     * recomputed right now are marked stale and finished by the repair.
+     * @param keepGoing checked after each seller; the build stops once it is false
+     * @return number of sellers written
+     */
+    int rebuild(BooleanSupplier keepGoing) {
+        LocalDateTime started = LocalDateTime.now();
+        List<String> sellerIds = mongoTemplate.findDistinct(new Query(), "items.sellerId", Order.class, String.class);
+        int written = 0;
+        for (String sellerId : sellerIds) {
+            if (recompute(sellerId)) {
+                written++;
+            } else {
+                markStale(sellerId);
+            }
+            if (!keepGoing.getAsBoolean()) {
+                return written;
+            }
+        }
+        // Sellers without orders any more, unless an order arrived meanwhile
+        mongoTemplate.remove(Query.query(Criteria.where("_id").nin(sellerIds).and("updatedAt").lt(started)),
+                SellerStats.class);
+        return written;
+    }
+
+    /**
+     * Recompute the totals of the sellers whose updates failed, on this
+     * instance or, as the marks are stored, on any other.
+     * @return number of sellers repaired
+     */
+    @Scheduled(fixedDelayString = "${order.seller-stats.repair-interval:1m}")
+    public int repairStaleSellers() {
+        Set<String> sellerIds = new HashSet<>(staleSellers);
+        try {
+            mongoTemplate.findAll(Document.class, REPAIR_COLLECTION)
+                    .forEach(mark -> sellerIds.add(mark.getString("_id")));
+        } catch (DataAccessException e) {
+            logger.warn("Failed to read sellers with stale order stats: {}", e.getMessage());
+        }
+        int repaired = 0;
+        for (String sellerId : sellerIds) {
+            Date started = new Date();
+            try {
+                if (!recompute(sellerId)) {
+                    continue;
+                }
+                staleSellers.remove(sellerId);
+                // A mark set after the recompute started stands for an update it may have missed
+                mongoTemplate.remove(Query.query(Criteria.where("_id").is(sellerId).and("markedAt").lt(started)),
+                        REPAIR_COLLECTION);
+                repaired++;
+            } catch (DataAccessException e) {
+                logger.warn("Failed to repair order stats for seller {}: {}", sellerId, e.getMessage());
+            }
+        }
+        if (repaired > 0) {
+            logger.info("Repaired order stats for {} sellers", repaired);
+        }
+        return repaired;
+    }
+
+    /**
+     * Overwrite one seller's totals with those recomputed from the orders.
+     * @return false if an order of the seller changed within the settle time or
+     *         a live update landed meanwhile, so nothing was written
+     */
+    boolean recompute(String sellerId) {
+        LocalDateTime settledBefore = LocalDateTime.now().minus(settle);
+        SellerStats current = mongoTemplate.findById(sellerId, SellerStats.class);
+        SellerStats stats = new SellerStats(sellerId);
+        try (Stream<Order> orders = mongoTemplate.stream(
+                Query.query(Criteria.where("items.sellerId").is(sellerId)), Order.class)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                if (order.getUpdatedAt() != null && order.getUpdatedAt().isAfter(settledBefore)) {
+                    return false;
+                }
+                SellerShare share = sharesBySeller(order).get(sellerId);
+                if (share != null) {
+                    count(stats, order.getStatus(), share);
+                }
+            }
+        }
+        stats.setUpdatedAt(LocalDateTime.now());
+        if (current == null) {
+            try {
+                mongoTemplate.insert(stats);
+                return true;
+            } catch (DuplicateKeyException e) {
+                // Created by a live update meanwhile
+                return false;
+            }
+        }
+        Criteria unchanged = current.getGeneration() != null
+                ? Criteria.where("generation").is(current.getGeneration())
+                : Criteria.where("generation").exists(false);
+        Update update = new Update()
+                .set("revenue", stats.getRevenue())
+                .set("itemsSold", stats.getItemsSold())
+                .set("totalOrders", stats.getTotalOrders())
+                .set("ordersByStatus", stats.getOrdersByStatus())
+                .set("updatedAt", stats.getUpdatedAt());
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(sellerId).andOperator(unchanged)),
+                update, SellerStats.class).getMatchedCount() > 0;
+    }
+
+    private void apply(String sellerId, Update update) {
+        // Stats trail the order itself; a failed update must not fail the order
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(sellerId)), update.inc("generation", 1),
+                    SellerStats.class);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to update order stats for seller {}, will recompute them: {}", sellerId, e.getMessage());
+            markStale(sellerId);
+        }
+    }
+
+    // Stored so that any instance repairs the seller, even after a restart
+    private void markStale(String sellerId) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(sellerId)),
+                    Update.update("markedAt", new Date()), REPAIR_COLLECTION);
+        } catch (DataAccessException e) {
+            staleSellers.add(sellerId);
+            logger.warn("Failed to store stale order stats mark for seller {}: {}", sellerId, e.getMessage());
+        }
+    }
+
+    // Insert the lock, or take it over once expired; a live or completed one makes the upsert a duplicate key
+    private boolean acquireBuildLock(String owner) {
+        Query expired = Query.query(Criteria.where("_id").is(LOCK_ID)
+                .and("lockedUntil").lt(new Date())
+                .and("completedAt").exists(false));
+        try {
+            mongoTemplate.upsert(expired, buildLockUpdate(owner), LOCK_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    // Lost only if the build stalled past the lease and another instance took over
+    private boolean renewBuildLock(String owner) {
+        if (mongoTemplate.updateFirst(buildLockQuery(owner), buildLockUpdate(owner), LOCK_COLLECTION)
+                .getMatchedCount() > 0) {
+            return true;
+        }
+        logger.warn("Order stats build lock was taken over, stopping");
+        return false;
+    }
+
+    private Update buildLockUpdate(String owner) {
+        return Update.update("owner", owner).set("lockedUntil", Date.from(Instant.now().plus(buildLease)));
+    }
+
+    private static Query buildLockQuery(String owner) {
+        return Query.query(Criteria.where("_id").is(LOCK_ID).and("owner").is(owner));
+    }
+
+    private static void count(SellerStats stats, OrderStatus status, SellerShare share) {
+        stats.setTotalOrders(stats.getTotalOrders() + 1);
+        stats.getOrdersByStatus().merge(status.name(), 1L, Long::sum);
+        if (status != OrderStatus.CANCELLED) {
+            stats.setRevenue(stats.getRevenue() + share.revenue());
+            stats.setItemsSold(stats.getItemsSold() + share.units());
+        }
+    }
+
+    private static String statusField(OrderStatus status) {
+        return "ordersByStatus." + status.name();
+    }
+
+    private static Map<String, SellerShare> sharesBySeller(Order order) {
+        Map<String, SellerShare> shares = new LinkedHashMap<>();
+        if (order.getItems() == null) {
+            return shares;
+        }
+        for (OrderItem item : order.getItems()) {
+            if (item.getSellerId() == null) {
+                continue;
+            }
+            shares.merge(item.getSellerId(),
+                    new SellerShare(item.getTotal(), item.getQuantity()),
+                    SellerShare::plus);
+        }
+        return shares;
+    }
+
+    private static SellerStatsDto toDto(SellerStats stats) {
+        Map<String, Long> ordersByStatus = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            ordersByStatus.put(status.name(), stats.getOrdersByStatus().getOrDefault(status.name(), 0L));
+        }
+        return new SellerStatsDto(
+                stats.getSellerId(),
+                stats.getRevenue(),
+                stats.getItemsSold(),
+                stats.getTotalOrders(),
+                ordersByStatus);
+    }
+
+    private record SellerShare(double revenue, long units) {
+        SellerShare plus(SellerShare other) {
+            return new SellerShare(revenue + other.revenue, units + other.units);
+        }
+    }
+}
@@ -4,18 +4,21 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,8 +35,10 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import com.buyapp.common.dto.CartDto;
 import com.buyapp.common.dto.CartDto.CartItemDto;
 import com.buyapp.common.dto.OrderDto;
+import com.buyapp.common.dto.SellerStatsDto;
 import com.buyapp.common.dto.ShippingAddressDto;
 import com.buyapp.orderservice.model.OrderStatus;
+import com.buyapp.orderservice.service.OrderPage;
 import com.buyapp.orderservice.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -172,18 +177,67 @@ class OrderControllerTest {
     }
 
     @Test
-    void getOrders_ShouldReturnOrdersList() throws Exception {
+    void getOrders_WithoutPagingParameters_ShouldReturnFirstPage() throws Exception {
         // Arrange
-        List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.getOrders("user1")).thenReturn(orders);
+        when(orderService.getOrdersPage("user1", null, null))
+                .thenReturn(new OrderPage(List.of(testOrderDto), "next-token"));
 
         // Act & Assert
         mockMvc.perform(get("/orders")
                 .header("X-User-Email", "user1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(OrderController.NEXT_CURSOR_HEADER, "next-token"))
+                .andExpect(jsonPath("$[0].id").value("order1"));
+
+        verify(orderService, never()).getOrders(anyString());
+    }
+
+    @Test
+    void getOrders_WithLimit_ShouldReturnPageAndNextCursorHeader() throws Exception {
+        // Arrange
+        when(orderService.getOrdersPage("user1", null, 1))
+                .thenReturn(new OrderPage(List.of(testOrderDto), "next-token"));
+
+        // Act & Assert
+        mockMvc.perform(get("/orders")
+                .header("X-User-Email", "user1")
+                .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(OrderController.NEXT_CURSOR_HEADER, "next-token"))
+                .andExpect(jsonPath("$[0].id").value("order1"));
+
+        verify(orderService, never()).getOrders(anyString());
+    }
+
+    @Test
+    void getSellerOrders_WithCursorOnLastPage_ShouldOmitNextCursorHeader() throws Exception {
+        // Arrange
+        when(orderService.getSellerOrdersPage("seller1", "token", null))
+                .thenReturn(new OrderPage(List.of(testOrderDto), null));
+
+        // Act & Assert
+        mockMvc.perform(get("/orders/seller")
+                .header("X-User-Email", "seller1")
+                .param("cursor", "token"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(OrderController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value("order1"));
+    }
+
+    @Test
+    void getSellerStats_ShouldReturnStats() throws Exception {
+        // Arrange
+        SellerStatsDto stats = new SellerStatsDto("seller1", 199.98, 2L, 1L, Map.of("PENDING", 1L));
+        when(orderService.getSellerStats("seller@example.com")).thenReturn(stats);
 
-        verify(orderService).getOrders("user1");
+        // Act & Assert
+        mockMvc.perform(get("/orders/seller/stats")
+                .header("X-User-Email", "seller@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revenue").value(199.98))
+                .andExpect(jsonPath("$.ordersByStatus.PENDING").value(1));
+
+        verify(orderService, never()).getSellerOrderById(anyString(), anyString());
     }
 
     @Test
@@ -242,7 +296,8 @@ class OrderControllerTest {
     void searchOrders_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/search")
@@ -251,23 +306,24 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("order1"));
 
-        verify(orderService).searchOrders("user1", "order1", null, null, null);
+        verify(orderService).searchOrdersPage("user1", "order1", null, null, null, null, null);
     }
 
     // ========== Seller Endpoint Tests ==========
 
     @Test
-    void getSellerOrders_ShouldReturnSellerOrders() throws Exception {
+    void getSellerOrders_WithoutPagingParameters_ShouldReturnFirstPage() throws Exception {
         // Arrange
-        List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.getSellerOrders("seller@example.com")).thenReturn(orders);
+        when(orderService.getSellerOrdersPage("seller@example.com", null, null))
+                .thenReturn(new OrderPage(List.of(testOrderDto), null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller")
                 .header("X-User-Email", "seller@example.com"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value("order1"));
 
-        verify(orderService).getSellerOrders("seller@example.com");
+        verify(orderService, never()).getSellerOrders(anyString());
     }
 
     @Test
@@ -304,7 +360,8 @@ class OrderControllerTest {
     void searchSellerOrders_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchSellerOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchSellerOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller/search")
@@ -312,14 +369,15 @@ class OrderControllerTest {
                 .param("q", "order1"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchSellerOrders("seller@example.com", "order1", null, null, null);
+        verify(orderService).searchSellerOrdersPage("seller@example.com", "order1", null, null, null, null, null);
     }
 
     @Test
     void searchOrders_WithStatusFilter_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/search")
@@ -328,14 +386,15 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("order1"));
 
-        verify(orderService).searchOrders("user1", null, OrderStatus.PENDING, null, null);
+        verify(orderService).searchOrdersPage("user1", null, OrderStatus.PENDING, null, null, null, null);
     }
 
     @Test
     void searchOrders_WithDateRange_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/search")
@@ -344,14 +403,15 @@ class OrderControllerTest {
                 .param("dateTo", "2024-12-31T23:59:59"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchOrders(eq("user1"), isNull(), isNull(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(orderService).searchOrdersPage(eq("user1"), isNull(), isNull(), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), isNull());
     }
 
     @Test
     void searchOrders_WithAllFilters_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/search")
@@ -362,14 +422,15 @@ class OrderControllerTest {
                 .param("dateTo", "2024-12-31T23:59:59"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchOrders(eq("user1"), eq("order1"), eq(OrderStatus.PENDING), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(orderService).searchOrdersPage(eq("user1"), eq("order1"), eq(OrderStatus.PENDING), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), isNull());
     }
 
     @Test
     void searchSellerOrders_WithStatusFilter_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchSellerOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchSellerOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller/search")
@@ -377,14 +438,15 @@ class OrderControllerTest {
                 .param("status", "PENDING"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchSellerOrders("seller@example.com", null, OrderStatus.PENDING, null, null);
+        verify(orderService).searchSellerOrdersPage("seller@example.com", null, OrderStatus.PENDING, null, null, null, null);
     }
 
     @Test
     void searchSellerOrders_WithDateRange_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchSellerOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchSellerOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller/search")
@@ -393,14 +455,15 @@ class OrderControllerTest {
                 .param("dateTo", "2024-12-31T23:59:59"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchSellerOrders(eq("seller@example.com"), isNull(), isNull(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(orderService).searchSellerOrdersPage(eq("seller@example.com"), isNull(), isNull(), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), isNull());
     }
 
     @Test
     void searchSellerOrders_WithAllFilters_ShouldReturnFilteredOrders() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchSellerOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchSellerOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller/search")
@@ -411,14 +474,15 @@ class OrderControllerTest {
                 .param("dateTo", "2024-12-31T23:59:59"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchSellerOrders(eq("seller@example.com"), eq("order1"), eq(OrderStatus.PENDING), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(orderService).searchSellerOrdersPage(eq("seller@example.com"), eq("order1"), eq(OrderStatus.PENDING), any(LocalDateTime.class), any(LocalDateTime.class), isNull(), isNull());
     }
 
     @Test
-    void searchOrders_WithoutFilters_ShouldReturnAllOrders() throws Exception {
+    void searchOrders_WithoutFilters_ShouldReturnFirstPage() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/search")
@@ -426,20 +490,21 @@ class OrderControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value("order1"));
 
-        verify(orderService).searchOrders(eq("user1"), isNull(), isNull(), isNull(), isNull());
+        verify(orderService).searchOrdersPage(eq("user1"), isNull(), isNull(), isNull(), isNull(), isNull(), isNull());
     }
 
     @Test
-    void searchSellerOrders_WithoutFilters_ShouldReturnAllOrders() throws Exception {
+    void searchSellerOrders_WithoutFilters_ShouldReturnFirstPage() throws Exception {
         // Arrange
         List<OrderDto> orders = Arrays.asList(testOrderDto);
-        when(orderService.searchSellerOrders(anyString(), any(), any(), any(), any())).thenReturn(orders);
+        when(orderService.searchSellerOrdersPage(anyString(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new OrderPage(orders, null));
 
         // Act & Assert
         mockMvc.perform(get("/orders/seller/search")
                 .header("X-User-Email", "seller@example.com"))
                 .andExpect(status().isOk());
 
-        verify(orderService).searchSellerOrders(eq("seller@example.com"), isNull(), isNull(), isNull(), isNull());
+        verify(orderService).searchSellerOrdersPage(eq("seller@example.com"), isNull(), isNull(), isNull(), isNull(), isNull(), isNull());
     }
 }
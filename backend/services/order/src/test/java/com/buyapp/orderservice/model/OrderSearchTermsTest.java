@@ -0,0 +1,58 @@
+package com.buyapp.orderservice.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class OrderSearchTermsTest {
+
+    @Test
+    void refreshSearchTerms_ShouldMatchIdExactlyAndItemWordsByPrefix() {
+        // Arrange
+        Order order = new Order("user1", List.of(
+                new OrderItem("p1", "Velvet Lip-Stick", "seller1", 1, 10.0),
+                new OrderItem("p2", "Mascara", "seller2", 1, 5.0)), null);
+        order.setId("65F0AB0000000000000000C1");
+
+        // Act
+        order.refreshSearchTerms();
+
+        // Assert
+        assertEquals(List.of("65f0ab0000000000000000c1", "000000c1"), order.getSearchTerms());
+        List<String> first = order.getItems().get(0).getSearchTerms();
+        assertTrue(first.containsAll(List.of("v", "vel", "velvet", "lip", "stick")));
+        assertFalse(first.contains("masc"));
+        assertFalse(first.contains("lip-stick"));
+        assertFalse(first.stream().anyMatch(term -> term.contains(":")));
+        assertTrue(order.getItems().get(1).getSearchTerms().contains("mascara"));
+    }
+
+    @Test
+    void refreshSearchTerms_ShouldCapPrefixLength() {
+        // Arrange
+        Order order = new Order("user1", List.of(
+                new OrderItem("p1", "a".repeat(40), "seller1", 1, 10.0)), null);
+
+        // Act
+        order.refreshSearchTerms();
+
+        // Assert
+        List<String> terms = order.getItems().get(0).getSearchTerms();
+        assertTrue(terms.stream().allMatch(term -> term.length() <= OrderSearchTerms.MAX_TERM_LENGTH));
+        assertTrue(terms.contains("a".repeat(OrderSearchTerms.MAX_TERM_LENGTH)));
+        assertEquals(List.of(), order.getSearchTerms());
+    }
+
+    @Test
+    void forQuery_ShouldNormalizeWordsLikeStoredTerms() {
+        assertEquals(List.of("red", "lip"), OrderSearchTerms.forQuery("  RED, lip red "));
+        assertEquals(List.of("a".repeat(OrderSearchTerms.MAX_TERM_LENGTH)),
+                OrderSearchTerms.forQuery("a".repeat(30)));
+        assertEquals(List.of(), OrderSearchTerms.forQuery(" -- "));
+        assertEquals(List.of(), OrderSearchTerms.forQuery(null));
+    }
+}
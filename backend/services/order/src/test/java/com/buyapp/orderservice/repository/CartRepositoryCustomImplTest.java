@@ -0,0 +1,148 @@
+package com.buyapp.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.orderservice.model.Cart;
+import com.buyapp.orderservice.model.CartItem;
+import com.buyapp.orderservice.model.CartStockHold;
+
+@ExtendWith(MockitoExtension.class)
+class CartRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private CartRepositoryCustomImpl repository;
+
+    private final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    private final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    private final ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+
+    @BeforeEach
+    void setUp() {
+        repository = new CartRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void pushItem_ShouldOnlyMatchCartWithoutTheProduct() {
+        // Act
+        repository.pushItem("user1", new CartItem("product1", "Product 1", 2, 9.99));
+
+        // Assert
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        Document filter = query.getValue().getQueryObject();
+        assertEquals("user1", filter.get("userId"));
+        assertEquals(new Document("$ne", "product1"), filter.get("items.productId"));
+        assertTrue(update.getValue().getUpdateObject().containsKey("$push"));
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    void incrementItem_ShouldGuardQuantityAgainstStockAndUsePositionalInc() {
+        // Act
+        repository.incrementItem("user1", new CartItem("product1", "Product 1", 3, 9.99), 10);
+
+        // Assert
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        Document elemMatch = query.getValue().getQueryObject().get("items", Document.class)
+                .get("$elemMatch", Document.class);
+        assertEquals("product1", elemMatch.get("productId"));
+        assertEquals(new Document("$lte", 7), elemMatch.get("quantity"));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(new Document("items.$.quantity", 3), updateObject.get("$inc"));
+        assertEquals(9.99, updateObject.get("$set", Document.class).get("items.$.price"));
+    }
+
+    @Test
+    void createWithItem_ShouldUpsertWithoutTouchingAnExistingCart() {
+        // Act
+        repository.createWithItem("user1", new CartItem("product1", "Product 1", 1, 9.99));
+
+        // Assert
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        Document updateObject = update.getValue().getUpdateObject();
+        assertEquals(List.of("$setOnInsert"), List.copyOf(updateObject.keySet()));
+        assertTrue(options.getValue().isUpsert());
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    void setItemQuantityAndPullItem_ShouldOnlyWriteTheChangedLine() {
+        // Act
+        repository.setItemQuantity("user1", "product1", 4, 9.99);
+        repository.pullItem("user1", "product1");
+
+        // Assert
+        verify(mongoTemplate, times(2))
+                .findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        Document set = update.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(4, set.get("items.$.quantity"));
+        assertEquals("product1", query.getAllValues().get(0).getQueryObject().get("items.productId"));
+        Document pull = update.getAllValues().get(1).getUpdateObject().get("$pull", Document.class);
+        assertEquals(new Document("productId", "product1"), pull.get("items"));
+    }
+
+    @Test
+    void pullItems_ShouldOnlyPullLinesWithTheOrderedQuantity() {
+        // Act
+        repository.pullItems("user1", List.of(new CartItem("product1", "Product 1", 2, 9.99),
+                new CartItem("product2", "Product 2", 1, 4.99)));
+
+        // Assert
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        assertEquals("user1", query.getValue().getQueryObject().get("userId"));
+        Document pull = update.getValue().getUpdateObject().get("$pull", Document.class);
+        assertEquals(new Document("$or", List.of(new Document("productId", "product1").append("quantity", 2),
+                new Document("productId", "product2").append("quantity", 1))), pull.get("items"));
+        assertFalse(update.getValue().getUpdateObject().containsKey("$unset"));
+        assertTrue(options.getValue().isReturnNew());
+    }
+
+    @Test
+    void removeStockHold_ShouldOnlyMatchTheGivenHold() {
+        // Act
+        repository.removeStockHold("user1", "hold1");
+
+        // Assert
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Cart.class));
+        assertEquals("hold1", query.getValue().getQueryObject().get("stockHold.id"));
+        assertEquals(Set.of("stockHold"),
+                update.getValue().getUpdateObject().get("$unset", Document.class).keySet());
+    }
+
+    @Test
+    void setStockHold_ShouldSetOrUnsetOnlyTheHold() {
+        // Act
+        repository.setStockHold("user1", new CartStockHold("hold1", List.of(), LocalDateTime.now()));
+        repository.setStockHold("user1", null);
+
+        // Assert
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), update.capture(), eq(Cart.class));
+        assertEquals("user1", query.getValue().getQueryObject().get("userId"));
+        Document set = update.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("stockHold"), set.keySet());
+        Document unset = update.getAllValues().get(1).getUpdateObject().get("$unset", Document.class);
+        assertTrue(unset.containsKey("stockHold"));
+    }
+}
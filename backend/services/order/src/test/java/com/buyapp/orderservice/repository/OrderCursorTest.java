@@ -0,0 +1,38 @@
+package com.buyapp.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.buyapp.common.exception.BadRequestException;
+
+class OrderCursorTest {
+
+    @Test
+    void encode_ShouldRoundTripThroughDecode() {
+        // Arrange
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123000000), "65f0c0ffee");
+
+        // Act
+        OrderCursor decoded = OrderCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_WhenBlank_ShouldReturnNull() {
+        assertNull(OrderCursor.decode(null));
+        assertNull(OrderCursor.decode(" "));
+    }
+
+    @Test
+    void decode_WhenMalformed_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> OrderCursor.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> OrderCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.buyapp.orderservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderStatus;
+
+@ExtendWith(MockitoExtension.class)
+class OrderRepositoryCustomImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private OrderRepositoryCustomImpl repository;
+    private MongoMappingContext mappingContext;
+    private QueryMapper queryMapper;
+
+    @BeforeEach
+    void setUp() {
+        repository = new OrderRepositoryCustomImpl(mongoTemplate);
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        queryMapper = new QueryMapper(converter);
+    }
+
+    @Test
+    void searchSellerOrders_ShouldPushAllFiltersIntoSinglePipeline() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<TypedAggregation<Order>> captor = ArgumentCaptor.forClass(TypedAggregation.class);
+        when(mongoTemplate.aggregate(captor.capture(), eq(Order.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        // Act
+        repository.searchSellerOrders("seller1", "Lip.stick", OrderStatus.SHIPPED, from, to);
+
+        // Assert
+        List<Document> pipeline = render(captor.getValue());
+        assertEquals(4, pipeline.size());
+
+        Document firstMatch = pipeline.get(0).get("$match", Document.class);
+        assertEquals("seller1", firstMatch.get("items.sellerId"));
+        assertEquals("SHIPPED", firstMatch.get("status"));
+        assertTrue(firstMatch.containsKey("createdAt"));
+
+        String queryMatch = pipeline.get(1).toJson();
+        assertTrue(queryMatch.contains("\"searchTerms\": {\"$all\": [\"lip\", \"stick\"]}"), queryMatch);
+        assertTrue(queryMatch.contains("{\"items\": {\"$elemMatch\": {\"sellerId\": \"seller1\""), queryMatch);
+
+        assertTrue(pipeline.get(2).containsKey("$sort"));
+        String projection = pipeline.get(3).toJson();
+        assertTrue(projection.contains("$filter"), projection);
+        assertTrue(projection.contains("$$item.sellerId"), projection);
+    }
+
+    @Test
+    void searchSellerOrders_WithoutQuery_ShouldSkipQueryStage() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<TypedAggregation<Order>> captor = ArgumentCaptor.forClass(TypedAggregation.class);
+        when(mongoTemplate.aggregate(captor.capture(), eq(Order.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        // Act
+        repository.searchSellerOrders("seller1", "  ", null, null, null);
+
+        // Assert
+        List<Document> pipeline = render(captor.getValue());
+        assertEquals(3, pipeline.size());
+        Document firstMatch = pipeline.get(0).get("$match", Document.class);
+        assertEquals(1, firstMatch.size());
+        verify(mongoTemplate).aggregate(any(TypedAggregation.class), eq(Order.class));
+    }
+
+    @Test
+    void searchSellerOrdersPage_ShouldSeekPastCursorAndLimitBeforeProjection() {
+        // Arrange
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<TypedAggregation<Order>> captor = ArgumentCaptor.forClass(TypedAggregation.class);
+        when(mongoTemplate.aggregate(captor.capture(), eq(Order.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 1, 15, 10, 0), "order9");
+
+        // Act
+        repository.searchSellerOrdersPage("seller1", null, null, null, null, cursor, 500);
+
+        // Assert
+        List<Document> pipeline = render(captor.getValue());
+        assertEquals(5, pipeline.size());
+        String cursorMatch = pipeline.get(1).toJson();
+        assertTrue(cursorMatch.contains("$or"), cursorMatch);
+        assertTrue(cursorMatch.contains("order9"), cursorMatch);
+        Document sortStage = pipeline.get(2).get("$sort", Document.class);
+        assertEquals(List.of("createdAt", "_id"), List.copyOf(sortStage.keySet()));
+        assertEquals(OrderRepositoryCustom.MAX_PAGE_SIZE + 1, ((Number) pipeline.get(3).get("$limit")).intValue());
+        assertTrue(pipeline.get(4).containsKey("$addFields"));
+    }
+
+    @Test
+    void findUserOrdersPage_ShouldQueryWithKeysetSortAndLimit() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Order.class))).thenReturn(List.of());
+        OrderCursor cursor = new OrderCursor(LocalDateTime.of(2024, 1, 15, 10, 0), "order9");
+
+        // Act
+        repository.findUserOrdersPage("user1", null, OrderStatus.PENDING, null, null, cursor, 21);
+
+        // Assert
+        Query query = captor.getValue();
+        assertEquals(21, query.getLimit());
+        assertEquals(List.of("createdAt", "id"), List.copyOf(query.getSortObject().keySet()));
+        String filter = query.getQueryObject().toString();
+        assertTrue(filter.contains("userId=user1"), filter);
+        assertTrue(filter.contains("$or"), filter);
+    }
+
+    @Test
+    void searchUserOrders_ShouldMatchNormalizedSearchTermsWithoutLimit() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        when(mongoTemplate.find(captor.capture(), eq(Order.class))).thenReturn(List.of());
+
+        // Act
+        repository.searchUserOrders("user1", "  Red LIPSTICK ", null, null, null);
+
+        // Assert
+        Query query = captor.getValue();
+        assertEquals(0, query.getLimit());
+        Document filter = query.getQueryObject();
+        String json = filter.toJson();
+        assertTrue(json.contains("{\"searchTerms\": {\"$all\": [\"red\", \"lipstick\"]}}"), json);
+        assertTrue(json.contains("{\"items.searchTerms\": {\"$all\": [\"red\", \"lipstick\"]}}"), json);
+        assertTrue(json.contains("\"userId\": \"user1\""), json);
+    }
+
+    private List<Document> render(TypedAggregation<Order> aggregation) {
+        return aggregation.toPipeline(
+                new TypeBasedAggregationOperationContext(Order.class, mappingContext, queryMapper));
+    }
+}
@@ -0,0 +1,97 @@
+package com.buyapp.orderservice.repository;
+
+import static com.buyapp.common.testing.QueryPlans.assertIndexed;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.common.testing.QueryPlans;
+import com.buyapp.orderservice.model.Cart;
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderStatus;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Runs every repository query and fails if MongoDB plans any of them as a
+ * full collection scan. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+    private static final OrderCursor CURSOR = new OrderCursor(TO, "65f000000000000000000000");
+    private static final int PAGE = 21;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static OrderRepository orderRepository;
+    private static CartRepository cartRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = QueryPlans.mongoTemplate(client, "order_plans", Order.class, Cart.class);
+        orderRepository = QueryPlans.repository(mongoTemplate, OrderRepository.class,
+                new OrderRepositoryCustomImpl(mongoTemplate));
+        cartRepository = QueryPlans.repository(mongoTemplate, CartRepository.class,
+                new CartRepositoryCustomImpl(mongoTemplate));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void orderRepository_DerivedQueries_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate, () -> orderRepository.findByUserIdOrderByCreatedAtDesc("user1"));
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.findByUserIdAndStatusOrderByCreatedAtDesc("user1", OrderStatus.PENDING));
+        assertIndexed(mongoTemplate, () -> orderRepository.findByItemsSellerIdOrderByCreatedAtDesc("seller1"));
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.findByItemsSellerIdAndStatusOrderByCreatedAtDesc("seller1", OrderStatus.SHIPPED));
+        assertIndexed(mongoTemplate, () -> orderRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(FROM, TO));
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc("user1", FROM, TO));
+        assertIndexed(mongoTemplate, () -> orderRepository.deleteByUserId("user1"));
+    }
+
+    @Test
+    void orderRepository_KeysetPage_ShouldUseIndex() {
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.findUserOrdersPage("user1", null, null, null, null, CURSOR, PAGE));
+    }
+
+    @Test
+    void orderRepository_SellerSearch_ShouldUseIndex() {
+        assertIndexed(mongoTemplate, () -> orderRepository.searchSellerOrdersPage(
+                "seller1", null, OrderStatus.PENDING, FROM, TO, null, PAGE));
+        assertIndexed(mongoTemplate, () -> orderRepository.searchSellerOrdersPage(
+                "seller1", null, null, null, null, CURSOR, PAGE));
+    }
+
+    @Test
+    void orderRepository_TermSearch_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.findUserOrdersPage("user1", "red lip", null, null, null, null, PAGE));
+        assertIndexed(mongoTemplate,
+                () -> orderRepository.searchSellerOrdersPage("seller1", "red lip", null, null, null, null, PAGE));
+    }
+
+    @Test
+    void cartRepository_FindByUserId_ShouldUseIndex() {
+        assertIndexed(mongoTemplate, () -> cartRepository.findByUserId("user1"));
+    }
+}
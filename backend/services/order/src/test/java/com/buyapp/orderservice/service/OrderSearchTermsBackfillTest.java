@@ -0,0 +1,93 @@
+package com.buyapp.orderservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderItem;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class OrderSearchTermsBackfillTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private OrderSearchTermsBackfill backfill;
+
+    @BeforeEach
+    void setUp() {
+        backfill = new OrderSearchTermsBackfill(mongoTemplate);
+        ReflectionTestUtils.setField(backfill, "batchSize", 2);
+        ReflectionTestUtils.setField(backfill, "pauseMillis", 0L);
+    }
+
+    @Test
+    void backfill_ShouldRewriteOnlyOrdersWithStaleTermsBatchByBatch() {
+        // Arrange
+        Order stale1 = order("65f000000000000000000001", "Red Lipstick");
+        stale1.setSearchTerms(List.of("6", "65", "seller1:red"));
+        Order current = order("65f000000000000000000002", "Mascara");
+        current.refreshSearchTerms();
+        Order stale2 = order("65f000000000000000000003", "Blush");
+        when(mongoTemplate.find(any(Query.class), eq(Order.class)))
+                .thenReturn(List.of(stale1, current), List.of(stale2));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Order.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        long updated = backfill.backfill();
+
+        // Assert
+        assertEquals(2, updated);
+        ArgumentCaptor<Query> batches = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(batches.capture(), eq(Order.class));
+        assertFalse(batches.getAllValues().get(0).getQueryObject().containsKey("_id"));
+        assertEquals(new Document("$gt", "65f000000000000000000002"),
+                batches.getAllValues().get(1).getQueryObject().get("_id"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), update.capture(), eq(Order.class));
+        Document set = update.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        assertEquals(List.of("65f000000000000000000001", "00000001"), set.get("searchTerms"));
+        assertEquals(List.of("r", "re", "red", "l", "li", "lip", "lips", "lipst", "lipsti", "lipstic", "lipstick"),
+                set.get("items.0.searchTerms"));
+    }
+
+    @Test
+    void refresh_WhenTermsAreCurrent_ShouldNotWrite() {
+        // Arrange
+        Order order = order("65f000000000000000000001", "Mascara");
+        order.refreshSearchTerms();
+
+        // Act & Assert
+        assertFalse(backfill.refresh(order));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Order.class));
+    }
+
+    private static Order order(String id, String productName) {
+        Order order = new Order("user1", List.of(new OrderItem("p1", productName, "seller1", 1, 10.0)), null);
+        order.setId(id);
+        return order;
+    }
+}
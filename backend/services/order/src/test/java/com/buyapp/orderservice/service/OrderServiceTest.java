@@ -2,18 +2,25 @@ package com.buyapp.orderservice.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -23,28 +30,41 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.buyapp.common.dto.CartDto;
 import com.buyapp.common.dto.CartDto.CartItemDto;
 import com.buyapp.common.dto.OrderDto;
 import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.buyapp.common.dto.SellerStatsDto;
 import com.buyapp.common.dto.ShippingAddressDto;
+import com.buyapp.common.dto.StockHoldDto;
+import com.buyapp.common.dto.StockItemDto;
 import com.buyapp.common.dto.UserDto;
+import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.orderservice.model.Cart;
 import com.buyapp.orderservice.model.CartItem;
+import com.buyapp.orderservice.model.CartStockHold;
 import com.buyapp.orderservice.model.Order;
 import com.buyapp.orderservice.model.OrderItem;
 import com.buyapp.orderservice.model.OrderStatus;
 import com.buyapp.orderservice.repository.CartRepository;
+import com.buyapp.orderservice.repository.OrderCursor;
 import com.buyapp.orderservice.repository.OrderRepository;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
@@ -78,6 +98,13 @@ class OrderServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @Spy
+    private ProductSnapshotCache productSnapshotCache =
+            new ProductSnapshotCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+
+    @Mock
+    private SellerStatsService sellerStatsService;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -121,11 +148,14 @@ class OrderServiceTest {
         doReturn(webClient).when(webClientBuilder).build();
         doReturn(requestHeadersUriSpec).when(webClient).get();
         doReturn(requestBodyUriSpec).when(webClient).post();
+        doReturn(requestHeadersUriSpec).when(webClient).delete();
         // GET requests: uri() takes Object... (varargs), so use Object[].class
         doReturn(requestHeadersSpec).when(requestHeadersUriSpec).uri(anyString(), any(Object[].class));
         // POST requests: uri() returns RequestBodySpec, then retrieve() returns ResponseSpec
         doReturn(requestBodySpec).when(requestBodyUriSpec).uri(anyString(), any(Object[].class));
         doReturn(responseSpec).when(requestBodySpec).retrieve();
+        // POST requests with a JSON body (batch product lookup)
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(any());
         doReturn(responseSpec).when(requestHeadersSpec).retrieve();
     }
 
@@ -172,11 +202,9 @@ class OrderServiceTest {
     }
 
     @Test
-    void addItem_WhenItemDoesNotExist_ShouldAddNewItem() {
+    void addItem_WhenItemDoesNotExist_ShouldPushNewLineInOneUpdate() {
         // Arrange
-        Cart emptyCart = new Cart("user1");
-        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(emptyCart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.pushItem(eq("user1"), any(CartItem.class))).thenReturn(testCart);
         mockProductServiceCall();
 
         CartItemDto itemDto = new CartItemDto("product1", "Product 1", 2, 99.99, null);
@@ -186,14 +214,16 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartRepository, never()).incrementItem(anyString(), any(CartItem.class), anyInt());
+        verify(cartRepository, never()).findByUserId(anyString());
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
-    void addItem_WhenItemExists_ShouldUpdateQuantity() {
+    void addItem_WhenItemExists_ShouldIncrementWithinStock() {
         // Arrange
-        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.pushItem(eq("user1"), any(CartItem.class))).thenReturn(null);
+        when(cartRepository.incrementItem(eq("user1"), any(CartItem.class), eq(10))).thenReturn(testCart);
         mockProductServiceCall();
 
         CartItemDto itemDto = new CartItemDto("product1", "Product 1", 3, 99.99, null);
@@ -203,13 +233,50 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(cartRepository).save(any(Cart.class));
+        ArgumentCaptor<CartItem> item = ArgumentCaptor.forClass(CartItem.class);
+        verify(cartRepository).incrementItem(eq("user1"), item.capture(), eq(10));
+        assertEquals(3, item.getValue().getQuantity());
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
-    void addItem_WhenInsufficientStock_ShouldThrowException() {
+    void addItem_WhenCartDoesNotExist_ShouldCreateCartWithItem() {
         // Arrange
+        Cart created = new Cart("user1");
+        created.addItem(new CartItem("product1", "Product 1", 2, 99.99));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.empty());
+        when(cartRepository.createWithItem(eq("user1"), any(CartItem.class))).thenReturn(created);
+        mockProductServiceCall();
+
+        CartItemDto itemDto = new CartItemDto("product1", "Product 1", 2, 99.99, null);
+
+        // Act
+        CartDto result = orderService.addItem("user1", itemDto);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        verify(cartRepository).createWithItem(eq("user1"), any(CartItem.class));
+    }
+
+    @Test
+    void addItem_WhenExistingLineWouldExceedStock_ShouldThrowException() {
+        // Arrange: testCart already holds 2 of product1 and stock is 10
         when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+
+        CartItemDto itemDto = new CartItemDto("product1", "Product 1", 9, 99.99, null);
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            orderService.addItem("user1", itemDto);
+        });
+        assertTrue(exception.getMessage().contains("Requested: 11"), exception.getMessage());
+        verify(cartRepository, never()).createWithItem(anyString(), any(CartItem.class));
+    }
+
+    @Test
+    void addItem_WhenInsufficientStock_ShouldThrowException() {
+        // Arrange
         testProductDto.setStock(1); // Less than requested
         mockProductServiceCall();
 
@@ -219,13 +286,13 @@ class OrderServiceTest {
         assertThrows(IllegalArgumentException.class, () -> {
             orderService.addItem("user1", itemDto);
         });
+        verify(cartRepository, never()).pushItem(anyString(), any(CartItem.class));
     }
 
     @Test
-    void updateItemQuantity_WhenValid_ShouldUpdateQuantity() {
+    void updateItemQuantity_WhenValid_ShouldSetLineQuantity() {
         // Arrange
-        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.setItemQuantity("user1", "product1", 5, 99.99)).thenReturn(testCart);
         mockProductServiceCall();
 
         // Act
@@ -233,18 +300,34 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartRepository).setItemQuantity("user1", "product1", 5, 99.99);
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
     void updateItemQuantity_WhenCartNotFound_ShouldThrowException() {
         // Arrange
         when(cartRepository.findByUserId("user1")).thenReturn(Optional.empty());
+        mockProductServiceCall();
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             orderService.updateItemQuantity("user1", "product1", 5);
         });
+        assertTrue(exception.getMessage().startsWith("Cart not found"));
+    }
+
+    @Test
+    void updateItemQuantity_WhenItemNotInCart_ShouldThrowException() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
+            orderService.updateItemQuantity("user1", "product1", 5);
+        });
+        assertTrue(exception.getMessage().startsWith("Item not found"));
     }
 
     @Test
@@ -256,17 +339,25 @@ class OrderServiceTest {
     }
 
     @Test
-    void removeItem_WhenValid_ShouldRemoveItem() {
+    void removeItem_WhenValid_ShouldPullLine() {
         // Arrange
-        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(cartRepository.pullItem("user1", "product1")).thenReturn(new Cart("user1"));
 
         // Act
         CartDto result = orderService.removeItem("user1", "product1");
 
         // Assert
         assertNotNull(result);
-        verify(cartRepository).save(any(Cart.class));
+        assertEquals(0, result.getItems().size());
+        verify(cartRepository, never()).save(any(Cart.class));
+    }
+
+    @Test
+    void removeItem_WhenCartNotFound_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> {
+            orderService.removeItem("user1", "product1");
+        });
     }
 
     @Test
@@ -282,6 +373,149 @@ class OrderServiceTest {
         verify(cartRepository).save(any(Cart.class));
     }
 
+    @Test
+    void clearCart_WhenStockHeld_ShouldReleaseHold() {
+        // Arrange
+        testCart.setStockHold(heldCartItems("hold1"));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockStockRestorationCall();
+
+        // Act
+        orderService.clearCart("user1");
+
+        // Assert
+        verify(requestHeadersUriSpec).uri("http://product-service/products/stock/holds/{holdId}", "hold1");
+        assertNull(testCart.getStockHold());
+        verify(cartRepository).save(testCart);
+    }
+
+    // ========== Checkout Tests ==========
+
+    @Test
+    void startCheckout_ShouldHoldCartStockAndRecordHoldOnCart() {
+        // Arrange
+        StockHoldDto hold = new StockHoldDto("hold1", List.of(new StockItemDto("product1", 2)),
+                LocalDateTime.now().plusMinutes(10));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToMono(StockHoldDto.class)).thenReturn(Mono.just(hold));
+        when(cartRepository.setStockHold(eq("user1"), any(CartStockHold.class))).thenReturn(testCart);
+
+        // Act
+        StockHoldDto result = orderService.startCheckout("user1");
+
+        // Assert
+        assertEquals("hold1", result.getId());
+        verify(requestBodyUriSpec).uri("http://product-service/products/stock/holds");
+        ArgumentCaptor<CartStockHold> recorded = ArgumentCaptor.forClass(CartStockHold.class);
+        verify(cartRepository).setStockHold(eq("user1"), recorded.capture());
+        assertEquals("hold1", recorded.getValue().getId());
+        verify(webClient, never()).delete();
+    }
+
+    @Test
+    void startCheckout_WhenHoldExists_ShouldReleasePreviousHold() {
+        // Arrange
+        Cart previous = new Cart("user1");
+        previous.setStockHold(heldCartItems("old-hold"));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToMono(StockHoldDto.class)).thenReturn(Mono.just(
+                new StockHoldDto("hold1", List.of(new StockItemDto("product1", 2)), LocalDateTime.now())));
+        when(cartRepository.setStockHold(eq("user1"), any(CartStockHold.class))).thenReturn(previous);
+        mockStockRestorationCall();
+
+        // Act
+        orderService.startCheckout("user1");
+
+        // Assert
+        verify(requestHeadersUriSpec).uri("http://product-service/products/stock/holds/{holdId}", "old-hold");
+    }
+
+    @Test
+    void startCheckout_WhenCartIsEmpty_ShouldThrowException() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(new Cart("user1")));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> orderService.startCheckout("user1"));
+        verify(webClient, never()).post();
+    }
+
+    @Test
+    void createOrder_WhenHoldCoversCart_ShouldCommitHoldInsteadOfReserving() {
+        // Arrange
+        testProductDto.setStock(0); // Everything left is ours, in the hold
+        testCart.setStockHold(heldCartItems("hold1"));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        mockProductServiceCall();
+        mockStockReductionCall();
+
+        // Act
+        OrderDto result = orderService.createOrder("user1", testShippingAddress);
+
+        // Assert
+        assertNotNull(result);
+        verify(requestBodyUriSpec).uri("http://product-service/products/stock/holds/{holdId}/commit", "hold1");
+        verify(requestBodyUriSpec, never()).uri("http://product-service/products/stock/reserve");
+        verify(webClient, never()).delete();
+        verify(cartRepository).removeStockHold("user1", "hold1");
+    }
+
+    @Test
+    void createOrder_WhenHoldIsGone_ShouldReleaseHoldAndReserveStock() {
+        // Arrange
+        testCart.setStockHold(heldCartItems("hold1"));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        mockProductServiceCall();
+        when(responseSpec.bodyToMono(Void.class)).thenReturn(
+                Mono.error(WebClientResponseException.create(404, "Not Found", null, null, null)),
+                Mono.empty(), Mono.empty());
+
+        // Act
+        OrderDto result = orderService.createOrder("user1", testShippingAddress);
+
+        // Assert
+        assertNotNull(result);
+        verify(requestHeadersUriSpec).uri("http://product-service/products/stock/holds/{holdId}", "hold1");
+        verify(requestBodyUriSpec).uri("http://product-service/products/stock/reserve");
+    }
+
+    @Test
+    void createOrder_WhenHoldCommitOutcomeUnknown_ShouldFailAndKeepHold() {
+        // Arrange
+        testCart.setStockHold(heldCartItems("hold1"));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+        when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.error(new RuntimeException("Read timed out")));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> orderService.createOrder("user1", testShippingAddress));
+        verify(webClient, never()).delete();
+        verify(requestBodyUriSpec, never()).uri("http://product-service/products/stock/reserve");
+        verify(orderRepository, never()).save(any(Order.class));
+        assertNotNull(testCart.getStockHold());
+    }
+
+    @Test
+    void createOrder_WhenCartChangedSinceCheckout_ShouldReleaseHoldAndReserveStock() {
+        // Arrange
+        testCart.setStockHold(new CartStockHold("hold1", List.of(new StockItemDto("product1", 1)),
+                LocalDateTime.now().plusMinutes(10)));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        mockProductServiceCall();
+        mockStockReductionCall();
+
+        // Act
+        orderService.createOrder("user1", testShippingAddress);
+
+        // Assert
+        verify(requestBodyUriSpec, never()).uri("http://product-service/products/stock/holds/{holdId}/commit", "hold1");
+        verify(requestHeadersUriSpec).uri("http://product-service/products/stock/holds/{holdId}", "hold1");
+        verify(requestBodyUriSpec).uri("http://product-service/products/stock/reserve");
+    }
+
     // ========== Order Tests ==========
 
     @Test
@@ -290,7 +524,6 @@ class OrderServiceTest {
         when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
         mockProductServiceCall();
-        mockSellerIdCall();
         mockStockReductionCall();
 
         // Act
@@ -300,7 +533,155 @@ class OrderServiceTest {
         assertNotNull(result);
         assertEquals("user1", result.getUserId());
         verify(orderRepository).save(any(Order.class));
-        verify(cartRepository).save(any(Cart.class));
+        verify(cartRepository).pullItems("user1", testCart.getItems());
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartRepository, never()).removeStockHold(anyString(), anyString());
+        verify(sellerStatsService).recordOrderCreated(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WhenMultipleItems_ShouldFetchProductsInSingleBatchCall() {
+        // Arrange
+        testCart.addItem(new CartItem("product2", "Product 2", 1, 49.99));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(responseSpec.bodyToFlux(ProductSummaryDto.class)).thenReturn(Flux.just(
+                new ProductSummaryDto("product1", "Product 1", 99.99, 10, "seller1"),
+                new ProductSummaryDto("product2", "Product 2", 49.99, 5, "seller2")));
+        mockStockReductionCall();
+
+        // Act
+        OrderDto result = orderService.createOrder("user1", testShippingAddress);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals("seller2", result.getItems().get(1).getSellerId());
+        verify(responseSpec, times(1)).bodyToFlux(ProductSummaryDto.class);
+        verify(responseSpec, never()).bodyToMono(ProductDto.class);
+    }
+
+    @Test
+    void createOrder_WhenProductMissingFromBatch_ShouldThrowException() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToFlux(ProductSummaryDto.class)).thenReturn(Flux.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> {
+            orderService.createOrder("user1", testShippingAddress);
+        });
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void getCart_WhenStockInsufficient_ShouldMarkItemUnavailable() {
+        // Arrange
+        testProductDto.setStock(1); // Cart holds 2
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+
+        // Act
+        CartDto result = orderService.getCart("user1");
+
+        // Assert
+        assertEquals(Boolean.FALSE, result.getItems().get(0).getAvailable());
+    }
+
+    @Test
+    void createOrder_WhenStockReservationFails_ShouldNotSaveOrder() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+        when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.error(new RuntimeException("409 Conflict")));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> {
+            orderService.createOrder("user1", testShippingAddress);
+        });
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(cartRepository, never()).pullItems(anyString(), any());
+        verify(sellerStatsService, never()).recordOrderCreated(any(Order.class));
+    }
+
+    @Test
+    void getCart_WhenProductLookupExceedsBatchSize_ShouldSplitIntoConcurrentChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(orderService, "productBatchSize", 1);
+        testCart.addItem(new CartItem("product2", "Product 2", 1, 49.99));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToFlux(ProductSummaryDto.class)).thenReturn(
+                Flux.just(new ProductSummaryDto("product1", "Product 1", 99.99, 10, "seller1")),
+                Flux.just(new ProductSummaryDto("product2", "Product 2", 49.99, 0, "seller2")));
+
+        // Act
+        CartDto result = orderService.getCart("user1");
+
+        // Assert
+        verify(responseSpec, times(2)).bodyToFlux(ProductSummaryDto.class);
+        assertEquals(Boolean.TRUE, result.getItems().get(0).getAvailable());
+        assertEquals(Boolean.FALSE, result.getItems().get(1).getAvailable());
+    }
+
+    @Test
+    void createOrder_WhenProductServiceTimesOut_ShouldThrowException() {
+        // Arrange
+        ReflectionTestUtils.setField(orderService, "downstreamTimeout", Duration.ofMillis(50));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToFlux(ProductSummaryDto.class)).thenReturn(Flux.never());
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> {
+            orderService.createOrder("user1", testShippingAddress);
+        });
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void getCart_WhenProductServiceTimesOut_ShouldMarkItemsUnavailable() {
+        // Arrange
+        ReflectionTestUtils.setField(orderService, "downstreamTimeout", Duration.ofMillis(50));
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(responseSpec.bodyToFlux(ProductSummaryDto.class)).thenReturn(Flux.never());
+
+        // Act
+        CartDto result = orderService.getCart("user1");
+
+        // Assert
+        assertEquals(Boolean.FALSE, result.getItems().get(0).getAvailable());
+    }
+
+    @Test
+    void getCart_WhenCalledTwice_ShouldServeAvailabilityFromSnapshotCache() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        mockProductServiceCall();
+
+        // Act
+        orderService.getCart("user1");
+        CartDto result = orderService.getCart("user1");
+
+        // Assert
+        assertEquals(Boolean.TRUE, result.getItems().get(0).getAvailable());
+        verify(responseSpec, times(1)).bodyToFlux(ProductSummaryDto.class);
+    }
+
+    @Test
+    void createOrder_AfterCartView_ShouldBypassSnapshotCache() {
+        // Arrange
+        when(cartRepository.findByUserId("user1")).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        mockProductServiceCall();
+        mockStockReductionCall();
+        orderService.getCart("user1");
+
+        // Stock dropped after the cart was viewed: checkout must see it
+        testProductDto.setStock(1);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            orderService.createOrder("user1", testShippingAddress);
+        });
+        verify(responseSpec, times(2)).bodyToFlux(ProductSummaryDto.class);
     }
 
     @Test
@@ -380,6 +761,7 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         verify(orderRepository).save(any(Order.class));
+        verify(sellerStatsService).recordStatusChange(testOrder, OrderStatus.PENDING);
     }
 
     @Test
@@ -451,13 +833,8 @@ class OrderServiceTest {
     @MethodSource("searchOrdersTestCases")
     void searchOrders_ShouldReturnFilteredOrders(String testCase, String query, OrderStatus status) {
         // Arrange
-        if (status != null) {
-            when(orderRepository.findByUserIdAndStatusOrderByCreatedAtDesc("user1", status))
-                    .thenReturn(Arrays.asList(testOrder));
-        } else {
-            when(orderRepository.findByUserIdOrderByCreatedAtDesc("user1"))
-                    .thenReturn(Arrays.asList(testOrder));
-        }
+        when(orderRepository.searchUserOrders("user1", query, status, null, null))
+                .thenReturn(Arrays.asList(testOrder));
 
         // Act
         List<OrderDto> result = orderService.searchOrders("user1", query, status, null, null);
@@ -468,11 +845,11 @@ class OrderServiceTest {
     }
 
     @Test
-    void searchOrders_WhenDateRangeFilter_ShouldReturnFilteredOrders() {
+    void searchOrders_WhenDateRangeFilter_ShouldQueryDatabaseWithDates() {
         // Arrange
         LocalDateTime from = LocalDateTime.now().minusDays(7);
         LocalDateTime to = LocalDateTime.now();
-        when(orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc("user1", from, to))
+        when(orderRepository.searchUserOrders("user1", null, null, from, to))
                 .thenReturn(Arrays.asList(testOrder));
 
         // Act
@@ -489,7 +866,7 @@ class OrderServiceTest {
         OrderItem item = new OrderItem("product1", "Lipstick", "seller1", 2, 99.99);
         Order orderWithProduct = new Order("user1", Arrays.asList(item), createShippingAddress());
         orderWithProduct.setId("order2");
-        when(orderRepository.findByUserIdOrderByCreatedAtDesc("user1"))
+        when(orderRepository.searchUserOrders("user1", "lipstick", null, null, null))
                 .thenReturn(Arrays.asList(orderWithProduct));
 
         // Act
@@ -498,15 +875,16 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals("order2", result.get(0).getId());
     }
 
     @Test
-    void searchOrders_WhenCombinedFilters_ShouldReturnFilteredOrders() {
+    void searchOrders_WhenCombinedFilters_ShouldPassAllFiltersToRepository() {
         // Arrange
         testOrder.setStatus(OrderStatus.PENDING);
         LocalDateTime from = LocalDateTime.now().minusDays(7);
         LocalDateTime to = LocalDateTime.now();
-        when(orderRepository.findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc("user1", from, to))
+        when(orderRepository.searchUserOrders("user1", "order1", OrderStatus.PENDING, from, to))
                 .thenReturn(Arrays.asList(testOrder));
 
         // Act
@@ -515,13 +893,14 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        verify(orderRepository, never()).findByUserIdOrderByCreatedAtDesc(anyString());
     }
 
     @Test
     void searchOrders_WhenQueryDoesNotMatch_ShouldReturnEmptyList() {
         // Arrange
-        when(orderRepository.findByUserIdOrderByCreatedAtDesc("user1"))
-                .thenReturn(Arrays.asList(testOrder));
+        when(orderRepository.searchUserOrders("user1", "nonexistent", null, null, null))
+                .thenReturn(List.of());
 
         // Act
         List<OrderDto> result = orderService.searchOrders("user1", "nonexistent", null, null, null);
@@ -548,6 +927,8 @@ class OrderServiceTest {
         // Arrange
         when(orderRepository.findByItemsSellerIdOrderByCreatedAtDesc("seller1"))
                 .thenReturn(Arrays.asList(testOrder));
+        when(orderRepository.searchSellerOrders("seller1", query, status, null, null))
+                .thenReturn(Arrays.asList(testOrder));
         mockUserServiceCall();
 
         // Act
@@ -603,6 +984,7 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         verify(orderRepository).save(any(Order.class));
+        verify(sellerStatsService).recordStatusChange(testOrder, OrderStatus.PENDING);
     }
 
     @Test
@@ -616,14 +998,30 @@ class OrderServiceTest {
         assertThrows(IllegalStateException.class, () -> {
             orderService.updateOrderStatus("order1", OrderStatus.PENDING, "seller@example.com");
         });
+        verify(sellerStatsService, never()).recordStatusChange(any(), any());
     }
 
     @Test
-    void searchSellerOrders_WhenDateRangeFilter_ShouldReturnFilteredOrders() {
+    void getSellerStats_ShouldReadStatsForResolvedSellerId() {
+        // Arrange
+        mockUserServiceCall();
+        SellerStatsDto stats = new SellerStatsDto("seller1", 199.98, 2L, 1L, Map.of("PENDING", 1L));
+        when(sellerStatsService.getStats("seller1")).thenReturn(stats);
+
+        // Act
+        SellerStatsDto result = orderService.getSellerStats("seller@example.com");
+
+        // Assert
+        assertEquals(stats, result);
+        verify(orderRepository, never()).findByItemsSellerIdOrderByCreatedAtDesc(anyString());
+    }
+
+    @Test
+    void searchSellerOrders_WhenDateRangeFilter_ShouldQueryDatabaseWithSellerAndDates() {
         // Arrange
         LocalDateTime from = LocalDateTime.now().minusDays(7);
         LocalDateTime to = LocalDateTime.now();
-        when(orderRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(from, to))
+        when(orderRepository.searchSellerOrders("seller1", null, null, from, to))
                 .thenReturn(Arrays.asList(testOrder));
         mockUserServiceCall();
 
@@ -633,6 +1031,7 @@ class OrderServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        verify(orderRepository, never()).findByCreatedAtBetweenOrderByCreatedAtDesc(any(), any());
     }
 
     @Test
@@ -641,7 +1040,7 @@ class OrderServiceTest {
         OrderItem item = new OrderItem("product1", "Mascara", "seller1", 2, 99.99);
         Order orderWithProduct = new Order("user1", Arrays.asList(item), createShippingAddress());
         orderWithProduct.setId("order2");
-        when(orderRepository.findByItemsSellerIdOrderByCreatedAtDesc("seller1"))
+        when(orderRepository.searchSellerOrders("seller1", "mascara", null, null, null))
                 .thenReturn(Arrays.asList(orderWithProduct));
         mockUserServiceCall();
 
@@ -654,26 +1053,48 @@ class OrderServiceTest {
     }
 
     @Test
-    void searchSellerOrders_WhenCombinedFilters_ShouldReturnFilteredOrders() {
+    void searchSellerOrders_WhenCombinedFilters_ShouldPassAllFiltersToRepository() {
         // Arrange
         testOrder.setStatus(OrderStatus.PENDING);
-        when(orderRepository.findByItemsSellerIdOrderByCreatedAtDesc("seller1"))
+        LocalDateTime from = LocalDateTime.now().minusDays(7);
+        LocalDateTime to = LocalDateTime.now();
+        when(orderRepository.searchSellerOrders("seller1", "order1", OrderStatus.PENDING, from, to))
                 .thenReturn(Arrays.asList(testOrder));
         mockUserServiceCall();
 
         // Act
-        List<OrderDto> result = orderService.searchSellerOrders("seller@example.com", "order1", OrderStatus.PENDING, null, null);
+        List<OrderDto> result = orderService.searchSellerOrders(
+                "seller@example.com", "order1", OrderStatus.PENDING, from, to);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
+        verify(orderRepository).searchSellerOrders("seller1", "order1", OrderStatus.PENDING, from, to);
+    }
+
+    @Test
+    void searchSellerOrders_ShouldOnlyReturnSellersItemsAndTotal() {
+        // Arrange - repository returns orders already filtered to the seller's items
+        OrderItem sellerItem = new OrderItem("product1", "Mascara", "seller1", 2, 10.0);
+        Order order = new Order("user1", Arrays.asList(sellerItem), createShippingAddress());
+        order.setId("order3");
+        when(orderRepository.searchSellerOrders("seller1", null, null, null, null))
+                .thenReturn(Arrays.asList(order));
+        mockUserServiceCall();
+
+        // Act
+        List<OrderDto> result = orderService.searchSellerOrders("seller@example.com", null, null, null, null);
+
+        // Assert
+        assertEquals(1, result.get(0).getItems().size());
+        assertEquals(20.0, result.get(0).getTotalAmount());
     }
 
     @Test
     void searchSellerOrders_WhenQueryDoesNotMatch_ShouldReturnEmptyList() {
         // Arrange
-        when(orderRepository.findByItemsSellerIdOrderByCreatedAtDesc("seller1"))
-                .thenReturn(Arrays.asList(testOrder));
+        when(orderRepository.searchSellerOrders("seller1", "nonexistent", null, null, null))
+                .thenReturn(List.of());
         mockUserServiceCall();
 
         // Act
@@ -684,6 +1105,81 @@ class OrderServiceTest {
         assertEquals(0, result.size());
     }
 
+    // ========== Pagination Tests ==========
+
+    @Test
+    void getOrdersPage_WhenMoreRowsThanPageSize_ShouldReturnNextCursor() {
+        // Arrange
+        Order second = new Order("user1", testOrder.getItems(), createShippingAddress());
+        second.setId("order2");
+        Order third = new Order("user1", testOrder.getItems(), createShippingAddress());
+        third.setId("order3");
+        when(orderRepository.findUserOrdersPage("user1", null, null, null, null, null, 3))
+                .thenReturn(List.of(testOrder, second, third));
+
+        // Act
+        OrderPage page = orderService.getOrdersPage("user1", null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("order2", page.getItems().get(1).getId());
+        OrderCursor next = OrderCursor.decode(page.getNextCursor());
+        assertEquals("order2", next.id());
+        assertEquals(second.getCreatedAt(), next.createdAt());
+    }
+
+    @Test
+    void getOrdersPage_WhenLastPage_ShouldNotReturnCursor() {
+        // Arrange
+        OrderCursor cursor = OrderCursor.of(testOrder);
+        when(orderRepository.findUserOrdersPage("user1", null, null, null, null, cursor, 21))
+                .thenReturn(List.of(testOrder));
+
+        // Act
+        OrderPage page = orderService.getOrdersPage("user1", cursor.encode(), null);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void searchOrdersPage_ShouldClampLimitToMaxPageSize() {
+        // Arrange
+        when(orderRepository.findUserOrdersPage(
+                "user1", "lip", OrderStatus.PENDING, null, null, null, OrderRepository.MAX_PAGE_SIZE + 1))
+                .thenReturn(List.of());
+
+        // Act
+        OrderPage page = orderService.searchOrdersPage("user1", "lip", OrderStatus.PENDING, null, null, null, 5000);
+
+        // Assert
+        assertEquals(0, page.getItems().size());
+        verify(orderRepository).findUserOrdersPage(
+                "user1", "lip", OrderStatus.PENDING, null, null, null, OrderRepository.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getOrdersPage_WhenCursorMalformed_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> orderService.getOrdersPage("user1", "not-a-cursor", 10));
+        verify(orderRepository, never()).findUserOrdersPage(any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void searchSellerOrdersPage_ShouldPageSellerView() {
+        // Arrange
+        mockUserServiceCall();
+        when(orderRepository.searchSellerOrdersPage("seller1", null, null, null, null, null, 2))
+                .thenReturn(List.of(testOrder));
+
+        // Act
+        OrderPage page = orderService.getSellerOrdersPage("seller@example.com", null, 1);
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
     // ========== Additional Edge Case Tests ==========
 
     @Test
@@ -756,14 +1252,21 @@ class OrderServiceTest {
 
     // ========== Helper Methods ==========
 
+    private static CartStockHold heldCartItems(String holdId) {
+        return new CartStockHold(holdId, List.of(new StockItemDto("product1", 2)), LocalDateTime.now().plusMinutes(10));
+    }
+
     private void mockProductServiceCall() {
         lenient().when(responseSpec.bodyToMono(ProductDto.class))
                 .thenReturn(Mono.just(testProductDto));
-    }
-
-    private void mockSellerIdCall() {
-        lenient().when(responseSpec.bodyToMono(String.class))
-                .thenReturn(Mono.just("seller1"));
+        // Batch lookup reflects the test product's current stock at call time
+        lenient().when(responseSpec.bodyToFlux(ProductSummaryDto.class))
+                .thenAnswer(invocation -> Flux.just(new ProductSummaryDto(
+                        testProductDto.getId(),
+                        testProductDto.getName(),
+                        testProductDto.getPrice(),
+                        testProductDto.getStock(),
+                        "seller1")));
     }
 
     private void mockStockReductionCall() {
@@ -0,0 +1,82 @@
+package com.buyapp.orderservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.buyapp.common.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProductSnapshotCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductSnapshotCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductSnapshotCache(Duration.ofMinutes(1), 100, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissingProductsAndRecordHitsAndMisses() {
+        // Act
+        cache.getAll(List.of("p1"), this::load);
+        Map<String, ProductSummaryDto> result = cache.getAll(List.of("p1", "p2"), this::load);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void getAll_WhenLoaderOmitsProduct_ShouldNotCacheIt() {
+        // Act
+        Map<String, ProductSummaryDto> result = cache.getAll(List.of("unknown"), ids -> Map.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        assertEquals(1, cache.getAll(List.of("unknown"), this::load).size());
+    }
+
+    @Test
+    void invalidateAll_ShouldForceReload() {
+        // Arrange
+        cache.getAll(List.of("p1"), this::load);
+
+        // Act
+        cache.invalidateAll(List.of("p1"));
+        cache.getAll(List.of("p1"), this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void constructor_ShouldRegisterCacheMetrics() {
+        assertNotNull(meterRegistry.find("cache.gets")
+                .tag("cache", ProductSnapshotCache.CACHE_NAME)
+                .functionCounter());
+    }
+
+    private Map<String, ProductSummaryDto> load(Collection<String> ids) {
+        loads.addAndGet(ids.size());
+        return ids.stream().collect(Collectors.toMap(
+                id -> id, id -> new ProductSummaryDto(id, "Product " + id, 10.0, 5, "seller1")));
+    }
+}
@@ -0,0 +1,290 @@
+package com.buyapp.orderservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.common.dto.SellerStatsDto;
+import com.buyapp.orderservice.model.Order;
+import com.buyapp.orderservice.model.OrderItem;
+import com.buyapp.orderservice.model.OrderStatus;
+import com.buyapp.orderservice.model.SellerStats;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class SellerStatsServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private SellerStatsService sellerStatsService;
+
+    @Test
+    void recordOrderCreated_ShouldIncrementEachSellersShareAtomically() {
+        // Arrange
+        Order order = new Order("user1", List.of(
+                new OrderItem("p1", "Lipstick", "seller1", 2, 10.0),
+                new OrderItem("p2", "Gloss", "seller1", 1, 5.0),
+                new OrderItem("p3", "Mascara", "seller2", 3, 4.0)), null);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        sellerStatsService.recordOrderCreated(order);
+
+        // Assert
+        verify(mongoTemplate, times(2)).upsert(queries.capture(), updates.capture(), eq(SellerStats.class));
+        assertEquals("seller1", queries.getAllValues().get(0).getQueryObject().get("_id"));
+        Document inc = updates.getAllValues().get(0).getUpdateObject().get("$inc", Document.class);
+        assertEquals(1, inc.get("totalOrders"));
+        assertEquals(1, inc.get("ordersByStatus.PENDING"));
+        assertEquals(25.0, inc.get("revenue"));
+        assertEquals(3L, inc.get("itemsSold"));
+        assertEquals(1, inc.get("generation"));
+        Document seller2 = updates.getAllValues().get(1).getUpdateObject().get("$inc", Document.class);
+        assertEquals(12.0, seller2.get("revenue"));
+    }
+
+    @Test
+    void recordStatusChange_WhenCancelled_ShouldMoveCountAndTakeBackRevenue() {
+        // Arrange
+        Order order = new Order("user1", List.of(new OrderItem("p1", "Lipstick", "seller1", 2, 10.0)), null);
+        order.cancel();
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        sellerStatsService.recordStatusChange(order, OrderStatus.PENDING);
+
+        // Assert
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(SellerStats.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(-1, inc.get("ordersByStatus.PENDING"));
+        assertEquals(1, inc.get("ordersByStatus.CANCELLED"));
+        assertEquals(-20.0, inc.get("revenue"));
+        assertEquals(-2L, inc.get("itemsSold"));
+    }
+
+    @Test
+    void recordStatusChange_WhenShipped_ShouldOnlyMoveCount() {
+        // Arrange
+        Order order = new Order("user1", List.of(new OrderItem("p1", "Lipstick", "seller1", 2, 10.0)), null);
+        order.setStatus(OrderStatus.SHIPPED);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        sellerStatsService.recordStatusChange(order, OrderStatus.READY_FOR_DELIVERY);
+        sellerStatsService.recordStatusChange(order, OrderStatus.SHIPPED);
+
+        // Assert
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(SellerStats.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(3, inc.size());
+    }
+
+    @Test
+    void recordOrderCreated_WhenUpdateFails_ShouldNotPropagate() {
+        // Arrange
+        Order order = new Order("user1", List.of(new OrderItem("p1", "Lipstick", "seller1", 1, 10.0)), null);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SellerStats.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act
+        sellerStatsService.recordOrderCreated(order);
+
+        // Assert
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq(SellerStats.class));
+    }
+
+    @Test
+    void repairStaleSellers_WhenUpdateFailed_ShouldRecomputeThatSellerFencedOnGeneration() {
+        // Arrange
+        Order order = settledOrder(new OrderItem("p1", "Lipstick", "seller1", 2, 10.0));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SellerStats.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        sellerStatsService.recordOrderCreated(order);
+        when(mongoTemplate.findAll(Document.class, "seller_stats_repairs"))
+                .thenReturn(List.of(new Document("_id", "seller1")), List.of());
+        when(mongoTemplate.findById("seller1", SellerStats.class)).thenReturn(stats("seller1", 4L));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.of(order));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SellerStats.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        int repaired = sellerStatsService.repairStaleSellers();
+
+        // Assert - the mark is stored, so any instance repairs the seller
+        verify(mongoTemplate).upsert(any(Query.class), any(Update.class), eq("seller_stats_repairs"));
+        assertEquals(1, repaired);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(SellerStats.class));
+        assertEquals(List.of(new Document("generation", 4L)), query.getValue().getQueryObject().get("$and"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(1L, set.get("totalOrders"));
+        assertEquals(20.0, set.get("revenue"));
+        verify(mongoTemplate).remove(any(Query.class), eq("seller_stats_repairs"));
+        // Repaired once, not again on the next run
+        assertEquals(0, sellerStatsService.repairStaleSellers());
+    }
+
+    @Test
+    void repairStaleSellers_WhenMarkCannotBeStored_ShouldRepairFromMemory() {
+        // Arrange
+        Order order = settledOrder(new OrderItem("p1", "Lipstick", "seller1", 1, 10.0));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(SellerStats.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("seller_stats_repairs")))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        sellerStatsService.recordOrderCreated(order);
+        when(mongoTemplate.findAll(Document.class, "seller_stats_repairs")).thenReturn(List.of());
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.of(order));
+
+        // Act
+        int repaired = sellerStatsService.repairStaleSellers();
+
+        // Assert
+        assertEquals(1, repaired);
+        ArgumentCaptor<SellerStats> inserted = ArgumentCaptor.forClass(SellerStats.class);
+        verify(mongoTemplate).insert(inserted.capture());
+        assertEquals(10.0, inserted.getValue().getRevenue());
+        assertEquals(0, sellerStatsService.repairStaleSellers());
+    }
+
+    @Test
+    void recompute_WhenLiveUpdateLandedMeanwhile_ShouldNotWrite() {
+        // Arrange
+        Order order = settledOrder(new OrderItem("p1", "Lipstick", "seller1", 1, 10.0));
+        when(mongoTemplate.findById("seller1", SellerStats.class)).thenReturn(stats("seller1", 4L));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.of(order));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(SellerStats.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act & Assert
+        assertFalse(sellerStatsService.recompute("seller1"));
+    }
+
+    @Test
+    void recompute_WhenOrderChangedWithinSettleTime_ShouldNotWrite() {
+        // Arrange - its own $inc may not have landed yet
+        Order recent = new Order("user1", List.of(new OrderItem("p1", "Lipstick", "seller1", 1, 10.0)), null);
+        when(mongoTemplate.findById("seller1", SellerStats.class)).thenReturn(stats("seller1", 4L));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.of(recent));
+
+        // Act & Assert
+        assertFalse(sellerStatsService.recompute("seller1"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(SellerStats.class));
+        verify(mongoTemplate, never()).insert(any(SellerStats.class));
+    }
+
+    @Test
+    void getStats_WhenSellerHasNoOrders_ShouldReturnZeroes() {
+        // Arrange
+        when(mongoTemplate.findById("seller1", SellerStats.class)).thenReturn(null);
+
+        // Act
+        SellerStatsDto stats = sellerStatsService.getStats("seller1");
+
+        // Assert
+        assertEquals(0.0, stats.getRevenue());
+        assertEquals(0L, stats.getTotalOrders());
+        assertEquals(OrderStatus.values().length, stats.getOrdersByStatus().size());
+        assertEquals(0L, stats.getOrdersByStatus().get("DELIVERED"));
+    }
+
+    @Test
+    void rebuild_ShouldRecomputeEachSellerAndDropSellersWithoutOrders() {
+        // Arrange
+        Order pending = settledOrder(new OrderItem("p1", "Lipstick", "seller1", 2, 10.0));
+        Order cancelled = settledOrder(new OrderItem("p1", "Lipstick", "seller1", 1, 10.0));
+        cancelled.cancel();
+        cancelled.setUpdatedAt(pending.getUpdatedAt());
+        when(mongoTemplate.findDistinct(any(Query.class), eq("items.sellerId"), eq(Order.class), eq(String.class)))
+                .thenReturn(List.of("seller1"));
+        when(mongoTemplate.stream(any(Query.class), eq(Order.class))).thenReturn(Stream.of(pending, cancelled));
+        ArgumentCaptor<SellerStats> inserted = ArgumentCaptor.forClass(SellerStats.class);
+        ArgumentCaptor<Query> removed = ArgumentCaptor.forClass(Query.class);
+
+        // Act
+        int sellers = sellerStatsService.rebuild(() -> true);
+
+        // Assert
+        assertEquals(1, sellers);
+        verify(mongoTemplate).insert(inserted.capture());
+        SellerStats stats = inserted.getValue();
+        assertEquals("seller1", stats.getSellerId());
+        assertEquals(20.0, stats.getRevenue());
+        assertEquals(2L, stats.getItemsSold());
+        assertEquals(2L, stats.getTotalOrders());
+        assertEquals(1L, stats.getOrdersByStatus().get("CANCELLED"));
+        // Only sellers without orders and not updated meanwhile are dropped
+        verify(mongoTemplate).remove(removed.capture(), eq(SellerStats.class));
+        assertEquals(new Document("$nin", List.of("seller1")), removed.getValue().getQueryObject().get("_id"));
+        assertTrue(removed.getValue().getQueryObject().get("updatedAt", Document.class).containsKey("$lt"));
+    }
+
+    @Test
+    void buildOnce_WhenAnotherInstanceHoldsLock_ShouldSkip() {
+        // Arrange
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenThrow(new DuplicateKeyException("held"));
+
+        // Act & Assert
+        assertEquals(-1, sellerStatsService.buildOnce());
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), anyString(), eq(Order.class), eq(String.class));
+    }
+
+    @Test
+    void buildOnce_WhenCompleted_ShouldRecordCompletion() {
+        // Arrange
+        when(mongoTemplate.findDistinct(any(Query.class), eq("items.sellerId"), eq(Order.class), eq(String.class)))
+                .thenReturn(List.of());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq("migration_locks")))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        // Act
+        sellerStatsService.buildOnce();
+
+        // Assert - the lock stays as the record that the build is done
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(), eq("migration_locks"));
+        assertTrue(updates.getValue().getUpdateObject().get("$set", Document.class).containsKey("completedAt"));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq("migration_locks"));
+    }
+
+    private static Order settledOrder(OrderItem item) {
+        Order order = new Order("user1", List.of(item), null);
+        order.setUpdatedAt(LocalDateTime.now().minusHours(1));
+        return order;
+    }
+
+    private static SellerStats stats(String sellerId, Long generation) {
+        SellerStats stats = new SellerStats(sellerId);
+        stats.setGeneration(generation);
+        return stats;
+    }
+}
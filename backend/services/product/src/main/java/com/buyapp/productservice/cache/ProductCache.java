@@ -0,0 +1,65 @@
+package com.buyapp.productservice.cache;
+
+import com.buyapp.productservice.model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of products by ID.
+ *
+ * Loads run inside the cache's per-key compute, and an invalidation of a key
+ * waits for a load of that key in progress. A write followed by
+ * {@link #invalidate(String)} therefore never leaves a value loaded before the
+ * write behind. Other replicas invalidate from product events; the expiry only
+ * bounds staleness should an event be lost.
+ *
+ * Cached products are shared between callers and must not be modified.
+ */
+@Component
+public class ProductCache {
+
+    public static final String CACHE_NAME = "products";
+
+    private final Cache<String, Product> cache;
+
+    public ProductCache(
+            @Value("${product.cache.max-size:10000}") long maxSize,
+            @Value("${product.cache.expire-after-write:10m}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @param loader returns null for a missing product, which is not cached
+     * @return the product, or null if the loader found none
+     */
+    public Product get(String id, Function<String, Product> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(String id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<String> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
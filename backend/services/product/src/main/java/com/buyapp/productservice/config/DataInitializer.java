@@ -2,11 +2,17 @@ package com.buyapp.productservice.config;
 
 import com.buyapp.productservice.model.Product;
 import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.service.ProductService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.util.Arrays;
@@ -19,13 +25,23 @@ public class DataInitializer {
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
     private static final int MAX_RETRIES = 10;
     private static final long RETRY_DELAY_MS = 2000;
+    private static final String SELLER1_EMAIL = "seller1@gmail.com";
+    private static final String SELLER2_EMAIL = "seller2@gmail.com";
 
     private final ProductRepository productRepository;
     private final WebClient.Builder webClientBuilder;
+    private final ProductService productService;
+    private final MongoTemplate mongoTemplate;
 
-    public DataInitializer(ProductRepository productRepository, WebClient.Builder webClientBuilder) {
+    // Products only ever gain an email, so once none lacks it the backfill is over
+    private volatile boolean userEmailsBackfilled;
+
+    public DataInitializer(ProductRepository productRepository, WebClient.Builder webClientBuilder,
+            ProductService productService, MongoTemplate mongoTemplate) {
         this.productRepository = productRepository;
         this.webClientBuilder = webClientBuilder;
+        this.productService = productService;
+        this.mongoTemplate = mongoTemplate;
     }
 
     @Bean
@@ -50,6 +66,44 @@ public class DataInitializer {
         };
     }
 
+    /**
+     * Store the seller email on products created before it was kept on the product.
+     * Runs on startup and then periodically until no product lacks it, so that
+     * user-service being unavailable at startup only delays the backfill.
+     */
+    @Scheduled(fixedDelayString = "${product.user-email-backfill.interval:1m}")
+    void backfillProductUserEmails() {
+        if (userEmailsBackfilled) {
+            return;
+        }
+        long updated = productService.backfillUserEmails();
+        if (updated > 0) {
+            logger.info("Backfilled seller email on {} products", updated);
+        }
+        if (mongoTemplate.exists(Query.query(Criteria.where("userEmail").exists(false)), Product.class)) {
+            logger.debug("Products without seller email remain, retrying later");
+        } else {
+            userEmailsBackfilled = true;
+        }
+    }
+
+    /**
+     * Give products written before optimistic locking an initial version.
+     * Without one, save() would treat them as new and fail with a duplicate key.
+     */
+    @Bean
+    CommandLineRunner initProductVersions(MongoTemplate mongoTemplate) {
+        return args -> {
+            long updated = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("version").exists(false)),
+                    Update.update("version", 0L),
+                    Product.class).getModifiedCount();
+            if (updated > 0) {
+                logger.info("Initialized version on {} products", updated);
+            }
+        };
+    }
+
     private boolean shouldSkipSeeding() {
         if (productRepository.count() > 0) {
             logger.info("Product database already contains products. Skipping seed data.");
@@ -63,8 +117,8 @@ public class DataInitializer {
         String seller2Id = null;
         
         for (int retries = 0; retries < MAX_RETRIES; retries++) {
-            seller1Id = getUserIdByEmail("seller1@gmail.com");
-            seller2Id = getUserIdByEmail("seller2@gmail.com");
+            seller1Id = getUserIdByEmail(SELLER1_EMAIL);
+            seller2Id = getUserIdByEmail(SELLER2_EMAIL);
             
             if (seller1Id != null && seller2Id != null) {
                 return new SellerIds(seller1Id, seller2Id);
@@ -91,6 +145,8 @@ public class DataInitializer {
     private void createAndSaveProducts(String seller1Id, String seller2Id) {
         List<Product> seller1Products = createSeller1Products(seller1Id);
         List<Product> seller2Products = createSeller2Products(seller2Id);
+        seller1Products.forEach(product -> product.setUserEmail(SELLER1_EMAIL));
+        seller2Products.forEach(product -> product.setUserEmail(SELLER2_EMAIL));
         
         productRepository.saveAll(Objects.requireNonNull(seller1Products, "Seller 1 products list cannot be null"));
         productRepository.saveAll(Objects.requireNonNull(seller2Products, "Seller 2 products list cannot be null"));
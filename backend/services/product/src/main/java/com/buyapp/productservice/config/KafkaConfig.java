@@ -2,11 +2,15 @@ package com.buyapp.productservice.config;
 
 import com.buyapp.common.event.ProductEvent;
 import com.buyapp.common.event.UserEvent;
+import com.buyapp.common.kafka.ProducerTuning;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.config.TopicConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
@@ -14,7 +18,9 @@ import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.TopicBuilder;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -25,6 +31,45 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
     private String bootstrapServers;
 
+    @Bean
+    @ConfigurationProperties(prefix = "kafka.producer")
+    public ProducerTuning producerTuning() {
+        return new ProducerTuning();
+    }
+
+    /**
+     * Events are keyed by productId, and a consumer catching up only needs the
+     * latest one per product (its current name and seller, or that it is
+     * gone), so the topic is compacted and grows with the catalog rather than
+     * with its history. Stock changes carry no snapshot and would shadow it,
+     * so they go to {@link #productStockEventsTopic} instead.
+     *
+     * The partition count is left to the broker: declaring one would add
+     * partitions to an existing topic and move keys between them, breaking
+     * per-product ordering.
+     */
+    @Bean
+    public NewTopic productEventsTopic(
+            @Value("${kafka.topic.product-events:product-events}") String name,
+            @Value("${kafka.topic.product-events-replicas:1}") int replicas) {
+        return TopicBuilder.name(name).replicas(replicas).compact().build();
+    }
+
+    /**
+     * Stock changes only tell caches to drop a product, so once consumed they
+     * are worthless: the topic is not compacted and keeps them briefly.
+     */
+    @Bean
+    public NewTopic productStockEventsTopic(
+            @Value("${kafka.topic.product-stock-events:product-stock-events}") String name,
+            @Value("${kafka.topic.product-events-replicas:1}") int replicas,
+            @Value("${kafka.topic.product-stock-events-retention:1h}") Duration retention) {
+        return TopicBuilder.name(name)
+                .replicas(replicas)
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(retention.toMillis()))
+                .build();
+    }
+
     @Bean
     public ProducerFactory<String, ProductEvent> productEventProducerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -32,6 +77,7 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.putAll(producerTuning().toProducerConfig());
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -40,6 +86,25 @@ public class KafkaConfig {
         return new KafkaTemplate<>(productEventProducerFactory());
     }
 
+    // No group id here: each listener sets its own
+    @Bean
+    public ConsumerFactory<String, ProductEvent> productEventConsumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, ProductEvent.class.getName());
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ProductEvent> productEventKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ProductEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(productEventConsumerFactory());
+        return factory;
+    }
+
     @Bean
     public ConsumerFactory<String, UserEvent> userEventConsumerFactory() {
         Map<String, Object> configProps = new HashMap<>();
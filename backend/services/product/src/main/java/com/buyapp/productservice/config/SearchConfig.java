@@ -0,0 +1,54 @@
+package com.buyapp.productservice.config;
+
+import com.buyapp.productservice.search.ProductSearchIndex;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.FileSystemUtils;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+public class SearchConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchConfig.class);
+
+    // Set when no index path is configured; deleted on shutdown
+    private Path temporaryIndexPath;
+
+    /**
+     * The index is rebuilt from MongoDB on every start, so the directory only
+     * needs to live as long as the process; without a configured path a
+     * temporary directory is used. Memory-mapped files keep it off the heap.
+     */
+    @Bean(destroyMethod = "close")
+    public ProductSearchIndex productSearchIndex(
+            @Value("${product.search.index-path:}") String indexPath,
+            @Value("${product.search.refresh-interval:1s}") Duration refreshInterval) throws IOException {
+        Path path;
+        if (indexPath.isBlank()) {
+            path = Files.createTempDirectory("product-search");
+            temporaryIndexPath = path;
+        } else {
+            path = Files.createDirectories(Path.of(indexPath));
+        }
+        logger.info("Product search index at {}", path);
+        return new ProductSearchIndex(FSDirectory.open(path), refreshInterval);
+    }
+
+    // The index bean depends on this configuration, so it is closed before this runs
+    @PreDestroy
+    void deleteTemporaryIndex() throws IOException {
+        if (temporaryIndexPath != null) {
+            FileSystemUtils.deleteRecursively(temporaryIndexPath);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.buyapp.productservice.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -24,9 +25,12 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/products", "/products/{id}", "/actuator/**").permitAll() // Public endpoints
+                        .requestMatchers(HttpMethod.GET, "/products/search", "/products/search/suggest").permitAll()
                         .requestMatchers("/products/user/{userId}").permitAll() // Internal service calls
-                        .requestMatchers("/products/{id}/seller-id", "/products/{id}/reduce-stock",
-                                "/products/{id}/restore-stock")
+                        .requestMatchers("/products/batch", "/products/{id}/seller-id",
+                                "/products/{id}/reduce-stock", "/products/{id}/restore-stock",
+                                "/products/stock/reserve", "/products/stock/release",
+                                "/products/stock/holds", "/products/stock/holds/**")
                         .permitAll() // Internal Order Service calls
                         .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -1,31 +1,132 @@
 package com.buyapp.productservice.controller;
 
 import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSearchResultDto;
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.buyapp.common.dto.StockHoldDto;
+import com.buyapp.common.dto.StockItemDto;
+import com.buyapp.productservice.service.CatalogVersionService;
+import com.buyapp.productservice.service.ProductImportReport;
+import com.buyapp.productservice.service.ProductImportService;
+import com.buyapp.productservice.service.ProductPage;
+import com.buyapp.productservice.service.ProductSearchService;
 import com.buyapp.productservice.service.ProductService;
+import com.buyapp.productservice.service.StockHoldService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
+    /**
+     * Response header carrying the opaque cursor for the next catalog page.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSearchService productSearchService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private StockHoldService stockHoldService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
     // Public endpoints (no authentication required)
+
+    /**
+     * GET /products?category=&minPrice=&maxPrice=&sort=&page=&size=&cursor=
+     * Always a bounded page: without any parameter it is the first page of
+     * the newest products.
+     * The ETag is the catalog version, read before loading so that a change
+     * made meanwhile can only make the tag older, never newer than the body.
+     * A matching If-None-Match is answered with 304 without touching products.
+     */
     @GetMapping
-    public List<ProductDto> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<List<ProductDto>> getAllProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified("catalog-" + catalogVersionService.current())) {
+            return null;
+        }
+        ProductPage productPage = productService.getProductsPage(
+                category, minPrice, maxPrice, sort, page, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (productPage.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, productPage.getNextCursor());
+        }
+        return response.body(productPage.getItems());
+    }
+
+    /**
+     * GET /products/search?q=&category=&page=&size=
+     * Full-text search, best match first, with per-category counts.
+     */
+    @GetMapping("/search")
+    public ProductSearchResultDto searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return productSearchService.search(q, category, page, size);
+    }
+
+    /**
+     * GET /products/search/suggest?q=&limit=
+     * Product names starting with what the user has typed.
+     */
+    @GetMapping("/search/suggest")
+    public List<String> suggestProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return productSearchService.suggest(q, limit);
     }
 
+    @PostMapping("/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public int rebuildSearchIndex() {
+        return productSearchService.rebuild();
+    }
+
+    /**
+     * GET /products/{id}
+     * The ETag is the product's own version, so changes to other products
+     * do not invalidate it. It also carries the stock, because reservations
+     * of a hot product only touch its stock shards, never the product.
+     */
     @GetMapping("/{id}")
-    public ProductDto getProductById(@PathVariable String id) {
-        return productService.getProductById(id);
+    public ProductDto getProductById(@PathVariable String id, WebRequest webRequest) {
+        ProductDto product = productService.getProductById(id);
+        if (product.getVersion() != null
+                && webRequest.checkNotModified(id + "-" + product.getVersion() + "-" + product.getStock())) {
+            return null;
+        }
+        return product;
     }
 
     // Internal endpoint for other services
@@ -34,6 +135,12 @@ public class ProductController {
         return productService.getProductsByUserId(userId);
     }
 
+    // Internal endpoint for bulk product lookup (called by Order Service)
+    @PostMapping("/batch")
+    public List<ProductSummaryDto> getProductsByIds(@RequestBody List<String> ids) {
+        return productService.getProductsByIds(ids);
+    }
+
     // Protected endpoints (authentication required)
     @PostMapping
     @PreAuthorize("hasRole('SELLER') or hasRole('ADMIN')")
@@ -41,6 +148,22 @@ public class ProductController {
         return productService.createProduct(productDto, authentication);
     }
 
+    /**
+     * POST /products/import
+     * Streams NDJSON or CSV rows into products for the caller; the body is
+     * never held in memory as a whole. Returns per-line errors for rows that
+     * were not imported.
+     */
+    @PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, "text/csv" })
+    @PreAuthorize("hasRole('SELLER') or hasRole('ADMIN')")
+    public ProductImportReport importProducts(HttpServletRequest request, Authentication authentication)
+            throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        InputStreamReader body = new InputStreamReader(request.getInputStream(),
+                contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8);
+        return productImportService.importProducts(body, contentType, authentication);
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
     public ProductDto updateProduct(@PathVariable String id, @Valid @RequestBody ProductDto productDto,
@@ -54,6 +177,23 @@ public class ProductController {
         productService.deleteProduct(id, authentication);
     }
 
+    /**
+     * PUT /products/{id}/stock-shards?count=
+     * Hot-product mode: split the product's stock across count sub-counters
+     * so that concurrent checkouts do not all wait on one document.
+     */
+    @PutMapping("/{id}/stock-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductDto enableStockSharding(@PathVariable String id, @RequestParam int count) {
+        return productService.enableStockSharding(id, count);
+    }
+
+    @DeleteMapping("/{id}/stock-shards")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ProductDto disableStockSharding(@PathVariable String id) {
+        return productService.disableStockSharding(id);
+    }
+
     @GetMapping("/my-products")
     @PreAuthorize("isAuthenticated()")
     public List<ProductDto> getMyProducts(Authentication authentication) {
@@ -78,6 +218,33 @@ public class ProductController {
         productService.restoreStock(id, quantity);
     }
 
+    // Internal endpoints for multi-line atomic stock changes (called by Order Service)
+    @PostMapping("/stock/reserve")
+    public void reserveStock(@RequestBody List<StockItemDto> items) {
+        productService.reserveStock(items);
+    }
+
+    @PostMapping("/stock/release")
+    public void releaseStock(@RequestBody List<StockItemDto> items) {
+        productService.releaseStock(items);
+    }
+
+    // Internal endpoints for time-limited stock holds at checkout (called by Order Service)
+    @PostMapping("/stock/holds")
+    public StockHoldDto createStockHold(@RequestBody List<StockItemDto> items) {
+        return stockHoldService.createHold(items);
+    }
+
+    @PostMapping("/stock/holds/{holdId}/commit")
+    public void commitStockHold(@PathVariable String holdId) {
+        stockHoldService.commitHold(holdId);
+    }
+
+    @DeleteMapping("/stock/holds/{holdId}")
+    public void releaseStockHold(@PathVariable String holdId) {
+        stockHoldService.releaseHold(holdId);
+    }
+
     // Internal endpoint to get product's userId (called by Order Service)
     @GetMapping("/{id}/seller-id")
     public String getProductSellerId(@PathVariable String id) {
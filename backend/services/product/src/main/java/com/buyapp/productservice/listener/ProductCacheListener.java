@@ -0,0 +1,34 @@
+package com.buyapp.productservice.listener;
+
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.productservice.cache.ProductCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductCacheListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheListener.class);
+
+    private final ProductCache productCache;
+
+    public ProductCacheListener(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    /**
+     * Every instance caches products, so every instance needs every event:
+     * the group id is unique per instance. It is separate from the search
+     * index group so that invalidation never waits behind reindexing.
+     */
+    @KafkaListener(topics = { "${kafka.topic.product-events}", "${kafka.topic.product-stock-events}" }, groupId = "product-cache-${random.uuid}", containerFactory = "productEventKafkaListenerContainerFactory")
+    public void handleProductEvent(ProductEvent event) {
+        if (event.getProductId() == null) {
+            return;
+        }
+        logger.debug("Invalidating cached product: {}", event.getProductId());
+        productCache.invalidate(event.getProductId());
+    }
+}
@@ -0,0 +1,35 @@
+package com.buyapp.productservice.listener;
+
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.productservice.service.ProductSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductEventListener.class);
+
+    private final ProductSearchService productSearchService;
+
+    public ProductEventListener(ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    /**
+     * Every instance keeps its own search index, so every instance needs every
+     * event: the group id is unique per instance rather than shared.
+     */
+    @KafkaListener(topics = { "${kafka.topic.product-events}", "${kafka.topic.product-stock-events}" }, groupId = "product-search-${random.uuid}", containerFactory = "productEventKafkaListenerContainerFactory")
+    public void handleProductEvent(ProductEvent event) {
+        logger.debug("Updating search index for product event: {}", event);
+
+        try {
+            productSearchService.handleProductEvent(event);
+        } catch (Exception e) {
+            logger.error("Error updating search index for product: {}", event.getProductId(), e);
+        }
+    }
+}
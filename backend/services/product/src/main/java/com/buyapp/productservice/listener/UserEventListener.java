@@ -32,6 +32,13 @@ public class UserEventListener {
             } catch (Exception e) {
                 logger.error("Error deleting products for seller: {}", event.getUserId(), e);
             }
+        } else if (event.getEventType() == UserEvent.EventType.USER_UPDATED && event.getEmail() != null) {
+            try {
+                long updated = productService.updateUserEmail(event.getUserId(), event.getEmail());
+                logger.info("Updated seller email on {} products for user: {}", updated, event.getUserId());
+            } catch (Exception e) {
+                logger.error("Error updating seller email on products for user: {}", event.getUserId(), e);
+            }
         }
     }
 }
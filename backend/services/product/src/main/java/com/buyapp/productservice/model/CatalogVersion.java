@@ -0,0 +1,29 @@
+package com.buyapp.productservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counter bumped on every change to any product, shared by all instances.
+ * It versions the catalog listings as a whole for conditional GETs.
+ * The counter is split over several documents ("products:0", ...) so that
+ * bumps from concurrent stock changes do not all wait on one document; the
+ * version is their sum.
+ */
+@Document(collection = "catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+    public static final String PRODUCTS = "products";
+    public static final int SHARDS = 16;
+
+    @Id
+    private String id;
+
+    private long version;
+}
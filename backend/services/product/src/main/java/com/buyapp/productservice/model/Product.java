@@ -1,6 +1,10 @@
 package com.buyapp.productservice.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -13,6 +17,15 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Document(collection = "products")
+@CompoundIndexes({
+        // Catalog listings: optional category, optional price range, sorted by id, price or name,
+        // with id as keyset tie-breaker (each index also serves the reverse direction)
+        @CompoundIndex(name = "category_id", def = "{'category': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_price", def = "{'category': 1, 'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "category_name", def = "{'category': 1, 'name': 1, '_id': 1}"),
+        @CompoundIndex(name = "price_id", def = "{'price': 1, '_id': 1}"),
+        @CompoundIndex(name = "name_id", def = "{'name': 1, '_id': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,7 +48,33 @@ public class Product {
     private Integer stock;
 
     @Field("userId")
+    @Indexed
     private String userId;
 
     private String category; // Face, Eyes, Lips
+
+    // Seller's email, copied from user-service on create and kept current from USER_UPDATED events
+    @Field("userEmail")
+    private String userEmail;
+
+    // Optimistic locking; also the per-product part of the ETag
+    @Version
+    private Long version;
+
+    // Set for hot products: stock is then split across this many StockShard documents
+    private Integer stockShards;
+
+    public Product(String id, String name, String description, Double price, Integer stock, String userId,
+            String category) {
+        this(id, name, description, price, stock, userId, category, null);
+    }
+
+    public boolean isStockSharded() {
+        return stockShards != null;
+    }
+
+    public Product(String id, String name, String description, Double price, Integer stock, String userId,
+            String category, String userEmail) {
+        this(id, name, description, price, stock, userId, category, userEmail, null, null);
+    }
 }
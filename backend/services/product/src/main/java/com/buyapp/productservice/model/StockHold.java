@@ -0,0 +1,36 @@
+package com.buyapp.productservice.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import com.buyapp.common.dto.StockItemDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock reserved for a checkout. The stock is deducted while the hold exists;
+ * the hold is removed when it becomes a sale or when it is released, and the
+ * sweeper releases it once it has expired.
+ */
+@Document(collection = "stock_holds")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHold {
+    @Id
+    private String id;
+
+    private List<StockItemDto> items;
+
+    private LocalDateTime createdAt;
+
+    // The sweeper finds expired holds by range on this index
+    @Indexed
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,34 @@
+package com.buyapp.productservice.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One part of the stock of a hot product. The product's stock is the sum of
+ * its shards, so concurrent reservations spread over several documents
+ * instead of all waiting on the product.
+ */
+@Document(collection = "product_stock_shards")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockShard {
+    @Id
+    private String id;
+
+    @Indexed
+    private String productId;
+
+    private int shard;
+
+    private int stock;
+
+    public static String idOf(String productId, int shard) {
+        return productId + ":" + shard;
+    }
+}
@@ -0,0 +1,62 @@
+package com.buyapp.productservice.repository;
+
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Keyset position in a catalog listing: the sort it belongs to, the last
+ * product's sort key and its ID. Clients only ever see the encoded, opaque token.
+ */
+public record ProductCursor(ProductSort sort, Object key, String id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static ProductCursor of(ProductSort sort, Product product) {
+        return new ProductCursor(sort, sort.keyOf(product), product.getId());
+    }
+
+    public String encode() {
+        // The key goes last because product names may contain the separator
+        String raw = sort.name() + SEPARATOR + id + SEPARATOR + (key != null ? key : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token the opaque cursor token, may be null or blank for the first page
+     * @param sort the sort of the requested listing
+     * @return the decoded cursor, or null for the first page
+     * @throws BadRequestException if the token is malformed or was issued for another sort
+     */
+    public static ProductCursor decode(String token, ProductSort sort) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            if (parts.length != 3 || parts[1].isEmpty()) {
+                throw new BadRequestException("Invalid cursor: " + token);
+            }
+            if (!sort.name().equals(parts[0])) {
+                throw new BadRequestException("Cursor does not match sort: " + sort.name().toLowerCase(Locale.ROOT));
+            }
+            return new ProductCursor(sort, parseKey(sort, parts[2]), parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+    }
+
+    private static Object parseKey(ProductSort sort, String key) {
+        if (sort.getField() == null) {
+            return null;
+        }
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Missing sort key");
+        }
+        return "price".equals(sort.getField()) ? Double.valueOf(key) : key;
+    }
+}
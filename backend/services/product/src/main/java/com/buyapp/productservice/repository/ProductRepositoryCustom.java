@@ -0,0 +1,31 @@
+package com.buyapp.productservice.repository;
+
+import com.buyapp.productservice.model.Product;
+
+import java.util.List;
+
+/**
+ * Product queries that need MongoTemplate rather than derived query methods.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Largest page a paged query returns. Callers may ask for one extra row
+     * beyond this to find out whether a next page exists.
+     */
+    int MAX_PAGE_SIZE = 100;
+
+    /**
+     * One page of the catalog, filtered and sorted entirely in MongoDB.
+     * @param category optional exact category
+     * @param minPrice optional lower bound for price (inclusive)
+     * @param maxPrice optional upper bound for price (inclusive)
+     * @param sort the sort order
+     * @param after keyset position to continue from, or null
+     * @param skip number of matching products to skip after the cursor
+     * @param limit maximum number of products, capped at MAX_PAGE_SIZE + 1
+     * @return List of matching products
+     */
+    List<Product> findCatalogPage(String category, Double minPrice, Double maxPrice,
+            ProductSort sort, ProductCursor after, long skip, int limit);
+}
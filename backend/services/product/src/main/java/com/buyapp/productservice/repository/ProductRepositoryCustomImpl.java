@@ -0,0 +1,70 @@
+package com.buyapp.productservice.repository;
+
+import com.buyapp.productservice.model.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Product> findCatalogPage(String category, Double minPrice, Double maxPrice,
+            ProductSort sort, ProductCursor after, long skip, int limit) {
+        Query query = catalogQuery(category, minPrice, maxPrice, sort, after)
+                .skip(Math.max(0L, skip))
+                .limit(capLimit(limit));
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    static Query catalogQuery(String category, Double minPrice, Double maxPrice,
+            ProductSort sort, ProductCursor after) {
+        Criteria filter = new Criteria();
+        if (category != null && !category.isBlank()) {
+            filter = filter.and("category").is(category);
+        }
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = filter.and("price");
+            if (minPrice != null) {
+                price.gte(minPrice);
+            }
+            if (maxPrice != null) {
+                price.lte(maxPrice);
+            }
+            filter = price;
+        }
+        if (after != null) {
+            filter = new Criteria().andOperator(filter, afterCursorCriteria(sort, after));
+        }
+        return new Query(filter).with(sort.toSort());
+    }
+
+    /**
+     * Products strictly after the cursor in (sort key, id) order.
+     */
+    static Criteria afterCursorCriteria(ProductSort sort, ProductCursor after) {
+        boolean ascending = sort.getDirection() == Sort.Direction.ASC;
+        if (sort.getField() == null) {
+            return ascending ? Criteria.where("id").gt(after.id()) : Criteria.where("id").lt(after.id());
+        }
+        Criteria beyondKey = ascending
+                ? Criteria.where(sort.getField()).gt(after.key())
+                : Criteria.where(sort.getField()).lt(after.key());
+        Criteria sameKey = ascending
+                ? Criteria.where(sort.getField()).is(after.key()).and("id").gt(after.id())
+                : Criteria.where(sort.getField()).is(after.key()).and("id").lt(after.id());
+        return new Criteria().orOperator(beyondKey, sameKey);
+    }
+
+    private static int capLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,66 @@
+package com.buyapp.productservice.repository;
+
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+import org.springframework.data.domain.Sort;
+
+import java.util.Locale;
+
+/**
+ * Sort orders offered by the product catalog. Every order ends with the
+ * product ID so that keyset cursors have a unique position.
+ */
+public enum ProductSort {
+    NEWEST(null, Sort.Direction.DESC),
+    PRICE_ASC("price", Sort.Direction.ASC),
+    PRICE_DESC("price", Sort.Direction.DESC),
+    NAME_ASC("name", Sort.Direction.ASC);
+
+    private final String field;
+    private final Sort.Direction direction;
+
+    ProductSort(String field, Sort.Direction direction) {
+        this.field = field;
+        this.direction = direction;
+    }
+
+    /**
+     * @return the sort key before the ID, or null when sorting by ID only
+     */
+    public String getField() {
+        return field;
+    }
+
+    public Sort.Direction getDirection() {
+        return direction;
+    }
+
+    public Sort toSort() {
+        return field == null ? Sort.by(direction, "id") : Sort.by(direction, field, "id");
+    }
+
+    /**
+     * @return the product's value for the sort key, or null when sorting by ID only
+     */
+    public Object keyOf(Product product) {
+        if (field == null) {
+            return null;
+        }
+        return "price".equals(field) ? product.getPrice() : product.getName();
+    }
+
+    /**
+     * @param value the request parameter, e.g. "price_asc"; null or blank for the default
+     * @throws BadRequestException if the value is not a known sort
+     */
+    public static ProductSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid sort: " + value);
+        }
+    }
+}
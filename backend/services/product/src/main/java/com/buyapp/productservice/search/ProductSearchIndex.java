@@ -0,0 +1,412 @@
+package com.buyapp.productservice.search;
+
+import com.buyapp.productservice.model.Product;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.en.EnglishMinimalStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsCollectorManager;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollectorManager;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollectorManager;
+import org.apache.lucene.store.Directory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Embedded Lucene index over product name, description and category.
+ *
+ * Every query word must match one of the fields, scored with BM25 and
+ * weighted name > category > description. The last word also matches as a
+ * prefix of a name word, via edge n-grams indexed in {@code name_prefix}, so
+ * search-as-you-type and autocomplete are plain term lookups. Category counts
+ * come from sorted-set doc values.
+ *
+ * Writes become visible in batches: a background thread reopens the searcher
+ * at most once per refresh interval, so a burst of updates costs one reopen
+ * (and one rebuild of the facet state) rather than one each.
+ */
+public class ProductSearchIndex implements Closeable {
+
+    static final int MAX_PREFIX_LENGTH = 20;
+
+    // Hits counted exactly before the top-docs collector may start skipping
+    static final int TOTAL_HITS_THRESHOLD = 1000;
+
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String NAME_PREFIX = "name_prefix";
+    private static final String DESCRIPTION = "description";
+    private static final String CATEGORY = "category";
+    private static final String CATEGORY_EXACT = "category_exact";
+    private static final String CATEGORY_FACET = "category";
+
+    private static final float NAME_BOOST = 3f;
+    private static final float CATEGORY_BOOST = 2f;
+    private static final float PREFIX_BOOST = 1.5f;
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+    private final Analyzer textAnalyzer = textAnalyzer(true);
+    private final Analyzer wordAnalyzer = textAnalyzer(false);
+
+    // Facet ordinals are per reader; rebuilt only when the reader changes
+    private volatile FacetState facetState;
+
+    public ProductSearchIndex(Directory directory) throws IOException {
+        this(directory, DEFAULT_REFRESH_INTERVAL);
+    }
+
+    /**
+     * @param refreshInterval longest a write stays invisible to searches
+     */
+    public ProductSearchIndex(Directory directory, Duration refreshInterval) throws IOException {
+        this.directory = directory;
+        Analyzer indexAnalyzer = new PerFieldAnalyzerWrapper(textAnalyzer, Map.of(NAME_PREFIX, prefixAnalyzer()));
+        IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                .setRAMBufferSizeMB(64);
+        this.writer = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(writer, null);
+        double maxStaleSeconds = refreshInterval.toMillis() / 1000.0;
+        this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, maxStaleSeconds, 0);
+        reopenThread.setName("product-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+    }
+
+    /**
+     * Add or replace a product.
+     */
+    public void index(Product product) {
+        try {
+            writer.updateDocument(new Term(ID, product.getId()), facetsConfig.build(toDocument(product)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete(String productId) {
+        try {
+            writer.deleteDocuments(new Term(ID, productId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void deleteAll() {
+        try {
+            writer.deleteAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Make changes so far visible to searches now, rather than within the
+     * refresh interval.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param text the user's query; blank matches every product
+     * @param category optional exact category filter
+     * @return product IDs best match first, the total number of matches, and
+     *         category counts for the query without the category filter
+     */
+    public SearchResult search(String text, String category, int offset, int limit) {
+        Query textQuery = textQuery(text);
+        Query query = textQuery;
+        if (category != null && !category.isBlank()) {
+            query = new BooleanQuery.Builder()
+                    .add(textQuery, BooleanClause.Occur.MUST)
+                    .add(new TermQuery(new Term(CATEGORY_EXACT, category)), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        IndexSearcher searcher = acquire();
+        try {
+            TopScoreDocCollectorManager topDocsManager =
+                    new TopScoreDocCollectorManager(Math.max(1, offset + limit), TOTAL_HITS_THRESHOLD);
+            FacetsCollectorManager facetsManager = new FacetsCollectorManager();
+            Object[] results = searcher.search(query, new MultiCollectorManager(topDocsManager, facetsManager));
+            TopDocs topDocs = (TopDocs) results[0];
+            FacetsCollector hits = (FacetsCollector) results[1];
+
+            // Facets ignore the category filter so the other categories stay visible
+            FacetsCollector facetHits = query == textQuery ? hits : searcher.search(textQuery, facetsManager);
+
+            List<String> ids = new ArrayList<>();
+            ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+            for (int i = offset; i < scoreDocs.length; i++) {
+                ids.add(searcher.storedFields().document(scoreDocs[i].doc).get(ID));
+            }
+            return new SearchResult(ids, totalHits(hits), categoryCounts(searcher, facetHits));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * @param prefix what the user has typed so far; every word must start a word of the name
+     * @return distinct product names, best match first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        List<String> words = analyze(wordAnalyzer, NAME, prefix);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String word : words) {
+            query.add(new TermQuery(new Term(NAME_PREFIX, truncate(word))), BooleanClause.Occur.MUST);
+        }
+
+        IndexSearcher searcher = acquire();
+        try {
+            // Ask for extra hits since several products may share a name
+            TopDocs topDocs = searcher.search(query.build(), limit * 3);
+            Set<String> names = new LinkedHashSet<>();
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                names.add(searcher.storedFields().document(scoreDoc.doc).get(NAME));
+                if (names.size() == limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(names);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * @return number of products visible to searches
+     */
+    public int size() {
+        IndexSearcher searcher = acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            release(searcher);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query textQuery(String text) {
+        List<String> words = analyze(wordAnalyzer, NAME, text);
+        if (words.isEmpty()) {
+            return new MatchAllDocsQuery();
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < words.size(); i++) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (String term : analyze(textAnalyzer, NAME, words.get(i))) {
+                anyField.add(boosted(NAME, term, NAME_BOOST), BooleanClause.Occur.SHOULD);
+                anyField.add(boosted(CATEGORY, term, CATEGORY_BOOST), BooleanClause.Occur.SHOULD);
+                anyField.add(new TermQuery(new Term(DESCRIPTION, term)), BooleanClause.Occur.SHOULD);
+            }
+            if (i == words.size() - 1) {
+                anyField.add(boosted(NAME_PREFIX, truncate(words.get(i)), PREFIX_BOOST), BooleanClause.Occur.SHOULD);
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    // The facets collector sees every hit anyway, so the total stays exact past the threshold
+    private static long totalHits(FacetsCollector hits) {
+        return hits.getMatchingDocs().stream().mapToLong(docs -> docs.totalHits).sum();
+    }
+
+    private Map<String, Long> categoryCounts(IndexSearcher searcher, FacetsCollector hits) throws IOException {
+        SortedSetDocValuesReaderState state = facetState(searcher.getIndexReader());
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (state == null) {
+            return counts;
+        }
+        FacetResult result = new SortedSetDocValuesFacetCounts(state, hits).getAllChildren(CATEGORY_FACET);
+        if (result == null) {
+            return counts;
+        }
+        List<LabelAndValue> labels = new ArrayList<>(List.of(result.labelValues));
+        labels.sort((a, b) -> Long.compare(b.value.longValue(), a.value.longValue()));
+        labels.forEach(label -> counts.put(label.label, label.value.longValue()));
+        return counts;
+    }
+
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+        FacetState current = facetState;
+        if (current != null && current.reader() == reader) {
+            return current.state();
+        }
+        SortedSetDocValuesReaderState state;
+        try {
+            state = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        } catch (IllegalArgumentException e) {
+            // No product with a category indexed yet
+            state = null;
+        }
+        facetState = new FacetState(reader, state);
+        return state;
+    }
+
+    private static Document toDocument(Product product) {
+        Document document = new Document();
+        document.add(new StringField(ID, product.getId(), Field.Store.YES));
+        if (product.getName() != null) {
+            document.add(new TextField(NAME, product.getName(), Field.Store.YES));
+            document.add(new TextField(NAME_PREFIX, product.getName(), Field.Store.NO));
+        }
+        if (product.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, product.getDescription(), Field.Store.NO));
+        }
+        if (product.getCategory() != null && !product.getCategory().isBlank()) {
+            document.add(new TextField(CATEGORY, product.getCategory(), Field.Store.NO));
+            document.add(new StringField(CATEGORY_EXACT, product.getCategory(), Field.Store.NO));
+            document.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, product.getCategory()));
+        }
+        return document;
+    }
+
+    private static Query boosted(String field, String term, float boost) {
+        return new BoostQuery(new TermQuery(new Term(field, term)), boost);
+    }
+
+    private static String truncate(String word) {
+        return word.length() > MAX_PREFIX_LENGTH ? word.substring(0, MAX_PREFIX_LENGTH) : word;
+    }
+
+    private static List<String> analyze(Analyzer analyzer, String field, String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    /**
+     * Lowercased, accent-folded words, optionally reduced to their singular form.
+     */
+    private static Analyzer textAnalyzer(boolean stem) {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+                if (stem) {
+                    stream = new EnglishMinimalStemFilter(stream);
+                }
+                return new TokenStreamComponents(source, stream);
+            }
+        };
+    }
+
+    /**
+     * Every leading prefix of each lowercased, accent-folded word.
+     */
+    private static Analyzer prefixAnalyzer() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream stream = new ASCIIFoldingFilter(new LowerCaseFilter(source));
+                return new TokenStreamComponents(source,
+                        new EdgeNGramTokenFilter(stream, 1, MAX_PREFIX_LENGTH, true));
+            }
+        };
+    }
+
+    private IndexSearcher acquire() {
+        try {
+            return searcherManager.acquire();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void release(IndexSearcher searcher) {
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public record SearchResult(List<String> ids, long total, Map<String, Long> categories) {
+    }
+
+    private record FacetState(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+}
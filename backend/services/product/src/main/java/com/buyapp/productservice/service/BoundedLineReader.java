@@ -0,0 +1,55 @@
+package com.buyapp.productservice.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads lines of at most maxLength characters, so a single oversized line
+ * cannot make an import buffer an unbounded amount of input. The rest of an
+ * oversized line is skipped and {@link #wasTruncated()} reports it.
+ */
+class BoundedLineReader {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final StringBuilder line = new StringBuilder();
+    private boolean truncated;
+    private boolean skipLineFeed;
+
+    BoundedLineReader(Reader reader, int maxLength) {
+        // Fixed-size buffer: read() per character would otherwise hit the stream each time
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the next line without its terminator, or null at end of input
+     */
+    String readLine() throws IOException {
+        line.setLength(0);
+        truncated = false;
+        int c = reader.read();
+        if (skipLineFeed && c == '\n') {
+            c = reader.read();
+        }
+        skipLineFeed = false;
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n' && c != '\r') {
+            if (line.length() < maxLength) {
+                line.append((char) c);
+            } else {
+                truncated = true;
+            }
+            c = reader.read();
+        }
+        skipLineFeed = c == '\r';
+        return line.toString();
+    }
+
+    boolean wasTruncated() {
+        return truncated;
+    }
+}
@@ -0,0 +1,56 @@
+package com.buyapp.productservice.service;
+
+import com.buyapp.productservice.model.CatalogVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reads and bumps the catalog-wide {@link CatalogVersion}. Each bump
+ * increments one random counter document and the version is their sum, which
+ * still only ever grows.
+ *
+ * Writers bump after their change and readers read the version before
+ * loading products, so a response is never older than the version it is
+ * tagged with.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public CatalogVersionService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public long current() {
+        // Matches the shards and the single counter used before they existed
+        Query query = Query.query(Criteria.where("_id").regex("^" + CatalogVersion.PRODUCTS));
+        return mongoTemplate.find(query, CatalogVersion.class)
+                .stream()
+                .mapToLong(CatalogVersion::getVersion)
+                .sum();
+    }
+
+    public void bump() {
+        int shard = ThreadLocalRandom.current().nextInt(CatalogVersion.SHARDS);
+        // The product change has already happened; a failed bump must not fail it
+        try {
+            mongoTemplate.upsert(
+                    Query.query(Criteria.where("_id").is(CatalogVersion.PRODUCTS + ":" + shard)),
+                    new Update().inc("version", 1),
+                    CatalogVersion.class);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to bump catalog version: {}", e.getMessage());
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 @Service
@@ -22,20 +23,47 @@ public class ProductEventProducer {
     @Value("${kafka.topic.product-events:product-events}")
     private String productEventsTopic;
 
-    public void sendProductEvent(ProductEvent event) {
-        log.info("Sending product event: {}", event);
+    @Value("${kafka.topic.product-stock-events:product-stock-events}")
+    private String productStockEventsTopic;
 
-        CompletableFuture<SendResult<String, ProductEvent>> future = kafkaTemplate.send(productEventsTopic,
+    public void sendProductEvent(ProductEvent event) {
+        CompletableFuture<SendResult<String, ProductEvent>> future = kafkaTemplate.send(topicOf(event),
                 event.getProductId(), event);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
-                log.info("Successfully sent product event [{}] with offset=[{}]",
-                        event.getEventType(), result.getRecordMetadata().offset());
+                log.debug("Sent product event [{}] for product {} with offset=[{}]",
+                        event.getEventType(), event.getProductId(), result.getRecordMetadata().offset());
             } else {
                 log.error("Failed to send product event [{}]: {}",
                         event.getEventType(), ex.getMessage());
             }
         });
     }
+
+    /**
+     * Send a batch of events without waiting in between, so the producer packs
+     * them into as few requests as possible. Failures are logged once per batch.
+     */
+    public void sendProductEvents(List<ProductEvent> events) {
+        List<CompletableFuture<SendResult<String, ProductEvent>>> futures = events.stream()
+                .map(event -> kafkaTemplate.send(topicOf(event), event.getProductId(), event))
+                .toList();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((result, ex) -> {
+            if (ex == null) {
+                log.debug("Sent {} product events", events.size());
+            } else {
+                long failed = futures.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+                log.error("Failed to send {} of {} product events: {}", failed, events.size(), ex.getMessage());
+            }
+        });
+    }
+
+    // Stock changes stay off the compacted topic, where they would replace the product's snapshot
+    private String topicOf(ProductEvent event) {
+        return event.getEventType() == ProductEvent.EventType.PRODUCT_STOCK_CHANGED
+                ? productStockEventsTopic
+                : productEventsTopic;
+    }
 }
@@ -0,0 +1,40 @@
+package com.buyapp.productservice.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a bulk import: how many rows became products, and why the
+ * others did not, by line number. Only the first errors are listed; failed
+ * still counts all of them.
+ */
+@Getter
+public class ProductImportReport {
+    private int created;
+    private int failed;
+    private final List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private final long line;
+        private final String message;
+    }
+
+    void created(int count) {
+        created += count;
+    }
+
+    void failed(long line, String message, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, message));
+        } else {
+            errorsTruncated = true;
+        }
+    }
+}
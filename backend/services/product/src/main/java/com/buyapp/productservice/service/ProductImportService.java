@@ -0,0 +1,290 @@
+package com.buyapp.productservice.service;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.UserDto;
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import for sellers onboarding a catalog.
+ *
+ * The body is read one line at a time and each row is validated as it
+ * arrives. Valid rows are inserted in chunks with one unordered bulk write,
+ * and each chunk's PRODUCT_CREATED events are sent together, so memory stays
+ * at one chunk however large the file is. The seller is looked up once per
+ * import. Rows that cannot be imported are reported by line number and do
+ * not stop the others.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+    private static final Set<String> CSV_COLUMNS = Set.of("name", "description", "price", "stock", "category");
+    private static final Set<String> REQUIRED_CSV_COLUMNS = Set.of("name", "description", "price");
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final ProductService productService;
+    private final ProductEventProducer productEventProducer;
+    private final CatalogVersionService catalogVersionService;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${product.import.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${product.import.max-line-length:8192}")
+    private int maxLineLength = 8192;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors = 1000;
+
+    public ProductImportService(ProductService productService, ProductEventProducer productEventProducer,
+            CatalogVersionService catalogVersionService, MongoTemplate mongoTemplate, ObjectMapper objectMapper,
+            Validator validator) {
+        this.productService = productService;
+        this.productEventProducer = productEventProducer;
+        this.catalogVersionService = catalogVersionService;
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Import products for the authenticated seller.
+     * @param contentType application/x-ndjson (one product object per line) or
+     *                    text/csv (a header row naming the columns first)
+     */
+    public ProductImportReport importProducts(Reader body, MediaType contentType, Authentication authentication)
+            throws IOException {
+        boolean csv = TEXT_CSV.includes(contentType);
+        if (!csv && !MediaType.APPLICATION_NDJSON.includes(contentType)) {
+            throw new BadRequestException("Unsupported import format: " + contentType);
+        }
+        UserDto seller = productService.getAuthenticatedSeller(authentication);
+
+        BoundedLineReader reader = new BoundedLineReader(body, maxLineLength);
+        ProductImportReport report = new ProductImportReport();
+        List<Product> chunk = new ArrayList<>(chunkSize);
+        List<Long> chunkLines = new ArrayList<>(chunkSize);
+        String[] columns = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+                // Spreadsheet exports often start with one; it is not part of the first column name
+                line = line.substring(BYTE_ORDER_MARK.length());
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (reader.wasTruncated()) {
+                report.failed(lineNumber, "Line longer than " + maxLineLength + " characters", maxErrors);
+                continue;
+            }
+            if (csv && columns == null) {
+                columns = parseCsvHeader(line);
+                continue;
+            }
+            try {
+                ProductDto row = csv ? parseCsvRow(columns, line) : parseJsonRow(line);
+                String violations = validate(row);
+                if (violations != null) {
+                    report.failed(lineNumber, violations, maxErrors);
+                    continue;
+                }
+                chunk.add(productService.newProduct(row, seller));
+                chunkLines.add(lineNumber);
+            } catch (IllegalArgumentException e) {
+                report.failed(lineNumber, e.getMessage(), maxErrors);
+                continue;
+            }
+            if (chunk.size() == chunkSize) {
+                insertChunk(chunk, chunkLines, seller, report);
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(chunk, chunkLines, seller, report);
+        }
+        return report;
+    }
+
+    private void insertChunk(List<Product> chunk, List<Long> lines, UserDto seller, ProductImportReport report) {
+        // Ids up front, so the events and the report do not depend on the driver filling them in
+        chunk.forEach(product -> {
+            product.setId(new ObjectId().toHexString());
+            product.setVersion(0L);
+        });
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class).insert(chunk).execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                report.failed(lines.get(error.getIndex()), error.getMessage(), maxErrors);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Failed to import {} products: {}", chunk.size(), e.getMessage());
+            lines.forEach(line -> report.failed(line, "Could not be saved: " + e.getMostSpecificCause().getMessage(),
+                    maxErrors));
+            return;
+        }
+
+        List<ProductEvent> events = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                Product product = chunk.get(i);
+                events.add(new ProductEvent(ProductEvent.EventType.PRODUCT_CREATED,
+                        product.getId(), product.getName(), seller.getId(), seller.getEmail()));
+            }
+        }
+        if (!events.isEmpty()) {
+            report.created(events.size());
+            catalogVersionService.bump();
+            productEventProducer.sendProductEvents(events);
+        }
+    }
+
+    private String validate(ProductDto row) {
+        Set<ConstraintViolation<ProductDto>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private ProductDto parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, ProductDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static String[] parseCsvHeader(String line) {
+        List<String> header = parseCsvFields(line);
+        String[] columns = new String[header.size()];
+        Set<String> present = new HashSet<>();
+        for (int i = 0; i < columns.length; i++) {
+            String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new BadRequestException("Unknown CSV column: " + header.get(i)
+                        + " (expected " + String.join(", ", CSV_COLUMNS) + ")");
+            }
+            if (!present.add(column)) {
+                throw new BadRequestException("Duplicate CSV column: " + header.get(i));
+            }
+            columns[i] = column;
+        }
+        for (String required : REQUIRED_CSV_COLUMNS) {
+            if (!present.contains(required)) {
+                throw new BadRequestException("Missing CSV column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private static ProductDto parseCsvRow(String[] columns, String line) {
+        List<String> fields = parseCsvFields(line);
+        if (fields.size() != columns.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + columns.length + " fields but found " + fields.size());
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            values.put(columns[i], fields.get(i).isEmpty() ? null : fields.get(i));
+        }
+        ProductDto dto = new ProductDto();
+        dto.setName(values.get("name"));
+        dto.setDescription(values.get("description"));
+        dto.setPrice(parseNumber("price", values.get("price"), Double::valueOf));
+        dto.setStock(parseNumber("stock", values.get("stock"), Integer::valueOf));
+        dto.setCategory(values.get("category"));
+        return dto;
+    }
+
+    private static <T> T parseNumber(String column, String value, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + ": not a number: " + value);
+        }
+    }
+
+    /**
+     * Split one CSV record (RFC 4180 quoting, "" for a quote inside a quoted
+     * field). Records cannot span lines.
+     */
+    static List<String> parseCsvFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
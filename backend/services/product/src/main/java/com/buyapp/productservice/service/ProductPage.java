@@ -0,0 +1,19 @@
+package com.buyapp.productservice.service;
+
+import java.util.List;
+
+import com.buyapp.common.dto.ProductDto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One page of a catalog listing.
+ * nextCursor is null when there are no further pages.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductPage {
+    private final List<ProductDto> items;
+    private final String nextCursor;
+}
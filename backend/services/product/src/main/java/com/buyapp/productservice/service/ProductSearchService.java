@@ -0,0 +1,159 @@
+package com.buyapp.productservice.service;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSearchResultDto;
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.search.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the {@link ProductSearchIndex} in step with MongoDB and serves
+ * search results as full products.
+ *
+ * The index is built from the repository when the application is ready and
+ * then updated from product events. Products changed while a rebuild is
+ * running are only noted, and indexed once it finishes, so a rebuild never
+ * leaves an older copy behind. Updates become searchable within the index's
+ * refresh interval.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchService.class);
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_OFFSET = 1000;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final ProductSearchIndex searchIndex;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final MongoTemplate mongoTemplate;
+
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    private volatile boolean rebuilding;
+
+    public ProductSearchService(ProductSearchIndex searchIndex, ProductRepository productRepository,
+            ProductService productService, MongoTemplate mongoTemplate) {
+        this.searchIndex = searchIndex;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * @param query free text over name, description and category; blank lists everything
+     * @param category optional exact category
+     * @param page zero-based page number
+     * @param size page size, default 20, capped at 100
+     */
+    public ProductSearchResultDto search(String query, String category, Integer page, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0) {
+            throw new BadRequestException("page must not be negative");
+        }
+        // Relevance results are for browsing; deep pages belong to the catalog listing
+        if ((long) pageNumber * pageSize > MAX_OFFSET) {
+            throw new BadRequestException("Search results are limited to the first " + MAX_OFFSET + " matches");
+        }
+
+        ProductSearchIndex.SearchResult result =
+                searchIndex.search(query, category, pageNumber * pageSize, pageSize);
+        List<ProductDto> products = productService.getProductsInOrder(result.ids());
+        if (products.size() < result.ids().size()) {
+            removeMissing(result.ids(), products);
+        }
+        return new ProductSearchResultDto(products, result.total(), result.categories());
+    }
+
+    /**
+     * @return product names starting with the typed words, best match first
+     */
+    public List<String> suggest(String prefix, Integer limit) {
+        int count = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return searchIndex.suggest(prefix, count);
+    }
+
+    /**
+     * Apply a product event. The current document is read from the
+     * repository, so events may be replayed or arrive out of order.
+     */
+    public void handleProductEvent(ProductEvent event) {
+        // Stock is not indexed
+        if (event.getProductId() == null || event.getEventType() == null
+                || event.getEventType() == ProductEvent.EventType.PRODUCT_STOCK_CHANGED) {
+            return;
+        }
+        if (rebuilding) {
+            changedDuringRebuild.add(event.getProductId());
+            // Checked again: a rebuild that finished in between may have drained the set already
+            if (rebuilding) {
+                return;
+            }
+        }
+        reindex(event.getProductId());
+    }
+
+    /**
+     * Rebuild the whole index from the repository.
+     * @return number of products indexed
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        changedDuringRebuild.clear();
+        rebuilding = true;
+        int indexed = 0;
+        try {
+            searchIndex.deleteAll();
+            try (Stream<Product> products = mongoTemplate.stream(new Query(), Product.class)) {
+                for (Product product : (Iterable<Product>) products::iterator) {
+                    searchIndex.index(product);
+                    indexed++;
+                }
+            }
+        } finally {
+            rebuilding = false;
+        }
+        for (String productId : changedDuringRebuild) {
+            changedDuringRebuild.remove(productId);
+            reindex(productId);
+        }
+        searchIndex.refresh();
+        logger.info("Indexed {} products for search in {} ms", indexed, System.currentTimeMillis() - start);
+        return indexed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    private void reindex(String productId) {
+        productRepository.findById(productId).ifPresentOrElse(
+                searchIndex::index,
+                () -> searchIndex.delete(productId));
+    }
+
+    // Products deleted without an event (e.g. with their seller) drop out on first sight
+    private void removeMissing(List<String> ids, List<ProductDto> products) {
+        Set<String> found = products.stream().map(ProductDto::getId).collect(Collectors.toSet());
+        ids.stream().filter(id -> !found.contains(id)).forEach(searchIndex::delete);
+    }
+}
@@ -1,25 +1,47 @@
 package com.buyapp.productservice.service;
 
 import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.buyapp.common.dto.StockItemDto;
 import com.buyapp.common.dto.UserDto;
 import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.common.exception.ForbiddenException;
 import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.productservice.cache.ProductCache;
 import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.repository.ProductCursor;
 import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.repository.ProductSort;
+import com.mongodb.client.result.UpdateResult;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
 
+    // Bounds the work one unauthenticated POST /products/batch can cause
+    public static final int MAX_BATCH_IDS = 500;
+
     private static final String PRODUCT_NOT_FOUND = "Product not found with this id:";
     private static final String ROLE_ADMIN = "ROLE_ADMIN";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
 
     @Autowired
     private ProductRepository productRepository;
@@ -30,36 +52,104 @@ public class ProductService {
     @Autowired
     private ProductEventProducer productEventProducer;
 
-    public List<ProductDto> getAllProducts() {
-        return productRepository.findAll()
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private StockShardService stockShardService;
+
+    /**
+     * One page of the catalog. Pages are addressed either by the opaque
+     * cursor of the previous page or by a page number; the cursor stays
+     * cheap however deep the client pages.
+     * @param sort one of newest (default), price_asc, price_desc, name_asc
+     * @param page zero-based page number, only without a cursor
+     * @param size page size, default 20, capped at MAX_PAGE_SIZE
+     */
+    public ProductPage getProductsPage(String category, Double minPrice, Double maxPrice, String sort,
+            Integer page, Integer size, String cursor) {
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new BadRequestException("minPrice must not be greater than maxPrice");
+        }
+        if (page != null && page < 0) {
+            throw new BadRequestException("page must not be negative");
+        }
+        ProductSort productSort = ProductSort.parse(sort);
+        ProductCursor after = ProductCursor.decode(cursor, productSort);
+        if (after != null && page != null && page > 0) {
+            throw new BadRequestException("Use either cursor or page, not both");
+        }
+
+        int pageSize = pageSize(size);
+        long skip = after == null && page != null ? (long) page * pageSize : 0;
+        List<Product> products = productRepository.findCatalogPage(
+                category, minPrice, maxPrice, productSort, after, skip, pageSize + 1);
+
+        // One row beyond the page size only signals that a next page exists
+        boolean hasMore = products.size() > pageSize;
+        List<Product> pageProducts = hasMore ? products.subList(0, pageSize) : products;
+        String nextCursor = hasMore ? ProductCursor.of(productSort, pageProducts.get(pageSize - 1)).encode() : null;
+        return new ProductPage(pageProducts.stream().map(this::toDto).collect(Collectors.toList()), nextCursor);
+    }
+
+    public ProductDto getProductById(String id) {
+        return toDto(getCachedProduct(id));
+    }
+
+    /**
+     * Summaries for up to MAX_BATCH_IDS products; callers with more IDs send
+     * several batches (see order.downstream.product-batch-size).
+     */
+    public List<ProductSummaryDto> getProductsByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        if (ids.size() > MAX_BATCH_IDS) {
+            throw new BadRequestException("At most " + MAX_BATCH_IDS + " product IDs per request");
+        }
+        List<String> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        return productRepository.findAllById(distinctIds)
                 .stream()
-                .map(this::toDto)
+                .map(this::toSummaryDto)
                 .collect(Collectors.toList());
     }
 
-    public ProductDto getProductById(String id) {
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException(PRODUCT_NOT_FOUND + id));
-        return toDto(product);
+    /**
+     * Load products by ID in the given order, skipping IDs that no longer exist.
+     */
+    public List<ProductDto> getProductsInOrder(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Product> productsById = new LinkedHashMap<>();
+        productRepository.findAllById(ids).forEach(product -> productsById.put(product.getId(), product));
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Load a product for modification. Always reads MongoDB; read-only
+     * lookups go through {@link #getCachedProduct(String)} instead.
+     */
     public Product getProductEntityById(String id) {
         return productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException(PRODUCT_NOT_FOUND + id));
     }
 
     public ProductDto createProduct(ProductDto productDto, Authentication authentication) {
-        String userEmail = authentication.getName();
+        UserDto user = getAuthenticatedSeller(authentication);
 
-        // Call User Service to get user information
-        UserDto user = getUserByEmail(userEmail);
-        if (user == null) {
-            throw new IllegalArgumentException("Authenticated user not found in user service");
-        }
-
-        Product product = toEntity(productDto);
-        product.setUserId(user.getId()); // Store user ID internally
-        Product saved = productRepository.save(product);
+        Product saved = productRepository.save(newProduct(productDto, user));
+        catalogVersionService.bump();
 
         // Publish PRODUCT_CREATED event
         ProductEvent event = new ProductEvent(
@@ -81,19 +171,33 @@ public class ProductService {
             throw new ForbiddenException("You don't have permission to modify this product");
         }
 
-        existing.setName(productDto.getName());
-        existing.setDescription(productDto.getDescription());
-        existing.setPrice(productDto.getPrice());
-        if (productDto.getStock() != null) {
-            existing.setStock(productDto.getStock());
+        // Only the edited fields, so stock reservations landing meanwhile are kept
+        Query query = Query.query(Criteria.where("_id").is(id));
+        Update update = new Update()
+                .set("name", productDto.getName())
+                .set("description", productDto.getDescription())
+                .set("price", productDto.getPrice())
+                .set("category", productDto.getCategory())
+                .inc("version", 1);
+        if (productDto.getStock() != null && existing.isStockSharded()) {
+            stockShardService.resetStock(id, existing.getStockShards(), productDto.getStock());
+        } else if (productDto.getStock() != null) {
+            // A product sharded meanwhile keeps its stock in the shards, not here
+            query.addCriteria(Criteria.where("stockShards").exists(false));
+            update.set("stock", productDto.getStock());
         }
-        existing.setCategory(productDto.getCategory());
 
-        Product updated = productRepository.save(existing);
+        Product updated = mongoTemplate.findAndModify(query, update, RETURN_NEW, Product.class);
+        if (updated == null) {
+            getProductEntityById(id);
+            throw new BadRequestException("Stock of product " + id + " was sharded meanwhile, please retry");
+        }
+        productCache.invalidate(id);
+        catalogVersionService.bump();
 
         // Publish PRODUCT_UPDATED event
-        UserDto user = getUserById(updated.getUserId());
-        if (user == null) {
+        String userEmail = getSellerEmail(updated);
+        if (userEmail == null) {
             throw new IllegalArgumentException(
                     "User not found for updated product with userId: " + updated.getUserId());
         }
@@ -101,8 +205,8 @@ public class ProductService {
                 ProductEvent.EventType.PRODUCT_UPDATED,
                 updated.getId(),
                 updated.getName(),
-                user.getId(),
-                user.getEmail());
+                updated.getUserId(),
+                userEmail);
         productEventProducer.sendProductEvent(event);
 
         return toDto(updated);
@@ -116,20 +220,27 @@ public class ProductService {
             throw new ForbiddenException("You don't have permission to modify this product");
         }
 
-        // Publish PRODUCT_DELETED event before deletion
-        UserDto user = getUserById(existing.getUserId());
-        if (user == null) {
+        String userEmail = getSellerEmail(existing);
+        if (userEmail == null) {
             throw new IllegalStateException(
                     "User not found with id: " + existing.getUserId() + " when deleting product: " + id);
         }
+
+        productRepository.deleteById(id);
+        if (existing.isStockSharded()) {
+            stockShardService.deleteShards(List.of(id));
+        }
+        productCache.invalidate(id);
+        catalogVersionService.bump();
+
+        // Publish PRODUCT_DELETED event after deletion, so replicas that drop
+        // their cached copy on it cannot load the product again
         ProductEvent event = new ProductEvent(
                 ProductEvent.EventType.PRODUCT_DELETED,
                 existing.getId(),
-                user.getId(),
-                user.getEmail());
+                existing.getUserId(),
+                userEmail);
         productEventProducer.sendProductEvent(event);
-
-        productRepository.deleteById(id);
     }
 
     public List<ProductDto> getProductsByUser(String userEmail) {
@@ -153,34 +264,333 @@ public class ProductService {
     }
 
     public void deleteProductsByUserId(String userId) {
+        List<Product> deleted = findSellerProducts(userId);
         productRepository.deleteByUserId(userId);
+        if (deleted.isEmpty()) {
+            return;
+        }
+        List<String> deletedIds = deleted.stream().map(Product::getId).collect(Collectors.toList());
+        stockShardService.deleteShards(deletedIds);
+        productCache.invalidateAll(deletedIds);
+        catalogVersionService.bump();
+        deleted.forEach(product -> productEventProducer.sendProductEvent(new ProductEvent(
+                ProductEvent.EventType.PRODUCT_DELETED, product.getId(), userId, product.getUserEmail())));
+    }
+
+    /**
+     * Copy a seller's current email onto all of their products.
+     * @return number of products changed
+     */
+    public long updateUserEmail(String userId, String email) {
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("userId").is(userId).and("userEmail").ne(email)),
+                Update.update("userEmail", email).inc("version", 1),
+                Product.class);
+        if (result.getModifiedCount() > 0) {
+            sellerEmailChanged(userId, email);
+        }
+        return result.getModifiedCount();
+    }
+
+    /**
+     * Fill in the seller email on products created before it was stored,
+     * resolving all of their sellers with one user-service call.
+     * @return number of products changed
+     */
+    public long backfillUserEmails() {
+        List<String> userIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("userEmail").exists(false)), "userId", Product.class, String.class);
+        Map<String, String> emails = getUserEmailsByIds(userIds);
+        long updated = 0;
+        for (Map.Entry<String, String> entry : emails.entrySet()) {
+            long modified = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("userId").is(entry.getKey()).and("userEmail").exists(false)),
+                    Update.update("userEmail", entry.getValue()).inc("version", 1),
+                    Product.class).getModifiedCount();
+            if (modified > 0) {
+                sellerEmailChanged(entry.getKey(), entry.getValue());
+            }
+            updated += modified;
+        }
+        return updated;
     }
 
     public boolean checkStockAvailability(String productId, Integer requestedQuantity) {
         Product product = getProductEntityById(productId);
-        return product.getStock() != null && product.getStock() >= requestedQuantity;
+        Integer stock = currentStock(product);
+        return stock != null && stock >= requestedQuantity;
     }
 
+    /**
+     * Reserve stock for a single product, as a one-line {@link #reserveStock}.
+     */
     public void reduceStock(String productId, Integer quantity) {
-        Product product = getProductEntityById(productId);
-        if (product.getStock() == null || product.getStock() < quantity) {
-            throw new IllegalArgumentException(
-                    "Insufficient stock for product: " + product.getName() + 
-                    ". Available: " + product.getStock() + ", Requested: " + quantity);
-        }
-        product.setStock(product.getStock() - quantity);
-        productRepository.save(product);
+        reserveStock(List.of(new StockItemDto(productId, quantity)));
     }
 
+    /**
+     * Release stock of a single product, as a one-line {@link #releaseStock}.
+     */
     public void restoreStock(String productId, Integer quantity) {
-        Product product = getProductEntityById(productId);
-        product.setStock((product.getStock() != null ? product.getStock() : 0) + quantity);
-        productRepository.save(product);
+        releaseStock(List.of(new StockItemDto(productId, quantity)));
+    }
+
+    /**
+     * Reserve stock for all lines of an order in one call.
+     * Each line is an atomic conditional decrement ({@code stock >= quantity}),
+     * so concurrent checkouts can never drive stock below zero. If any line
+     * cannot be reserved, the lines already applied are released again.
+     * Hot products keep 0 on the product itself, so their lines fail the
+     * first decrement and are reserved from the stock shards instead.
+     */
+    public void reserveStock(List<StockItemDto> items) {
+        Map<String, Integer> quantities = mergeQuantities(items);
+        Map<String, Integer> applied = new LinkedHashMap<>();
+        List<ShardedLine> appliedToShards = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            String productId = line.getKey();
+            Integer quantity = line.getValue();
+            Query query = Query.query(Criteria.where("_id").is(productId).and("stock").gte(quantity));
+            UpdateResult result = mongoTemplate.updateFirst(query, stockUpdate(-quantity), Product.class);
+            if (result.getModifiedCount() > 0) {
+                applied.put(productId, quantity);
+                continue;
+            }
+
+            Integer shards = findStockShards(productId);
+            if (shards != null && stockShardService.reserve(productId, shards, quantity)) {
+                appliedToShards.add(new ShardedLine(productId, shards, quantity));
+                continue;
+            }
+
+            // Shards folded back into the product meanwhile take the stock on the product
+            appliedToShards.stream()
+                    .filter(done -> !stockShardService.release(done.productId(), done.shards(), done.quantity()))
+                    .forEach(done -> applied.put(done.productId(), done.quantity()));
+            incrementStock(applied);
+            // Rolled-back lines were briefly visible, so readers may have cached them
+            stockChanged(applied.keySet(), !appliedToShards.isEmpty());
+            throw insufficientStock(getProductEntityById(productId), quantity);
+        }
+        stockChanged(applied.keySet(), !appliedToShards.isEmpty());
+    }
+
+    /**
+     * Release previously reserved stock for all lines of an order in one call.
+     * If a product no longer exists, the lines already released are reserved again.
+     * Stock of hot products goes back to one of their shards.
+     */
+    public void releaseStock(List<StockItemDto> items) {
+        Map<String, Integer> quantities = mergeQuantities(items);
+        Map<String, Integer> applied = new LinkedHashMap<>();
+        List<ShardedLine> appliedToShards = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            String productId = line.getKey();
+            Integer quantity = line.getValue();
+            UpdateResult result = mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(productId).and("stockShards").exists(false)),
+                    stockUpdate(quantity),
+                    Product.class);
+            if (result.getMatchedCount() > 0) {
+                applied.put(productId, quantity);
+                continue;
+            }
+
+            Integer shards = findStockShards(productId);
+            if (shards == null || !stockShardService.release(productId, shards, quantity)) {
+                appliedToShards.stream()
+                        .filter(done -> !takeBackFromShards(done))
+                        .forEach(done -> applied.put(done.productId(), done.quantity()));
+                decrementStock(applied);
+                stockChanged(applied.keySet(), !appliedToShards.isEmpty());
+                throw new ResourceNotFoundException(PRODUCT_NOT_FOUND + productId);
+            }
+            appliedToShards.add(new ShardedLine(productId, shards, quantity));
+        }
+        stockChanged(applied.keySet(), !appliedToShards.isEmpty());
+    }
+
+    /**
+     * Turn on hot-product mode: move the product's stock into {@code shards}
+     * sub-counters that reservations spread over.
+     */
+    public ProductDto enableStockSharding(String productId, int shards) {
+        if (shards < 2 || shards > StockShardService.MAX_SHARDS) {
+            throw new BadRequestException("Number of stock shards must be between 2 and " + StockShardService.MAX_SHARDS);
+        }
+        getProductEntityById(productId);
+        // Shards exist, empty, before any reservation is routed to them
+        stockShardService.createShards(productId, shards);
+        Product previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(productId).and("stockShards").exists(false)),
+                new Update().set("stockShards", shards).set("stock", 0).inc("version", 1),
+                Product.class);
+        if (previous == null) {
+            throw new BadRequestException("Stock of product " + productId + " is already sharded");
+        }
+        stockShardService.distribute(productId, shards, previous.getStock() != null ? previous.getStock() : 0);
+        return stockShardingChanged(previous);
+    }
+
+    /**
+     * Turn off hot-product mode: move the stock of the shards back onto the product.
+     */
+    public ProductDto disableStockSharding(String productId) {
+        getProductEntityById(productId);
+        Product previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(productId).and("stockShards").exists(true)),
+                new Update().unset("stockShards").inc("version", 1),
+                Product.class);
+        if (previous == null) {
+            throw new BadRequestException("Stock of product " + productId + " is not sharded");
+        }
+        int stock = stockShardService.removeShards(productId, previous.getStockShards());
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(productId)), stockUpdate(stock),
+                Product.class);
+        return stockShardingChanged(previous);
+    }
+
+    private ProductDto stockShardingChanged(Product previous) {
+        productCache.invalidate(previous.getId());
+        catalogVersionService.bump();
+        productEventProducer.sendProductEvent(new ProductEvent(
+                ProductEvent.EventType.PRODUCT_UPDATED,
+                previous.getId(),
+                previous.getName(),
+                previous.getUserId(),
+                previous.getUserEmail()));
+        return toDto(getProductEntityById(previous.getId()));
+    }
+
+    /**
+     * Undo a line released to the shards.
+     * @return false if sharding was turned off meanwhile, so the stock is on the product
+     */
+    private boolean takeBackFromShards(ShardedLine line) {
+        if (stockShardService.reserve(line.productId(), line.shards(), line.quantity())) {
+            return true;
+        }
+        // Still sharded but short: the released stock has been sold already
+        return productRepository.findById(line.productId()).map(Product::isStockSharded).orElse(true);
+    }
+
+    // Cached first; a product that became hot after it was cached is caught by the fresh read
+    private Integer findStockShards(String productId) {
+        Product cached = productCache.get(productId, key -> productRepository.findById(key).orElse(null));
+        if (cached != null && cached.isStockSharded()) {
+            return cached.getStockShards();
+        }
+        return productRepository.findById(productId).map(Product::getStockShards).orElse(null);
+    }
+
+    private IllegalArgumentException insufficientStock(Product product, int quantity) {
+        return new IllegalArgumentException(
+                "Insufficient stock for product: " + product.getName() +
+                ". Available: " + currentStock(product) + ", Requested: " + quantity);
+    }
+
+    // Sharded stock is the sum of the shards; the product itself holds 0
+    private Integer currentStock(Product product) {
+        if (product.isStockSharded()) {
+            return stockShardService.totalStock(product.getId());
+        }
+        return product.getStock();
     }
 
     public String getProductSellerId(String productId) {
-        Product product = getProductEntityById(productId);
-        return product.getUserId();
+        return getCachedProduct(productId).getUserId();
+    }
+
+    private Product getCachedProduct(String id) {
+        Product product = productCache.get(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new ResourceNotFoundException(PRODUCT_NOT_FOUND + id);
+        }
+        return product;
+    }
+
+    // Same product on several lines is reserved as a single conditional update
+    private Map<String, Integer> mergeQuantities(List<StockItemDto> items) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        if (items == null) {
+            return quantities;
+        }
+        for (StockItemDto item : items) {
+            if (item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new IllegalArgumentException("Quantity must be at least 1 for product: " + item.getProductId());
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void incrementStock(Map<String, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(productId)),
+                stockUpdate(quantity),
+                Product.class));
+    }
+
+    private void decrementStock(Map<String, Integer> quantities) {
+        quantities.forEach((productId, quantity) -> mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(productId)),
+                stockUpdate(-quantity),
+                Product.class));
+    }
+
+    // Every write to a product moves its version, which its ETag is made of
+    private static Update stockUpdate(int delta) {
+        return new Update().inc("stock", delta).inc("version", 1);
+    }
+
+    /**
+     * Drop cached copies of products whose stock changed, here and on the
+     * other replicas.
+     */
+    private void stockChanged(Collection<String> productIds) {
+        stockChanged(productIds, false);
+    }
+
+    /**
+     * Sharded stock is summed on every read and never cached, so a change to
+     * it only has to move the catalog version.
+     */
+    private void stockChanged(Collection<String> productIds, boolean shardedStockChanged) {
+        if (productIds.isEmpty() && !shardedStockChanged) {
+            return;
+        }
+        productCache.invalidateAll(productIds);
+        catalogVersionService.bump();
+        productIds.forEach(productId -> productEventProducer.sendProductEvent(new ProductEvent(
+                ProductEvent.EventType.PRODUCT_STOCK_CHANGED, productId, null, null)));
+    }
+
+    /**
+     * The seller email is part of every product DTO, so each of the seller's
+     * products counts as updated.
+     */
+    private void sellerEmailChanged(String userId, String email) {
+        List<Product> products = findSellerProducts(userId);
+        productCache.invalidateAll(products.stream().map(Product::getId).collect(Collectors.toList()));
+        catalogVersionService.bump();
+        products.forEach(product -> productEventProducer.sendProductEvent(new ProductEvent(
+                ProductEvent.EventType.PRODUCT_UPDATED, product.getId(), product.getName(), userId, email)));
+    }
+
+    // Only the fields the events need
+    private List<Product> findSellerProducts(String userId) {
+        Query query = Query.query(Criteria.where("userId").is(userId));
+        query.fields().include("id", "name", "userEmail");
+        return mongoTemplate.find(query, Product.class);
+    }
+
+    private int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(size, ProductRepository.MAX_PAGE_SIZE));
     }
 
     private boolean canModifyProduct(Product product, Authentication authentication) {
@@ -201,6 +611,24 @@ public class ProductService {
         return product.getUserId().equals(currentUser.getId());
     }
 
+    /**
+     * The seller creating products, looked up in user-service.
+     */
+    UserDto getAuthenticatedSeller(Authentication authentication) {
+        UserDto user = getUserByEmail(authentication.getName());
+        if (user == null) {
+            throw new IllegalArgumentException("Authenticated user not found in user service");
+        }
+        return user;
+    }
+
+    Product newProduct(ProductDto productDto, UserDto seller) {
+        Product product = toEntity(productDto);
+        product.setUserId(seller.getId()); // Store user ID internally
+        product.setUserEmail(seller.getEmail()); // Kept current from USER_UPDATED events
+        return product;
+    }
+
     private UserDto getUserByEmail(String email) {
         try {
             return webClientBuilder.build()
@@ -227,22 +655,61 @@ public class ProductService {
         }
     }
 
+    private String getSellerEmail(Product product) {
+        if (product.getUserEmail() != null) {
+            return product.getUserEmail();
+        }
+        UserDto user = getUserById(product.getUserId());
+        return user != null ? user.getEmail() : null;
+    }
+
+    private Map<String, String> getUserEmailsByIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            List<UserDto> users = webClientBuilder.build()
+                    .post()
+                    .uri("http://user-service/users/batch")
+                    .bodyValue(userIds)
+                    .retrieve()
+                    .bodyToFlux(UserDto.class)
+                    .collectList()
+                    .block();
+            if (users == null) {
+                return Map.of();
+            }
+            return users.stream().collect(Collectors.toMap(UserDto::getId, UserDto::getEmail, (a, b) -> a));
+        } catch (Exception e) {
+            return Map.of();
+        }
+    }
+
     private ProductDto toDto(Product product) {
         ProductDto dto = new ProductDto();
         dto.setId(product.getId());
         dto.setName(product.getName());
         dto.setDescription(product.getDescription());
         dto.setPrice(product.getPrice());
-        dto.setStock(product.getStock());
+        dto.setStock(currentStock(product));
         dto.setCategory(product.getCategory());
-
-        // Convert userId to email for display via User Service call
-        UserDto user = getUserById(product.getUserId());
-        dto.setUser(user != null ? user.getEmail() : "Unknown User");
+        dto.setVersion(product.getVersion());
+        // Seller email is stored on the product, so no User Service call here
+        dto.setUser(product.getUserEmail() != null ? product.getUserEmail() : "Unknown User");
 
         return dto;
     }
 
+    private ProductSummaryDto toSummaryDto(Product product) {
+        // No user-service lookup here: callers only need the seller's id
+        return new ProductSummaryDto(
+                product.getId(),
+                product.getName(),
+                product.getPrice(),
+                currentStock(product),
+                product.getUserId());
+    }
+
     private Product toEntity(ProductDto dto) {
         Product product = new Product();
         product.setName(dto.getName());
@@ -253,4 +720,7 @@ public class ProductService {
         // Note: userId should be set separately in service methods, not from DTO
         return product;
     }
-}
\ No newline at end of file
+
+    private record ShardedLine(String productId, int shards, int quantity) {
+    }
+}
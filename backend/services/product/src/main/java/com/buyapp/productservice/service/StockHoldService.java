@@ -0,0 +1,127 @@
+package com.buyapp.productservice.service;
+
+import com.buyapp.common.dto.StockHoldDto;
+import com.buyapp.common.dto.StockItemDto;
+import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.productservice.model.StockHold;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Time-limited stock holds for checkouts.
+ *
+ * Creating a hold reserves its stock like an order would. Committing turns it
+ * into a sale by removing the hold and keeping the stock deducted; releasing
+ * removes it and gives the stock back. Each of these removes the hold with a
+ * single findAndRemove, so only one of them can win for a given hold, also
+ * when several instances sweep at the same time.
+ */
+@Service
+public class StockHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHoldService.class);
+
+    private final ProductService productService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${product.stock-hold.ttl:10m}")
+    private Duration ttl = Duration.ofMinutes(10);
+
+    @Value("${product.stock-hold.sweep-batch-size:500}")
+    private int sweepBatchSize = 500;
+
+    public StockHoldService(ProductService productService, MongoTemplate mongoTemplate) {
+        this.productService = productService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Reserve all lines and record the hold. Nothing stays reserved if either fails.
+     */
+    public StockHoldDto createHold(List<StockItemDto> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("A stock hold needs at least one item");
+        }
+        productService.reserveStock(items);
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            StockHold hold = mongoTemplate.insert(new StockHold(null, items, now, now.plus(ttl)));
+            return toDto(hold);
+        } catch (RuntimeException e) {
+            productService.releaseStock(items);
+            throw e;
+        }
+    }
+
+    /**
+     * Turn the hold into a sale: its stock stays deducted.
+     * An expired hold can still be committed until the sweeper has released it.
+     */
+    public void commitHold(String holdId) {
+        if (removeHold(Query.query(Criteria.where("_id").is(holdId))) == null) {
+            throw new ResourceNotFoundException("Stock hold not found or already released: " + holdId);
+        }
+    }
+
+    /**
+     * Give the stock of the hold back. Releasing a hold that is already gone does nothing.
+     */
+    public void releaseHold(String holdId) {
+        StockHold hold = removeHold(Query.query(Criteria.where("_id").is(holdId)));
+        if (hold != null) {
+            giveBack(hold);
+        }
+    }
+
+    /**
+     * Release holds whose time is up, oldest first. Reads only the expired
+     * range of the expiresAt index.
+     * @return number of holds released
+     */
+    @Scheduled(fixedDelayString = "${product.stock-hold.sweep-interval:15s}")
+    public int releaseExpiredHolds() {
+        Query expired = Query.query(Criteria.where("expiresAt").lte(LocalDateTime.now()))
+                .with(Sort.by(Sort.Direction.ASC, "expiresAt"));
+        int released = 0;
+        StockHold hold;
+        while (released < sweepBatchSize && (hold = removeHold(expired)) != null) {
+            giveBack(hold);
+            released++;
+        }
+        if (released > 0) {
+            logger.info("Released {} expired stock holds", released);
+        }
+        return released;
+    }
+
+    // Line by line, so a product deleted meanwhile does not keep the others' stock
+    private void giveBack(StockHold hold) {
+        for (StockItemDto item : hold.getItems()) {
+            try {
+                productService.releaseStock(List.of(item));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to release stock of hold {} for product {}: {}",
+                        hold.getId(), item.getProductId(), e.getMessage());
+            }
+        }
+    }
+
+    private StockHold removeHold(Query query) {
+        return mongoTemplate.findAndRemove(query, StockHold.class);
+    }
+
+    private static StockHoldDto toDto(StockHold hold) {
+        return new StockHoldDto(hold.getId(), hold.getItems(), hold.getExpiresAt());
+    }
+}
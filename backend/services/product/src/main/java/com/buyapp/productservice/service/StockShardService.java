@@ -0,0 +1,163 @@
+package com.buyapp.productservice.service;
+
+import com.buyapp.productservice.model.StockShard;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock of hot products, split across {@link StockShard} documents.
+ *
+ * A reservation is a conditional decrement on one randomly chosen shard, so
+ * concurrent checkouts of the same product mostly touch different documents.
+ * When that shard is short, the others are tried in turn, and as a last resort
+ * the quantity is gathered from several shards.
+ */
+@Service
+public class StockShardService {
+
+    public static final int MAX_SHARDS = 64;
+
+    private final MongoTemplate mongoTemplate;
+
+    public StockShardService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Create the shards of a product, empty. Existing shards are kept.
+     */
+    public void createShards(String productId, int shards) {
+        for (int shard = 0; shard < shards; shard++) {
+            mongoTemplate.upsert(
+                    shardQuery(productId, shard),
+                    new Update().setOnInsert("productId", productId).setOnInsert("shard", shard).setOnInsert("stock", 0),
+                    StockShard.class);
+        }
+    }
+
+    /**
+     * Add stock spread evenly over the shards.
+     */
+    public void distribute(String productId, int shards, int stock) {
+        for (int shard = 0; shard < shards; shard++) {
+            int share = shareOf(stock, shards, shard);
+            if (share > 0) {
+                mongoTemplate.updateFirst(shardQuery(productId, shard), new Update().inc("stock", share), StockShard.class);
+            }
+        }
+    }
+
+    /**
+     * Replace the stock, spread evenly over the shards.
+     */
+    public void resetStock(String productId, int shards, int stock) {
+        for (int shard = 0; shard < shards; shard++) {
+            mongoTemplate.updateFirst(
+                    shardQuery(productId, shard),
+                    Update.update("stock", shareOf(stock, shards, shard)),
+                    StockShard.class);
+        }
+    }
+
+    /**
+     * Delete the shards of a product. Each shard is read and deleted in one
+     * atomic step, so stock released into it until then is counted, and a
+     * release after that finds no shard and reports it.
+     * @return the stock they held
+     */
+    public int removeShards(String productId, int shards) {
+        int stock = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            StockShard removed = mongoTemplate.findAndRemove(shardQuery(productId, shard), StockShard.class);
+            if (removed != null) {
+                stock += removed.getStock();
+            }
+        }
+        return stock;
+    }
+
+    public void deleteShards(Collection<String> productIds) {
+        mongoTemplate.remove(Query.query(Criteria.where("productId").in(productIds)), StockShard.class);
+    }
+
+    public int totalStock(String productId) {
+        Query query = byProduct(productId);
+        query.fields().include("stock");
+        return mongoTemplate.find(query, StockShard.class)
+                .stream()
+                .mapToInt(StockShard::getStock)
+                .sum();
+    }
+
+    /**
+     * Take stock from the shards; never drives a shard below zero.
+     * @return false, with nothing taken, if the shards do not hold enough
+     */
+    public boolean reserve(String productId, int shards, int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (take(productId, (start + i) % shards, quantity)) {
+                return true;
+            }
+        }
+        return reserveAcrossShards(productId, quantity);
+    }
+
+    /**
+     * Give stock back to a random shard.
+     * @return false if the product has no shards (any more)
+     */
+    public boolean release(String productId, int shards, int quantity) {
+        int shard = ThreadLocalRandom.current().nextInt(shards);
+        return mongoTemplate.updateFirst(shardQuery(productId, shard), new Update().inc("stock", quantity),
+                StockShard.class).getMatchedCount() > 0;
+    }
+
+    // No single shard holds enough: gather the quantity, fullest shard first
+    private boolean reserveAcrossShards(String productId, int quantity) {
+        Query query = byProduct(productId).with(Sort.by(Sort.Direction.DESC, "stock"));
+        List<StockShard> taken = new ArrayList<>();
+        int remaining = quantity;
+        for (StockShard shard : mongoTemplate.find(query, StockShard.class)) {
+            int part = Math.min(shard.getStock(), remaining);
+            if (part > 0 && take(productId, shard.getShard(), part)) {
+                taken.add(new StockShard(shard.getId(), productId, shard.getShard(), part));
+                remaining -= part;
+            }
+            if (remaining == 0) {
+                return true;
+            }
+        }
+        taken.forEach(part -> mongoTemplate.updateFirst(
+                shardQuery(productId, part.getShard()), new Update().inc("stock", part.getStock()), StockShard.class));
+        return false;
+    }
+
+    private boolean take(String productId, int shard, int quantity) {
+        Query query = Query.query(Criteria.where("_id").is(StockShard.idOf(productId, shard)).and("stock").gte(quantity));
+        return mongoTemplate.updateFirst(query, new Update().inc("stock", -quantity), StockShard.class)
+                .getModifiedCount() > 0;
+    }
+
+    private static Query shardQuery(String productId, int shard) {
+        return Query.query(Criteria.where("_id").is(StockShard.idOf(productId, shard)));
+    }
+
+    private static Query byProduct(String productId) {
+        return Query.query(Criteria.where("productId").is(productId));
+    }
+
+    // Earlier shards take the remainder
+    private static int shareOf(int stock, int shards, int shard) {
+        return stock / shards + (shard < stock % shards ? 1 : 0);
+    }
+}
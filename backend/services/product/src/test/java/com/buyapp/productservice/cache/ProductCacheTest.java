@@ -0,0 +1,118 @@
+package com.buyapp.productservice.cache;
+
+import com.buyapp.productservice.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productCache = new ProductCache(100, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndRecordHitsAndMisses() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        productCache.get("1", id -> load(loads, id));
+        productCache.get("1", id -> load(loads, id));
+        productCache.get("1", id -> load(loads, id));
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(2.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+    }
+
+    @Test
+    void get_WhenLoaderFindsNothing_ShouldNotCacheMiss() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Product first = productCache.get("missing", id -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        Product second = productCache.get("missing", id -> load(loads, id));
+
+        // Assert
+        assertNull(first);
+        assertNotNull(second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldForceReload() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        productCache.get("1", id -> load(loads, id));
+
+        // Act
+        productCache.invalidate("1");
+        productCache.get("1", id -> load(loads, id));
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_DuringLoad_ShouldNotKeepValueLoadedBeforeWrite() throws Exception {
+        // Arrange - a reader starts loading the old state of the product
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Product> reader = CompletableFuture.supplyAsync(() -> productCache.get("1", id -> {
+            loading.countDown();
+            await(release);
+            return new Product(id, "Old", null, null, 1, "seller", null);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // Act - a writer changes the product and invalidates while the load runs
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> productCache.invalidate("1"));
+        release.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+        writer.get(5, TimeUnit.SECONDS);
+
+        // Assert
+        Product current = productCache.get("1", id -> new Product(id, "New", null, null, 0, "seller", null));
+        assertEquals("New", current.getName());
+    }
+
+    private static Product load(AtomicInteger loads, String id) {
+        loads.incrementAndGet();
+        return new Product(id, "Product " + id, null, 9.99, 1, "seller", null);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ProductCache.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.buyapp.productservice.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.service.ProductService;
+
+@ExtendWith(MockitoExtension.class)
+class DataInitializerTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private WebClient.Builder webClientBuilder;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private DataInitializer dataInitializer;
+
+    @BeforeEach
+    void setUp() {
+        dataInitializer = new DataInitializer(productRepository, webClientBuilder, productService, mongoTemplate);
+    }
+
+    @Test
+    void backfillProductUserEmails_WhenSellersUnresolved_ShouldRetryOnNextRun() {
+        // Arrange
+        when(productService.backfillUserEmails()).thenReturn(0L);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(true);
+
+        // Act
+        dataInitializer.backfillProductUserEmails();
+        dataInitializer.backfillProductUserEmails();
+
+        // Assert
+        verify(productService, times(2)).backfillUserEmails();
+    }
+
+    @Test
+    void backfillProductUserEmails_WhenNoneLeft_ShouldStopRunning() {
+        // Arrange
+        when(productService.backfillUserEmails()).thenReturn(3L);
+        when(mongoTemplate.exists(any(Query.class), eq(Product.class))).thenReturn(false);
+
+        // Act
+        dataInitializer.backfillProductUserEmails();
+        dataInitializer.backfillProductUserEmails();
+
+        // Assert
+        verify(productService, times(1)).backfillUserEmails();
+    }
+}
@@ -0,0 +1,165 @@
+package com.buyapp.productservice.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.productservice.service.CatalogVersionService;
+import com.buyapp.productservice.service.ProductImportReport;
+import com.buyapp.productservice.service.ProductImportService;
+import com.buyapp.productservice.service.ProductPage;
+import com.buyapp.productservice.service.ProductSearchService;
+import com.buyapp.productservice.service.ProductService;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductControllerTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private ProductImportService productImportService;
+
+    @InjectMocks
+    private ProductController productController;
+
+    private MockMvc mockMvc;
+    private ProductDto testProduct;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+        testProduct = new ProductDto("p1", "Serum", "Description", 19.99, 5, "seller@example.com", "Face");
+        testProduct.setVersion(3L);
+    }
+
+    @Test
+    void getAllProducts_ShouldReturnCatalogVersionAsETag() throws Exception {
+        when(catalogVersionService.current()).thenReturn(7L);
+        when(productService.getProductsPage(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ProductPage(List.of(testProduct), null));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-7\""))
+                .andExpect(jsonPath("$[0].id").value("p1"))
+                .andExpect(jsonPath("$[0].version").value(3));
+    }
+
+    @Test
+    void getAllProducts_WithoutParameters_ShouldReturnFirstPage() throws Exception {
+        when(catalogVersionService.current()).thenReturn(7L);
+        when(productService.getProductsPage(null, null, null, null, null, null, null))
+                .thenReturn(new ProductPage(List.of(testProduct), "next"));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getAllProducts_WhenETagMatches_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(catalogVersionService.current()).thenReturn(7L);
+
+        mockMvc.perform(get("/products").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-7\""))
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProductsPage(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllProducts_WhenCatalogChanged_ShouldReturnNewPage() throws Exception {
+        when(catalogVersionService.current()).thenReturn(8L);
+        when(productService.getProductsPage(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new ProductPage(List.of(testProduct), null));
+
+        mockMvc.perform(get("/products").param("size", "10").header(HttpHeaders.IF_NONE_MATCH, "\"catalog-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"catalog-8\""))
+                .andExpect(jsonPath("$[0].id").value("p1"));
+    }
+
+    @Test
+    void getProductById_ShouldReturnProductVersionAsETag() throws Exception {
+        when(productService.getProductById("p1")).thenReturn(testProduct);
+
+        mockMvc.perform(get("/products/p1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1-3-5\""));
+    }
+
+    @Test
+    void getProductById_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        when(productService.getProductById("p1")).thenReturn(testProduct);
+
+        mockMvc.perform(get("/products/p1").header(HttpHeaders.IF_NONE_MATCH, "\"p1-3-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getProductById_WhenOnlyStockChanged_ShouldReturnNewETag() throws Exception {
+        testProduct.setStock(4);
+        when(productService.getProductById("p1")).thenReturn(testProduct);
+
+        mockMvc.perform(get("/products/p1").header(HttpHeaders.IF_NONE_MATCH, "\"p1-3-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"p1-3-4\""));
+    }
+
+    @Test
+    void importProducts_ShouldStreamBodyInItsDeclaredCharset() throws Exception {
+        String csv = "name,description,price\nCrème,Rich crème,9.99\n";
+        when(productImportService.importProducts(any(Reader.class), any(MediaType.class), isNull()))
+                .thenAnswer(invocation -> {
+                    if (!FileCopyUtils.copyToString(invocation.<Reader>getArgument(0)).equals(csv)) {
+                        throw new AssertionError("Body not decoded as ISO-8859-1");
+                    }
+                    return new ProductImportReport();
+                });
+
+        mockMvc.perform(post("/products/import")
+                .contentType("text/csv;charset=ISO-8859-1")
+                .content(csv.getBytes(StandardCharsets.ISO_8859_1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.errors").isEmpty());
+    }
+}
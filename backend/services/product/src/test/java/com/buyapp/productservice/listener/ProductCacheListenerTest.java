@@ -0,0 +1,47 @@
+package com.buyapp.productservice.listener;
+
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.productservice.cache.ProductCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCacheListenerTest {
+
+    @Mock
+    private ProductCache productCache;
+
+    private ProductCacheListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ProductCacheListener(productCache);
+    }
+
+    @Test
+    void whenProductEvent_thenCachedProductIsInvalidated() {
+        // Arrange
+        ProductEvent event = new ProductEvent(ProductEvent.EventType.PRODUCT_STOCK_CHANGED, "product-1", null, null);
+
+        // Act
+        listener.handleProductEvent(event);
+
+        // Assert
+        verify(productCache, times(1)).invalidate("product-1");
+    }
+
+    @Test
+    void whenEventHasNoProductId_thenNothingIsInvalidated() {
+        // Act
+        listener.handleProductEvent(new ProductEvent());
+
+        // Assert
+        verify(productCache, never()).invalidate(any());
+    }
+}
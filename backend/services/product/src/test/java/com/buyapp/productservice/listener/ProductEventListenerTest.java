@@ -0,0 +1,52 @@
+package com.buyapp.productservice.listener;
+
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.productservice.service.ProductSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventListenerTest {
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    private ProductEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new ProductEventListener(productSearchService);
+    }
+
+    @Test
+    void whenProductEvent_thenSearchIndexIsUpdated() {
+        // Arrange
+        ProductEvent event = new ProductEvent(ProductEvent.EventType.PRODUCT_CREATED, "product-1", "seller-1",
+                "seller@example.com");
+
+        // Act
+        listener.handleProductEvent(event);
+
+        // Assert
+        verify(productSearchService, times(1)).handleProductEvent(event);
+    }
+
+    @Test
+    void whenSearchServiceThrows_thenErrorIsLogged() {
+        // Arrange
+        ProductEvent event = new ProductEvent(ProductEvent.EventType.PRODUCT_UPDATED, "product-err", "seller-1",
+                "seller@example.com");
+        doThrow(new RuntimeException("Index unavailable")).when(productSearchService).handleProductEvent(event);
+
+        // Act: should not throw - error is caught and logged
+        listener.handleProductEvent(event);
+
+        // Assert
+        verify(productSearchService, times(1)).handleProductEvent(event);
+    }
+}
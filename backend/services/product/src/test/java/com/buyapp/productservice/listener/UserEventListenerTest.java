@@ -53,6 +53,21 @@ class UserEventListenerTest {
         verify(productService, never()).deleteProductsByUserId(anyString());
     }
 
+    @Test
+    void whenUserUpdated_thenUpdatesSellerEmailOnProducts() {
+        // Arrange
+        UserEvent event = new UserEvent();
+        event.setUserId("seller-123");
+        event.setEventType(UserEvent.EventType.USER_UPDATED);
+        event.setEmail("new@example.com");
+
+        // Act
+        listener.handleUserEvent(event);
+
+        // Assert
+        verify(productService, times(1)).updateUserEmail("seller-123", "new@example.com");
+    }
+
     @Test
     void whenUserCreated_thenNoProductDeletion() {
         // Arrange
@@ -0,0 +1,57 @@
+package com.buyapp.productservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+
+class ProductCursorTest {
+
+    @Test
+    void encode_ShouldRoundTripThroughDecode() {
+        // Arrange
+        Product product = new Product("65f0c0ffee", "Lip | Gloss", "Desc", 24.99, 5, "user1", "Lips");
+
+        // Act & Assert
+        for (ProductSort sort : ProductSort.values()) {
+            ProductCursor cursor = ProductCursor.of(sort, product);
+            assertEquals(cursor, ProductCursor.decode(cursor.encode(), sort));
+        }
+    }
+
+    @Test
+    void decode_WhenBlank_ShouldReturnNull() {
+        assertNull(ProductCursor.decode(null, ProductSort.NEWEST));
+        assertNull(ProductCursor.decode(" ", ProductSort.NEWEST));
+    }
+
+    @Test
+    void decode_WhenIssuedForAnotherSort_ShouldThrowBadRequest() {
+        // Arrange
+        Product product = new Product("65f0c0ffee", "Lipstick", "Desc", 24.99, 5, "user1", "Lips");
+        String token = ProductCursor.of(ProductSort.PRICE_ASC, product).encode();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> ProductCursor.decode(token, ProductSort.PRICE_DESC));
+    }
+
+    @Test
+    void decode_WhenMalformed_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> ProductCursor.decode("%%%", ProductSort.NEWEST));
+        assertThrows(BadRequestException.class, () -> ProductCursor.decode("bm8tc2VwYXJhdG9y", ProductSort.NEWEST));
+        // PRICE_ASC|65f0c0ffee|cheap
+        assertThrows(BadRequestException.class,
+                () -> ProductCursor.decode("UFJJQ0VfQVNDfDY1ZjBjMGZmZWV8Y2hlYXA", ProductSort.PRICE_ASC));
+    }
+
+    @Test
+    void parseSort_ShouldAcceptRequestValuesAndRejectUnknown() {
+        assertEquals(ProductSort.NEWEST, ProductSort.parse(null));
+        assertEquals(ProductSort.PRICE_DESC, ProductSort.parse("price_desc"));
+        assertThrows(BadRequestException.class, () -> ProductSort.parse("popularity"));
+    }
+}
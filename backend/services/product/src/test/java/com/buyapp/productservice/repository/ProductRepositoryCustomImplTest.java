@@ -0,0 +1,113 @@
+package com.buyapp.productservice.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.buyapp.productservice.model.Product;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRepositoryCustomImplTest {
+
+    private static final String PRODUCT_ID = "65f0c0ffee0000000000beef";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ProductRepositoryCustomImpl repository;
+    private MongoMappingContext mappingContext;
+    private QueryMapper queryMapper;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ProductRepositoryCustomImpl(mongoTemplate);
+        mappingContext = new MongoMappingContext();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        queryMapper = new QueryMapper(converter);
+    }
+
+    @Test
+    void findCatalogPage_ShouldFilterSortAndBoundInOneQuery() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        // Act
+        repository.findCatalogPage("Lips", 10.0, 30.0, ProductSort.PRICE_ASC, null, 0, 21);
+
+        // Assert
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        Query query = captor.getValue();
+        Document filter = mapped(query.getQueryObject());
+        assertEquals("Lips", filter.get("category"));
+        assertEquals(new Document("$gte", 10.0).append("$lte", 30.0), filter.get("price"));
+        assertEquals(new Document("price", 1).append("_id", 1), mapped(query.getSortObject()));
+        assertEquals(21, query.getLimit());
+    }
+
+    @Test
+    void findCatalogPage_ShouldCapLimitAndApplySkip() {
+        // Arrange
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+
+        // Act
+        repository.findCatalogPage(null, null, null, ProductSort.NEWEST, null, 40, 1000);
+
+        // Assert
+        verify(mongoTemplate).find(captor.capture(), eq(Product.class));
+        assertEquals(new Document(), captor.getValue().getQueryObject());
+        assertEquals(ProductRepositoryCustom.MAX_PAGE_SIZE + 1, captor.getValue().getLimit());
+        assertEquals(40, captor.getValue().getSkip());
+        assertEquals(new Document("_id", -1), mapped(captor.getValue().getSortObject()));
+    }
+
+    @Test
+    void afterCursorCriteria_WhenSortedByPriceDesc_ShouldContinueBelowKeyThenId() {
+        // Arrange
+        ProductCursor cursor = new ProductCursor(ProductSort.PRICE_DESC, 24.99, PRODUCT_ID);
+
+        // Act
+        Document criteria = mapped(ProductRepositoryCustomImpl
+                .afterCursorCriteria(ProductSort.PRICE_DESC, cursor).getCriteriaObject());
+
+        // Assert
+        assertEquals(List.of(
+                new Document("price", new Document("$lt", 24.99)),
+                new Document("price", 24.99).append("_id", new Document("$lt", new ObjectId(PRODUCT_ID)))),
+                criteria.get("$or"));
+    }
+
+    @Test
+    void afterCursorCriteria_WhenSortedByNewest_ShouldContinueBelowId() {
+        // Arrange
+        ProductCursor cursor = new ProductCursor(ProductSort.NEWEST, null, PRODUCT_ID);
+
+        // Act
+        Document criteria = mapped(ProductRepositoryCustomImpl
+                .afterCursorCriteria(ProductSort.NEWEST, cursor).getCriteriaObject());
+
+        // Assert
+        assertEquals(new Document("_id", new Document("$lt", new ObjectId(PRODUCT_ID))), criteria);
+    }
+
+    private Document mapped(Document document) {
+        return queryMapper.getMappedObject(document, mappingContext.getPersistentEntity(Product.class));
+    }
+}
@@ -0,0 +1,82 @@
+package com.buyapp.productservice.repository;
+
+import static com.buyapp.common.testing.QueryPlans.assertIndexed;
+import static com.buyapp.common.testing.QueryPlans.assertIndexedInOrder;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.common.testing.QueryPlans;
+import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.model.StockHold;
+import com.buyapp.productservice.service.ProductService;
+import com.buyapp.productservice.service.StockHoldService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Runs every repository query and the sweeper's MongoTemplate query, and
+ * fails if MongoDB plans any of them as a full collection scan. Skipped when
+ * Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static final int PAGE = 21;
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static ProductRepository productRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = QueryPlans.mongoTemplate(client, "product_plans", Product.class, StockHold.class);
+        productRepository = QueryPlans.repository(mongoTemplate, ProductRepository.class,
+                new ProductRepositoryCustomImpl(mongoTemplate));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void productRepository_DerivedQueries_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate, () -> productRepository.findByUserId("seller1"));
+        assertIndexed(mongoTemplate, () -> productRepository.deleteByUserId("seller1"));
+    }
+
+    @Test
+    void productRepository_CatalogPages_ShouldUseIndexesWithoutInMemorySort() {
+        assertCatalogPage(null, null, null, ProductSort.NEWEST);
+        assertCatalogPage("Lips", null, null, ProductSort.NEWEST);
+        assertCatalogPage("Lips", 10.0, 30.0, ProductSort.PRICE_ASC);
+        assertCatalogPage("Lips", null, null, ProductSort.PRICE_DESC);
+        assertCatalogPage("Lips", null, null, ProductSort.NAME_ASC);
+        assertCatalogPage(null, 10.0, 30.0, ProductSort.PRICE_DESC);
+        assertCatalogPage(null, null, null, ProductSort.NAME_ASC);
+    }
+
+    @Test
+    void stockHoldService_Sweep_ShouldReadOnlyExpiredRangeOfIndex() {
+        StockHoldService stockHoldService = new StockHoldService(mock(ProductService.class), mongoTemplate);
+
+        assertIndexedInOrder(mongoTemplate, stockHoldService::releaseExpiredHolds);
+    }
+
+    private static void assertCatalogPage(String category, Double minPrice, Double maxPrice,
+            ProductSort sort) {
+        assertIndexedInOrder(mongoTemplate,
+                () -> productRepository.findCatalogPage(category, minPrice, maxPrice, sort, null, 0, PAGE));
+    }
+}
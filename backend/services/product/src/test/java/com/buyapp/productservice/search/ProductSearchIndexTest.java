@@ -0,0 +1,131 @@
+package com.buyapp.productservice.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.buyapp.productservice.model.Product;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        index = new ProductSearchIndex(new ByteBuffersDirectory());
+        index.index(new Product("1", "Velvet Matte Lipstick", "Long-lasting matte finish", 24.99, 50, "s1", "Lips"));
+        index.index(new Product("2", "Berry Bliss Lipstick", "Satin finish with velvet feel", 22.99, 45, "s1", "Lips"));
+        index.index(new Product("3", "Volumizing Mascara", "Dramatic lashes", 19.99, 75, "s2", "Eyes"));
+        index.index(new Product("4", "Crème Blush", "Soft matte glow", 28.99, 40, "s2", "Face"));
+        index.refresh();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        ProductSearchIndex.SearchResult result = index.search("velvet", null, 0, 10);
+
+        // Assert
+        assertEquals(List.of("1", "2"), result.ids());
+        assertEquals(2, result.total());
+    }
+
+    @Test
+    void search_ShouldRequireEveryWordAndMatchPluralsAndAccents() {
+        assertEquals(List.of("1"), index.search("matte lipsticks", null, 0, 10).ids());
+        assertEquals(List.of("4"), index.search("creme", null, 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldMatchLastWordAsPrefix() {
+        assertEquals(List.of("3"), index.search("volum", null, 0, 10).ids());
+    }
+
+    @Test
+    void search_WithCategory_ShouldFilterHitsButCountAllCategories() {
+        // Act
+        ProductSearchIndex.SearchResult result = index.search("matte", "Face", 0, 10);
+
+        // Assert
+        assertEquals(List.of("4"), result.ids());
+        assertEquals(1, result.total());
+        assertEquals(Map.of("Lips", 1L, "Face", 1L), result.categories());
+    }
+
+    @Test
+    void search_WhenBlank_ShouldMatchEverythingAndPage() {
+        // Act
+        ProductSearchIndex.SearchResult result = index.search(" ", null, 2, 10);
+
+        // Assert
+        assertEquals(2, result.ids().size());
+        assertEquals(4, result.total());
+        assertEquals(2L, result.categories().get("Lips"));
+    }
+
+    @Test
+    void search_BeyondTotalHitsThreshold_ShouldStillCountEveryMatch() {
+        // Arrange
+        int products = ProductSearchIndex.TOTAL_HITS_THRESHOLD + 10;
+        for (int i = 0; i < products; i++) {
+            index.index(new Product("gloss-" + i, "Lip Gloss " + i, "Shine", 9.99, 5, "s3", "Lips"));
+        }
+        index.refresh();
+
+        // Act
+        ProductSearchIndex.SearchResult result = index.search("gloss", null, 0, 10);
+
+        // Assert
+        assertEquals(10, result.ids().size());
+        assertEquals(products, result.total());
+    }
+
+    @Test
+    void index_WithoutRefresh_ShouldBecomeVisibleWithinRefreshInterval() throws Exception {
+        try (ProductSearchIndex periodic = new ProductSearchIndex(new ByteBuffersDirectory(), Duration.ofMillis(50))) {
+            // Act
+            periodic.index(new Product("1", "Velvet Matte Lipstick", "Matte", 24.99, 50, "s1", "Lips"));
+
+            // Assert
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (periodic.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, periodic.size());
+        }
+    }
+
+    @Test
+    void suggest_ShouldCompleteEveryTypedWord() {
+        assertEquals(List.of("Berry Bliss Lipstick"), index.suggest("berry li", 5));
+        assertEquals(2, index.suggest("lip", 5).size());
+        assertTrue(index.suggest("", 5).isEmpty());
+    }
+
+    @Test
+    void indexAndDelete_ShouldReplaceDocumentsById() {
+        // Act
+        index.index(new Product("3", "Lengthening Mascara", "Natural look", 18.99, 10, "s2", "Eyes"));
+        index.delete("1");
+        index.refresh();
+
+        // Assert
+        assertEquals(3, index.size());
+        assertTrue(index.search("volumizing", null, 0, 10).ids().isEmpty());
+        assertEquals(List.of("2"), index.search("lipstick", null, 0, 10).ids());
+    }
+}
@@ -0,0 +1,78 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.productservice.model.CatalogVersion;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogVersionServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private CatalogVersionService catalogVersionService;
+
+    @Test
+    void current_WhenNeverBumped_ShouldReturnZero() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(CatalogVersion.class))).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(0, catalogVersionService.current());
+    }
+
+    @Test
+    void current_ShouldSumCounterShards() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(CatalogVersion.class))).thenReturn(List.of(
+                new CatalogVersion(CatalogVersion.PRODUCTS, 12),
+                new CatalogVersion(CatalogVersion.PRODUCTS + ":3", 5)));
+
+        // Act & Assert
+        assertEquals(17, catalogVersionService.current());
+    }
+
+    @Test
+    void bump_ShouldUpsertIncrement() {
+        // Act
+        catalogVersionService.bump();
+
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(CatalogVersion.class));
+        assertTrue(query.getValue().getQueryObject().getString("_id").startsWith(CatalogVersion.PRODUCTS + ":"));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc"));
+    }
+
+    @Test
+    void bump_WhenMongoFails_ShouldNotThrow() {
+        // Arrange
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(CatalogVersion.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert - the product change has already happened
+        assertDoesNotThrow(() -> catalogVersionService.bump());
+    }
+}
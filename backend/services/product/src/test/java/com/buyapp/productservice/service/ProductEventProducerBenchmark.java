@@ -0,0 +1,140 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.ProducerListener;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.kafka.ProducerTuning;
+
+/**
+ * Product event publishing throughput through {@link ProductEventProducer}
+ * with the Kafka client defaults and with each producer profile, against an
+ * in-process broker. Besides events per second it reports the produce
+ * requests and bytes sent, which is where batching and compression show.
+ *
+ * Not part of the regular build (the class name does not match the test
+ * pattern); run with
+ * {@code mvn test -Dtest=ProductEventProducerBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ */
+class ProductEventProducerBenchmark {
+
+    private static final String TOPIC = "product-events";
+    private static final int WARMUP_EVENTS = 20_000;
+    private static final int EVENTS = 200_000;
+    private static final int PRODUCTS = 1_000;
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        broker.destroy();
+    }
+
+    @Test
+    void sendThroughputByProfile() {
+        List<String> results = new ArrayList<>();
+
+        List<ProducerTuning> tunings = new ArrayList<>();
+        tunings.add(null);
+        for (ProducerTuning.Profile profile : ProducerTuning.Profile.values()) {
+            ProducerTuning tuning = new ProducerTuning();
+            tuning.setProfile(profile);
+            tunings.add(tuning);
+        }
+
+        for (ProducerTuning tuning : tunings) {
+            DefaultKafkaProducerFactory<String, ProductEvent> factory = producerFactory(tuning);
+            try {
+                KafkaTemplate<String, ProductEvent> template = new KafkaTemplate<>(factory);
+                AtomicLong acknowledged = new AtomicLong();
+                template.setProducerListener(new ProducerListener<>() {
+                    @Override
+                    public void onSuccess(ProducerRecord<String, ProductEvent> record, RecordMetadata metadata) {
+                        acknowledged.incrementAndGet();
+                    }
+                });
+                ProductEventProducer producer = new ProductEventProducer();
+                ReflectionTestUtils.setField(producer, "kafkaTemplate", template);
+                ReflectionTestUtils.setField(producer, "productEventsTopic", TOPIC);
+                ReflectionTestUtils.setField(producer, "productStockEventsTopic", TOPIC);
+
+                send(producer, template, WARMUP_EVENTS);
+                acknowledged.set(0);
+                double requestsBefore = producerMetric(template, "request-total");
+                double bytesBefore = producerMetric(template, "outgoing-byte-total");
+
+                long start = System.nanoTime();
+                send(producer, template, EVENTS);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                // Every send was acknowledged: batching lost nothing
+                assertEquals(EVENTS, acknowledged.get());
+                results.add(String.format("%-15s  events/s=%9.0f  requests=%7.0f  MiB sent=%6.1f",
+                        tuning == null ? "client defaults" : tuning.getProfile(),
+                        EVENTS / seconds,
+                        producerMetric(template, "request-total") - requestsBefore,
+                        (producerMetric(template, "outgoing-byte-total") - bytesBefore) / (1024 * 1024)));
+            } finally {
+                factory.destroy();
+            }
+        }
+
+        System.out.println("Product event throughput, " + EVENTS + " events over " + PRODUCTS + " products:");
+        results.forEach(System.out::println);
+    }
+
+    // Returns once the broker has acknowledged every event
+    private static void send(ProductEventProducer producer, KafkaTemplate<String, ProductEvent> template, int events) {
+        for (int i = 0; i < events; i++) {
+            producer.sendProductEvent(new ProductEvent(ProductEvent.EventType.PRODUCT_STOCK_CHANGED,
+                    "product-" + (i % PRODUCTS), "Product " + i, "seller-1", "seller@example.com"));
+        }
+        template.flush();
+    }
+
+    private static double producerMetric(KafkaTemplate<String, ProductEvent> template, String name) {
+        return template.metrics().entrySet().stream()
+                .filter(metric -> metric.getKey().group().equals("producer-metrics") && metric.getKey().name().equals(name))
+                .mapToDouble(metric -> ((Number) metric.getValue().metricValue()).doubleValue())
+                .findFirst()
+                .orElse(Double.NaN);
+    }
+
+    // Same settings as KafkaConfig.productEventProducerFactory(); a null tuning leaves the client defaults
+    private static DefaultKafkaProducerFactory<String, ProductEvent> producerFactory(ProducerTuning tuning) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        if (tuning != null) {
+            configProps.putAll(tuning.toProducerConfig());
+        }
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+}
@@ -0,0 +1,64 @@
+package com.buyapp.productservice.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.buyapp.common.event.ProductEvent;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventProducerTest {
+
+    @Mock
+    private KafkaTemplate<String, ProductEvent> kafkaTemplate;
+
+    @InjectMocks
+    private ProductEventProducer producer;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(producer, "productEventsTopic", "product-events");
+        ReflectionTestUtils.setField(producer, "productStockEventsTopic", "product-stock-events");
+        when(kafkaTemplate.send(anyString(), anyString(), any(ProductEvent.class)))
+                .thenReturn(new CompletableFuture<>());
+    }
+
+    @Test
+    void sendProductEvent_WhenSnapshot_ShouldGoToCompactedTopic() {
+        // Arrange
+        ProductEvent event = new ProductEvent(ProductEvent.EventType.PRODUCT_UPDATED, "p1", "Lipstick", "seller-1");
+
+        // Act
+        producer.sendProductEvent(event);
+
+        // Assert
+        verify(kafkaTemplate).send("product-events", "p1", event);
+    }
+
+    @Test
+    void sendProductEvents_WhenStockChanged_ShouldKeepThemOffCompactedTopic() {
+        // Arrange
+        ProductEvent updated = new ProductEvent(ProductEvent.EventType.PRODUCT_UPDATED, "p1", "Lipstick", "seller-1");
+        ProductEvent stock = new ProductEvent(ProductEvent.EventType.PRODUCT_STOCK_CHANGED, "p1", null, null);
+
+        // Act
+        producer.sendProductEvents(List.of(updated, stock));
+
+        // Assert
+        verify(kafkaTemplate).send("product-events", "p1", updated);
+        verify(kafkaTemplate).send("product-stock-events", "p1", stock);
+    }
+}
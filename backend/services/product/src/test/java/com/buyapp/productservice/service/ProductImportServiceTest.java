@@ -0,0 +1,258 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.UserDto;
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+
+import jakarta.validation.Validation;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ProductEventProducer productEventProducer;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private Authentication authentication;
+
+    private ProductImportService productImportService;
+
+    private final UserDto seller = new UserDto();
+
+    @BeforeEach
+    void setUp() {
+        productImportService = new ProductImportService(productService, productEventProducer, catalogVersionService,
+                mongoTemplate, new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator());
+        seller.setId("seller1");
+        seller.setEmail("seller@example.com");
+        lenient().when(productService.getAuthenticatedSeller(authentication)).thenReturn(seller);
+        lenient().when(productService.newProduct(any(ProductDto.class), any(UserDto.class))).thenAnswer(invocation -> {
+            ProductDto dto = invocation.getArgument(0);
+            return new Product(null, dto.getName(), dto.getDescription(), dto.getPrice(), dto.getStock(),
+                    seller.getId(), dto.getCategory(), seller.getEmail());
+        });
+        lenient().when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Product.class))
+                .thenReturn(bulkOperations);
+        lenient().when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importNdjson_ShouldInsertInChunksAndBatchEventsPerChunk() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "chunkSize", 2);
+        String body = row("Serum") + "\n" + row("Cream") + "\n" + row("Balm") + "\n";
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), MediaType.APPLICATION_NDJSON, authentication);
+
+        // Assert
+        assertEquals(3, report.getCreated());
+        assertEquals(0, report.getFailed());
+        verify(productService, times(1)).getAuthenticatedSeller(authentication);
+        verify(bulkOperations, times(2)).execute();
+        ArgumentCaptor<List<ProductEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(productEventProducer, times(2)).sendProductEvents(events.capture());
+        assertEquals(2, events.getAllValues().get(0).size());
+        ProductEvent last = events.getAllValues().get(1).get(0);
+        assertEquals(ProductEvent.EventType.PRODUCT_CREATED, last.getEventType());
+        assertEquals("Balm", last.getProductName());
+        assertEquals("seller1", last.getSellerId());
+        verify(catalogVersionService, times(2)).bump();
+    }
+
+    @Test
+    void importNdjson_ShouldReportInvalidRowsByLineAndImportTheRest() throws Exception {
+        // Arrange
+        String body = row("Serum") + "\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"name\":\"Cream\",\"description\":\"Rich cream\",\"price\":-1}\n"
+                + row("Balm");
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), MediaType.APPLICATION_NDJSON, authentication);
+
+        // Assert
+        assertEquals(2, report.getCreated());
+        assertEquals(2, report.getFailed());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertTrue(report.getErrors().get(0).getMessage().startsWith("Invalid JSON"));
+        assertEquals(4, report.getErrors().get(1).getLine());
+        assertTrue(report.getErrors().get(1).getMessage().startsWith("price: "));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_ShouldMapColumnsByHeaderAndHandleQuoting() throws Exception {
+        // Arrange
+        String body = "price,name,description,stock\r\n"
+                + "12.5,Serum,\"Light, fast \"\"glow\"\" serum\",4\r\n"
+                + "9.99,Cream,Rich cream\r\n"
+                + "abc,Balm,Lip balm,1\r\n";
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), ProductImportService.TEXT_CSV, authentication);
+
+        // Assert
+        assertEquals(1, report.getCreated());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        assertEquals("Expected 4 fields but found 3", report.getErrors().get(0).getMessage());
+        assertEquals("price: not a number: abc", report.getErrors().get(1).getMessage());
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        Product product = inserted.getValue().get(0);
+        assertEquals("Light, fast \"glow\" serum", product.getDescription());
+        assertEquals(12.5, product.getPrice());
+        assertEquals(4, product.getStock());
+        assertEquals(0L, product.getVersion());
+    }
+
+    @Test
+    void importCsv_WhenHeaderHasUnknownColumn_ShouldRejectImport() {
+        // Arrange
+        String body = "name,description,price,colour\nSerum,Light serum,12.5,red\n";
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productImportService.importProducts(
+                new StringReader(body), ProductImportService.TEXT_CSV, authentication));
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_WhenHeaderStartsWithByteOrderMark_ShouldIgnoreIt() throws Exception {
+        // Arrange
+        String body = "\uFEFFname,description,price\nSerum,Light serum,12.5\n";
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), ProductImportService.TEXT_CSV, authentication);
+
+        // Assert
+        assertEquals(1, report.getCreated());
+        ArgumentCaptor<List<Product>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations).insert(inserted.capture());
+        assertEquals("Serum", inserted.getValue().get(0).getName());
+    }
+
+    @Test
+    void importCsv_WhenHeaderRepeatsColumn_ShouldRejectImport() {
+        // Arrange
+        String body = "name,description,price,Price\nSerum,Light serum,12.5,13\n";
+
+        // Act & Assert
+        BadRequestException e = assertThrows(BadRequestException.class, () -> productImportService.importProducts(
+                new StringReader(body), ProductImportService.TEXT_CSV, authentication));
+        assertEquals("Duplicate CSV column: Price", e.getMessage());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void import_WhenBulkWriteFailsForSomeRows_ShouldReportThemAndSendEventsForTheRest() throws Exception {
+        // Arrange
+        BulkWriteError error = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("Bulk write failed",
+                new MongoBulkWriteException(BulkWriteResult.unacknowledged(), List.of(error), null,
+                        new ServerAddress(), Set.of())));
+        String body = row("Serum") + "\n" + row("Cream") + "\n";
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), MediaType.APPLICATION_NDJSON, authentication);
+
+        // Assert
+        assertEquals(1, report.getCreated());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        ArgumentCaptor<List<ProductEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(productEventProducer).sendProductEvents(events.capture());
+        assertEquals(List.of("Serum"), events.getValue().stream().map(ProductEvent::getProductName).toList());
+    }
+
+    @Test
+    void import_WhenLineTooLong_ShouldReportItAndContinue() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "maxLineLength", 100);
+        String body = "{\"name\":\"" + "x".repeat(200) + "\"}\n" + row("Serum") + "\n";
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader(body), MediaType.APPLICATION_NDJSON, authentication);
+
+        // Assert
+        assertEquals(1, report.getCreated());
+        assertEquals("Line longer than 100 characters", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void import_WhenErrorsExceedLimit_ShouldCountButNotListThem() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(productImportService, "maxErrors", 1);
+
+        // Act
+        ProductImportReport report = productImportService.importProducts(
+                new StringReader("{bad\n{bad\n{bad\n"), MediaType.APPLICATION_NDJSON, authentication);
+
+        // Assert
+        assertEquals(3, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        verify(productEventProducer, never()).sendProductEvents(anyList());
+    }
+
+    private static String row(String name) {
+        return "{\"name\":\"" + name + "\",\"description\":\"About " + name + "\",\"price\":9.99,\"stock\":3}";
+    }
+}
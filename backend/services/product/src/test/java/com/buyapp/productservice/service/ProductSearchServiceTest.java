@@ -0,0 +1,155 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSearchResultDto;
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.common.exception.BadRequestException;
+import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.search.ProductSearchIndex;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchServiceTest {
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ProductSearchService productSearchService;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        productSearchService = new ProductSearchService(searchIndex, productRepository, productService, mongoTemplate);
+        product = new Product("p1", "Velvet Lipstick", "Matte", 24.99, 5, "s1", "Lips", "seller@example.com");
+    }
+
+    @Test
+    void search_ShouldReturnProductsInRelevanceOrderWithFacets() {
+        // Arrange
+        ProductDto first = new ProductDto();
+        first.setId("p2");
+        ProductDto second = new ProductDto();
+        second.setId("p1");
+        when(searchIndex.search("lip", null, 20, 20))
+                .thenReturn(new ProductSearchIndex.SearchResult(List.of("p2", "p1"), 42, Map.of("Lips", 42L)));
+        when(productService.getProductsInOrder(List.of("p2", "p1"))).thenReturn(List.of(first, second));
+
+        // Act
+        ProductSearchResultDto result = productSearchService.search("lip", null, 1, null);
+
+        // Assert
+        assertEquals(List.of(first, second), result.getItems());
+        assertEquals(42L, result.getTotal());
+        assertEquals(Map.of("Lips", 42L), result.getCategories());
+        verify(searchIndex, never()).delete(any());
+    }
+
+    @Test
+    void search_WhenIndexedProductNoLongerExists_ShouldDropItFromIndex() {
+        // Arrange
+        ProductDto found = new ProductDto();
+        found.setId("p1");
+        when(searchIndex.search("lip", "Lips", 0, 20))
+                .thenReturn(new ProductSearchIndex.SearchResult(List.of("gone", "p1"), 2, Map.of()));
+        when(productService.getProductsInOrder(List.of("gone", "p1"))).thenReturn(List.of(found));
+
+        // Act
+        ProductSearchResultDto result = productSearchService.search("lip", "Lips", null, null);
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        verify(searchIndex).delete("gone");
+        verify(searchIndex, never()).refresh();
+    }
+
+    @Test
+    void search_BeyondMaximumOffset_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> productSearchService.search("lip", null, 60, 20));
+        assertThrows(BadRequestException.class, () -> productSearchService.search("lip", null, -1, 20));
+        verify(searchIndex, never()).search(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void handleProductEvent_ShouldIndexCurrentProductOrDeleteIt() {
+        // Arrange
+        when(productRepository.findById("p1")).thenReturn(Optional.of(product));
+        when(productRepository.findById("p2")).thenReturn(Optional.empty());
+
+        // Act
+        productSearchService.handleProductEvent(
+                new ProductEvent(ProductEvent.EventType.PRODUCT_UPDATED, "p1", "s1", "seller@example.com"));
+        productSearchService.handleProductEvent(
+                new ProductEvent(ProductEvent.EventType.PRODUCT_DELETED, "p2", "s1", "seller@example.com"));
+
+        // Assert - visible with the next periodic refresh
+        verify(searchIndex).index(product);
+        verify(searchIndex).delete("p2");
+        verify(searchIndex, never()).refresh();
+    }
+
+    @Test
+    void rebuild_ShouldReindexProductsChangedWhileRunning() {
+        // Arrange
+        Product updated = new Product("p1", "Velvet Lipstick v2", "Matte", 24.99, 5, "s1", "Lips",
+                "seller@example.com");
+        when(mongoTemplate.stream(any(Query.class), eq(Product.class))).thenAnswer(invocation -> Stream.of(product));
+        when(productRepository.findById("p1")).thenReturn(Optional.of(updated));
+        // An event arrives while the rebuild is streaming products
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) == product) {
+                productSearchService.handleProductEvent(
+                        new ProductEvent(ProductEvent.EventType.PRODUCT_UPDATED, "p1", "s1", "seller@example.com"));
+            }
+            return null;
+        }).when(searchIndex).index(any(Product.class));
+
+        // Act
+        int indexed = productSearchService.rebuild();
+
+        // Assert
+        assertEquals(1, indexed);
+        InOrder order = inOrder(searchIndex);
+        order.verify(searchIndex).deleteAll();
+        order.verify(searchIndex).index(product);
+        order.verify(searchIndex).index(updated);
+        order.verify(searchIndex).refresh();
+        // The event only queued the product; it was indexed once, after the rebuild
+        verify(searchIndex, times(1)).index(updated);
+    }
+}
@@ -3,10 +3,14 @@ package com.buyapp.productservice.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
@@ -17,22 +21,41 @@ import static org.mockito.Mockito.when;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.buyapp.common.dto.ProductDto;
+import com.buyapp.common.dto.ProductSummaryDto;
+import com.buyapp.common.dto.StockItemDto;
 import com.buyapp.common.dto.UserDto;
+import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.common.event.ProductEvent;
+import com.buyapp.productservice.cache.ProductCache;
 import com.buyapp.productservice.model.Product;
+import com.buyapp.productservice.repository.ProductCursor;
 import com.buyapp.productservice.repository.ProductRepository;
+import com.buyapp.productservice.repository.ProductSort;
+import com.mongodb.client.result.UpdateResult;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,12 +79,30 @@ class ProductServiceTest {
     @Mock
     private WebClient.ResponseSpec responseSpec;
 
+    @Mock
+    private WebClient.RequestBodyUriSpec requestBodyUriSpec;
+
+    @Mock
+    private WebClient.RequestBodySpec requestBodySpec;
+
     @Mock
     private ProductEventProducer productEventProducer;
 
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CatalogVersionService catalogVersionService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private StockShardService stockShardService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -97,35 +138,185 @@ class ProductServiceTest {
         testUserDto.setEmail("test@example.com");
         testUserDto.setName("Test User");
         testUserDto.setRole("seller");
+
+        // Behave like an always-empty cache so reads reach the repository
+        lenient().when(productCache.get(anyString(), any())).thenAnswer(invocation -> {
+            Function<String, Product> loader = invocation.getArgument(1);
+            return loader.apply(invocation.getArgument(0));
+        });
     }
 
     @Test
-    void getAllProducts_ShouldReturnAllProducts() {
+    void getProductsPage_ShouldUseStoredSellerEmailWithoutUserServiceCalls() {
         // Arrange
-        List<Product> products = Arrays.asList(testProduct);
-        when(productRepository.findAll()).thenReturn(products);
+        Product product1 = new Product("1", "Product 1", "Desc 1", 99.99, 10, "user1", "Face", "seller@example.com");
+        Product product2 = new Product("2", "Product 2", "Desc 2", 19.99, 1, "user2", "Lips", "other@example.com");
+        when(productRepository.findCatalogPage(null, null, null, ProductSort.NEWEST, null, 0L, 21))
+                .thenReturn(Arrays.asList(product1, product2));
 
         // Act
-        List<ProductDto> result = productService.getAllProducts();
+        List<ProductDto> result = productService.getProductsPage(null, null, null, null, null, null, null).getItems();
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testProduct.getName(), result.get(0).getName());
-        verify(productRepository, times(1)).findAll();
+        assertEquals(2, result.size());
+        assertEquals("seller@example.com", result.get(0).getUser());
+        assertEquals("other@example.com", result.get(1).getUser());
+        verify(webClientBuilder, never()).build();
     }
 
     @Test
-    void getAllProducts_WhenEmpty_ShouldReturnEmptyList() {
+    void updateUserEmail_ShouldUpdateAllProductsOfSeller() {
         // Arrange
-        when(productRepository.findAll()).thenReturn(Arrays.asList());
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
 
         // Act
-        List<ProductDto> result = productService.getAllProducts();
+        long updated = productService.updateUserEmail("user1", "new@example.com");
 
         // Assert
-        assertNotNull(result);
-        assertEquals(0, result.size());
+        assertEquals(3, updated);
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(Product.class));
+        assertEquals("user1", queryCaptor.getValue().getQueryObject().get("userId"));
+        assertEquals("new@example.com",
+                updateCaptor.getValue().getUpdateObject().get("$set", Document.class).get("userEmail"));
+    }
+
+    @Test
+    void updateUserEmail_ShouldInvalidateAndPublishUpdateForEachProduct() {
+        // Arrange
+        Product first = new Product("1", "First", null, null, null, "user1", null);
+        Product second = new Product("2", "Second", null, null, null, "user1", null);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Product.class))).thenReturn(List.of(first, second));
+
+        // Act
+        productService.updateUserEmail("user1", "new@example.com");
+
+        // Assert
+        verify(productCache).invalidateAll(List.of("1", "2"));
+        verify(catalogVersionService).bump();
+        ArgumentCaptor<ProductEvent> eventCaptor = ArgumentCaptor.forClass(ProductEvent.class);
+        verify(productEventProducer, times(2)).sendProductEvent(eventCaptor.capture());
+        assertEquals(ProductEvent.EventType.PRODUCT_UPDATED, eventCaptor.getAllValues().get(0).getEventType());
+        assertEquals("new@example.com", eventCaptor.getAllValues().get(1).getSellerEmail());
+    }
+
+    @Test
+    void backfillUserEmails_ShouldResolveMissingSellersInOneBatchCall() {
+        // Arrange
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(Product.class), eq(String.class)))
+                .thenReturn(List.of("user1"));
+        doReturn(webClient).when(webClientBuilder).build();
+        doReturn(requestBodyUriSpec).when(webClient).post();
+        doReturn(requestBodySpec).when(requestBodyUriSpec).uri("http://user-service/users/batch");
+        doReturn(requestHeadersSpec).when(requestBodySpec).bodyValue(List.of("user1"));
+        doReturn(responseSpec).when(requestHeadersSpec).retrieve();
+        doReturn(Flux.just(testUser)).when(responseSpec).bodyToFlux(UserDto.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+
+        // Act
+        long updated = productService.backfillUserEmails();
+
+        // Assert
+        assertEquals(2, updated);
+        verify(webClientBuilder, times(1)).build();
+    }
+
+    @Test
+    void backfillUserEmails_WhenUserServiceFails_ShouldUpdateNothing() {
+        // Arrange
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(Product.class), eq(String.class)))
+                .thenReturn(List.of("user1"));
+        when(webClientBuilder.build()).thenThrow(new IllegalStateException("user-service unavailable"));
+
+        // Act
+        long updated = productService.backfillUserEmails();
+
+        // Assert
+        assertEquals(0, updated);
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Product.class));
+    }
+
+    @Test
+    void getProductsPage_WhenEmpty_ShouldReturnEmptyPage() {
+        // Arrange
+        when(productRepository.findCatalogPage(null, null, null, ProductSort.NEWEST, null, 0L, 21))
+                .thenReturn(Arrays.asList());
+
+        // Act
+        ProductPage page = productService.getProductsPage(null, null, null, null, null, null, null);
+
+        // Assert
+        assertEquals(0, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductsPage_WhenMoreRowsThanPageSize_ShouldReturnNextCursor() {
+        // Arrange
+        Product product1 = new Product("1", "Product 1", "Desc 1", 10.0, 10, "user1", "Lips", "seller@example.com");
+        Product product2 = new Product("2", "Product 2", "Desc 2", 12.0, 5, "user1", "Lips", "seller@example.com");
+        Product product3 = new Product("3", "Product 3", "Desc 3", 15.0, 1, "user1", "Lips", "seller@example.com");
+        when(productRepository.findCatalogPage("Lips", 5.0, 20.0, ProductSort.PRICE_ASC, null, 0L, 3))
+                .thenReturn(Arrays.asList(product1, product2, product3));
+
+        // Act
+        ProductPage page = productService.getProductsPage("Lips", 5.0, 20.0, "price_asc", null, 2, null);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("seller@example.com", page.getItems().get(0).getUser());
+        assertEquals(new ProductCursor(ProductSort.PRICE_ASC, 12.0, "2"),
+                ProductCursor.decode(page.getNextCursor(), ProductSort.PRICE_ASC));
+        verify(webClientBuilder, never()).build();
+    }
+
+    @Test
+    void getProductsPage_WithCursor_ShouldContinueAfterIt() {
+        // Arrange
+        ProductCursor cursor = new ProductCursor(ProductSort.NEWEST, null, "2");
+        when(productRepository.findCatalogPage(null, null, null, ProductSort.NEWEST, cursor, 0L, 21))
+                .thenReturn(List.of(testProduct));
+
+        // Act
+        ProductPage page = productService.getProductsPage(null, null, null, null, null, null, cursor.encode());
+
+        // Assert
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductsPage_WithPageNumber_ShouldSkipEarlierPages() {
+        // Arrange
+        when(productRepository.findCatalogPage(null, null, null, ProductSort.NAME_ASC, null, 30L, 11))
+                .thenReturn(List.of());
+
+        // Act
+        ProductPage page = productService.getProductsPage(null, null, null, "name_asc", 3, 10, null);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getProductsPage_WithInvalidParameters_ShouldThrowBadRequest() {
+        String cursor = new ProductCursor(ProductSort.NEWEST, null, "2").encode();
+
+        assertThrows(BadRequestException.class,
+                () -> productService.getProductsPage(null, 30.0, 10.0, null, null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> productService.getProductsPage(null, null, null, null, -1, null, null));
+        assertThrows(BadRequestException.class,
+                () -> productService.getProductsPage(null, null, null, "rating", null, null, null));
+        assertThrows(BadRequestException.class,
+                () -> productService.getProductsPage(null, null, null, null, 2, null, cursor));
+        verify(productRepository, never()).findCatalogPage(any(), any(), any(), any(), any(), anyLong(), anyInt());
     }
 
     @Test
@@ -156,6 +347,62 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findById("999");
     }
 
+    @Test
+    void getProductsByIds_ShouldReturnSummariesWithSellerIdAndNoUserLookup() {
+        // Arrange
+        Product product1 = new Product("1", "Product 1", "Desc 1", 99.99, 10, "user1", "Face");
+        Product product2 = new Product("2", "Product 2", "Desc 2", 149.99, 0, "user2", "Eyes");
+        when(productRepository.findAllById(List.of("1", "2"))).thenReturn(Arrays.asList(product1, product2));
+
+        // Act
+        List<ProductSummaryDto> result = productService.getProductsByIds(Arrays.asList("1", "2", "1"));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("user1", result.get(0).getSellerId());
+        assertEquals(0, result.get(1).getStock());
+        verify(productRepository, times(1)).findAllById(List.of("1", "2"));
+        verify(webClientBuilder, never()).build();
+    }
+
+    @Test
+    void getProductsByIds_WhenEmpty_ShouldNotQueryRepository() {
+        // Act
+        List<ProductSummaryDto> result = productService.getProductsByIds(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProductsByIds_WhenTooManyIds_ShouldRejectWithoutQuerying() {
+        // Arrange
+        List<String> ids = IntStream.rangeClosed(0, ProductService.MAX_BATCH_IDS)
+                .mapToObj(String::valueOf)
+                .toList();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> productService.getProductsByIds(ids));
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getProductsInOrder_ShouldKeepRequestedOrderAndSkipMissing() {
+        // Arrange
+        Product product1 = new Product("1", "Product 1", "Desc 1", 99.99, 10, "user1", "Face");
+        Product product2 = new Product("2", "Product 2", "Desc 2", 149.99, 0, "user2", "Eyes");
+        when(productRepository.findAllById(List.of("2", "gone", "1"))).thenReturn(Arrays.asList(product1, product2));
+
+        // Act
+        List<ProductDto> result = productService.getProductsInOrder(List.of("2", "gone", "1"));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("2", result.get(0).getId());
+        assertEquals("1", result.get(1).getId());
+    }
+
     @Test
     void getProductEntityById_WhenProductExists_ShouldReturnProductEntity() {
         // Arrange
@@ -261,34 +508,37 @@ class ProductServiceTest {
     @Test
     void reduceStock_WhenSufficientStock_ShouldReduceSuccessfully() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 10, "user1", "Face");
-        when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         productService.reduceStock("1", 3);
 
-        // Assert
-        assertEquals(7, product.getStock(), "Stock should be reduced by 3");
-        verify(productRepository, times(1)).save(product);
+        // Assert - one conditional decrement, no read-modify-write
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Product.class));
+        assertEquals(new Document("$gte", 3), query.getValue().getQueryObject().get("stock"));
+        assertEquals(-3, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 
     @Test
     void reduceStock_WhenInsufficientStock_ShouldThrowException() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 2, "user1", "Face");
+        Product product = new Product("1", "Test Product", "Description", 99.99, 3, "user1", "Face");
         when(productRepository.findById("1")).thenReturn(Optional.of(product));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         // Act & Assert
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.reduceStock("1", 5);
         });
-
-        assertTrue(exception.getMessage().contains("Insufficient stock"),
-                "Exception message should mention insufficient stock");
-        assertTrue(exception.getMessage().contains("Test Product"),
-                "Exception message should include product name");
+        assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService, never()).bump();
     }
 
     @Test
@@ -296,48 +546,325 @@ class ProductServiceTest {
         // Arrange
         Product product = new Product("1", "Test Product", "Description", 99.99, null, "user1", "Face");
         when(productRepository.findById("1")).thenReturn(Optional.of(product));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             productService.reduceStock("1", 5);
         });
+        assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService, never()).bump();
     }
 
     @Test
-    void restoreStock_WhenStockExists_ShouldIncreaseStock() {
+    void reserveStock_WhenAllLinesAvailable_ShouldApplyConditionalDecrements() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 5, "user1", "Face");
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        productService.reserveStock(Arrays.asList(
+                new StockItemDto("1", 2),
+                new StockItemDto("2", 1),
+                new StockItemDto("1", 3)));
+
+        // Assert - duplicate product lines are merged into one update
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), any(Update.class), eq(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
+        verify(productCache).invalidateAll(Set.of("1", "2"));
+        ArgumentCaptor<ProductEvent> eventCaptor = ArgumentCaptor.forClass(ProductEvent.class);
+        verify(productEventProducer, times(2)).sendProductEvent(eventCaptor.capture());
+        assertEquals(ProductEvent.EventType.PRODUCT_STOCK_CHANGED, eventCaptor.getValue().getEventType());
+    }
+
+    @Test
+    void reserveStock_ShouldMoveProductVersion() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        productService.reserveStock(List.of(new StockItemDto("1", 2)));
+
+        // Assert - the product's ETag is made of its version
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(new Document("stock", -2).append("version", 1),
+                update.getValue().getUpdateObject().get("$inc", Document.class));
+    }
+
+    @Test
+    void updateProduct_ShouldSetOnlyEditedFieldsAndMoveVersion() {
+        // Arrange
+        Product existing = new Product("1", "Old", "Old description", 5.0, 10, "user1", "Face", "seller@example.com");
+        Product updated = new Product("1", "Test Product", "Test Description", 99.99, 10, "user1", "Face",
+                "seller@example.com");
+        when(productRepository.findById("1")).thenReturn(Optional.of(existing));
+        doReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).when(authentication).getAuthorities();
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Product.class))).thenReturn(updated);
+
+        // Act
+        ProductDto result = productService.updateProduct("1", testProductDto, authentication);
+
+        // Assert - a targeted update keeps stock reservations made meanwhile
+        assertEquals("Test Product", result.getName());
+        verify(productRepository, never()).save(any(Product.class));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class),
+                eq(Product.class));
+        assertEquals(new Document("$exists", false), query.getValue().getQueryObject().get("stockShards"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(10, set.get("stock"));
+        assertEquals("Test Product", set.get("name"));
+        assertEquals(new Document("version", 1), update.getValue().getUpdateObject().get("$inc", Document.class));
+        verify(productCache).invalidate("1");
+    }
+
+    @Test
+    void updateProduct_WhenShardedMeanwhile_ShouldRejectUpdate() {
+        // Arrange
+        Product existing = new Product("1", "Old", "Old description", 5.0, 10, "user1", "Face", "seller@example.com");
+        when(productRepository.findById("1")).thenReturn(Optional.of(existing));
+        doReturn(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))).when(authentication).getAuthorities();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> productService.updateProduct("1", testProductDto, authentication));
+        verify(productCache, never()).invalidate(anyString());
+        verify(productEventProducer, never()).sendProductEvent(any());
+    }
+
+    @Test
+    void reserveStock_WhenLineInsufficient_ShouldRollBackAppliedLines() {
+        // Arrange
+        Product product = new Product("2", "Scarce Product", "Description", 9.99, 1, "user1", "Face");
+        when(productRepository.findById("2")).thenReturn(Optional.of(product));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act & Assert
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            productService.reserveStock(Arrays.asList(new StockItemDto("1", 2), new StockItemDto("2", 5)));
+        });
+
+        assertTrue(exception.getMessage().contains("Scarce Product"));
+        // Two reservation attempts plus one compensating increment for product 1
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(Update.class), eq(Product.class));
+        // Product 1 was briefly reserved, so cached catalogs must still be invalidated
+        verify(catalogVersionService).bump();
+    }
+
+    @Test
+    void reserveStock_WhenProductIsSharded_ShouldReserveFromShards() {
+        // Arrange - hot products hold 0 themselves, so the product decrement fails
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(8);
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(stockShardService.reserve("hot", 8, 2)).thenReturn(true);
+
+        // Act
+        productService.reserveStock(List.of(new StockItemDto("hot", 2)));
+
+        // Assert - no per-product invalidation or event for sharded stock
+        verify(stockShardService).reserve("hot", 8, 2);
+        verify(catalogVersionService).bump();
+        verify(productEventProducer, never()).sendProductEvent(any());
+    }
+
+    @Test
+    void reserveStock_WhenLaterLineFails_ShouldReleaseShardedLines() {
+        // Arrange
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(4);
+        Product scarce = new Product("2", "Scarce Product", "Description", 9.99, 1, "user1", "Face");
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot));
+        when(productRepository.findById("2")).thenReturn(Optional.of(scarce));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(stockShardService.reserve("hot", 4, 1)).thenReturn(true);
+
+        // Act & Assert
+        List<StockItemDto> items = List.of(new StockItemDto("hot", 1), new StockItemDto("2", 5));
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(items));
+        verify(stockShardService).release("hot", 4, 1);
+    }
+
+    @Test
+    void reserveStock_WhenShardsRemovedBeforeRollback_ShouldReturnStockToProduct() {
+        // Arrange
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(4);
+        Product scarce = new Product("2", "Scarce Product", "Description", 9.99, 1, "user1", "Face");
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot));
+        when(productRepository.findById("2")).thenReturn(Optional.of(scarce));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(stockShardService.reserve("hot", 4, 1)).thenReturn(true);
+        when(stockShardService.release("hot", 4, 1)).thenReturn(false);
+
+        // Act & Assert
+        List<StockItemDto> items = List.of(new StockItemDto("hot", 1), new StockItemDto("2", 5));
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(items));
+
+        // Two failed reservation attempts plus the increment on the product
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updates.capture(), eq(Product.class));
+        assertEquals(1, updates.getAllValues().get(2).getUpdateObject().get("$inc", Document.class).getInteger("stock"));
+        verify(productCache).invalidateAll(Set.of("hot"));
+    }
+
+    @Test
+    void releaseStock_WhenShardsRemovedBeforeRollback_ShouldTakeStockFromProduct() {
+        // Arrange - sharding of "hot" is turned off between its release and the rollback
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(4);
+        Product unsharded = new Product("hot", "Hot Product", "Description", 9.99, 5, "user1", "Face");
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot), Optional.of(unsharded));
+        when(productRepository.findById("999")).thenReturn(Optional.empty());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null), UpdateResult.acknowledged(0, 0L, null),
+                        UpdateResult.acknowledged(1, 1L, null));
+        when(stockShardService.release("hot", 4, 1)).thenReturn(true);
+        when(stockShardService.reserve("hot", 4, 1)).thenReturn(false);
+
+        // Act & Assert
+        List<StockItemDto> items = List.of(new StockItemDto("hot", 1), new StockItemDto("999", 1));
+        assertThrows(ResourceNotFoundException.class, () -> productService.releaseStock(items));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updates.capture(), eq(Product.class));
+        assertEquals(-1, updates.getAllValues().get(2).getUpdateObject().get("$inc", Document.class).getInteger("stock"));
+    }
+
+    @Test
+    void disableStockSharding_ShouldMoveStockOfEveryShardBackOntoProduct() {
+        // Arrange
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(4);
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Product.class))).thenReturn(hot);
+        when(stockShardService.removeShards("hot", 4)).thenReturn(12);
+
+        // Act
+        productService.disableStockSharding("hot");
+
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(12, update.getValue().getUpdateObject().get("$inc", Document.class).getInteger("stock"));
+    }
+
+    @Test
+    void enableStockSharding_ShouldMoveProductStockIntoShards() {
+        // Arrange
+        Product product = new Product("1", "Test Product", "Description", 9.99, 10, "user1", "Face");
         when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Product.class))).thenReturn(product);
 
         // Act
-        productService.restoreStock("1", 3);
+        productService.enableStockSharding("1", 4);
 
         // Assert
-        assertEquals(8, product.getStock(), "Stock should be increased by 3");
-        verify(productRepository, times(1)).save(product);
+        verify(stockShardService).createShards("1", 4);
+        verify(stockShardService).distribute("1", 4, 10);
+        verify(productCache).invalidate("1");
+        verify(catalogVersionService).bump();
+    }
+
+    @Test
+    void enableStockSharding_WhenShardCountInvalid_ShouldThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> productService.enableStockSharding("1", 1));
+        verify(stockShardService, never()).createShards(anyString(), anyInt());
+    }
+
+    @Test
+    void getProductById_WhenSharded_ShouldReportSumOfShards() {
+        // Arrange
+        Product hot = new Product("hot", "Hot Product", "Description", 9.99, 0, "user1", "Face");
+        hot.setStockShards(4);
+        when(productRepository.findById("hot")).thenReturn(Optional.of(hot));
+        when(stockShardService.totalStock("hot")).thenReturn(37);
+
+        // Act
+        ProductDto result = productService.getProductById("hot");
+
+        // Assert
+        assertEquals(37, result.getStock());
+    }
+
+    @Test
+    void reserveStock_WhenQuantityInvalid_ShouldThrowException() {
+        List<StockItemDto> items = List.of(new StockItemDto("1", 0));
+
+        assertThrows(IllegalArgumentException.class, () -> productService.reserveStock(items));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Product.class));
+        verify(catalogVersionService, never()).bump();
+    }
+
+    @Test
+    void releaseStock_WhenProductMissing_ShouldRollBackAndThrow() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> {
+            productService.releaseStock(Arrays.asList(new StockItemDto("1", 2), new StockItemDto("999", 1)));
+        });
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(Update.class), eq(Product.class));
+    }
+
+    @Test
+    void restoreStock_WhenStockExists_ShouldIncreaseStock() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        productService.restoreStock("1", 3);
+
+        // Assert - a plain increment
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(3, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 
     @Test
     void restoreStock_WhenStockIsNull_ShouldSetToQuantity() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, null, "user1", "Face");
-        when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         productService.restoreStock("1", 3);
 
-        // Assert
-        assertEquals(3, product.getStock(), "Stock should be set to 3 when initially null");
-        verify(productRepository, times(1)).save(product);
+        // Assert - $inc sets a missing stock to the quantity
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(3, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 
     @Test
     void restoreStock_WhenProductNotFound_ShouldThrowException() {
         // Arrange
         when(productRepository.findById("999")).thenReturn(Optional.empty());
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
@@ -380,12 +907,20 @@ class ProductServiceTest {
     void deleteProductsByUserId_ShouldCallRepository() {
         // Arrange
         lenient().doNothing().when(productRepository).deleteByUserId("user1");
+        when(mongoTemplate.find(any(Query.class), eq(Product.class)))
+                .thenReturn(List.of(new Product("1", "First", null, null, null, "user1", null)));
 
         // Act
         productService.deleteProductsByUserId("user1");
 
         // Assert
         verify(productRepository, times(1)).deleteByUserId("user1");
+        verify(productCache).invalidateAll(List.of("1"));
+        verify(catalogVersionService).bump();
+        ArgumentCaptor<ProductEvent> eventCaptor = ArgumentCaptor.forClass(ProductEvent.class);
+        verify(productEventProducer).sendProductEvent(eventCaptor.capture());
+        assertEquals(ProductEvent.EventType.PRODUCT_DELETED, eventCaptor.getValue().getEventType());
+        assertEquals("1", eventCaptor.getValue().getProductId());
     }
 
     @Test
@@ -484,6 +1019,34 @@ class ProductServiceTest {
         assertEquals(product.getStock(), result.getStock());
     }
 
+    @Test
+    void toDto_ShouldCopyVersion() {
+        // Arrange
+        Product product = new Product("1", "Test Product", "Test Desc", 99.99, 10, "user1", "Face");
+        product.setVersion(4L);
+        when(productRepository.findById("1")).thenReturn(Optional.of(product));
+
+        // Act
+        ProductDto result = productService.getProductById("1");
+
+        // Assert
+        assertEquals(4L, result.getVersion());
+    }
+
+    @Test
+    void updateUserEmail_WhenNothingChanged_ShouldNotBumpCatalogVersion() {
+        // Arrange
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act
+        long updated = productService.updateUserEmail("user1", "same@example.com");
+
+        // Assert
+        assertEquals(0, updated);
+        verify(catalogVersionService, never()).bump();
+    }
+
     @Test
     void checkStockAvailability_WhenExactStock_ShouldReturnTrue() {
         // Arrange
@@ -500,31 +1063,37 @@ class ProductServiceTest {
     @Test
     void reduceStock_WhenReducingToZero_ShouldWork() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 5, "user1", "Face");
-        when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         productService.reduceStock("1", 5);
 
-        // Assert
-        assertEquals(0, product.getStock(), "Stock should be reduced to zero");
-        verify(productRepository, times(1)).save(product);
+        // Assert - the condition admits taking the last unit
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Product.class));
+        assertEquals(new Document("$gte", 5), query.getValue().getQueryObject().get("stock"));
+        assertEquals(-5, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 
     @Test
     void restoreStock_WithLargeQuantity_ShouldWork() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 10, "user1", "Face");
-        when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         productService.restoreStock("1", 100);
 
-        // Assert
-        assertEquals(110, product.getStock(), "Stock should be increased by 100");
-        verify(productRepository, times(1)).save(product);
+        // Assert - a plain increment
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(Product.class));
+        assertEquals(100, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 
     @Test
@@ -552,40 +1121,43 @@ class ProductServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(productRepository, times(1)).save(any(Product.class));
+        ArgumentCaptor<Product> productCaptor = ArgumentCaptor.forClass(Product.class);
+        verify(productRepository, times(1)).save(productCaptor.capture());
+        assertEquals("test@example.com", productCaptor.getValue().getUserEmail(),
+                "Seller email should be stored on the product");
     }
 
     @Test
-    void toDto_WhenUserServiceReturnsNull_ShouldSetUnknownUser() {
+    void toDto_WithoutStoredSellerEmail_ShouldSetUnknownUser() {
         // Arrange
         Product product = new Product("1", "Test Product", "Description", 99.99, 5, "unknownUserId", "Face");
         when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        doReturn(webClient).when(webClientBuilder).build();
-        doReturn(requestHeadersUriSpec).when(webClient).get();
-        doReturn(requestHeadersSpec).when(requestHeadersUriSpec).uri(anyString(), any(Object[].class));
-        doReturn(responseSpec).when(requestHeadersSpec).retrieve();
-        doReturn(Mono.empty()).when(responseSpec).bodyToMono(UserDto.class);
 
         // Act
         ProductDto result = productService.getProductById("1");
 
         // Assert
         assertNotNull(result);
-        assertEquals("Unknown User", result.getUser(), "Should set 'Unknown User' when user service returns null");
+        assertEquals("Unknown User", result.getUser(), "Should set 'Unknown User' when no seller email is stored");
+        verify(webClientBuilder, never()).build();
     }
 
     @Test
     void reduceStock_EdgeCase_ExactStockAmount() {
         // Arrange
-        Product product = new Product("1", "Test Product", "Description", 99.99, 5, "user1", "Face");
-        when(productRepository.findById("1")).thenReturn(Optional.of(product));
-        when(productRepository.save(any(Product.class))).thenReturn(product);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Product.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         // Act
         productService.reduceStock("1", 5);
 
-        // Assert
-        assertEquals(0, product.getStock(), "Stock should be exactly 0");
-        verify(productRepository, times(1)).save(product);
+        // Assert - the condition admits the exact stock amount
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Product.class));
+        assertEquals(new Document("$gte", 5), query.getValue().getQueryObject().get("stock"));
+        assertEquals(-5, update.getValue().getUpdateObject().get("$inc", Document.class).get("stock"));
+        verify(productRepository, never()).save(any(Product.class));
+        verify(catalogVersionService).bump();
     }
 }
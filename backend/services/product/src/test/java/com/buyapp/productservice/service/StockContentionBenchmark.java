@@ -0,0 +1,105 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.productservice.model.StockShard;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Checkout throughput on one hot product for a growing number of stock
+ * shards. One shard is the same single-document conditional decrement as an
+ * unsharded product.
+ *
+ * Not part of the regular build (the class name does not match the test
+ * pattern); run with
+ * {@code mvn test -Dtest=StockContentionBenchmark -Dsurefire.failIfNoSpecifiedTests=false}.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StockContentionBenchmark {
+
+    private static final int THREADS = 32;
+    private static final long RUN_MILLIS = 5_000;
+    private static final int INITIAL_STOCK = 10_000_000;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(client, "product_benchmark");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void reserveThroughputByShardCount() throws Exception {
+        StockShardService stockShardService = new StockShardService(mongoTemplate);
+        List<String> results = new ArrayList<>();
+
+        for (int shards : SHARD_COUNTS) {
+            String productId = "hot-" + shards;
+            stockShardService.createShards(productId, shards);
+            stockShardService.distribute(productId, shards, INITIAL_STOCK);
+
+            long reserved = run(stockShardService, productId, shards);
+
+            // Correctness under contention: nothing lost, nothing oversold
+            assertEquals(INITIAL_STOCK - reserved, stockShardService.totalStock(productId));
+            assertTrue(mongoTemplate.findAll(StockShard.class).stream().allMatch(shard -> shard.getStock() >= 0));
+            results.add(String.format("shards=%2d  reservations/s=%8.0f", shards, reserved * 1000.0 / RUN_MILLIS));
+        }
+
+        System.out.println("Stock reservation throughput, " + THREADS + " threads on one product:");
+        results.forEach(System.out::println);
+    }
+
+    private static long run(StockShardService stockShardService, String productId, int shards) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long deadline = System.currentTimeMillis() + RUN_MILLIS;
+        List<Future<Long>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(executor.submit(() -> {
+                long count = 0;
+                while (System.currentTimeMillis() < deadline) {
+                    if (stockShardService.reserve(productId, shards, 1)) {
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        long reserved = 0;
+        for (Future<Long> worker : workers) {
+            reserved += worker.get();
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return reserved;
+    }
+}
@@ -0,0 +1,132 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.buyapp.common.dto.StockHoldDto;
+import com.buyapp.common.dto.StockItemDto;
+import com.buyapp.common.exception.ResourceNotFoundException;
+import com.buyapp.productservice.model.StockHold;
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldServiceTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private StockHoldService stockHoldService;
+
+    private final List<StockItemDto> items = List.of(new StockItemDto("p1", 2), new StockItemDto("p2", 1));
+
+    @Test
+    void createHold_ShouldReserveStockAndRecordExpiry() {
+        // Arrange
+        when(mongoTemplate.insert(any(StockHold.class))).thenAnswer(invocation -> {
+            StockHold hold = invocation.getArgument(0);
+            hold.setId("hold-1");
+            return hold;
+        });
+
+        // Act
+        StockHoldDto hold = stockHoldService.createHold(items);
+
+        // Assert
+        verify(productService).reserveStock(items);
+        assertEquals("hold-1", hold.getId());
+        assertNotNull(hold.getExpiresAt());
+    }
+
+    @Test
+    void createHold_WhenHoldCannotBeSaved_ShouldReleaseStock() {
+        // Arrange
+        when(mongoTemplate.insert(any(StockHold.class))).thenThrow(new DuplicateKeyException("duplicate"));
+
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class, () -> stockHoldService.createHold(items));
+        verify(productService).releaseStock(items);
+    }
+
+    @Test
+    void commitHold_ShouldRemoveHoldAndKeepStockDeducted() {
+        // Arrange
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockHold.class))).thenReturn(hold("hold-1"));
+
+        // Act
+        stockHoldService.commitHold("hold-1");
+
+        // Assert
+        verify(productService, never()).releaseStock(any());
+    }
+
+    @Test
+    void commitHold_WhenAlreadyReleased_ShouldThrowNotFound() {
+        // Arrange
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockHold.class))).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> stockHoldService.commitHold("hold-1"));
+    }
+
+    @Test
+    void releaseHold_ShouldGiveBackEachLine() {
+        // Arrange
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockHold.class))).thenReturn(hold("hold-1"));
+
+        // Act
+        stockHoldService.releaseHold("hold-1");
+
+        // Assert
+        verify(productService).releaseStock(List.of(items.get(0)));
+        verify(productService).releaseStock(List.of(items.get(1)));
+    }
+
+    @Test
+    void releaseExpiredHolds_ShouldReleaseUntilNoneLeftUsingExpiryRange() {
+        // Arrange - the first product was deleted meanwhile
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockHold.class)))
+                .thenReturn(hold("hold-1"), hold("hold-2"), null);
+        doThrow(new ResourceNotFoundException("gone")).when(productService).releaseStock(List.of(items.get(0)));
+
+        // Act
+        int released = stockHoldService.releaseExpiredHolds();
+
+        // Assert
+        assertEquals(2, released);
+        verify(productService, times(2)).releaseStock(List.of(items.get(1)));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).findAndRemove(query.capture(), eq(StockHold.class));
+        assertNotNull(query.getValue().getQueryObject().get("expiresAt", Document.class).get("$lte"));
+        assertEquals(new Document("expiresAt", 1), query.getValue().getSortObject());
+    }
+
+    private StockHold hold(String id) {
+        LocalDateTime now = LocalDateTime.now();
+        return new StockHold(id, items, now.minusMinutes(20), now.minusMinutes(10));
+    }
+}
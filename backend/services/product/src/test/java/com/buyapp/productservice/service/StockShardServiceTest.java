@@ -0,0 +1,145 @@
+package com.buyapp.productservice.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.buyapp.productservice.model.StockShard;
+import com.mongodb.client.result.UpdateResult;
+
+@ExtendWith(MockitoExtension.class)
+class StockShardServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @InjectMocks
+    private StockShardService stockShardService;
+
+    @Test
+    void reserve_WhenFirstShardHasEnough_ShouldTouchOneShard() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StockShard.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // Act
+        boolean reserved = stockShardService.reserve("p1", 8, 2);
+
+        // Assert
+        assertTrue(reserved);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(StockShard.class));
+    }
+
+    @Test
+    void reserve_WhenNoShardHasEnough_ShouldGatherFromSeveralShards() {
+        // Arrange - shards hold 3 and 2, so only a take of 5 at once fails
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StockShard.class)))
+                .thenAnswer(invocation -> takeAtMost(invocation.getArgument(0), 3));
+        when(mongoTemplate.find(any(Query.class), eq(StockShard.class)))
+                .thenReturn(List.of(new StockShard("p1:0", "p1", 0, 3), new StockShard("p1:1", "p1", 1, 2)));
+
+        // Act
+        boolean reserved = stockShardService.reserve("p1", 2, 5);
+
+        // Assert - two failed single-shard attempts, then 3 + 2
+        assertTrue(reserved);
+        assertEquals(List.of(-5, -5, -3, -2), stockIncrements(4));
+    }
+
+    @Test
+    void reserve_WhenShardsHoldTooLittle_ShouldGiveBackWhatWasTaken() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StockShard.class)))
+                .thenAnswer(invocation -> takeAtMost(invocation.getArgument(0), 2));
+        when(mongoTemplate.find(any(Query.class), eq(StockShard.class)))
+                .thenReturn(List.of(new StockShard("p1:0", "p1", 0, 2), new StockShard("p1:1", "p1", 1, 1)));
+
+        // Act
+        boolean reserved = stockShardService.reserve("p1", 2, 5);
+
+        // Assert - 2 and 1 taken, then returned
+        assertFalse(reserved);
+        assertEquals(List.of(-5, -5, -2, -1, 2, 1), stockIncrements(6));
+    }
+
+    @Test
+    void distribute_ShouldSpreadRemainderOverFirstShards() {
+        // Act
+        stockShardService.distribute("p1", 3, 10);
+
+        // Assert
+        assertEquals(List.of(4, 3, 3), stockIncrements(3));
+    }
+
+    @Test
+    void release_WhenShardsWereRemoved_ShouldReportIt() {
+        // Arrange
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StockShard.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        // Act & Assert
+        assertFalse(stockShardService.release("p1", 4, 1));
+    }
+
+    @Test
+    void removeShards_ShouldDrainEachShardAtomically() {
+        // Arrange - shard 2 is already gone
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(StockShard.class)))
+                .thenReturn(new StockShard("p1:0", "p1", 0, 4), new StockShard("p1:1", "p1", 1, 5), null);
+
+        // Act
+        int stock = stockShardService.removeShards("p1", 3);
+
+        // Assert
+        assertEquals(9, stock);
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(3)).findAndRemove(captor.capture(), eq(StockShard.class));
+        assertEquals(List.of("p1:0", "p1:1", "p1:2"), captor.getAllValues().stream()
+                .map(query -> query.getQueryObject().get("_id"))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void totalStock_ShouldSumShards() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(StockShard.class)))
+                .thenReturn(List.of(new StockShard("p1:0", "p1", 0, 4), new StockShard("p1:1", "p1", 1, 5)));
+
+        // Act & Assert
+        assertEquals(9, stockShardService.totalStock("p1"));
+    }
+
+    // Conditional takes succeed up to the given quantity; increments always do
+    private static UpdateResult takeAtMost(Query query, int maxQuantity) {
+        Document stock = query.getQueryObject().get("stock", Document.class);
+        boolean matches = stock == null || stock.getInteger("$gte") <= maxQuantity;
+        return matches ? UpdateResult.acknowledged(1, 1L, null) : UpdateResult.acknowledged(0, 0L, null);
+    }
+
+    private List<Integer> stockIncrements(int updates) {
+        ArgumentCaptor<Update> captor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(updates)).updateFirst(any(Query.class), captor.capture(), eq(StockShard.class));
+        return captor.getAllValues().stream()
+                .map(update -> update.getUpdateObject().get("$inc", Document.class).getInteger("stock"))
+                .collect(Collectors.toList());
+    }
+}
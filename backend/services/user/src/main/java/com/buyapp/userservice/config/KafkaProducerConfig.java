@@ -1,9 +1,11 @@
 package com.buyapp.userservice.config;
 
 import com.buyapp.common.event.UserEvent;
+import com.buyapp.common.kafka.ProducerTuning;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
@@ -22,6 +24,12 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Bean
+    @ConfigurationProperties(prefix = "kafka.producer")
+    public ProducerTuning producerTuning() {
+        return new ProducerTuning();
+    }
+
     @Bean
     @NonNull
     public ProducerFactory<String, UserEvent> userEventProducerFactory() {
@@ -30,6 +38,7 @@ public class KafkaProducerConfig {
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.putAll(producerTuning().toProducerConfig());
         return new DefaultKafkaProducerFactory<>(configProps);
     }
 
@@ -26,7 +26,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**", "/actuator/**", "/users/{id}", "/users/email/{email}",
-                                "/users/internal/**") // Internal endpoints for service-to-service calls
+                                "/users/batch", "/users/internal/**") // Internal endpoints for service-to-service calls
                         .permitAll()
                         .anyRequest().authenticated())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -43,6 +43,12 @@ public class UserController {
         return userService.getUserById(id);
     }
 
+    // Internal endpoint for bulk user lookup (called by Product Service)
+    @PostMapping("/batch")
+    public List<UserDto> getUsersByIds(@RequestBody List<String> ids) {
+        return userService.getUsersByIds(ids);
+    }
+
     @GetMapping("/email/{email}")
     public UserDto getUserByEmail(@PathVariable String email) {
 
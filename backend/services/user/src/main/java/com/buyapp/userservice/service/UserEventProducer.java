@@ -25,14 +25,12 @@ public class UserEventProducer {
     }
 
     public void sendUserEvent(UserEvent event) {
-        logger.info("Sending user event: {}", event);
-
         CompletableFuture<SendResult<String, UserEvent>> future = kafkaTemplate.send(userEventsTopic, event.getUserId(),
                 event);
 
         future.whenComplete((result, ex) -> {
             if (ex == null) {
-                logger.info("Successfully sent user event: {} with offset: {}",
+                logger.debug("Sent user event: {} with offset: {}",
                         event.getEventType(), result.getRecordMetadata().offset());
             } else {
                 logger.error("Failed to send user event: {}", event.getEventType(), ex);
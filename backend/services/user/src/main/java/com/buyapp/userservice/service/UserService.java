@@ -41,6 +41,20 @@ public class UserService {
         return toDto(user);
     }
 
+    /**
+     * Resolve several users in one query; unknown IDs are skipped.
+     */
+    public List<UserDto> getUsersByIds(List<String> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<String> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        return userRepository.findAllById(distinctIds)
+                .stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
     public boolean existsById(String id) {
         return userRepository.existsById(id);
     }
@@ -91,6 +105,13 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(userDto.getPassword()));
         }
         User updated = userRepository.save(user);
+
+        // Publish USER_UPDATED so services holding a copy of the email stay current
+        userEventProducer.sendUserEvent(new UserEvent(
+                UserEvent.EventType.USER_UPDATED,
+                updated.getId(),
+                updated.getEmail(),
+                updated.getRole()));
         return toDto(updated);
     }
 
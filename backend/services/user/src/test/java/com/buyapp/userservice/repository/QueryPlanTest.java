@@ -0,0 +1,48 @@
+package com.buyapp.userservice.repository;
+
+import static com.buyapp.common.testing.QueryPlans.assertIndexed;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.common.testing.QueryPlans;
+import com.buyapp.userservice.model.User;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Runs every repository query and fails if MongoDB plans it as a full
+ * collection scan. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static UserRepository userRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = QueryPlans.mongoTemplate(client, "user_plans", User.class);
+        userRepository = QueryPlans.repository(mongoTemplate, UserRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void userRepository_FindByEmail_ShouldUseIndex() {
+        assertIndexed(mongoTemplate, () -> userRepository.findByEmail("user@example.com"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.buyapp.userservice.service;
 
 import com.buyapp.common.dto.UserDto;
+import com.buyapp.common.event.UserEvent;
 import com.buyapp.common.exception.BadRequestException;
 import com.buyapp.common.exception.ResourceNotFoundException;
 import com.buyapp.userservice.model.User;
@@ -8,9 +9,11 @@ import com.buyapp.userservice.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -103,6 +106,31 @@ class UserServiceTest {
         verify(userRepository, times(1)).findById("999");
     }
 
+    @Test
+    void getUsersByIds_ShouldQueryDistinctIdsOnce() {
+        // Arrange
+        testUser.setId("1");
+        when(userRepository.findAllById(List.of("1", "2"))).thenReturn(List.of(testUser));
+
+        // Act
+        List<UserDto> result = userService.getUsersByIds(Arrays.asList("1", "2", "1"));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(testUser.getEmail(), result.get(0).getEmail());
+        verify(userRepository, times(1)).findAllById(List.of("1", "2"));
+    }
+
+    @Test
+    void getUsersByIds_WhenEmpty_ShouldNotQueryRepository() {
+        // Act
+        List<UserDto> result = userService.getUsersByIds(List.of());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(userRepository, never()).findAllById(any());
+    }
+
     @Test
     void existsById_WhenUserExists_ShouldReturnTrue() {
         // Arrange
@@ -198,4 +226,28 @@ class UserServiceTest {
         // Assert
         verify(passwordEncoder, times(1)).encode(rawPassword);
     }
+
+    @Test
+    void updateUser_ShouldPublishUserUpdatedEventWithNewEmail() {
+        // Arrange
+        testUser.setId("1");
+        testUserDto.setEmail("new@example.com");
+        testUserDto.setPassword(null);
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getName()).thenReturn("test@example.com");
+        doReturn(List.of()).when(authentication).getAuthorities();
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userService.updateUser("1", testUserDto, authentication);
+
+        // Assert
+        ArgumentCaptor<UserEvent> eventCaptor = ArgumentCaptor.forClass(UserEvent.class);
+        verify(userEventProducer, times(1)).sendUserEvent(eventCaptor.capture());
+        assertEquals(UserEvent.EventType.USER_UPDATED, eventCaptor.getValue().getEventType());
+        assertEquals("1", eventCaptor.getValue().getUserId());
+        assertEquals("new@example.com", eventCaptor.getValue().getEmail());
+    }
 }
@@ -31,4 +31,12 @@ public class ProductDto {
     private String user; // Email of the owner
 
     private String category; // Face, Eyes, Lips
+
+    // Incremented on every change to the product; read-only for clients
+    private Long version;
+
+    public ProductDto(String id, String name, String description, Double price, Integer stock, String user,
+            String category) {
+        this(id, name, description, price, stock, user, category, null);
+    }
 }
@@ -0,0 +1,24 @@
+package com.buyapp.common.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of product search results, best match first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSearchResultDto {
+    private List<ProductDto> items = new ArrayList<>();
+    // Number of products matching the query and category
+    private Long total;
+    // Matching products per category for the query, ignoring the category filter
+    private Map<String, Long> categories = new LinkedHashMap<>();
+}
@@ -0,0 +1,20 @@
+package com.buyapp.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lightweight product view returned by the batch lookup endpoint.
+ * Carries only what order-service needs to validate and price cart lines.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDto {
+    private String id;
+    private String name;
+    private Double price;
+    private Integer stock;
+    private String sellerId;
+}
@@ -0,0 +1,24 @@
+package com.buyapp.common.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Seller dashboard totals, covering only the seller's own line items.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SellerStatsDto {
+    private String sellerId;
+    // Sum of line totals over orders that are not cancelled
+    private Double revenue;
+    // Units sold over orders that are not cancelled
+    private Long itemsSold;
+    private Long totalOrders;
+    private Map<String, Long> ordersByStatus = new LinkedHashMap<>();
+}
@@ -0,0 +1,20 @@
+package com.buyapp.common.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Stock set aside for a checkout until it expires or becomes an order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHoldDto {
+    private String id;
+    private List<StockItemDto> items;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,23 @@
+package com.buyapp.common.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a stock reservation or release request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockItemDto {
+    @NotBlank(message = "Product ID cannot be empty")
+    private String productId;
+
+    @NotNull(message = "Quantity cannot be null")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+}
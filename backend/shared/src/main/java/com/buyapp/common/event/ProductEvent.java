@@ -11,7 +11,9 @@ public class ProductEvent implements Serializable {
     public enum EventType {
         PRODUCT_CREATED,
         PRODUCT_UPDATED,
-        PRODUCT_DELETED
+        PRODUCT_DELETED,
+        // Stock only; published so product-service replicas can drop cached copies
+        PRODUCT_STOCK_CHANGED
     }
 
     private EventType eventType;
@@ -0,0 +1,71 @@
+package com.buyapp.common.kafka;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+
+import lombok.Data;
+
+/**
+ * Batching and delivery settings for event producers, bound from
+ * {@code kafka.producer.*}. A profile supplies the defaults; any setting
+ * given explicitly overrides it.
+ */
+@Data
+public class ProducerTuning {
+
+    // Kafka refuses more than this with idempotence: ordering could not be kept on retry
+    static final int MAX_IDEMPOTENT_IN_FLIGHT = 5;
+
+    public enum Profile {
+        /** Wait briefly so events share batches, and compress the batches. */
+        THROUGHPUT(20, 64 * 1024, "lz4"),
+        /** Send every event at once, uncompressed. */
+        LOW_LATENCY(0, 16 * 1024, "none");
+
+        private final int lingerMs;
+        private final int batchSize;
+        private final String compressionType;
+
+        Profile(int lingerMs, int batchSize, String compressionType) {
+            this.lingerMs = lingerMs;
+            this.batchSize = batchSize;
+            this.compressionType = compressionType;
+        }
+    }
+
+    private Profile profile = Profile.THROUGHPUT;
+
+    private Integer lingerMs;
+
+    private Integer batchSize;
+
+    private String compressionType;
+
+    private boolean idempotence = true;
+
+    private int maxInFlightRequests = MAX_IDEMPOTENT_IN_FLIGHT;
+
+    /**
+     * The producer properties to add to a producer factory's config.
+     * @throws IllegalStateException if the settings cannot be combined
+     */
+    public Map<String, Object> toProducerConfig() {
+        if (idempotence && maxInFlightRequests > MAX_IDEMPOTENT_IN_FLIGHT) {
+            throw new IllegalStateException("kafka.producer.max-in-flight-requests must be at most "
+                    + MAX_IDEMPOTENT_IN_FLIGHT + " with idempotence enabled");
+        }
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs != null ? lingerMs : profile.lingerMs);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize != null ? batchSize : profile.batchSize);
+        config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG,
+                compressionType != null ? compressionType : profile.compressionType);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, maxInFlightRequests);
+        if (idempotence) {
+            config.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        return config;
+    }
+}
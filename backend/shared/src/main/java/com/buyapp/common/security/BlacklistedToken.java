@@ -3,6 +3,7 @@ package com.buyapp.common.security;
 import java.util.Date;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,7 +17,11 @@ public class BlacklistedToken {
     @Id
     private String id;
 
+    @Indexed
     private String token;
+
+    // TTL index: MongoDB removes the entry once the token itself has expired
+    @Indexed(expireAfter = "0s")
     private Date expiryDate;
 
     // Custom constructor without id (MongoDB will auto-generate it)
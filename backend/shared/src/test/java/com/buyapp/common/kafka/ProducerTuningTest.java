@@ -0,0 +1,54 @@
+package com.buyapp.common.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+class ProducerTuningTest {
+
+    @Test
+    void defaultProfile_ShouldBatchCompressAndDeliverIdempotently() {
+        // Act
+        Map<String, Object> config = new ProducerTuning().toProducerConfig();
+
+        // Assert
+        assertEquals(20, config.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(65536, config.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals("lz4", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(true, config.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("all", config.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(5, config.get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+
+    @Test
+    void explicitSettings_ShouldOverrideProfile() {
+        // Arrange
+        ProducerTuning tuning = new ProducerTuning();
+        tuning.setProfile(ProducerTuning.Profile.LOW_LATENCY);
+        tuning.setCompressionType("zstd");
+
+        // Act
+        Map<String, Object> config = tuning.toProducerConfig();
+
+        // Assert
+        assertEquals(0, config.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("zstd", config.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+    }
+
+    @Test
+    void idempotence_ShouldRejectTooManyInFlightRequests() {
+        // Arrange
+        ProducerTuning tuning = new ProducerTuning();
+        tuning.setMaxInFlightRequests(10);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, tuning::toProducerConfig);
+
+        tuning.setIdempotence(false);
+        assertEquals(10, tuning.toProducerConfig().get(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION));
+    }
+}
@@ -0,0 +1,51 @@
+package com.buyapp.common.repository;
+
+import static com.buyapp.common.testing.QueryPlans.assertIndexed;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.buyapp.common.security.BlacklistedToken;
+import com.buyapp.common.testing.QueryPlans;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+/**
+ * Runs the shared repository queries and fails if MongoDB plans any of them
+ * as a full collection scan. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient client;
+    private static MongoTemplate mongoTemplate;
+    private static BlacklistedTokenRepository blacklistedTokenRepository;
+
+    @BeforeAll
+    static void setUp() {
+        client = MongoClients.create(mongoDBContainer.getReplicaSetUrl());
+        mongoTemplate = QueryPlans.mongoTemplate(client, "shared_plans", BlacklistedToken.class);
+        blacklistedTokenRepository = QueryPlans.repository(mongoTemplate, BlacklistedTokenRepository.class);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void blacklistedTokenRepository_Queries_ShouldUseIndexes() {
+        assertIndexed(mongoTemplate, () -> blacklistedTokenRepository.findByToken("jwt"));
+        assertIndexed(mongoTemplate, () -> blacklistedTokenRepository.deleteByExpiryDateBefore(new Date()));
+    }
+}
@@ -0,0 +1,105 @@
+package com.buyapp.common.testing;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexCreator;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+
+/**
+ * Checks the plans MongoDB picks for the queries that real repository and
+ * MongoTemplate calls send, recorded with the database profiler, so a query
+ * plan test cannot drift from the code it guards.
+ */
+public final class QueryPlans {
+
+    private static final String PROFILE = "system.profile";
+
+    private QueryPlans() {
+    }
+
+    /**
+     * @return a template whose database has the indexes of the given entities,
+     *         created the same way as auto-index-creation on application startup
+     */
+    public static MongoTemplate mongoTemplate(MongoClient client, String database, Class<?>... entities) {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setAutoIndexCreation(true);
+        mappingContext.setInitialEntitySet(Set.of(entities));
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+        MongoTemplate mongoTemplate =
+                new MongoTemplate(new SimpleMongoClientDatabaseFactory(client, database), converter);
+        new MongoPersistentEntityIndexCreator(mappingContext, mongoTemplate);
+        return mongoTemplate;
+    }
+
+    /**
+     * @param fragments implementations of the repository's custom interfaces
+     * @return the repository as Spring Data would create it
+     */
+    public static <T> T repository(MongoTemplate mongoTemplate, Class<T> repositoryInterface, Object... fragments) {
+        return new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(repositoryInterface, RepositoryFragments.just(fragments));
+    }
+
+    /**
+     * Fail if any query run by the calls scans the whole collection.
+     */
+    public static void assertIndexed(MongoTemplate mongoTemplate, Runnable calls) {
+        assertPlans(mongoTemplate, calls, false);
+    }
+
+    /**
+     * Fail if any query run by the calls scans the whole collection or sorts
+     * in memory instead of reading an index in order.
+     */
+    public static void assertIndexedInOrder(MongoTemplate mongoTemplate, Runnable calls) {
+        assertPlans(mongoTemplate, calls, true);
+    }
+
+    /**
+     * @return the profiler entries of every operation the calls planned
+     */
+    public static List<Document> profile(MongoTemplate mongoTemplate, Runnable calls) {
+        MongoDatabase database = mongoTemplate.getDb();
+        // The profile can only be dropped while profiling is off
+        database.runCommand(new Document("profile", 0));
+        database.getCollection(PROFILE).drop();
+        database.runCommand(new Document("profile", 2));
+        try {
+            calls.run();
+        } finally {
+            database.runCommand(new Document("profile", 0));
+        }
+        return database.getCollection(PROFILE).find(Filters.exists("planSummary")).into(new ArrayList<>());
+    }
+
+    private static void assertPlans(MongoTemplate mongoTemplate, Runnable calls, boolean inIndexOrder) {
+        List<Document> operations = profile(mongoTemplate, calls);
+        assertFalse(operations.isEmpty(), "No query was run");
+        for (Document operation : operations) {
+            assertFalse(operation.getString("planSummary").contains("COLLSCAN"),
+                    () -> "COLLSCAN: " + operation.toJson());
+            if (inIndexOrder) {
+                assertFalse(operation.getBoolean("hasSortStage", false),
+                        () -> "In-memory SORT: " + operation.toJson());
+            }
+        }
+    }
+}
@@ -84,14 +84,14 @@ describe('Analytics', () => {
   ];
 
   beforeEach(async () => {
-    orderServiceSpy = jasmine.createSpyObj('OrderService', ['getOrders', 'getSellerOrders']);
+    orderServiceSpy = jasmine.createSpyObj('OrderService', ['getAllOrders', 'getAllSellerOrders']);
     authServiceSpy = jasmine.createSpyObj('AuthService', ['isClient', 'isSeller']);
 
     // Default: not logged in
     authServiceSpy.isClient.and.returnValue(false);
     authServiceSpy.isSeller.and.returnValue(false);
-    orderServiceSpy.getOrders.and.returnValue(of([]));
-    orderServiceSpy.getSellerOrders.and.returnValue(of([]));
+    orderServiceSpy.getAllOrders.and.returnValue(of([]));
+    orderServiceSpy.getAllSellerOrders.and.returnValue(of([]));
 
     await TestBed.configureTestingModule({
       imports: [Analytics],
@@ -144,18 +144,18 @@ describe('Analytics', () => {
     });
 
     it('should load buyer analytics on init', () => {
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       
       createComponent();
       fixture.detectChanges();
 
       expect(component.isBuyer).toBeTrue();
-      expect(orderServiceSpy.getOrders).toHaveBeenCalled();
+      expect(orderServiceSpy.getAllOrders).toHaveBeenCalled();
       expect(component.loading).toBeFalse();
     });
 
     it('should calculate buyer stats correctly', () => {
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -169,7 +169,7 @@ describe('Analytics', () => {
     });
 
     it('should populate buyer chart data', () => {
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -179,7 +179,7 @@ describe('Analytics', () => {
     });
 
     it('should handle empty buyer orders', () => {
-      orderServiceSpy.getOrders.and.returnValue(of([]));
+      orderServiceSpy.getAllOrders.and.returnValue(of([]));
       
       createComponent();
       fixture.detectChanges();
@@ -189,7 +189,7 @@ describe('Analytics', () => {
     });
 
     it('should handle buyer analytics error', () => {
-      orderServiceSpy.getOrders.and.returnValue(throwError(() => new Error('Network error')));
+      orderServiceSpy.getAllOrders.and.returnValue(throwError(() => new Error('Network error')));
       
       createComponent();
       fixture.detectChanges();
@@ -206,18 +206,18 @@ describe('Analytics', () => {
     });
 
     it('should load seller analytics on init', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(of(mockSellerOrders));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(mockSellerOrders));
       
       createComponent();
       fixture.detectChanges();
 
       expect(component.isSeller).toBeTrue();
-      expect(orderServiceSpy.getSellerOrders).toHaveBeenCalled();
+      expect(orderServiceSpy.getAllSellerOrders).toHaveBeenCalled();
       expect(component.loading).toBeFalse();
     });
 
     it('should calculate seller stats correctly', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(of(mockSellerOrders));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(mockSellerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -232,7 +232,7 @@ describe('Analytics', () => {
     });
 
     it('should populate seller chart data', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(of(mockSellerOrders));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(mockSellerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -244,7 +244,7 @@ describe('Analytics', () => {
     });
 
     it('should handle empty seller orders', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(of([]));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of([]));
       
       createComponent();
       fixture.detectChanges();
@@ -255,7 +255,7 @@ describe('Analytics', () => {
     });
 
     it('should handle seller analytics error', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(throwError(() => new Error('Network error')));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(throwError(() => new Error('Network error')));
       
       createComponent();
       fixture.detectChanges();
@@ -268,7 +268,7 @@ describe('Analytics', () => {
   describe('Reload functionality', () => {
     it('should reload buyer analytics', () => {
       authServiceSpy.isClient.and.returnValue(true);
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -277,12 +277,12 @@ describe('Analytics', () => {
       component.reload();
 
       expect(component.loading).toBeFalse(); // After reload completes
-      expect(orderServiceSpy.getOrders).toHaveBeenCalledTimes(2);
+      expect(orderServiceSpy.getAllOrders).toHaveBeenCalledTimes(2);
     });
 
     it('should reload seller analytics', () => {
       authServiceSpy.isSeller.and.returnValue(true);
-      orderServiceSpy.getSellerOrders.and.returnValue(of(mockSellerOrders));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(mockSellerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -291,12 +291,12 @@ describe('Analytics', () => {
       component.reload();
 
       expect(component.loading).toBeFalse();
-      expect(orderServiceSpy.getSellerOrders).toHaveBeenCalledTimes(2);
+      expect(orderServiceSpy.getAllSellerOrders).toHaveBeenCalledTimes(2);
     });
 
     it('should reset error on reload', () => {
       authServiceSpy.isClient.and.returnValue(true);
-      orderServiceSpy.getOrders.and.returnValue(throwError(() => new Error('Error')));
+      orderServiceSpy.getAllOrders.and.returnValue(throwError(() => new Error('Error')));
       
       createComponent();
       fixture.detectChanges();
@@ -304,7 +304,7 @@ describe('Analytics', () => {
       expect(component.error).toBe('Failed to load analytics');
 
       // Now make it succeed
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       component.reload();
 
       expect(component.error).toBe('');
@@ -327,7 +327,7 @@ describe('Analytics', () => {
   describe('Filter valid orders', () => {
     it('should only include DELIVERED orders for buyer', () => {
       authServiceSpy.isClient.and.returnValue(true);
-      orderServiceSpy.getOrders.and.returnValue(of(mockBuyerOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(mockBuyerOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -353,7 +353,7 @@ describe('Analytics', () => {
         },
       ];
       
-      orderServiceSpy.getSellerOrders.and.returnValue(of(ordersWithPending));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(ordersWithPending));
       
       createComponent();
       fixture.detectChanges();
@@ -385,7 +385,7 @@ describe('Analytics', () => {
         createdAt: new Date('2026-01-15T10:00:00Z'),
       }];
       
-      orderServiceSpy.getOrders.and.returnValue(of(manyProductsOrders));
+      orderServiceSpy.getAllOrders.and.returnValue(of(manyProductsOrders));
       
       createComponent();
       fixture.detectChanges();
@@ -416,7 +416,7 @@ describe('Analytics', () => {
         createdAt: new Date('2026-01-15T10:00:00Z'),
       }];
       
-      orderServiceSpy.getSellerOrders.and.returnValue(of(manyProductsOrders));
+      orderServiceSpy.getAllSellerOrders.and.returnValue(of(manyProductsOrders));
       
       createComponent();
       fixture.detectChanges();
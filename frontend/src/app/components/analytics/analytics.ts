@@ -142,7 +142,7 @@ export class Analytics implements OnInit {
   }
 
   loadBuyerAnalytics(): void {
-    this.orderService.getOrders().subscribe({
+    this.orderService.getAllOrders().subscribe({
       next: (orders: Order[]) => {
         const validOrders = this.filterValidOrders(orders);
         this.calculateBuyerStats(validOrders);
@@ -157,7 +157,7 @@ export class Analytics implements OnInit {
   }
 
   loadSellerAnalytics(): void {
-    this.orderService.getSellerOrders().subscribe({
+    this.orderService.getAllSellerOrders().subscribe({
       next: (orders: Order[]) => {
         const validOrders = this.filterValidOrders(orders);
         this.calculateSellerStats(validOrders);
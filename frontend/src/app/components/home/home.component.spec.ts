@@ -46,7 +46,7 @@ describe('HomeComponent', () => {
       'isLoggedIn',
       'isSeller',
     ]);
-    const productServiceSpy = jasmine.createSpyObj('ProductService', ['getAllProducts']);
+    const productServiceSpy = jasmine.createSpyObj('ProductService', ['getProductsPage']);
     const mediaServiceSpy = jasmine.createSpyObj('MediaService', ['getMediaByProduct']);
 
     await TestBed.configureTestingModule({
@@ -66,7 +66,7 @@ describe('HomeComponent', () => {
     authService.getCurrentUser.and.returnValue(mockUser);
     authService.isLoggedIn.and.returnValue(true);
     authService.isSeller.and.returnValue(false);
-    productService.getAllProducts.and.returnValue(of(mockProducts));
+    productService.getProductsPage.and.returnValue(of({ items: mockProducts, nextCursor: null }));
     mediaService.getMediaByProduct.and.returnValue(of([]));
   });
 
@@ -87,7 +87,7 @@ describe('HomeComponent', () => {
 
   it('should load featured products on init', () => {
     fixture.detectChanges();
-    expect(productService.getAllProducts).toHaveBeenCalled();
+    expect(productService.getProductsPage).toHaveBeenCalledWith({ size: 6 });
     expect(component.featuredProducts.length).toBeGreaterThan(0);
   });
 
@@ -113,7 +113,7 @@ describe('HomeComponent', () => {
   });
 
   it('should handle empty product list', () => {
-    productService.getAllProducts.and.returnValue(of([]));
+    productService.getProductsPage.and.returnValue(of({ items: [], nextCursor: null }));
     fixture.detectChanges();
 
     expect(component.featuredProducts).toEqual([]);
@@ -40,9 +40,9 @@ export class HomeComponent implements OnInit {
   }
 
   private loadFeaturedProducts(): void {
-    this.productService.getAllProducts().subscribe({
-      next: (products) => {
-        this.featuredProducts = products.slice(0, 6); // Show first 6 products
+    this.productService.getProductsPage({ size: 6 }).subscribe({
+      next: (page) => {
+        this.featuredProducts = page.items; // Show the 6 newest products
         this.loadProductImages();
       },
       error: (error) => {
@@ -62,7 +62,7 @@ export class HomeComponent implements OnInit {
         .then((media) => {
           if (media && media.length > 0) {
             this.productImages[product.id!] = media.map((m) =>
-              this.mediaService.getMediaFile(m.id!)
+              this.mediaService.getMediaFile(m.id!, 512)
             );
           }
         })
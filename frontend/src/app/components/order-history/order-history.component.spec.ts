@@ -110,7 +110,7 @@ describe('OrderHistoryComponent', () => {
   beforeEach(() => {
     // Create fresh copy of mock orders for each test
     mockOrders = createMockOrders();
-    orderServiceSpy.getOrders.and.returnValue(of(mockOrders));
+    orderServiceSpy.getOrders.and.returnValue(of({ items: mockOrders, nextCursor: null }));
     fixture = TestBed.createComponent(OrderHistoryComponent);
     component = fixture.componentInstance;
   });
@@ -146,6 +146,34 @@ describe('OrderHistoryComponent', () => {
     });
   });
 
+  describe('Paging', () => {
+    it('should append the next page and stop at the last one', () => {
+      const [first, ...rest] = createMockOrders();
+      orderServiceSpy.getOrders.and.returnValues(
+        of({ items: [first], nextCursor: 'page-2' }),
+        of({ items: rest, nextCursor: null }),
+      );
+      fixture.detectChanges();
+      expect(component.orders.length).toBe(1);
+      expect(component.nextCursor).toBe('page-2');
+
+      component.loadMore();
+
+      expect(orderServiceSpy.getOrders).toHaveBeenCalledWith('page-2');
+      expect(component.orders.length).toBe(3);
+      expect(component.nextCursor).toBeNull();
+      expect(component.stats.totalOrders).toBe(3);
+    });
+
+    it('should not request another page after the last one', () => {
+      fixture.detectChanges();
+
+      component.loadMore();
+
+      expect(orderServiceSpy.getOrders).toHaveBeenCalledTimes(1);
+    });
+  });
+
   describe('Statistics calculation', () => {
     it('should calculate stats correctly', () => {
       fixture.detectChanges();
@@ -174,7 +202,7 @@ describe('OrderHistoryComponent', () => {
           createdAt: new Date(),
         },
       ];
-      orderServiceSpy.getOrders.and.returnValue(of(ordersWithCancelled));
+      orderServiceSpy.getOrders.and.returnValue(of({ items: ordersWithCancelled, nextCursor: null }));
       fixture.detectChanges();
 
       expect(component.stats.totalOrders).toBe(4);
@@ -283,7 +311,7 @@ describe('OrderHistoryComponent', () => {
 
   describe('Empty state', () => {
     it('should show empty state when no orders', () => {
-      orderServiceSpy.getOrders.and.returnValue(of([]));
+      orderServiceSpy.getOrders.and.returnValue(of({ items: [], nextCursor: null }));
       fixture.detectChanges();
 
       expect(component.orders.length).toBe(0);
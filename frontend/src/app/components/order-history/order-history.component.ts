@@ -22,7 +22,10 @@ interface OrderStats {
 export class OrderHistoryComponent implements OnInit {
   orders: Order[] = [];
   loading = true;
+  loadingMore = false;
   error = '';
+  // Cursor of the next page of orders; null once all are loaded
+  nextCursor: string | null = null;
   stats: OrderStats = {
     totalOrders: 0,
     delivered: 0,
@@ -45,13 +48,9 @@ export class OrderHistoryComponent implements OnInit {
     this.error = '';
 
     this.orderService.getOrders().subscribe({
-      next: (orders) => {
-        const sortedOrders = [...orders].sort((a, b) => {
-          const dateA = new Date(a.createdAt || 0).getTime();
-          const dateB = new Date(b.createdAt || 0).getTime();
-          return dateB - dateA;
-        });
-        this.orders = sortedOrders;
+      next: (page) => {
+        this.orders = this.newestFirst(page.items);
+        this.nextCursor = page.nextCursor;
         this.calculateStats();
         this.loadProductImages();
         this.loading = false;
@@ -64,6 +63,39 @@ export class OrderHistoryComponent implements OnInit {
     });
   }
 
+  /**
+   * Append the next page of orders; pages come newest first
+   */
+  loadMore(): void {
+    if (!this.nextCursor || this.loadingMore) {
+      return;
+    }
+    this.loadingMore = true;
+
+    this.orderService.getOrders(this.nextCursor).subscribe({
+      next: (page) => {
+        this.orders = this.newestFirst([...this.orders, ...page.items]);
+        this.nextCursor = page.nextCursor;
+        this.calculateStats();
+        this.loadProductImages();
+        this.loadingMore = false;
+      },
+      error: (err) => {
+        console.error('Failed to load more orders:', err);
+        this.loadingMore = false;
+      },
+    });
+  }
+
+  private newestFirst(orders: Order[]): Order[] {
+    return [...orders].sort((a, b) => {
+      const dateA = new Date(a.createdAt || 0).getTime();
+      const dateB = new Date(b.createdAt || 0).getTime();
+      return dateB - dateA;
+    });
+  }
+
+  // Over the orders loaded so far
   calculateStats(): void {
     this.stats = {
       totalOrders: this.orders.length,
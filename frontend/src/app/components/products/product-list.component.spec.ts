@@ -51,6 +51,7 @@ describe('ProductListComponent', () => {
     total: 3,
     page: 1,
     totalPages: 1,
+    nextCursor: null,
   };
 
   beforeEach(async () => {
@@ -191,6 +192,7 @@ describe('ProductListComponent', () => {
         total: 3,
         page: 2,
         totalPages: 3,
+        nextCursor: null,
       }));
       
       component.goToPage(2);
@@ -217,6 +219,37 @@ describe('ProductListComponent', () => {
       expect(component.currentPage).toBe(1);
     });
 
+    it('should follow the catalog cursor to the next page', () => {
+      productService.searchProducts.and.returnValue(
+        of({ products: mockProducts, page: 1, nextCursor: 'c2' }),
+      );
+      fixture.detectChanges();
+
+      expect(component.totalPages).toBe(2);
+      expect(component.totalProducts).toBeNull();
+
+      productService.searchProducts.and.returnValue(
+        of({ products: [mockProducts[0]], page: 2, nextCursor: null }),
+      );
+      component.goToPage(2);
+
+      expect(productService.searchProducts.calls.mostRecent().args[0].cursor).toBe('c2');
+      expect(component.currentPage).toBe(2);
+      expect(component.totalPages).toBe(2);
+    });
+
+    it('should start over from the first page when a filter changes', () => {
+      productService.searchProducts.and.returnValue(
+        of({ products: mockProducts, page: 1, nextCursor: 'c2' }),
+      );
+      fixture.detectChanges();
+
+      component.onSortChange();
+
+      expect(productService.searchProducts.calls.mostRecent().args[0].cursor).toBeUndefined();
+      expect(component.currentPage).toBe(1);
+    });
+
     it('should generate correct page numbers', () => {
       component.currentPage = 3;
       component.totalPages = 10;
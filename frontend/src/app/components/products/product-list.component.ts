@@ -34,8 +34,11 @@ export class ProductListComponent implements OnInit {
   // Pagination
   currentPage = 1;
   totalPages = 1;
-  totalProducts = 0;
+  // Only known for text searches; the catalog listing is not counted
+  totalProducts: number | null = null;
   productsPerPage = 6;
+  // Cursor of each catalog page reached so far, indexed by page - 1
+  private pageCursors: (string | undefined)[] = [undefined];
 
   // View mode
   viewMode: 'grid' | 'list' = 'grid';
@@ -65,14 +68,22 @@ export class ProductListComponent implements OnInit {
       sortBy: this.sortBy,
       page: this.currentPage,
       limit: this.productsPerPage,
+      cursor: this.pageCursors[this.currentPage - 1],
     };
 
     this.productService.searchProducts(params).subscribe({
       next: (result: ProductSearchResult) => {
         this.products = result.products;
-        this.totalProducts = result.total;
-        this.totalPages = result.totalPages;
+        this.totalProducts = result.total ?? null;
         this.currentPage = result.page;
+        if (result.totalPages !== undefined) {
+          this.totalPages = result.totalPages;
+        } else if (result.nextCursor) {
+          this.pageCursors[result.page] = result.nextCursor;
+          this.totalPages = Math.max(this.totalPages, result.page + 1);
+        } else {
+          this.totalPages = result.page;
+        }
         this.loading = false;
         
         // Load media for each product
@@ -104,7 +115,7 @@ export class ProductListComponent implements OnInit {
   getProductImageUrls(productId: string): string[] {
     const media = this.productMedia.get(productId);
     if (media && media.length > 0) {
-      return media.map((m) => this.mediaService.getMediaFile(m.id!));
+      return media.map((m) => this.mediaService.getMediaFile(m.id!, 512));
     }
     return [];
   }
@@ -116,23 +127,23 @@ export class ProductListComponent implements OnInit {
 
   // Filter methods
   onSearch(): void {
-    this.currentPage = 1;
+    this.resetPaging();
     this.loadProducts();
   }
 
   onCategoryChange(category: ProductCategory | null): void {
     this.selectedCategory = this.selectedCategory === category ? null : category;
-    this.currentPage = 1;
+    this.resetPaging();
     this.loadProducts();
   }
 
   onPriceRangeChange(): void {
-    this.currentPage = 1;
+    this.resetPaging();
     this.loadProducts();
   }
 
   onSortChange(): void {
-    this.currentPage = 1;
+    this.resetPaging();
     this.loadProducts();
   }
 
@@ -142,11 +153,17 @@ export class ProductListComponent implements OnInit {
     this.minPrice = 0;
     this.priceRange = 100;
     this.sortBy = 'newest';
-    this.currentPage = 1;
+    this.resetPaging();
     this.loadProducts();
   }
 
   // Pagination
+  private resetPaging(): void {
+    this.currentPage = 1;
+    this.totalPages = 1;
+    this.pageCursors = [undefined];
+  }
+
   goToPage(page: number): void {
     if (page >= 1 && page <= this.totalPages) {
       this.currentPage = page;
@@ -81,7 +81,7 @@ describe('UserProfileComponent', () => {
       'isClient',
       'updateCurrentUser',
     ]);
-    productServiceSpy = jasmine.createSpyObj('ProductService', ['getAllProducts']);
+    productServiceSpy = jasmine.createSpyObj('ProductService', ['getMyProducts']);
     cartServiceSpy = jasmine.createSpyObj('CartService', ['removeFromCart', 'updateQuantity'], {
       cart$: cartSubject.asObservable(),
     });
@@ -96,7 +96,7 @@ describe('UserProfileComponent', () => {
     authServiceSpy.getCurrentUser.and.returnValue(user);
     authServiceSpy.isSeller.and.returnValue(isSeller);
     authServiceSpy.isClient.and.returnValue(!isSeller);
-    productServiceSpy.getAllProducts.and.returnValue(of(mockProducts));
+    productServiceSpy.getMyProducts.and.returnValue(of([mockProducts[0]]));
     mediaServiceSpy.getAvatarFileUrl.and.returnValue('http://avatar-url.com/avatar');
     mediaServiceSpy.getMediaByProduct.and.returnValue(of([]));
     mediaServiceSpy.getMediaFile.and.returnValue('http://media-url.com/file');
@@ -150,8 +150,8 @@ describe('UserProfileComponent', () => {
       expect(component.cart).toEqual(mockCart);
     });
 
-    it('should load seller products filtered by current user email', () => {
-      expect(productServiceSpy.getAllProducts).toHaveBeenCalled();
+    it('should load the seller own products', () => {
+      expect(productServiceSpy.getMyProducts).toHaveBeenCalled();
       expect(component.sellerProducts.length).toBe(1);
       expect(component.sellerProducts[0].id).toBe('p1');
     });
@@ -185,7 +185,7 @@ describe('UserProfileComponent', () => {
     });
 
     it('should not load seller products for buyer', () => {
-      expect(productServiceSpy.getAllProducts).not.toHaveBeenCalled();
+      expect(productServiceSpy.getMyProducts).not.toHaveBeenCalled();
     });
 
     it('should return false for isSeller()', () => {
@@ -377,7 +377,7 @@ describe('UserProfileComponent', () => {
     it('should handle error when loading seller products', () => {
       const consoleSpy = spyOn(console, 'error');
       setupTestBed(mockUser, true);
-      productServiceSpy.getAllProducts.and.returnValue(throwError(() => new Error('Failed')));
+      productServiceSpy.getMyProducts.and.returnValue(throwError(() => new Error('Failed')));
       fixture.detectChanges();
       expect(consoleSpy).toHaveBeenCalled();
       expect(component.isLoading).toBe(false);
@@ -65,10 +65,9 @@ export class UserProfileComponent implements OnInit {
 
   loadSellerProducts(): void {
     this.isLoading = true;
-    this.productService.getAllProducts().subscribe({
+    this.productService.getMyProducts().subscribe({
       next: (products: Product[]) => {
-        // Filter products by current seller
-        this.sellerProducts = products.filter((p) => p.user === this.currentUser?.email);
+        this.sellerProducts = products;
         this.loadProductImages();
         this.isLoading = false;
       },
@@ -1,8 +1,8 @@
-import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { ComponentFixture, TestBed, fakeAsync, tick } from '@angular/core/testing';
 import { FormsModule } from '@angular/forms';
 import { RouterTestingModule } from '@angular/router/testing';
 import { of, throwError } from 'rxjs';
-import { Order, OrderStatus } from '../../models/order.model';
+import { Order, OrderStatus, SellerOrderStats } from '../../models/order.model';
 import { MediaService } from '../../services/media.service';
 import { OrderService } from '../../services/order.service';
 import { SellerOrdersComponent } from './seller-orders.component';
@@ -104,9 +104,19 @@ describe('SellerOrdersComponent', () => {
     },
   ];
 
+  const mockStats: SellerOrderStats = {
+    sellerId: 'seller-1',
+    revenue: 155,
+    itemsSold: 6,
+    totalOrders: 4,
+    ordersByStatus: { PENDING: 1, SHIPPED: 1, DELIVERED: 1, CANCELLED: 1 },
+  };
+
   beforeEach(async () => {
     orderServiceSpy = jasmine.createSpyObj('OrderService', [
       'getSellerOrders',
+      'searchSellerOrders',
+      'getSellerStats',
       'updateOrderStatus',
     ]);
     mediaServiceSpy = jasmine.createSpyObj('MediaService', [
@@ -114,7 +124,9 @@ describe('SellerOrdersComponent', () => {
       'getMediaFile',
     ]);
 
-    orderServiceSpy.getSellerOrders.and.returnValue(of(mockOrders));
+    orderServiceSpy.getSellerOrders.and.returnValue(of({ items: mockOrders, nextCursor: null }));
+    orderServiceSpy.searchSellerOrders.and.returnValue(of({ items: [], nextCursor: null }));
+    orderServiceSpy.getSellerStats.and.returnValue(of(mockStats));
     mediaServiceSpy.getMediaByProduct.and.returnValue(of([]));
     mediaServiceSpy.getMediaFile.and.returnValue('http://example.com/image.jpg');
 
@@ -153,73 +165,124 @@ describe('SellerOrdersComponent', () => {
   });
 
   describe('calculateStats', () => {
-    it('should calculate stats correctly', () => {
+    it('should take the stats from the server', () => {
       fixture.detectChanges();
+      expect(orderServiceSpy.getSellerStats).toHaveBeenCalled();
       expect(component.stats.totalOrders).toBe(4);
       expect(component.stats.pending).toBe(1); // PENDING + READY_FOR_DELIVERY
       expect(component.stats.shipped).toBe(1);
       expect(component.stats.delivered).toBe(1);
-      // totalRevenue excludes CANCELLED orders: 50 + 45 + 60 = 155
+      // The server's revenue already excludes CANCELLED orders
       expect(component.stats.totalRevenue).toBe(155);
     });
 
-    it('should handle empty orders', () => {
-      orderServiceSpy.getSellerOrders.and.returnValue(of([]));
+    it('should handle a seller without orders', () => {
+      orderServiceSpy.getSellerStats.and.returnValue(
+        of({ sellerId: 'seller-1', revenue: 0, itemsSold: 0, totalOrders: 0, ordersByStatus: {} })
+      );
       fixture.detectChanges();
       expect(component.stats.totalOrders).toBe(0);
+      expect(component.stats.pending).toBe(0);
       expect(component.stats.totalRevenue).toBe(0);
     });
+
+    it('should keep the order list when stats fail to load', () => {
+      orderServiceSpy.getSellerStats.and.returnValue(throwError(() => new Error('Network error')));
+      fixture.detectChanges();
+      expect(component.orders.length).toBe(4);
+      expect(component.error).toBe('');
+    });
   });
 
-  describe('applyFilters', () => {
-    beforeEach(() => {
+  describe('Paging', () => {
+    it('should append the next page', () => {
+      orderServiceSpy.getSellerOrders.and.returnValues(
+        of({ items: mockOrders.slice(0, 2), nextCursor: 'page-2' }),
+        of({ items: mockOrders.slice(2), nextCursor: null })
+      );
       fixture.detectChanges();
+
+      component.loadMore();
+
+      expect(orderServiceSpy.getSellerOrders).toHaveBeenCalledWith('page-2');
+      expect(component.orders.length).toBe(4);
+      expect(component.nextCursor).toBeNull();
     });
 
-    it('should filter by status', () => {
-      component.statusFilter = 'PENDING';
-      component.applyFilters();
-      expect(component.filteredOrders.length).toBe(1);
-      expect(component.filteredOrders[0].status).toBe('PENDING');
+    it('should not request past the last page', () => {
+      fixture.detectChanges();
+      component.loadMore();
+      expect(orderServiceSpy.getSellerOrders).toHaveBeenCalledTimes(1);
     });
+  });
 
-    it('should filter by search query (order ID)', () => {
-      component.searchQuery = 'order-1';
-      component.applyFilters();
-      expect(component.filteredOrders.length).toBe(1);
-      expect(component.filteredOrders[0].id).toBe('order-1');
+  describe('applyFilters', () => {
+    beforeEach(() => {
+      fixture.detectChanges();
     });
 
-    it('should filter by search query (product name)', () => {
-      component.searchQuery = 'lipstick';
+    it('should search by status on the server', () => {
+      orderServiceSpy.searchSellerOrders.and.returnValue(
+        of({ items: [mockOrders[0]], nextCursor: null })
+      );
+      component.statusFilter = 'PENDING';
       component.applyFilters();
-      expect(component.filteredOrders.length).toBe(1);
-      expect(component.filteredOrders[0].items[0].productName).toBe('Lipstick');
+      expect(orderServiceSpy.searchSellerOrders).toHaveBeenCalledWith(
+        { q: undefined, status: 'PENDING' },
+        undefined
+      );
+      expect(component.orders.length).toBe(1);
+      expect(component.orders[0].status).toBe('PENDING');
     });
 
-    it('should filter by search query (customer name)', () => {
-      component.searchQuery = 'jane';
+    it('should search by trimmed query on the server', () => {
+      orderServiceSpy.searchSellerOrders.and.returnValue(
+        of({ items: [mockOrders[0]], nextCursor: null })
+      );
+      component.searchQuery = '  lipstick ';
       component.applyFilters();
-      expect(component.filteredOrders.length).toBe(1);
-      expect(component.filteredOrders[0].shippingAddress.fullName).toBe('Jane Doe');
+      expect(orderServiceSpy.searchSellerOrders).toHaveBeenCalledWith(
+        { q: 'lipstick', status: undefined },
+        undefined
+      );
+      expect(component.orders[0].items[0].productName).toBe('Lipstick');
     });
 
     it('should combine status and search filters', () => {
       component.statusFilter = 'DELIVERED';
       component.searchQuery = 'mascara';
       component.applyFilters();
-      expect(component.filteredOrders.length).toBe(1);
+      expect(orderServiceSpy.searchSellerOrders).toHaveBeenCalledWith(
+        { q: 'mascara', status: 'DELIVERED' },
+        undefined
+      );
     });
 
-    it('should return empty array when no match', () => {
+    it('should show no orders when nothing matches', () => {
       component.searchQuery = 'nonexistent';
       component.applyFilters();
-      expect(component.filteredOrders.length).toBe(0);
+      expect(component.orders.length).toBe(0);
+      expect(component.hasFilters()).toBeTrue();
+    });
+
+    it('should page through the search results', () => {
+      orderServiceSpy.searchSellerOrders.and.returnValue(
+        of({ items: [mockOrders[0]], nextCursor: 'page-2' })
+      );
+      component.searchQuery = 'lipstick';
+      component.applyFilters();
+
+      component.loadMore();
+
+      expect(orderServiceSpy.searchSellerOrders).toHaveBeenCalledWith(
+        { q: 'lipstick', status: undefined },
+        'page-2'
+      );
     });
   });
 
   describe('clearFilters', () => {
-    it('should clear all filters', () => {
+    it('should clear all filters and reload the unfiltered list', () => {
       fixture.detectChanges();
       component.statusFilter = 'PENDING';
       component.searchQuery = 'test';
@@ -229,7 +292,8 @@ describe('SellerOrdersComponent', () => {
 
       expect(component.statusFilter).toBe('');
       expect(component.searchQuery).toBe('');
-      expect(component.filteredOrders.length).toBe(4);
+      expect(orderServiceSpy.getSellerOrders).toHaveBeenCalledTimes(2);
+      expect(component.orders.length).toBe(4);
     });
   });
 
@@ -249,6 +313,8 @@ describe('SellerOrdersComponent', () => {
         'READY_FOR_DELIVERY'
       );
       expect(component.successMessage).toContain('Ready for Delivery');
+      expect(component.orders[0].status).toBe('READY_FOR_DELIVERY');
+      expect(orderServiceSpy.getSellerStats).toHaveBeenCalledTimes(2);
     });
 
     it('should handle error when updating status', () => {
@@ -451,12 +517,19 @@ describe('SellerOrdersComponent', () => {
   });
 
   describe('onFilterChange', () => {
-    it('should call applyFilters', () => {
+    it('should call applyFilters once typing pauses', fakeAsync(() => {
       fixture.detectChanges();
       spyOn(component, 'applyFilters');
+
       component.onFilterChange();
-      expect(component.applyFilters).toHaveBeenCalled();
-    });
+      component.onFilterChange();
+      tick(299);
+      expect(component.applyFilters).not.toHaveBeenCalled();
+
+      tick(1);
+      expect(component.applyFilters).toHaveBeenCalledTimes(1);
+      fixture.destroy();
+    }));
   });
 });
 
@@ -1,8 +1,10 @@
 import { CommonModule } from '@angular/common';
-import { Component, OnInit } from '@angular/core';
+import { Component, OnDestroy, OnInit } from '@angular/core';
 import { FormsModule } from '@angular/forms';
 import { RouterModule } from '@angular/router';
-import { Order, OrderStatus } from '../../models/order.model';
+import { Observable, Subject, Subscription } from 'rxjs';
+import { debounceTime } from 'rxjs/operators';
+import { Order, OrderPage, OrderStatus, SellerOrderStats } from '../../models/order.model';
 import { MediaService } from '../../services/media.service';
 import { OrderService } from '../../services/order.service';
 
@@ -21,17 +23,20 @@ interface SellerStats {
   templateUrl: './seller-orders.component.html',
   styleUrl: './seller-orders.component.scss',
 })
-export class SellerOrdersComponent implements OnInit {
+export class SellerOrdersComponent implements OnInit, OnDestroy {
+  // Orders loaded so far, filtered by the server
   orders: Order[] = [];
-  filteredOrders: Order[] = [];
   loading = true;
+  loadingMore = false;
   error = '';
   successMessage = '';
+  // Cursor of the next page of orders; null once all are loaded
+  nextCursor: string | null = null;
   
   // Product images cache
   productImages: Map<string, string> = new Map();
   
-  // Stats
+  // Stats, over all of the seller's orders
   stats: SellerStats = {
     totalOrders: 0,
     pending: 0,
@@ -63,24 +68,39 @@ export class SellerOrdersComponent implements OnInit {
     'CANCELLED': [],
   };
 
+  private readonly filterChanges = new Subject<void>();
+  private filterSubscription?: Subscription;
+  // The list request in flight, replaced when the filters change
+  private listRequest?: Subscription;
+
   constructor(
     private readonly orderService: OrderService,
     private readonly mediaService: MediaService
   ) {}
 
   ngOnInit(): void {
+    // Search as the seller types, once they pause
+    this.filterSubscription = this.filterChanges
+      .pipe(debounceTime(300))
+      .subscribe(() => this.applyFilters());
     this.loadOrders();
   }
 
+  ngOnDestroy(): void {
+    this.filterSubscription?.unsubscribe();
+    this.listRequest?.unsubscribe();
+  }
+
   loadOrders(): void {
     this.loading = true;
     this.error = '';
+    this.loadStats();
 
-    this.orderService.getSellerOrders().subscribe({
-      next: (orders) => {
-        this.orders = orders;
-        this.applyFilters();
-        this.calculateStats();
+    this.listRequest?.unsubscribe();
+    this.listRequest = this.fetchPage().subscribe({
+      next: (page) => {
+        this.orders = page.items;
+        this.nextCursor = page.nextCursor;
         this.loadProductImages();
         this.loading = false;
       },
@@ -92,22 +112,58 @@ export class SellerOrdersComponent implements OnInit {
     });
   }
 
-  calculateStats(): void {
+  loadStats(): void {
+    this.orderService.getSellerStats().subscribe({
+      next: (stats) => this.calculateStats(stats),
+      error: (err) => {
+        // The order list is still usable without the totals
+        console.error('Failed to load seller stats:', err);
+      },
+    });
+  }
+
+  calculateStats(stats: SellerOrderStats): void {
+    const byStatus = stats.ordersByStatus ?? {};
     this.stats = {
-      totalOrders: this.orders.length,
-      pending: this.orders.filter(o => o.status === 'PENDING' || o.status === 'READY_FOR_DELIVERY').length,
-      shipped: this.orders.filter(o => o.status === 'SHIPPED').length,
-      delivered: this.orders.filter(o => o.status === 'DELIVERED').length,
-      totalRevenue: this.orders
-        .filter(o => o.status !== 'CANCELLED')
-        .reduce((sum, o) => sum + o.totalAmount, 0),
+      totalOrders: stats.totalOrders ?? 0,
+      pending: (byStatus.PENDING ?? 0) + (byStatus.READY_FOR_DELIVERY ?? 0),
+      shipped: byStatus.SHIPPED ?? 0,
+      delivered: byStatus.DELIVERED ?? 0,
+      totalRevenue: stats.revenue ?? 0,
     };
   }
 
+  /**
+   * Append the next page of orders matching the current filters
+   */
+  loadMore(): void {
+    if (!this.nextCursor || this.loadingMore) {
+      return;
+    }
+    this.loadingMore = true;
+
+    this.listRequest = this.fetchPage(this.nextCursor).subscribe({
+      next: (page) => {
+        this.orders = [...this.orders, ...page.items];
+        this.nextCursor = page.nextCursor;
+        this.loadProductImages();
+        this.loadingMore = false;
+      },
+      error: (err) => {
+        console.error('Failed to load more seller orders:', err);
+        this.loadingMore = false;
+      },
+    });
+  }
+
   loadProductImages(): void {
     const productIds = new Set<string>();
     this.orders.forEach(order => {
-      order.items.forEach(item => productIds.add(item.productId));
+      order.items.forEach(item => {
+        if (!this.productImages.has(item.productId)) {
+          productIds.add(item.productId);
+        }
+      });
     });
 
     productIds.forEach(productId => {
@@ -128,29 +184,32 @@ export class SellerOrdersComponent implements OnInit {
     return this.productImages.get(productId);
   }
 
-  applyFilters(): void {
-    let result = [...this.orders];
-
-    // Apply status filter
-    if (this.statusFilter) {
-      result = result.filter(o => o.status === this.statusFilter);
-    }
-
-    // Apply search filter
-    if (this.searchQuery.trim()) {
-      const query = this.searchQuery.toLowerCase();
-      result = result.filter(o =>
-        o.id?.toLowerCase().includes(query) ||
-        o.items.some(item => item.productName.toLowerCase().includes(query)) ||
-        o.shippingAddress.fullName.toLowerCase().includes(query)
-      );
-    }
+  hasFilters(): boolean {
+    return !!(this.searchQuery.trim() || this.statusFilter);
+  }
 
-    this.filteredOrders = result;
+  /**
+   * Reload the first page with the current filters; the search runs on the
+   * server so it covers all orders, not only the pages loaded so far
+   */
+  applyFilters(): void {
+    this.loadingMore = false;
+    this.listRequest?.unsubscribe();
+    this.listRequest = this.fetchPage().subscribe({
+      next: (page) => {
+        this.orders = page.items;
+        this.nextCursor = page.nextCursor;
+        this.loadProductImages();
+      },
+      error: (err) => {
+        console.error('Failed to search seller orders:', err);
+        this.error = 'Failed to load orders. Please try again.';
+      },
+    });
   }
 
   onFilterChange(): void {
-    this.applyFilters();
+    this.filterChanges.next();
   }
 
   clearFilters(): void {
@@ -159,6 +218,19 @@ export class SellerOrdersComponent implements OnInit {
     this.applyFilters();
   }
 
+  private fetchPage(cursor?: string): Observable<OrderPage> {
+    if (!this.hasFilters()) {
+      return this.orderService.getSellerOrders(cursor);
+    }
+    return this.orderService.searchSellerOrders(
+      {
+        q: this.searchQuery.trim() || undefined,
+        status: this.statusFilter || undefined,
+      },
+      cursor
+    );
+  }
+
   updateOrderStatus(order: Order, newStatus: OrderStatus): void {
     if (!order.id) return;
 
@@ -168,9 +240,8 @@ export class SellerOrdersComponent implements OnInit {
         const index = this.orders.findIndex(o => o.id === order.id);
         if (index !== -1) {
           this.orders[index] = updatedOrder;
-          this.applyFilters();
-          this.calculateStats();
         }
+        this.loadStats();
         this.successMessage = `Order status updated to ${this.getStatusLabel(newStatus)}`;
         setTimeout(() => this.successMessage = '', 3000);
       },
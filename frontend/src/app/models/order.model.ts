@@ -36,6 +36,21 @@ export interface OrderStats {
   mostPurchasedProducts?: { productId: string; productName: string; quantity: number }[];
 }
 
+// One page of an order listing; nextCursor fetches the following page, null on the last
+export interface OrderPage {
+  items: Order[];
+  nextCursor: string | null;
+}
+
+// Seller dashboard totals, over the seller's own line items
+export interface SellerOrderStats {
+  sellerId: string;
+  revenue: number;
+  itemsSold: number;
+  totalOrders: number;
+  ordersByStatus: Partial<Record<OrderStatus, number>>;
+}
+
 export interface OrderSearchParams {
   q?: string; // Search query (order ID, product name, buyer email)
   status?: OrderStatus; // Filter by status
@@ -95,6 +95,11 @@ describe('MediaService', () => {
       const url = service.getMediaFile(mediaId);
       expect(url).toBe(`${apiUrl}/file/${mediaId}`);
     });
+
+    it('should request a variant when a width is given', () => {
+      const url = service.getMediaFile('media-001', 512);
+      expect(url).toBe(`${apiUrl}/file/media-001?w=512`);
+    });
   });
 
   describe('deleteMedia', () => {
@@ -31,8 +31,13 @@ export class MediaService {
     return this.http.get<Media[]>(`${this.apiUrl}/product/${productId}`);
   }
 
-  getMediaFile(mediaId: string): string {
-    return `${this.apiUrl}/file/${mediaId}`;
+  /**
+   * @param width served as the smallest stored variant at least this wide;
+   *              the original until variants have been generated
+   */
+  getMediaFile(mediaId: string, width?: number): string {
+    const url = `${this.apiUrl}/file/${mediaId}`;
+    return width ? `${url}?w=${width}` : url;
   }
 
   deleteMedia(mediaId: string): Observable<any> {
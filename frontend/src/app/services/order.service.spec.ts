@@ -1,7 +1,13 @@
 import { HttpClientTestingModule, HttpTestingController } from '@angular/common/http/testing';
 import { TestBed } from '@angular/core/testing';
 import { environment } from '../../environments/environments';
-import { CreateOrderRequest, Order, OrderSearchParams, OrderStats } from '../models/order.model';
+import {
+  CreateOrderRequest,
+  Order,
+  OrderSearchParams,
+  OrderStats,
+  SellerOrderStats,
+} from '../models/order.model';
 import { AuthService } from './auth.service';
 import { OrderService } from './order.service';
 
@@ -82,16 +88,29 @@ describe('OrderService', () => {
   });
 
   describe('getOrders', () => {
-    it('should get user orders', () => {
+    it('should get the first page of user orders', () => {
       const mockOrders: Order[] = [mockOrder];
 
-      service.getOrders().subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.getOrders().subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
+        expect(page.nextCursor).toBe('next');
       });
 
       const req = httpMock.expectOne(apiUrl);
       expect(req.request.method).toBe('GET');
-      req.flush(mockOrders);
+      req.flush(mockOrders, { headers: { 'X-Next-Cursor': 'next' } });
+    });
+
+    it('should pass the cursor and limit', () => {
+      service.getOrders('next', 50).subscribe((page) => {
+        expect(page.items).toEqual([]);
+        expect(page.nextCursor).toBeNull();
+      });
+
+      const req = httpMock.expectOne((request) => request.url === apiUrl);
+      expect(req.request.params.get('cursor')).toBe('next');
+      expect(req.request.params.get('limit')).toBe('50');
+      req.flush([]);
     });
   });
 
@@ -99,8 +118,8 @@ describe('OrderService', () => {
     it('should be an alias for getOrders', () => {
       const mockOrders: Order[] = [mockOrder];
 
-      service.getMyOrders().subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.getMyOrders().subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
       });
 
       const req = httpMock.expectOne(apiUrl);
@@ -109,6 +128,25 @@ describe('OrderService', () => {
     });
   });
 
+  describe('getAllOrders', () => {
+    it('should follow the cursor until the last page', () => {
+      const secondOrder = { ...mockOrder, id: 'order-002' };
+
+      service.getAllOrders().subscribe((orders) => {
+        expect(orders).toEqual([mockOrder, secondOrder]);
+      });
+
+      const first = httpMock.expectOne((request) => request.url === apiUrl);
+      expect(first.request.params.get('cursor')).toBeNull();
+      expect(first.request.params.get('limit')).toBe('100');
+      first.flush([mockOrder], { headers: { 'X-Next-Cursor': 'page-2' } });
+
+      const second = httpMock.expectOne((request) => request.url === apiUrl);
+      expect(second.request.params.get('cursor')).toBe('page-2');
+      second.flush([secondOrder]);
+    });
+  });
+
   describe('getOrderById', () => {
     it('should get a specific order by ID', () => {
       const orderId = 'order-001';
@@ -175,8 +213,8 @@ describe('OrderService', () => {
       };
       const mockOrders: Order[] = [mockOrder];
 
-      service.searchOrders(params).subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.searchOrders(params).subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
       });
 
       const req = httpMock.expectOne((request) => request.url === `${apiUrl}/search`);
@@ -192,13 +230,14 @@ describe('OrderService', () => {
       const params: OrderSearchParams = { q: 'test' };
       const mockOrders: Order[] = [mockOrder];
 
-      service.searchOrders(params).subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.searchOrders(params, 'next').subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
       });
 
       const req = httpMock.expectOne((request) => request.url === `${apiUrl}/search`);
       expect(req.request.params.get('q')).toBe('test');
       expect(req.request.params.get('status')).toBeNull();
+      expect(req.request.params.get('cursor')).toBe('next');
       req.flush(mockOrders);
     });
   });
@@ -231,13 +270,42 @@ describe('OrderService', () => {
     it('should get seller orders', () => {
       const mockOrders: Order[] = [mockOrder];
 
-      service.getSellerOrders().subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.getSellerOrders().subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
+        expect(page.nextCursor).toBe('next');
       });
 
       const req = httpMock.expectOne(`${apiUrl}/seller`);
       expect(req.request.method).toBe('GET');
-      req.flush(mockOrders);
+      req.flush(mockOrders, { headers: { 'X-Next-Cursor': 'next' } });
+    });
+
+    it('should get all seller orders page by page', () => {
+      service.getAllSellerOrders().subscribe((orders) => {
+        expect(orders).toEqual([mockOrder]);
+      });
+
+      const req = httpMock.expectOne((request) => request.url === `${apiUrl}/seller`);
+      expect(req.request.params.get('limit')).toBe('100');
+      req.flush([mockOrder]);
+    });
+
+    it('should get seller stats', () => {
+      const mockStats: SellerOrderStats = {
+        sellerId: 'seller-1',
+        revenue: 59.98,
+        itemsSold: 2,
+        totalOrders: 1,
+        ordersByStatus: { PENDING: 1 },
+      };
+
+      service.getSellerStats().subscribe((stats) => {
+        expect(stats).toEqual(mockStats);
+      });
+
+      const req = httpMock.expectOne(`${apiUrl}/seller/stats`);
+      expect(req.request.method).toBe('GET');
+      req.flush(mockStats);
     });
 
     it('should get seller order by ID', () => {
@@ -270,8 +338,8 @@ describe('OrderService', () => {
       const params: OrderSearchParams = { status: 'PENDING' };
       const mockOrders: Order[] = [mockOrder];
 
-      service.searchSellerOrders(params).subscribe((orders) => {
-        expect(orders).toEqual(mockOrders);
+      service.searchSellerOrders(params).subscribe((page) => {
+        expect(page.items).toEqual(mockOrders);
       });
 
       const req = httpMock.expectOne((request) => request.url === `${apiUrl}/seller/search`);
@@ -1,16 +1,25 @@
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, map, reduce } from 'rxjs/operators';
 import { environment } from '../../environments/environments';
 import {
   CreateOrderRequest,
   Order,
+  OrderPage,
   OrderSearchParams,
   OrderStats,
   OrderStatus,
+  SellerOrderStats,
 } from '../models/order.model';
 import { AuthService } from './auth.service';
 
+// Response header with the cursor of the next page (see OrderController)
+export const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
+// Largest page the order service returns
+export const MAX_ORDER_PAGE_SIZE = 100;
+
 @Injectable({
   providedIn: 'root',
 })
@@ -33,20 +42,24 @@ export class OrderService {
   }
 
   /**
-   * Get current user's orders
+   * Get one page of the current user's orders, newest first
    */
-  getOrders(): Observable<Order[]> {
-    return this.http.get<Order[]>(this.apiUrl, {
-      headers: this.authService.getAuthHeaders(),
-      withCredentials: true,
-    });
+  getOrders(cursor?: string, limit?: number): Observable<OrderPage> {
+    return this.getPage(this.apiUrl, this.pageParams(new HttpParams(), cursor, limit));
   }
 
   /**
    * Alias for getOrders() - kept for backward compatibility
    */
-  getMyOrders(): Observable<Order[]> {
-    return this.getOrders();
+  getMyOrders(cursor?: string, limit?: number): Observable<OrderPage> {
+    return this.getOrders(cursor, limit);
+  }
+
+  /**
+   * Get all of the current user's orders, page by page
+   */
+  getAllOrders(): Observable<Order[]> {
+    return this.getAll((cursor) => this.getOrders(cursor, MAX_ORDER_PAGE_SIZE));
   }
 
   /**
@@ -98,20 +111,13 @@ export class OrderService {
   }
 
   /**
-   * Search orders with filters
+   * Search orders with filters, one page at a time
    */
-  searchOrders(params: OrderSearchParams): Observable<Order[]> {
-    let httpParams = new HttpParams();
-    if (params.q) httpParams = httpParams.set('q', params.q);
-    if (params.status) httpParams = httpParams.set('status', params.status);
-    if (params.dateFrom) httpParams = httpParams.set('dateFrom', params.dateFrom);
-    if (params.dateTo) httpParams = httpParams.set('dateTo', params.dateTo);
-
-    return this.http.get<Order[]>(`${this.apiUrl}/search`, {
-      headers: this.authService.getAuthHeaders(),
-      withCredentials: true,
-      params: httpParams,
-    });
+  searchOrders(params: OrderSearchParams, cursor?: string, limit?: number): Observable<OrderPage> {
+    return this.getPage(
+      `${this.apiUrl}/search`,
+      this.pageParams(this.searchParams(params), cursor, limit),
+    );
   }
 
   /**
@@ -127,10 +133,24 @@ export class OrderService {
   // ========== Seller Endpoints ==========
 
   /**
-   * Get seller's orders (orders containing seller's products)
+   * Get one page of the seller's orders (orders containing seller's products)
    */
-  getSellerOrders(): Observable<Order[]> {
-    return this.http.get<Order[]>(`${this.apiUrl}/seller`, {
+  getSellerOrders(cursor?: string, limit?: number): Observable<OrderPage> {
+    return this.getPage(`${this.apiUrl}/seller`, this.pageParams(new HttpParams(), cursor, limit));
+  }
+
+  /**
+   * Get all of the seller's orders, page by page
+   */
+  getAllSellerOrders(): Observable<Order[]> {
+    return this.getAll((cursor) => this.getSellerOrders(cursor, MAX_ORDER_PAGE_SIZE));
+  }
+
+  /**
+   * Get the seller's dashboard totals over all of their orders
+   */
+  getSellerStats(): Observable<SellerOrderStats> {
+    return this.http.get<SellerOrderStats>(`${this.apiUrl}/seller/stats`, {
       headers: this.authService.getAuthHeaders(),
       withCredentials: true,
     });
@@ -159,19 +179,55 @@ export class OrderService {
   }
 
   /**
-   * Search seller orders with filters
+   * Search seller orders with filters, one page at a time
    */
-  searchSellerOrders(params: OrderSearchParams): Observable<Order[]> {
+  searchSellerOrders(
+    params: OrderSearchParams,
+    cursor?: string,
+    limit?: number,
+  ): Observable<OrderPage> {
+    return this.getPage(
+      `${this.apiUrl}/seller/search`,
+      this.pageParams(this.searchParams(params), cursor, limit),
+    );
+  }
+
+  private getPage(url: string, params: HttpParams): Observable<OrderPage> {
+    return this.http
+      .get<Order[]>(url, {
+        headers: this.authService.getAuthHeaders(),
+        withCredentials: true,
+        params,
+        observe: 'response',
+      })
+      .pipe(
+        map((response) => ({
+          items: response.body ?? [],
+          nextCursor: response.headers.get(NEXT_CURSOR_HEADER),
+        })),
+      );
+  }
+
+  // Follows the cursor until the last page; every request stays bounded
+  private getAll(page: (cursor?: string) => Observable<OrderPage>): Observable<Order[]> {
+    return page().pipe(
+      expand((current) => (current.nextCursor ? page(current.nextCursor) : EMPTY)),
+      reduce((orders: Order[], current) => orders.concat(current.items), []),
+    );
+  }
+
+  private pageParams(params: HttpParams, cursor?: string, limit?: number): HttpParams {
+    if (cursor) params = params.set('cursor', cursor);
+    if (limit) params = params.set('limit', limit);
+    return params;
+  }
+
+  private searchParams(params: OrderSearchParams): HttpParams {
     let httpParams = new HttpParams();
     if (params.q) httpParams = httpParams.set('q', params.q);
     if (params.status) httpParams = httpParams.set('status', params.status);
     if (params.dateFrom) httpParams = httpParams.set('dateFrom', params.dateFrom);
     if (params.dateTo) httpParams = httpParams.set('dateTo', params.dateTo);
-
-    return this.http.get<Order[]>(`${this.apiUrl}/seller/search`, {
-      headers: this.authService.getAuthHeaders(),
-      withCredentials: true,
-      params: httpParams,
-    });
+    return httpParams;
   }
 }
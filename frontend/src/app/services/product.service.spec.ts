@@ -67,24 +67,34 @@ describe('ProductService', () => {
     expect(service).toBeTruthy();
   });
 
-  describe('getAllProducts', () => {
-    it('should fetch all products', () => {
-      service.getAllProducts().subscribe((products) => {
-        expect(products).toEqual(mockProducts);
-        expect(products.length).toBe(3);
+  describe('getProductsPage', () => {
+    it('should fetch the first page without parameters', () => {
+      service.getProductsPage().subscribe((page) => {
+        expect(page.items).toEqual(mockProducts);
+        expect(page.nextCursor).toBe('next');
       });
 
       const req = httpMock.expectOne(`${environment.apiUrl}/products`);
       expect(req.request.method).toBe('GET');
-      req.flush(mockProducts);
+      expect(req.request.params.keys().length).toBe(0);
+      req.flush(mockProducts, { headers: { 'X-Next-Cursor': 'next' } });
     });
 
-    it('should handle empty product list', () => {
-      service.getAllProducts().subscribe((products) => {
-        expect(products).toEqual([]);
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
+    it('should send filters and prefer the cursor over the page number', () => {
+      service
+        .getProductsPage({ category: 'Lips', maxPrice: 30, sort: 'price_asc', page: 2, size: 6, cursor: 'c1' })
+        .subscribe((page) => {
+          expect(page.items).toEqual([]);
+          expect(page.nextCursor).toBeNull();
+        });
+
+      const req = httpMock.expectOne((r) => r.url === `${environment.apiUrl}/products`);
+      expect(req.request.params.get('category')).toBe('Lips');
+      expect(req.request.params.get('maxPrice')).toBe('30');
+      expect(req.request.params.get('sort')).toBe('price_asc');
+      expect(req.request.params.get('cursor')).toBe('c1');
+      expect(req.request.params.has('page')).toBeFalse();
+      expect(req.request.params.get('size')).toBe('6');
       req.flush([]);
     });
   });
@@ -215,108 +225,69 @@ describe('ProductService', () => {
   });
 
   describe('searchProducts', () => {
-    it('should filter products by search query', (done) => {
-      service.searchProducts({ query: 'Lipstick' }).subscribe((result) => {
+    it('should send a text query to the search endpoint', (done) => {
+      service.searchProducts({ query: ' Lipstick ', category: 'Lips', page: 2, limit: 2 }).subscribe((result) => {
         expect(result.products.length).toBe(1);
         expect(result.products[0].name).toBe('Lipstick Red');
-        expect(result.total).toBe(1);
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
-    });
-
-    it('should filter products by category', (done) => {
-      service.searchProducts({ category: 'Eyes' }).subscribe((result) => {
-        expect(result.products.length).toBe(1);
-        expect(result.products[0].category).toBe('Eyes');
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
-    });
-
-    it('should filter products by price range', (done) => {
-      service.searchProducts({ minPrice: 50, maxPrice: 100 }).subscribe((result) => {
-        expect(result.products.length).toBe(1);
-        expect(result.products[0].price).toBe(99.99);
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
-    });
-
-    it('should sort products by price ascending', (done) => {
-      service.searchProducts({ sortBy: 'price_asc' }).subscribe((result) => {
-        expect(result.products[0].price).toBeLessThanOrEqual(result.products[1].price);
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
-    });
-
-    it('should sort products by price descending', (done) => {
-      service.searchProducts({ sortBy: 'price_desc' }).subscribe((result) => {
-        expect(result.products[0].price).toBeGreaterThanOrEqual(result.products[1].price);
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
-    });
-
-    it('should paginate results', (done) => {
-      service.searchProducts({ page: 1, limit: 2 }).subscribe((result) => {
-        expect(result.products.length).toBe(2);
-        expect(result.page).toBe(1);
-        expect(result.totalPages).toBe(2);
+        expect(result.page).toBe(2);
         expect(result.total).toBe(3);
+        expect(result.totalPages).toBe(2);
+        expect(result.nextCursor).toBeNull();
         done();
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
+      const req = httpMock.expectOne((r) => r.url === `${environment.apiUrl}/products/search`);
+      expect(req.request.params.get('q')).toBe('Lipstick');
+      expect(req.request.params.get('category')).toBe('Lips');
+      expect(req.request.params.get('page')).toBe('1');
+      expect(req.request.params.get('size')).toBe('2');
+      req.flush({ items: [mockProducts[2]], total: 3, categories: { Lips: 3 } });
     });
 
-    it('should return second page of results', (done) => {
-      service.searchProducts({ page: 2, limit: 2 }).subscribe((result) => {
-        expect(result.products.length).toBe(1);
-        expect(result.page).toBe(2);
-        done();
-      });
-
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
+    it('should page the catalog with filters and sort', (done) => {
+      service
+        .searchProducts({ category: 'Eyes', minPrice: 50, maxPrice: 100, sortBy: 'name', limit: 2 })
+        .subscribe((result) => {
+          expect(result.products).toEqual([mockProducts[1]]);
+          expect(result.page).toBe(1);
+          expect(result.nextCursor).toBe('next');
+          expect(result.total).toBeUndefined();
+          done();
+        });
+
+      const req = httpMock.expectOne((r) => r.url === `${environment.apiUrl}/products`);
+      expect(req.request.params.get('category')).toBe('Eyes');
+      expect(req.request.params.get('minPrice')).toBe('50');
+      expect(req.request.params.get('maxPrice')).toBe('100');
+      expect(req.request.params.get('sort')).toBe('name_asc');
+      expect(req.request.params.has('page')).toBeFalse();
+      expect(req.request.params.get('size')).toBe('2');
+      req.flush([mockProducts[1]], { headers: { 'X-Next-Cursor': 'next' } });
     });
 
-    it('should combine multiple filters', (done) => {
-      service.searchProducts({ 
-        category: 'Lips',
-        minPrice: 20,
-        sortBy: 'price_asc'
-      }).subscribe((result) => {
+    it('should continue from the cursor of the previous page', (done) => {
+      service.searchProducts({ page: 2, limit: 2, cursor: 'next' }).subscribe((result) => {
         expect(result.products.length).toBe(1);
-        expect(result.products[0].category).toBe('Lips');
+        expect(result.page).toBe(2);
+        expect(result.nextCursor).toBeNull();
         done();
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
+      const req = httpMock.expectOne((r) => r.url === `${environment.apiUrl}/products`);
+      expect(req.request.params.get('cursor')).toBe('next');
+      expect(req.request.params.has('page')).toBeFalse();
+      req.flush([mockProducts[2]]);
     });
 
-    it('should return empty array when no matches', (done) => {
-      service.searchProducts({ query: 'nonexistent' }).subscribe((result) => {
-        expect(result.products.length).toBe(0);
-        expect(result.total).toBe(0);
+    it('should address a page by number without a cursor', (done) => {
+      service.searchProducts({ page: 3, limit: 2 }).subscribe((result) => {
+        expect(result.page).toBe(3);
         done();
       });
 
-      const req = httpMock.expectOne(`${environment.apiUrl}/products`);
-      req.flush(mockProducts);
+      const req = httpMock.expectOne((r) => r.url === `${environment.apiUrl}/products`);
+      expect(req.request.params.get('page')).toBe('2');
+      req.flush([]);
     });
   });
 
@@ -1,4 +1,4 @@
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { map, Observable } from 'rxjs';
 import { environment } from '../../environments/environments';
@@ -13,15 +13,44 @@ export interface ProductSearchParams {
   sortBy?: 'price_asc' | 'price_desc' | 'name' | 'newest';
   page?: number;
   limit?: number;
+  // Cursor of the requested page, as returned with the previous one
+  cursor?: string;
 }
 
 export interface ProductSearchResult {
   products: Product[];
-  total: number;
   page: number;
-  totalPages: number;
+  // Cursor of the following page; null on the last page and for text searches
+  nextCursor: string | null;
+  // Only known for text searches; the catalog listing is not counted
+  total?: number;
+  totalPages?: number;
+}
+
+export interface ProductPage {
+  items: Product[];
+  nextCursor: string | null;
+}
+
+export interface ProductPageParams {
+  category?: ProductCategory;
+  minPrice?: number;
+  maxPrice?: number;
+  sort?: 'newest' | 'price_asc' | 'price_desc' | 'name_asc';
+  page?: number;
+  size?: number;
+  cursor?: string;
 }
 
+interface ProductSearchResponse {
+  items: Product[];
+  total: number;
+  categories: Record<string, number>;
+}
+
+// Response header with the cursor of the next page (see ProductController)
+export const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
 @Injectable({
   providedIn: 'root',
 })
@@ -30,76 +59,68 @@ export class ProductService {
 
   constructor(private http: HttpClient, private authService: AuthService) {}
 
-  getAllProducts(): Observable<Product[]> {
-    return this.http.get<Product[]>(this.apiUrl);
+  /**
+   * Get one page of the catalog; page is zero-based and ignored when a cursor is given
+   */
+  getProductsPage(params: ProductPageParams = {}): Observable<ProductPage> {
+    let httpParams = new HttpParams();
+    if (params.category) httpParams = httpParams.set('category', params.category);
+    if (params.minPrice !== undefined) httpParams = httpParams.set('minPrice', params.minPrice);
+    if (params.maxPrice !== undefined) httpParams = httpParams.set('maxPrice', params.maxPrice);
+    if (params.sort) httpParams = httpParams.set('sort', params.sort);
+    if (params.cursor) {
+      httpParams = httpParams.set('cursor', params.cursor);
+    } else if (params.page) {
+      httpParams = httpParams.set('page', params.page);
+    }
+    if (params.size) httpParams = httpParams.set('size', params.size);
+
+    return this.http.get<Product[]>(this.apiUrl, { params: httpParams, observe: 'response' }).pipe(
+      map((response) => ({
+        items: response.body ?? [],
+        nextCursor: response.headers.get(NEXT_CURSOR_HEADER),
+      })),
+    );
   }
 
   /**
-   * Search and filter products with pagination
-   * Note: Currently filtering is done client-side until backend search endpoint is added
+   * Search and filter products with pagination (page is one-based).
+   * A text query goes to the full-text search, ranked by relevance and
+   * filtered by category only; anything else pages through the catalog.
    */
   searchProducts(params: ProductSearchParams): Observable<ProductSearchResult> {
-    return this.getAllProducts().pipe(
-      map(products => {
-        let filtered = [...products];
-
-        // Text search
-        if (params.query?.trim()) {
-          const query = params.query.toLowerCase();
-          filtered = filtered.filter(p =>
-            p.name.toLowerCase().includes(query) ||
-            p.description.toLowerCase().includes(query)
-          );
-        }
-
-        // Category filter
-        if (params.category) {
-          filtered = filtered.filter(p => p.category === params.category);
-        }
-
-        // Price range filter
-        if (params.minPrice !== undefined) {
-          filtered = filtered.filter(p => p.price >= params.minPrice!);
-        }
-        if (params.maxPrice !== undefined) {
-          filtered = filtered.filter(p => p.price <= params.maxPrice!);
-        }
-
-        // Sorting
-        if (params.sortBy) {
-          switch (params.sortBy) {
-            case 'price_asc':
-              filtered.sort((a, b) => a.price - b.price);
-              break;
-            case 'price_desc':
-              filtered.sort((a, b) => b.price - a.price);
-              break;
-            case 'name':
-              filtered.sort((a, b) => a.name.localeCompare(b.name));
-              break;
-            case 'newest':
-              // Assuming newer products have higher/later IDs
-              filtered.reverse();
-              break;
-          }
-        }
-
-        // Pagination
-        const page = params.page || 1;
-        const limit = params.limit || 6;
-        const total = filtered.length;
-        const totalPages = Math.ceil(total / limit);
-        const start = (page - 1) * limit;
-        const paginatedProducts = filtered.slice(start, start + limit);
-
-        return {
-          products: paginatedProducts,
-          total,
-          page,
-          totalPages
-        };
-      })
-    );
+    const page = params.page || 1;
+    const limit = params.limit || 6;
+
+    if (params.query?.trim()) {
+      let httpParams = new HttpParams()
+        .set('q', params.query.trim())
+        .set('page', page - 1)
+        .set('size', limit);
+      if (params.category) httpParams = httpParams.set('category', params.category);
+
+      return this.http
+        .get<ProductSearchResponse>(`${this.apiUrl}/search`, { params: httpParams })
+        .pipe(
+          map((result) => ({
+            products: result.items,
+            page,
+            nextCursor: null,
+            total: result.total,
+            totalPages: Math.ceil(result.total / limit),
+          })),
+        );
+    }
+
+    return this.getProductsPage({
+      category: params.category,
+      minPrice: params.minPrice,
+      maxPrice: params.maxPrice,
+      sort: params.sortBy === 'name' ? 'name_asc' : params.sortBy,
+      page: params.cursor ? undefined : page - 1,
+      size: limit,
+      cursor: params.cursor,
+    }).pipe(map((result) => ({ products: result.items, page, nextCursor: result.nextCursor })));
   }
 
   /**